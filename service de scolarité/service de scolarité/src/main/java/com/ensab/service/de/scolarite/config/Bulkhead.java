@@ -0,0 +1,84 @@
+package com.ensab.service.de.scolarite.config;
+
+import com.ensab.service.de.scolarite.dto.bulkhead.BulkheadStatsDTO;
+import com.ensab.service.de.scolarite.exception.ServiceUnavailableException;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Semaphore bulkhead for work that does not run on a pool of its own (e.g. PDF bodies written by the MVC async
+ * executor). A caller waits at most maxWaitMs for a permit, then gets a 503 with Retry-After.
+ */
+public class Bulkhead {
+
+    private final String nom;
+    private final int permits;
+    private final int maxAttente;
+    private final long maxWaitMs;
+    private final long retryAfterSeconds;
+    private final Semaphore semaphore;
+    private final AtomicInteger enAttente = new AtomicInteger();
+    private final AtomicLong traites = new AtomicLong();
+    private final AtomicLong rejets = new AtomicLong();
+
+    public Bulkhead(String nom, int permits, int maxAttente, long maxWaitMs, long retryAfterSeconds) {
+        this.nom = nom;
+        this.permits = permits;
+        this.maxAttente = maxAttente;
+        this.maxWaitMs = maxWaitMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.semaphore = new Semaphore(permits, true);
+    }
+
+    // A permit taken on one thread may be released from several places (body, async timeout, completion):
+    // only the first release counts
+    public final class Permis {
+        private final AtomicBoolean libere = new AtomicBoolean();
+
+        public void liberer() {
+            if (libere.compareAndSet(false, true)) {
+                traites.incrementAndGet();
+                semaphore.release();
+            }
+        }
+    }
+
+    public Permis acquerir() {
+        if (enAttente.incrementAndGet() > maxAttente) {
+            enAttente.decrementAndGet();
+            throw rejet();
+        }
+        try {
+            if (!semaphore.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+                throw rejet();
+            }
+            return new Permis();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw rejet();
+        } finally {
+            enAttente.decrementAndGet();
+        }
+    }
+
+    public BulkheadStatsDTO getStats() {
+        final BulkheadStatsDTO dto = new BulkheadStatsDTO();
+        dto.setNom(nom);
+        dto.setLimite(permits);
+        dto.setActifs(permits - semaphore.availablePermits());
+        dto.setEnAttente(enAttente.get());
+        dto.setCapacite(maxAttente);
+        dto.setTraites(traites.get());
+        dto.setRejets(rejets.get());
+        return dto;
+    }
+
+    private ServiceUnavailableException rejet() {
+        rejets.incrementAndGet();
+        return new ServiceUnavailableException("Capacité atteinte pour " + nom + ", veuillez réessayer.", retryAfterSeconds);
+    }
+}
@@ -0,0 +1,129 @@
+package com.ensab.service.de.scolarite.config;
+
+import com.ensab.service.de.scolarite.dto.bulkhead.BulkheadStatsDTO;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connection quota of a group of background threads, recognised by their name prefix. A thread of the group needs
+ * a permit before it gets a pooled connection and gives it back when its last connection is closed, so the group
+ * never holds more than its share of the Hikari pool, however many threads it runs.
+ * Further connections opened by a thread that already holds a permit do not take another one: waiting for a second
+ * permit while holding the first could deadlock the group.
+ */
+public class ConnexionQuota {
+
+    @FunctionalInterface
+    public interface Ouverture {
+        Connection ouvrir() throws SQLException;
+    }
+
+    private final String nom;
+    private final List<String> prefixes;
+    private final int permits;
+    private final long maxWaitMs;
+    private final Semaphore semaphore;
+    private final ThreadLocal<AtomicInteger> ouvertes = ThreadLocal.withInitial(AtomicInteger::new);
+    private final AtomicInteger enAttente = new AtomicInteger();
+    private final AtomicLong traites = new AtomicLong();
+    private final AtomicLong rejets = new AtomicLong();
+
+    public ConnexionQuota(String nom, List<String> prefixes, int permits, long maxWaitMs) {
+        this.nom = nom;
+        this.prefixes = prefixes;
+        this.permits = permits;
+        this.maxWaitMs = maxWaitMs;
+        this.semaphore = new Semaphore(permits, true);
+    }
+
+    public boolean concerne(final Thread thread) {
+        final String nomThread = thread.getName();
+        return prefixes.stream().anyMatch(nomThread::startsWith);
+    }
+
+    public int getPermits() {
+        return permits;
+    }
+
+    public Connection ouvrir(final Ouverture ouverture) throws SQLException {
+        // Counter of the opening thread, captured so that a close from another thread still updates it
+        final AtomicInteger compteur = ouvertes.get();
+        if (compteur.getAndIncrement() == 0) {
+            try {
+                attendre();
+            } catch (SQLException | RuntimeException e) {
+                compteur.decrementAndGet();
+                throw e;
+            }
+        }
+        final Connection connection;
+        try {
+            connection = ouverture.ouvrir();
+        } catch (SQLException | RuntimeException e) {
+            fermer(compteur);
+            throw e;
+        }
+        final AtomicBoolean fermee = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, methode, arguments) -> {
+                    if (methode.getName().equals("close") && fermee.compareAndSet(false, true)) {
+                        try {
+                            connection.close();
+                        } finally {
+                            fermer(compteur);
+                        }
+                        return null;
+                    }
+                    try {
+                        return methode.invoke(connection, arguments);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    public BulkheadStatsDTO getStats() {
+        final BulkheadStatsDTO dto = new BulkheadStatsDTO();
+        dto.setNom(nom);
+        dto.setLimite(permits);
+        dto.setActifs(permits - semaphore.availablePermits());
+        dto.setEnAttente(enAttente.get());
+        dto.setTraites(traites.get());
+        dto.setRejets(rejets.get());
+        dto.setConnexions(permits);
+        return dto;
+    }
+
+    private void attendre() throws SQLException {
+        enAttente.incrementAndGet();
+        try {
+            if (!semaphore.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+                rejets.incrementAndGet();
+                throw new SQLTransientConnectionException(
+                        "Quota de connexions " + nom + " atteint après " + maxWaitMs + " ms.");
+            }
+            traites.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Attente du quota de connexions " + nom + " interrompue.", e);
+        } finally {
+            enAttente.decrementAndGet();
+        }
+    }
+
+    private void fermer(final AtomicInteger compteur) {
+        if (compteur.decrementAndGet() == 0) {
+            semaphore.release();
+        }
+    }
+}
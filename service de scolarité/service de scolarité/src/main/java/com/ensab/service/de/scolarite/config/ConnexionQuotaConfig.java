@@ -0,0 +1,58 @@
+package com.ensab.service.de.scolarite.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Connection quotas of the background thread groups (see ConnexionQuota). Whatever they and the DB pools of
+ * ExecutorConfig leave in the Hikari pool is what the Tomcat request threads can always get.
+ */
+@Configuration
+public class ConnexionQuotaConfig {
+
+    // Bulk jobs, cohort document batches, leased jobs, outbox / notification / webhook relays, the cache and SSE pollers
+    @Bean(name = "arrierePlanQuota")
+    public ConnexionQuota arrierePlanQuota(
+            @Value("${bulkhead.connexions.arriere-plan:4}") int permits,
+            @Value("${spring.datasource.hikari.connection-timeout:30000}") long maxWaitMs) {
+        return new ConnexionQuota("connexions-arriere-plan",
+                List.of("bulk-", "document-batch-", "job-", "evenement-", "notification-", "webhook-", "cache-", "sse-"),
+                permits, maxWaitMs);
+    }
+
+    // Short writes that must not wait behind a purge or a batch: the audit writer (requests park on its buffer when
+    // it falls behind) and the job lease renewal (a late renewal loses the lease of a running job)
+    @Bean(name = "systemeQuota")
+    public ConnexionQuota systemeQuota(
+            @Value("${bulkhead.connexions.systeme:2}") int permits,
+            @Value("${spring.datasource.hikari.connection-timeout:30000}") long maxWaitMs) {
+        return new ConnexionQuota("connexions-systeme", List.of("audit-writer", "bail-"), permits, maxWaitMs);
+    }
+
+    // MVC async bodies: CSV exports and the other streamed responses
+    @Bean(name = "streamingQuota")
+    public ConnexionQuota streamingQuota(
+            @Value("${bulkhead.connexions.streaming:4}") int permits,
+            @Value("${spring.datasource.hikari.connection-timeout:30000}") long maxWaitMs) {
+        return new ConnexionQuota("connexions-streaming", List.of("streaming-"), permits, maxWaitMs);
+    }
+
+    @Bean
+    public static BeanPostProcessor quotaDataSourcePostProcessor(ObjectProvider<ConnexionQuota> quotas) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof QuotaDataSource)) {
+                    return new QuotaDataSource(dataSource, quotas.orderedStream().toList());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,243 @@
+package com.ensab.service.de.scolarite.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Thread pools of the application; the size of each pool is what bounds DB concurrency for its path.
+ * With spring.threads.virtual.enabled on a Java 21+ runtime, Tomcat request threads, {@code @Async} tasks and
+ * document rendering run on virtual threads. The last two keep their pool size: their threads become virtual,
+ * their DB concurrency stays bounded.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorConfig.class);
+
+    // Executor of @Async methods. Defined explicitly: the named executors below would otherwise make Spring
+    // fall back to an unbounded thread-per-task executor.
+    @Bean(name = "taskExecutor")
+    public ThreadPoolTaskExecutor taskExecutor(
+            Environment environment,
+            @Value("${async.pool-size:8}") int poolSize,
+            @Value("${async.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("async-");
+        executor.setRejectedExecutionHandler(new RejectionCounter(new ThreadPoolExecutor.CallerRunsPolicy()));
+        virtuel(executor, environment);
+        executor.initialize();
+        return executor;
+    }
+
+    // Bounded pool for cohort document batches: the queue is sized by the batch chunk,
+    // and a full queue makes the submitting (streaming) thread render itself.
+    @Bean(name = "documentBatchExecutor")
+    public ThreadPoolTaskExecutor documentBatchExecutor(
+            Environment environment,
+            @Value("${document.batch.parallelism:4}") int parallelism,
+            @Value("${document.batch.chunk-size:32}") int chunkSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(chunkSize);
+        executor.setThreadNamePrefix("document-batch-");
+        executor.setRejectedExecutionHandler(new RejectionCounter(new ThreadPoolExecutor.CallerRunsPolicy()));
+        virtuel(executor, environment);
+        executor.initialize();
+        return executor;
+    }
+
+    // Fixed set of DB writers behind a bounded FIFO queue for student write bursts;
+    // a full queue rejects immediately so the caller can answer 503 instead of piling up connections.
+    @Bean(name = "admissionExecutor")
+    public ThreadPoolTaskExecutor admissionExecutor(
+            @Value("${admission.writers:8}") int writers,
+            @Value("${admission.queue-capacity:500}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(writers);
+        executor.setMaxPoolSize(writers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("admission-");
+        executor.setRejectedExecutionHandler(new RejectionCounter(new ThreadPoolExecutor.AbortPolicy()));
+        executor.initialize();
+        return executor;
+    }
+
+    // Fixed set of readers for the student read endpoints; requests wait as async servlet contexts in the queue,
+    // and a full queue answers 503 instead of holding Tomcat threads.
+    @Bean(name = "studentReadExecutor")
+    public ThreadPoolTaskExecutor studentReadExecutor(
+            @Value("${lecture.readers:8}") int readers,
+            @Value("${lecture.queue-capacity:2000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(readers);
+        executor.setMaxPoolSize(readers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("student-read-");
+        executor.setRejectedExecutionHandler(new RejectionCounter(new ThreadPoolExecutor.AbortPolicy()));
+        executor.initialize();
+        return executor;
+    }
+
+    // Executor of MVC async bodies (PDF, ZIP and CSV streams). Single PDFs are gated by the rendering bulkhead
+    // before they get here; when the pool is full anyway the request thread writes the body itself.
+    @Bean(name = "mvcAsyncExecutor")
+    public ThreadPoolTaskExecutor mvcAsyncExecutor(
+            @Value("${streaming.pool-size:16}") int poolSize,
+            @Value("${streaming.queue-capacity:16}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("streaming-");
+        executor.setRejectedExecutionHandler(new RejectionCounter(new ThreadPoolExecutor.CallerRunsPolicy()));
+        executor.initialize();
+        return executor;
+    }
+
+    // Concurrent single-document renders (GET /api/admin/demandes/{id}/pdf)
+    @Bean(name = "renderBulkhead")
+    public Bulkhead renderBulkhead(
+            @Value("${rendu.max-concurrent:4}") int maxConcurrent,
+            @Value("${rendu.max-attente:50}") int maxAttente,
+            @Value("${rendu.max-wait-ms:500}") long maxWaitMs,
+            @Value("${rendu.retry-after-seconds:2}") long retryAfterSeconds) {
+        return new Bulkhead("rendu", maxConcurrent, maxAttente, maxWaitMs, retryAfterSeconds);
+    }
+
+    // Background bulk jobs (cohort purges): a single worker by default so that two jobs never
+    // compete for the same hot tables; the short queue rejects instead of stacking jobs.
+    @Bean(name = "bulkExecutor")
+    public ThreadPoolTaskExecutor bulkExecutor(
+            @Value("${bulk.parallelism:1}") int parallelism,
+            @Value("${bulk.queue-capacity:4}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("bulk-");
+        executor.setRejectedExecutionHandler(new RejectionCounter(new ThreadPoolExecutor.AbortPolicy()));
+        executor.initialize();
+        return executor;
+    }
+
+    // Single thread flushing the payment webhook queue in batches
+    @Bean(name = "webhookScheduler")
+    public ThreadPoolTaskScheduler webhookScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("webhook-");
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    // Single relay thread dispatching outbox events to the listeners, one batch at a time
+    @Bean(name = "evenementScheduler")
+    public ThreadPoolTaskScheduler evenementScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("evenement-");
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    // Heartbeats of the student SSE connections and the outbox poll that feeds them
+    @Bean(name = "sseScheduler")
+    public ThreadPoolTaskScheduler sseScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("sse-");
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    // Writes of the SSE streams, so that a client that does not read blocks one sender, not the outbox relay.
+    // The queue holds at most one drain per open connection.
+    @Bean(name = "sseExecutor")
+    public ThreadPoolTaskExecutor sseExecutor(@Value("${sse.senders:4}") int senders) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(senders);
+        executor.setMaxPoolSize(senders);
+        executor.setThreadNamePrefix("sse-send-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Single sender thread for the email notifications: one SMTP connection per batch, within the per-minute cap
+    @Bean(name = "notificationScheduler")
+    public ThreadPoolTaskScheduler notificationScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("notification-");
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    // Polls the cache invalidation log and runs the evictions
+    @Bean(name = "cacheScheduler")
+    public ThreadPoolTaskScheduler cacheScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("cache-");
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    // Sweeps the idle rate-limit counters
+    @Bean(name = "rateLimitScheduler")
+    public ThreadPoolTaskScheduler rateLimitScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("rate-limit-");
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    // Leased background jobs: one thread more than the running jobs, so that the tick never waits behind a long run.
+    // On shutdown, running jobs get a lease period to store their checkpoint.
+    @Bean(name = "jobScheduler")
+    public ThreadPoolTaskScheduler jobScheduler(
+            @Value("${jobs.parallelism:2}") int parallelism,
+            @Value("${jobs.lease-seconds:30}") int leaseSeconds) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(parallelism + 1);
+        scheduler.setThreadNamePrefix("job-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(leaseSeconds);
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    // Renews the leases of the running jobs; its own thread (and connection quota) so that it never waits behind them
+    @Bean(name = "bailScheduler")
+    public ThreadPoolTaskScheduler bailScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("bail-");
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    // Named like the platform threads, so the connection quotas still recognise them by prefix
+    private void virtuel(ThreadPoolTaskExecutor executor, Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            executor.setThreadFactory(new VirtualThreadTaskExecutor(executor.getThreadNamePrefix()).getVirtualThreadFactory());
+        } else if (environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+            logger.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; {} stays on platform threads.",
+                    Runtime.version().feature(), executor.getThreadNamePrefix());
+        }
+    }
+}
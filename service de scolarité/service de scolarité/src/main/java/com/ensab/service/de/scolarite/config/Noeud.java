@@ -0,0 +1,21 @@
+package com.ensab.service.de.scolarite.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+// Identity of this instance in the shared tables (cache invalidation log, job leases)
+@Component
+public class Noeud {
+
+    private final String id;
+
+    public Noeud(@Value("${noeud.id:}") String id) {
+        this.id = id.isBlank() ? UUID.randomUUID().toString() : id;
+    }
+
+    public String getId() {
+        return id;
+    }
+}
@@ -0,0 +1,43 @@
+package com.ensab.service.de.scolarite.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+// Hands out the pooled connections through the connection quota of the calling thread, if it belongs to one
+public class QuotaDataSource extends DelegatingDataSource {
+
+    private final List<ConnexionQuota> quotas;
+
+    public QuotaDataSource(DataSource dataSource, List<ConnexionQuota> quotas) {
+        super(dataSource);
+        this.quotas = quotas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        final ConnexionQuota quota = quota();
+        return quota == null ? obtainTargetDataSource().getConnection() : quota.ouvrir(obtainTargetDataSource()::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        final ConnexionQuota quota = quota();
+        return quota == null
+                ? obtainTargetDataSource().getConnection(username, password)
+                : quota.ouvrir(() -> obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private ConnexionQuota quota() {
+        final Thread thread = Thread.currentThread();
+        for (ConnexionQuota quota : quotas) {
+            if (quota.concerne(thread)) {
+                return quota;
+            }
+        }
+        return null;
+    }
+}
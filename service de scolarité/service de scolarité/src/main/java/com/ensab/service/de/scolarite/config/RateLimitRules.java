@@ -0,0 +1,38 @@
+package com.ensab.service.de.scolarite.config;
+
+import org.springframework.util.AntPathMatcher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ordered rate-limit rules by route pattern, declared in SecurityConfig next to the route authorizations.
+ * The first rule matching the method and path applies; a null method matches every method.
+ */
+public class RateLimitRules {
+
+    public record Regle(String id, String methode, String pattern, int limite, Duration fenetre) {
+    }
+
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final List<Regle> regles = new ArrayList<>();
+
+    public RateLimitRules regle(String methode, String pattern, int limite, Duration fenetre) {
+        regles.add(new Regle((methode == null ? "*" : methode) + " " + pattern, methode, pattern, limite, fenetre));
+        return this;
+    }
+
+    public Regle trouver(String methode, String chemin) {
+        for (Regle regle : regles) {
+            if ((regle.methode() == null || regle.methode().equalsIgnoreCase(methode)) && matcher.match(regle.pattern(), chemin)) {
+                return regle;
+            }
+        }
+        return null;
+    }
+
+    public List<Regle> getRegles() {
+        return List.copyOf(regles);
+    }
+}
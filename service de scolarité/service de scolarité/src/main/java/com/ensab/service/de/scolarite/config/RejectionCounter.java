@@ -0,0 +1,26 @@
+package com.ensab.service.de.scolarite.config;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Counts the tasks a saturated pool hands to its rejection policy, for the bulkhead stats
+public class RejectionCounter implements RejectedExecutionHandler {
+
+    private final RejectedExecutionHandler delegate;
+    private final AtomicLong count = new AtomicLong();
+
+    public RejectionCounter(RejectedExecutionHandler delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+        count.incrementAndGet();
+        delegate.rejectedExecution(task, executor);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+}
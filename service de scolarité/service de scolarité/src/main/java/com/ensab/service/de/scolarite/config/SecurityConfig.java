@@ -2,6 +2,7 @@ package com.ensab.service.de.scolarite.config;
 
 import com.ensab.service.de.scolarite.filter.JwtRequestFilter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -14,6 +15,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
@@ -33,6 +36,22 @@ public class SecurityConfig {
         return configuration.getAuthenticationManager();
     }
 
+    // Rate limits per principal (or client address when anonymous) and route; the first matching rule applies
+    @Bean
+    public RateLimitRules rateLimitRules(
+            @Value("${rate-limit.auth-par-minute:10}") int auth,
+            @Value("${rate-limit.notes-par-minute:12}") int notes,
+            @Value("${rate-limit.reclamations-par-heure:5}") int reclamations,
+            @Value("${rate-limit.etudiant-lecture-par-minute:120}") int lectures,
+            @Value("${rate-limit.etudiant-ecriture-par-minute:20}") int ecritures) {
+        return new RateLimitRules()
+                .regle("POST", "/api/auth/**", auth, Duration.ofMinutes(1))
+                .regle("GET", "/api/etudiant/notes", notes, Duration.ofMinutes(1))
+                .regle("POST", "/api/etudiant/reclamations", reclamations, Duration.ofHours(1))
+                .regle("GET", "/api/etudiant/**", lectures, Duration.ofMinutes(1))
+                .regle(null, "/api/etudiant/**", ecritures, Duration.ofMinutes(1));
+    }
+
     // Security Filter Chain
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
@@ -0,0 +1,45 @@
+package com.ensab.service.de.scolarite.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Async timeout of the long streamed bodies (cohort ZIP, CSV export). spring.mvc.async.request-timeout is sized for
+ * a single PDF; a longer stream cut by it after the headers are sent leaves the client with a corrupt file.
+ * 0 means no timeout.
+ */
+@Component
+public class StreamingTimeout {
+
+    private final long timeoutMs;
+
+    public StreamingTimeout(@Value("${streaming.long-timeout-ms:3600000}") long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    // To call from the handler returning the body: the timeout is set just before the async processing starts
+    public void appliquer() {
+        final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return;
+        }
+        WebAsyncUtils.getAsyncManager(servletAttributes.getRequest()).registerCallableInterceptor(StreamingTimeout.class,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                        if (request instanceof AsyncWebRequest asyncRequest) {
+                            asyncRequest.setTimeout(timeoutMs);
+                        }
+                    }
+                });
+    }
+}
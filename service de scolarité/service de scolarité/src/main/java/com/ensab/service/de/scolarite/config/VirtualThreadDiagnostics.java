@@ -0,0 +1,72 @@
+package com.ensab.service.de.scolarite.config;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * Pinning diagnostics for the virtual-thread mode: a virtual thread that blocks inside a synchronized block
+ * (JDBC driver, PDF renderer) holds its carrier thread. The JFR jdk.VirtualThreadPinned events above the threshold
+ * are logged with the top of their stack, so the offending monitor can be found without attaching a profiler.
+ */
+@Component
+public class VirtualThreadDiagnostics {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadDiagnostics.class);
+
+    private static final int FRAMES = 8;
+
+    @Value("${virtual-threads.pinning-threshold-ms:20}")
+    private long thresholdMs;
+
+    private final Environment environment;
+
+    private RecordingStream stream;
+
+    public VirtualThreadDiagnostics(Environment environment) {
+        this.environment = environment;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!Threading.VIRTUAL.isActive(environment)) {
+            logger.info("Execution mode: platform threads (Java {}).", Runtime.version().feature());
+            return;
+        }
+        logger.info("Execution mode: virtual threads (Java {}), logging pinning above {} ms.",
+                Runtime.version().feature(), thresholdMs);
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", event -> {
+            final String frames = event.getStackTrace() == null ? "" : event.getStackTrace().getFrames().stream()
+                    .limit(FRAMES)
+                    .map(this::format)
+                    .collect(Collectors.joining("\n\tat ", "\n\tat ", ""));
+            logger.warn("Virtual thread pinned for {} ms on {}{}", event.getDuration().toMillis(),
+                    event.getThread() == null ? "?" : event.getThread().getJavaName(), frames);
+        });
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private String format(final RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
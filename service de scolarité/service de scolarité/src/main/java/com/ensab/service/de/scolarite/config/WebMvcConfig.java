@@ -0,0 +1,34 @@
+package com.ensab.service.de.scolarite.config;
+
+import com.ensab.service.de.scolarite.filter.RateLimitInterceptor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final ThreadPoolTaskExecutor mvcAsyncExecutor;
+    private final RateLimitInterceptor rateLimitInterceptor;
+
+    public WebMvcConfig(@Qualifier("mvcAsyncExecutor") ThreadPoolTaskExecutor mvcAsyncExecutor,
+                        RateLimitInterceptor rateLimitInterceptor) {
+        this.mvcAsyncExecutor = mvcAsyncExecutor;
+        this.rateLimitInterceptor = rateLimitInterceptor;
+    }
+
+    // Streaming bodies get their own bounded pool instead of a thread per response
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcAsyncExecutor);
+    }
+
+    // Limits themselves are declared per route in SecurityConfig
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(rateLimitInterceptor).addPathPatterns("/api/**");
+    }
+}
@@ -1,30 +1,71 @@
 package com.ensab.service.de.scolarite.controller;
 
+import com.ensab.service.de.scolarite.config.StreamingTimeout;
 import com.ensab.service.de.scolarite.dto.admin.AdminRequestDTO;
 import com.ensab.service.de.scolarite.dto.admin.AdminResponseDTO;
+import com.ensab.service.de.scolarite.dto.admission.AdmissionStatsDTO;
+import com.ensab.service.de.scolarite.dto.archivage.ArchivageReportDTO;
+import com.ensab.service.de.scolarite.dto.audit.AuditDTO;
+import com.ensab.service.de.scolarite.dto.audit.AuditStatsDTO;
+import com.ensab.service.de.scolarite.dto.bulkhead.BulkheadStatsDTO;
+import com.ensab.service.de.scolarite.dto.cache.CacheCoherenceStatsDTO;
 import com.ensab.service.de.scolarite.dto.demande.DemandeRequestDTO;
+import com.ensab.service.de.scolarite.dto.analytics.AnalyticsQueryDTO;
+import com.ensab.service.de.scolarite.dto.analytics.AnalyticsResultDTO;
+import com.ensab.service.de.scolarite.dto.deliberation.DeliberationRequestDTO;
+import com.ensab.service.de.scolarite.dto.deliberation.DeliberationSummaryDTO;
+import com.ensab.service.de.scolarite.dto.deliberation.ResultatDeliberationDTO;
 import com.ensab.service.de.scolarite.dto.demande.DemandeResponseDTO;
+import com.ensab.service.de.scolarite.dto.document.DocumentBatchRequestDTO;
+import com.ensab.service.de.scolarite.dto.document.DocumentBatchStatusDTO;
+import com.ensab.service.de.scolarite.dto.echeancier.EcheancierRequestDTO;
+import com.ensab.service.de.scolarite.dto.echeancier.EcheancierResponseDTO;
+import com.ensab.service.de.scolarite.dto.echeancier.GenerationEcheancierDTO;
 import com.ensab.service.de.scolarite.dto.etudiant.EtudiantRequestDTO;
 import com.ensab.service.de.scolarite.dto.etudiant.EtudiantResponseDTO;
+import com.ensab.service.de.scolarite.dto.evenement.EvenementDTO;
 import com.ensab.service.de.scolarite.dto.inscription.InscriptionRequestDTO;
 import com.ensab.service.de.scolarite.dto.inscription.InscriptionResponseDTO;
+import com.ensab.service.de.scolarite.dto.job.JobExecutionDTO;
+import com.ensab.service.de.scolarite.dto.job.JobStatutDTO;
+import com.ensab.service.de.scolarite.dto.moyenne.ClassementDTO;
+import com.ensab.service.de.scolarite.dto.moyenne.MoyenneEtudiantDTO;
 import com.ensab.service.de.scolarite.dto.note.NoteRequestDTO;
 import com.ensab.service.de.scolarite.dto.note.NoteResponseDTO;
+import com.ensab.service.de.scolarite.dto.notification.NotificationDTO;
 import com.ensab.service.de.scolarite.dto.paiement.PaiementRequestDTO;
 import com.ensab.service.de.scolarite.dto.paiement.PaiementResponseDTO;
+import com.ensab.service.de.scolarite.dto.passage.PassageAnnuelReportDTO;
+import com.ensab.service.de.scolarite.dto.passage.PassageAnnuelRequestDTO;
+import com.ensab.service.de.scolarite.dto.purge.PurgeRequestDTO;
+import com.ensab.service.de.scolarite.dto.purge.PurgeStatusDTO;
+import com.ensab.service.de.scolarite.dto.quota.QuotaRequestDTO;
+import com.ensab.service.de.scolarite.dto.quota.QuotaResponseDTO;
+import com.ensab.service.de.scolarite.dto.rapport.RapportPaiementDTO;
+import com.ensab.service.de.scolarite.dto.ratelimit.RateLimitConsumerDTO;
 import com.ensab.service.de.scolarite.dto.reclamation.ReclamationRequestDTO;
 import com.ensab.service.de.scolarite.dto.reclamation.ReclamationResponseDTO;
+import com.ensab.service.de.scolarite.dto.solde.SoldeEtudiantDTO;
+import com.ensab.service.de.scolarite.dto.solde.SoldeVerificationDTO;
+import com.ensab.service.de.scolarite.dto.solde.TrancheRetardDTO;
+import com.ensab.service.de.scolarite.enums.PeriodeRapport;
+import com.ensab.service.de.scolarite.enums.StatusBatch;
 import com.ensab.service.de.scolarite.enums.TypeDocument;
 import com.ensab.service.de.scolarite.service.*;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -39,8 +80,29 @@ public class AdminController {
     private final DocumentGenerationService documentGenerationService;
     private final EtudiantService etudiantService;
     private final NoteService noteService;
-
-    public AdminController(DemandeService demandeService, ReclamationService reclamationService, PaiementService paiementService, InscriptionService inscriptionService, AdminService adminService, DocumentGenerationService documentGenerationService, EtudiantService etudiantService, NoteService noteService) {
+    private final DocumentBatchService documentBatchService;
+    private final MoyenneService moyenneService;
+    private final DeliberationService deliberationService;
+    private final AnalyticsService analyticsService;
+    private final AdmissionService admissionService;
+    private final QuotaService quotaService;
+    private final PassageAnnuelService passageAnnuelService;
+    private final PurgeService purgeService;
+    private final ArchivageService archivageService;
+    private final IdempotenceService idempotenceService;
+    private final SoldeService soldeService;
+    private final RapportService rapportService;
+    private final EcheancierService echeancierService;
+    private final BulkheadService bulkheadService;
+    private final RateLimitService rateLimitService;
+    private final EvenementService evenementService;
+    private final NotificationService notificationService;
+    private final AuditService auditService;
+    private final CacheCoherenceService cacheCoherenceService;
+    private final JobService jobService;
+    private final StreamingTimeout streamingTimeout;
+
+    public AdminController(DemandeService demandeService, ReclamationService reclamationService, PaiementService paiementService, InscriptionService inscriptionService, AdminService adminService, DocumentGenerationService documentGenerationService, EtudiantService etudiantService, NoteService noteService, DocumentBatchService documentBatchService, MoyenneService moyenneService, DeliberationService deliberationService, AnalyticsService analyticsService, AdmissionService admissionService, QuotaService quotaService, PassageAnnuelService passageAnnuelService, PurgeService purgeService, ArchivageService archivageService, IdempotenceService idempotenceService, SoldeService soldeService, RapportService rapportService, EcheancierService echeancierService, BulkheadService bulkheadService, RateLimitService rateLimitService, EvenementService evenementService, NotificationService notificationService, AuditService auditService, CacheCoherenceService cacheCoherenceService, JobService jobService, StreamingTimeout streamingTimeout) {
         this.demandeService = demandeService;
         this.reclamationService = reclamationService;
         this.paiementService = paiementService;
@@ -49,10 +111,31 @@ public class AdminController {
         this.documentGenerationService = documentGenerationService;
         this.etudiantService = etudiantService;
         this.noteService = noteService;
+        this.documentBatchService = documentBatchService;
+        this.moyenneService = moyenneService;
+        this.deliberationService = deliberationService;
+        this.analyticsService = analyticsService;
+        this.admissionService = admissionService;
+        this.quotaService = quotaService;
+        this.passageAnnuelService = passageAnnuelService;
+        this.purgeService = purgeService;
+        this.archivageService = archivageService;
+        this.idempotenceService = idempotenceService;
+        this.soldeService = soldeService;
+        this.rapportService = rapportService;
+        this.echeancierService = echeancierService;
+        this.bulkheadService = bulkheadService;
+        this.rateLimitService = rateLimitService;
+        this.evenementService = evenementService;
+        this.notificationService = notificationService;
+        this.auditService = auditService;
+        this.cacheCoherenceService = cacheCoherenceService;
+        this.jobService = jobService;
+        this.streamingTimeout = streamingTimeout;
     }
     @GetMapping("/demandes")
-    public ResponseEntity<List<DemandeResponseDTO>> getAllDemandes() {
-        return ResponseEntity.ok(demandeService.getAllDemandes());
+    public ResponseEntity<List<DemandeResponseDTO>> getAllDemandes(@RequestParam(defaultValue = "false") boolean archive) {
+        return ResponseEntity.ok(demandeService.getAllDemandes(archive));
     }
 
     @GetMapping("/demandes/{id}")
@@ -66,6 +149,21 @@ public class AdminController {
         return new ResponseEntity<>(demandeResponse, HttpStatus.CREATED);
     }
 
+    @PostMapping("/demandes/claim")
+    public ResponseEntity<List<DemandeResponseDTO>> claimDemandes(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(demandeService.claimDemandes(limit));
+    }
+
+    @GetMapping("/demandes/claimed")
+    public ResponseEntity<List<DemandeResponseDTO>> getClaimedDemandes() {
+        return ResponseEntity.ok(demandeService.getClaimedDemandes());
+    }
+
+    @PutMapping("/demandes/{id}/release")
+    public ResponseEntity<DemandeResponseDTO> releaseDemande(@PathVariable Long id) {
+        return ResponseEntity.ok(demandeService.releaseDemande(id));
+    }
+
     @PutMapping("/demandes/{id}/approve")
     public ResponseEntity<DemandeResponseDTO> approveDemande(@PathVariable Long id) {
         DemandeResponseDTO approvedDemande = demandeService.approveDemande(id);
@@ -129,9 +227,39 @@ public class AdminController {
         return ResponseEntity.noContent().build();
     }
 
+    @GetMapping("/etudiants/{etudiantId}/moyenne")
+    public ResponseEntity<MoyenneEtudiantDTO> getMoyenneByEtudiant(@PathVariable Long etudiantId) {
+        return ResponseEntity.ok(moyenneService.getMoyenneByEtudiant(etudiantId));
+    }
+
+    @GetMapping("/classement")
+    public ResponseEntity<List<ClassementDTO>> getClassement(@RequestParam String filiere,
+                                                             @RequestParam String niveau,
+                                                             @RequestParam String anneeUniversitaire,
+                                                             @RequestParam(defaultValue = "10") int top) {
+        return ResponseEntity.ok(moyenneService.getClassement(filiere, niveau, anneeUniversitaire, top));
+    }
+
+    @PostMapping("/moyennes/rebuild")
+    public ResponseEntity<Integer> rebuildMoyennes() {
+        return ResponseEntity.ok(moyenneService.rebuildMoyennes());
+    }
+
+    @PostMapping("/deliberations")
+    public ResponseEntity<DeliberationSummaryDTO> deliberer(@Validated @RequestBody DeliberationRequestDTO deliberationDTO) {
+        return ResponseEntity.ok(deliberationService.deliberer(deliberationDTO));
+    }
+
+    @GetMapping("/deliberations")
+    public ResponseEntity<List<ResultatDeliberationDTO>> getResultatsDeliberation(@RequestParam String filiere,
+                                                                                  @RequestParam String niveau,
+                                                                                  @RequestParam String anneeUniversitaire) {
+        return ResponseEntity.ok(deliberationService.getResultats(filiere, niveau, anneeUniversitaire));
+    }
+
     @GetMapping("/reclamations")
-    public ResponseEntity<List<ReclamationResponseDTO>> getAllReclamations() {
-        return ResponseEntity.ok(reclamationService.getAllReclamations());
+    public ResponseEntity<List<ReclamationResponseDTO>> getAllReclamations(@RequestParam(defaultValue = "false") boolean archive) {
+        return ResponseEntity.ok(reclamationService.getAllReclamations(archive));
     }
 
     @GetMapping("/reclamations/{id}")
@@ -155,8 +283,8 @@ public class AdminController {
     }
 
     @GetMapping("/paiements")
-    public ResponseEntity<List<PaiementResponseDTO>> getAllPaiements() {
-        return ResponseEntity.ok(paiementService.getAllPaiements());
+    public ResponseEntity<List<PaiementResponseDTO>> getAllPaiements(@RequestParam(defaultValue = "false") boolean archive) {
+        return ResponseEntity.ok(paiementService.getAllPaiements(archive));
     }
 
     @GetMapping("/paiements/{id}")
@@ -165,21 +293,81 @@ public class AdminController {
     }
 
     @PostMapping("/paiements")
-    public ResponseEntity<PaiementResponseDTO> createPaiement(@Validated @RequestBody PaiementRequestDTO paiementDTO) {
-        PaiementResponseDTO paiementResponse = paiementService.createPaiement(paiementDTO);
-        return new ResponseEntity<>(paiementResponse, HttpStatus.CREATED);
+    public ResponseEntity<PaiementResponseDTO> createPaiement(@Validated @RequestBody PaiementRequestDTO paiementDTO,
+                                                              @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotenceService.executer(idempotencyKey, idempotencyScope("POST /paiements"), paiementDTO, PaiementResponseDTO.class,
+                () -> new ResponseEntity<>(paiementService.createPaiement(paiementDTO), HttpStatus.CREATED));
     }
 
     @PutMapping("/paiements/{id}/pay")
-    public ResponseEntity<PaiementResponseDTO> payPaiement(@PathVariable Long id) {
-        PaiementResponseDTO paidPaiement = paiementService.payPaiement(id);
-        return ResponseEntity.ok(paidPaiement);
+    public ResponseEntity<PaiementResponseDTO> payPaiement(@PathVariable Long id,
+                                                           @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotenceService.executer(idempotencyKey, idempotencyScope("PUT /paiements/" + id + "/pay"), id, PaiementResponseDTO.class,
+                () -> ResponseEntity.ok(paiementService.payPaiement(id)));
     }
 
     @PutMapping("/paiements/{id}/cancel")
-    public ResponseEntity<PaiementResponseDTO> cancelPaiement(@PathVariable Long id) {
-        PaiementResponseDTO cancelledPaiement = paiementService.cancelPaiement(id);
-        return ResponseEntity.ok(cancelledPaiement);
+    public ResponseEntity<PaiementResponseDTO> cancelPaiement(@PathVariable Long id,
+                                                              @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotenceService.executer(idempotencyKey, idempotencyScope("PUT /paiements/" + id + "/cancel"), id, PaiementResponseDTO.class,
+                () -> ResponseEntity.ok(paiementService.cancelPaiement(id)));
+    }
+
+    @GetMapping("/etudiants/{etudiantId}/solde")
+    public ResponseEntity<SoldeEtudiantDTO> getSoldeByEtudiant(@PathVariable Long etudiantId) {
+        return ResponseEntity.ok(soldeService.getSoldeByEtudiant(etudiantId));
+    }
+
+    @GetMapping("/soldes/retards")
+    public ResponseEntity<List<SoldeEtudiantDTO>> getRetards(@RequestParam(defaultValue = "30") int jours,
+                                                             @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(soldeService.getRetards(jours, limit));
+    }
+
+    @GetMapping("/soldes/tranches")
+    public ResponseEntity<List<TrancheRetardDTO>> getTranchesRetard() {
+        return ResponseEntity.ok(soldeService.getTranchesRetard());
+    }
+
+    @PostMapping("/soldes/verification")
+    public ResponseEntity<SoldeVerificationDTO> verifierSoldes(@RequestParam(defaultValue = "false") boolean reconstruire) {
+        return ResponseEntity.ok(soldeService.verifier(reconstruire));
+    }
+
+    @GetMapping("/rapports/paiements")
+    public ResponseEntity<RapportPaiementDTO> getRapportPaiements(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate debut,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fin,
+            @RequestParam(defaultValue = "MOIS") PeriodeRapport periode) {
+        return ResponseEntity.ok(rapportService.getRapportPaiements(debut, fin, periode));
+    }
+
+    @GetMapping("/rapports/paiements/csv")
+    public ResponseEntity<StreamingResponseBody> exportPaiementsCsv(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate debut,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fin) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(new MediaType("text", "csv", StandardCharsets.UTF_8));
+        headers.setContentDispositionFormData("attachment", "Paiements_" + debut + "_" + fin + ".csv");
+        streamingTimeout.appliquer();
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(outputStream -> rapportService.writePaiementsCsv(debut, fin, outputStream));
+    }
+
+    @GetMapping("/echeanciers")
+    public ResponseEntity<List<EcheancierResponseDTO>> getAllEcheanciers() {
+        return ResponseEntity.ok(echeancierService.getAllEcheanciers());
+    }
+
+    @PutMapping("/echeanciers")
+    public ResponseEntity<EcheancierResponseDTO> saveEcheancier(@RequestBody EcheancierRequestDTO echeancierDTO) {
+        return ResponseEntity.ok(echeancierService.saveEcheancier(echeancierDTO));
+    }
+
+    @PostMapping("/echeanciers/{id}/generer")
+    public ResponseEntity<GenerationEcheancierDTO> genererEcheancier(@PathVariable Long id) {
+        return ResponseEntity.ok(echeancierService.generer(id));
     }
 
     @GetMapping("/inscriptions")
@@ -210,14 +398,172 @@ public class AdminController {
         return ResponseEntity.ok(cancelledInscription);
     }
 
+    @GetMapping("/quotas")
+    public ResponseEntity<List<QuotaResponseDTO>> getAllQuotas() {
+        return ResponseEntity.ok(quotaService.getAllQuotas());
+    }
+
+    @PutMapping("/quotas")
+    public ResponseEntity<QuotaResponseDTO> saveQuota(@RequestBody QuotaRequestDTO quotaDTO) {
+        return ResponseEntity.ok(quotaService.saveQuota(quotaDTO));
+    }
+
+    @PostMapping("/passage-annuel")
+    public ResponseEntity<PassageAnnuelReportDTO> executerPassageAnnuel(@RequestBody PassageAnnuelRequestDTO passageDTO) {
+        return ResponseEntity.ok(passageAnnuelService.executer(passageDTO));
+    }
+
+    @GetMapping("/passage-annuel")
+    public ResponseEntity<List<PassageAnnuelReportDTO>> getAllPassagesAnnuels() {
+        return ResponseEntity.ok(passageAnnuelService.getAllPassages());
+    }
+
+    @PostMapping("/purges")
+    public ResponseEntity<PurgeStatusDTO> startPurge(@RequestBody PurgeRequestDTO purgeDTO) {
+        return new ResponseEntity<>(purgeService.startPurge(purgeDTO), HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/purges")
+    public ResponseEntity<List<PurgeStatusDTO>> getAllPurges() {
+        return ResponseEntity.ok(purgeService.getAllPurges());
+    }
+
+    @GetMapping("/purges/{id}")
+    public ResponseEntity<PurgeStatusDTO> getPurgeStatus(@PathVariable String id) {
+        return ResponseEntity.ok(purgeService.getPurgeStatus(id));
+    }
+
+    @PostMapping("/archivage")
+    public ResponseEntity<ArchivageReportDTO> archiver() {
+        return ResponseEntity.ok(archivageService.archiver());
+    }
+
     @GetMapping("/demandes/{id}/pdf")
-    public ResponseEntity<byte[]> getDemandePdf(@PathVariable Long id) throws ExecutionException, InterruptedException {
+    public ResponseEntity<StreamingResponseBody> getDemandePdf(@PathVariable Long id) {
         DemandeResponseDTO demande = demandeService.getDemandeById(id);
-        byte[] pdfBytes = documentGenerationService
-                .generateDocument(demande.getTypeDocument(), demande.getEtudiant().getId()).get();
+        StreamingResponseBody pdfStream = documentGenerationService
+                .streamDocument(demande.getTypeDocument(), demande.getEtudiant().getId());
         return ResponseEntity.ok()
                 .headers(createPdfHeaders(demande))
-                .body(pdfBytes);
+                .body(pdfStream);
+    }
+
+    @PostMapping("/documents/batch")
+    public ResponseEntity<StreamingResponseBody> generateDocumentBatch(@Validated @RequestBody DocumentBatchRequestDTO batchDTO) {
+        DocumentBatchStatusDTO batch = documentBatchService.startBatch(batchDTO);
+        streamingTimeout.appliquer();
+        return ResponseEntity.ok()
+                .headers(createZipHeaders(batch))
+                .body(outputStream -> documentBatchService.writeBatch(batch.getId(), outputStream));
+    }
+
+    @GetMapping("/documents/batch")
+    public ResponseEntity<List<DocumentBatchStatusDTO>> getAllDocumentBatches() {
+        return ResponseEntity.ok(documentBatchService.getAllBatches());
+    }
+
+    @GetMapping("/documents/batch/{id}")
+    public ResponseEntity<DocumentBatchStatusDTO> getDocumentBatchStatus(@PathVariable String id) {
+        return ResponseEntity.ok(documentBatchService.getBatchStatus(id));
+    }
+
+    @PutMapping("/documents/batch/{id}/cancel")
+    public ResponseEntity<DocumentBatchStatusDTO> cancelDocumentBatch(@PathVariable String id) {
+        return ResponseEntity.ok(documentBatchService.cancelBatch(id));
+    }
+
+    @PostMapping("/analytics/query")
+    public ResponseEntity<AnalyticsResultDTO> queryAnalytics(@RequestBody AnalyticsQueryDTO queryDTO) {
+        return ResponseEntity.ok(analyticsService.query(queryDTO));
+    }
+
+    @PostMapping("/analytics/refresh")
+    public ResponseEntity<Integer> refreshAnalytics() {
+        return ResponseEntity.ok(analyticsService.refresh());
+    }
+
+    @GetMapping("/admission/stats")
+    public ResponseEntity<AdmissionStatsDTO> getAdmissionStats() {
+        return ResponseEntity.ok(admissionService.getStats());
+    }
+
+    @GetMapping("/bulkheads")
+    public ResponseEntity<List<BulkheadStatsDTO>> getBulkheads() {
+        return ResponseEntity.ok(bulkheadService.getStats());
+    }
+
+    @GetMapping("/rate-limits/top")
+    public ResponseEntity<List<RateLimitConsumerDTO>> getTopConsumers(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(rateLimitService.getTopConsumers(limit));
+    }
+
+    @GetMapping("/evenements/stats")
+    public ResponseEntity<Map<StatusBatch, Long>> getEvenementStats() {
+        return ResponseEntity.ok(evenementService.getStats());
+    }
+
+    @GetMapping("/evenements/echecs")
+    public ResponseEntity<List<EvenementDTO>> getEvenementsEchoues(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(evenementService.getEchecs(limit));
+    }
+
+    @PostMapping("/evenements/echecs/rejouer")
+    public ResponseEntity<Integer> rejouerEvenements() {
+        return ResponseEntity.ok(evenementService.rejouerEchecs());
+    }
+
+    @GetMapping("/notifications/stats")
+    public ResponseEntity<Map<StatusBatch, Long>> getNotificationStats() {
+        return ResponseEntity.ok(notificationService.getStats());
+    }
+
+    @GetMapping("/notifications/echecs")
+    public ResponseEntity<List<NotificationDTO>> getNotificationsEchouees(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(notificationService.getEchecs(limit));
+    }
+
+    @PostMapping("/notifications/echecs/rejouer")
+    public ResponseEntity<Integer> rejouerNotifications() {
+        return ResponseEntity.ok(notificationService.rejouerEchecs());
+    }
+
+    @GetMapping("/audit/etudiants/{etudiantId}")
+    public ResponseEntity<List<AuditDTO>> getAuditByEtudiant(@PathVariable Long etudiantId,
+                                                             @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(auditService.getByEtudiant(etudiantId, limit));
+    }
+
+    @GetMapping("/audit/acteurs/{acteur}")
+    public ResponseEntity<List<AuditDTO>> getAuditByActeur(@PathVariable String acteur,
+                                                           @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(auditService.getByActeur(acteur, limit));
+    }
+
+    @GetMapping("/audit/stats")
+    public ResponseEntity<AuditStatsDTO> getAuditStats() {
+        return ResponseEntity.ok(auditService.getStats());
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<CacheCoherenceStatsDTO> getCacheCoherenceStats() {
+        return ResponseEntity.ok(cacheCoherenceService.getStats());
+    }
+
+    @GetMapping("/jobs")
+    public ResponseEntity<List<JobStatutDTO>> getJobs() {
+        return ResponseEntity.ok(jobService.getJobs());
+    }
+
+    @GetMapping("/jobs/{nom}/executions")
+    public ResponseEntity<List<JobExecutionDTO>> getJobExecutions(@PathVariable String nom,
+                                                                  @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(jobService.getHistorique(nom, limit));
+    }
+
+    @PostMapping("/jobs/{nom}/declencher")
+    public ResponseEntity<Void> declencherJob(@PathVariable String nom) {
+        jobService.declencher(nom);
+        return ResponseEntity.accepted().build();
     }
 
     @GetMapping("/admins")
@@ -258,4 +604,20 @@ public class AdminController {
         headers.setContentDispositionFormData("attachment", filename);
         return headers;
     }
+
+    private HttpHeaders createZipHeaders(DocumentBatchStatusDTO batch) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        String prefix = batch.getTypeDocument() == TypeDocument.ATTESTATION_SCOLARITE
+                ? "Attestations_Scolarite_"
+                : "Releves_de_Notes_";
+        headers.setContentDispositionFormData("attachment", prefix + batch.getFiliere() + "_" + batch.getNiveau() + ".zip");
+        headers.set("X-Batch-Id", batch.getId());
+        return headers;
+    }
+
+    // Idempotency keys are scoped to the admin and the endpoint
+    private String idempotencyScope(String endpoint) {
+        return SecurityContextHolder.getContext().getAuthentication().getName() + " " + endpoint;
+    }
 }
\ No newline at end of file
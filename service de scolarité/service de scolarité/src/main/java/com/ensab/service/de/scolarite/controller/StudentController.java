@@ -1,28 +1,34 @@
 package com.ensab.service.de.scolarite.controller;
 
+import com.ensab.service.de.scolarite.dto.deliberation.ResultatDeliberationDTO;
 import com.ensab.service.de.scolarite.dto.demande.DemandeRequestDTO;
 import com.ensab.service.de.scolarite.dto.demande.DemandeResponseDTO;
 import com.ensab.service.de.scolarite.dto.etudiant.EtudiantResponseDTO;
 import com.ensab.service.de.scolarite.dto.inscription.InscriptionRequestDTO;
 import com.ensab.service.de.scolarite.dto.inscription.InscriptionResponseDTO;
+import com.ensab.service.de.scolarite.dto.moyenne.MoyenneEtudiantDTO;
 import com.ensab.service.de.scolarite.dto.note.NoteResponseDTO;
 import com.ensab.service.de.scolarite.dto.paiement.PaiementRequestDTO;
 import com.ensab.service.de.scolarite.dto.paiement.PaiementResponseDTO;
 import com.ensab.service.de.scolarite.dto.reclamation.ReclamationRequestDTO;
 import com.ensab.service.de.scolarite.dto.reclamation.ReclamationResponseDTO;
+import com.ensab.service.de.scolarite.dto.solde.SoldeEtudiantDTO;
 import com.ensab.service.de.scolarite.entity.Etudiant;
 import com.ensab.service.de.scolarite.mapper.EtudiantMapper;
 import com.ensab.service.de.scolarite.repository.EtudiantRepository;
 import com.ensab.service.de.scolarite.service.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/etudiant")
@@ -48,63 +54,119 @@ public class StudentController {
     @Autowired
     private InscriptionService inscriptionService;
 
-    private Etudiant getCurrentEtudiant() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+    @Autowired
+    private MoyenneService moyenneService;
+
+    @Autowired
+    private DeliberationService deliberationService;
+
+    @Autowired
+    private AdmissionService admissionService;
+
+    @Autowired
+    private IdempotenceService idempotenceService;
+
+    @Autowired
+    private SoldeService soldeService;
+
+    @Autowired
+    private LectureService lectureService;
+
+    @Autowired
+    private SseService sseService;
+
+    private String getCurrentEmail() {
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+
+    private Etudiant getEtudiantByEmail(String email) {
         return etudiantRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Etudiant not found"));
     }
 
+    private Long getEtudiantIdByEmail(String email) {
+        return etudiantRepository.findIdByEmail(email)
+                .orElseThrow(() -> new RuntimeException("Etudiant not found"));
+    }
+
+    // Reads resolve the principal on the request thread, then run on the student read pool (see LectureService)
     @GetMapping("/profile")
-    public EtudiantResponseDTO getProfile() {
-        Etudiant etudiant = getCurrentEtudiant();
-        return EtudiantMapper.toDTO(etudiant); // Assuming EtudiantMapper exists
+    public CompletableFuture<EtudiantResponseDTO> getProfile() {
+        String email = getCurrentEmail();
+        return lectureService.lire(() -> EtudiantMapper.toDTO(etudiantRepository.findByEmailWithNotes(email)
+                .orElseThrow(() -> new RuntimeException("Etudiant not found"))));
     }
 
     @GetMapping("/notes")
-    public List<NoteResponseDTO> getMyNotes() {
-        Long etudiantId = getCurrentEtudiant().getId();
-        return noteService.getNotesByEtudiant(etudiantId);
+    public CompletableFuture<List<NoteResponseDTO>> getMyNotes() {
+        String email = getCurrentEmail();
+        return lectureService.lire(() -> noteService.getNotesByEtudiant(getEtudiantIdByEmail(email)));
+    }
+
+    @GetMapping("/moyenne")
+    public CompletableFuture<MoyenneEtudiantDTO> getMyMoyenne() {
+        String email = getCurrentEmail();
+        return lectureService.lire(() -> moyenneService.getMoyenneByEtudiant(getEtudiantIdByEmail(email)));
+    }
+
+    @GetMapping("/solde")
+    public CompletableFuture<SoldeEtudiantDTO> getMySolde() {
+        String email = getCurrentEmail();
+        return lectureService.lire(() -> soldeService.getSoldeByEtudiant(getEtudiantIdByEmail(email)));
+    }
+
+    @GetMapping("/resultats")
+    public CompletableFuture<List<ResultatDeliberationDTO>> getMyResultats() {
+        String email = getCurrentEmail();
+        return lectureService.lire(() -> deliberationService.getResultatsByEtudiant(getEtudiantIdByEmail(email)));
     }
 
     @GetMapping("/demandes")
-    public List<DemandeResponseDTO> getMyDemandes() {
-        Long etudiantId = getCurrentEtudiant().getId();
-        return demandeService.getDemandesByEtudiant(etudiantId);
+    public CompletableFuture<List<DemandeResponseDTO>> getMyDemandes(@RequestParam(defaultValue = "false") boolean archive) {
+        String email = getCurrentEmail();
+        return lectureService.lire(() -> demandeService.getDemandesByEtudiant(getEtudiantIdByEmail(email), archive));
     }
 
     @GetMapping("/paiements")
-    public List<PaiementResponseDTO> getMyPaiements() {
-        Long etudiantId = getCurrentEtudiant().getId();
-        return paiementService.getPaiementsByEtudiant(etudiantId);
+    public CompletableFuture<List<PaiementResponseDTO>> getMyPaiements(@RequestParam(defaultValue = "false") boolean archive) {
+        String email = getCurrentEmail();
+        return lectureService.lire(() -> paiementService.getPaiementsByEtudiant(getEtudiantIdByEmail(email), archive));
     }
 
     @GetMapping("/reclamations")
-    public List<ReclamationResponseDTO> getMyReclamations() {
-        Long etudiantId = getCurrentEtudiant().getId();
-        return reclamationService.getReclamationsByEtudiant(etudiantId);
+    public CompletableFuture<List<ReclamationResponseDTO>> getMyReclamations(@RequestParam(defaultValue = "false") boolean archive) {
+        String email = getCurrentEmail();
+        return lectureService.lire(() -> reclamationService.getReclamationsByEtudiant(getEtudiantIdByEmail(email), archive));
     }
 
     @GetMapping("/inscriptions")
-    public List<InscriptionResponseDTO> getMyInscriptions() {
-        Long etudiantId = getCurrentEtudiant().getId();
-        return inscriptionService.getInscriptionsByEtudiant(etudiantId);
+    public CompletableFuture<List<InscriptionResponseDTO>> getMyInscriptions() {
+        String email = getCurrentEmail();
+        return lectureService.lire(() -> inscriptionService.getInscriptionsByEtudiant(getEtudiantIdByEmail(email)));
     }
 
-    @PostMapping("/inscriptions")
-    public ResponseEntity<InscriptionResponseDTO> createInscription(@Validated @RequestBody InscriptionRequestDTO inscriptionDTO ) {
-        // Get current student ID
-        Long etudiantId = getCurrentEtudiant().getId();
-
-        // Set the etudiantId from the authenticated user (security measure)
-        inscriptionDTO.setEtudiantId(etudiantId);
+    // Status changes of the student's demandes, réclamations, paiements and inscriptions, as they are committed
+    @GetMapping(value = "/evenements", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvenements(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return sseService.connecter(getEtudiantIdByEmail(getCurrentEmail()), lastEventId);
+    }
 
-        InscriptionResponseDTO inscriptionResponse = inscriptionService.createInscription(inscriptionDTO);
-        return new ResponseEntity<>(inscriptionResponse, HttpStatus.CREATED);
+    // Inscription and demande creation go through the admission queue: a bounded number of DB writers,
+    // one in-flight request per student, and a fast 503/429 with Retry-After when saturated.
+    @PostMapping("/inscriptions")
+    public CompletableFuture<ResponseEntity<InscriptionResponseDTO>> createInscription(@Validated @RequestBody InscriptionRequestDTO inscriptionDTO ) {
+        String email = getCurrentEmail();
+        return admissionService.submit(email + "|inscription", () -> {
+                    // Set the etudiantId from the authenticated user (security measure)
+                    inscriptionDTO.setEtudiantId(getEtudiantByEmail(email).getId());
+                    return inscriptionService.createInscription(inscriptionDTO);
+                })
+                .thenApply(inscriptionResponse -> new ResponseEntity<>(inscriptionResponse, HttpStatus.CREATED));
     }
     @PostMapping("/demandes")
-    public ResponseEntity<DemandeResponseDTO> createDemande(@Validated @RequestBody DemandeRequestDTO demandeDTO) {
-        DemandeResponseDTO demandeResponse = demandeService.createDemande(demandeDTO);
-        return new ResponseEntity<>(demandeResponse, HttpStatus.CREATED);
+    public CompletableFuture<ResponseEntity<DemandeResponseDTO>> createDemande(@Validated @RequestBody DemandeRequestDTO demandeDTO) {
+        return admissionService.submit(getCurrentEmail() + "|demande", () -> demandeService.createDemande(demandeDTO))
+                .thenApply(demandeResponse -> new ResponseEntity<>(demandeResponse, HttpStatus.CREATED));
     }
 
     @PostMapping("/reclamations")
@@ -114,8 +176,9 @@ public class StudentController {
     }
 
     @PostMapping("/paiements")
-    public ResponseEntity<PaiementResponseDTO> createPaiement(@Validated @RequestBody PaiementRequestDTO paiementDTO) {
-        PaiementResponseDTO paiementResponse = paiementService.createPaiement(paiementDTO);
-        return new ResponseEntity<>(paiementResponse, HttpStatus.CREATED);
+    public ResponseEntity<PaiementResponseDTO> createPaiement(@Validated @RequestBody PaiementRequestDTO paiementDTO,
+                                                              @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotenceService.executer(idempotencyKey, getCurrentEmail() + " POST /paiements", paiementDTO, PaiementResponseDTO.class,
+                () -> new ResponseEntity<>(paiementService.createPaiement(paiementDTO), HttpStatus.CREATED));
     }
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.ensab.service.de.scolarite.controller;
+
+import com.ensab.service.de.scolarite.service.PaiementWebhookService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Server-to-server callbacks: authenticated by signature, not by JWT
+@RestController
+@RequestMapping("/api/public/webhooks")
+public class WebhookController {
+
+    @Autowired
+    private PaiementWebhookService paiementWebhookService;
+
+    // Raw body: the signature is computed over the exact bytes the provider sent
+    @PostMapping("/paiements")
+    public ResponseEntity<Void> recevoirPaiement(@RequestBody String payload,
+                                                 @RequestHeader(value = "X-Webhook-Signature", required = false) String signature) {
+        boolean nouveau = paiementWebhookService.recevoir(payload, signature);
+        return new ResponseEntity<>(nouveau ? HttpStatus.ACCEPTED : HttpStatus.OK);
+    }
+}
@@ -0,0 +1,14 @@
+package com.ensab.service.de.scolarite.dto.admission;
+
+import lombok.Data;
+
+@Data
+public class AdmissionStatsDTO {
+    private int writers;
+    private int actifs;
+    private int enAttente;
+    private int capacite;
+    private long traites;
+    private long rejetsSaturation;
+    private long rejetsDoublon;
+}
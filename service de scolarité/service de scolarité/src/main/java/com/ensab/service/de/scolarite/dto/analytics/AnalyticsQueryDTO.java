@@ -0,0 +1,16 @@
+package com.ensab.service.de.scolarite.dto.analytics;
+
+import com.ensab.service.de.scolarite.enums.DimensionAnalytique;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class AnalyticsQueryDTO {
+    private List<DimensionAnalytique> groupBy = new ArrayList<>();
+    // e.g. {"FAIT": ["PAIEMENT"], "STATUS": ["NON_PAYE"]}
+    private Map<DimensionAnalytique, List<String>> filtres = new HashMap<>();
+}
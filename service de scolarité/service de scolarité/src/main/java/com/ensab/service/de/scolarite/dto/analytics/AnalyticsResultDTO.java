@@ -0,0 +1,12 @@
+package com.ensab.service.de.scolarite.dto.analytics;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class AnalyticsResultDTO {
+    private List<AnalyticsRowDTO> lignes;
+    private int lignesScannees;
+    private long dureeMs;
+}
@@ -0,0 +1,13 @@
+package com.ensab.service.de.scolarite.dto.analytics;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Data
+public class AnalyticsRowDTO {
+    private Map<String, String> dimensions;
+    private long nombre;
+    private BigDecimal montant;
+}
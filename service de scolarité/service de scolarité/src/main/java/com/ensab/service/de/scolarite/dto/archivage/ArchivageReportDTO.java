@@ -0,0 +1,16 @@
+package com.ensab.service.de.scolarite.dto.archivage;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.util.Date;
+import java.util.Map;
+
+@Data
+public class ArchivageReportDTO {
+    // Rows created before this date (start of the previous année universitaire) were moved
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy")
+    private Date dateLimite;
+    private Map<String, Long> lignesArchivees;
+    private long dureeMs;
+}
@@ -0,0 +1,21 @@
+package com.ensab.service.de.scolarite.dto.audit;
+
+import com.ensab.service.de.scolarite.enums.EntiteAudit;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.util.Date;
+
+@Data
+public class AuditDTO {
+    private Long id;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm:ss")
+    private Date date;
+    private String acteur;
+    private Long etudiantId;
+    private EntiteAudit entite;
+    private Long entiteId;
+    private String action;
+    private String ancienneValeur;
+    private String nouvelleValeur;
+}
@@ -0,0 +1,14 @@
+package com.ensab.service.de.scolarite.dto.audit;
+
+import lombok.Data;
+
+@Data
+public class AuditStatsDTO {
+    private int capacite;
+    private int enAttente;
+    private long ecrits;
+    private long lots;
+    // Times a request found the buffer full and waited for the writer
+    private long attentes;
+    private long erreursEcriture;
+}
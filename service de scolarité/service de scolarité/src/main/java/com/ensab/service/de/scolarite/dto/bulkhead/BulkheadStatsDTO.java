@@ -0,0 +1,17 @@
+package com.ensab.service.de.scolarite.dto.bulkhead;
+
+import lombok.Data;
+
+@Data
+public class BulkheadStatsDTO {
+    private String nom;
+    // Threads of a pool, or permits of a semaphore bulkhead
+    private int limite;
+    private int actifs;
+    private int enAttente;
+    private int capacite;
+    private long traites;
+    private long rejets;
+    // Connections the bulkhead may hold at once, 0 when it does not touch the database
+    private int connexions;
+}
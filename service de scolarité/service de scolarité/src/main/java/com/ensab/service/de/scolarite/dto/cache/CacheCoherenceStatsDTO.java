@@ -0,0 +1,19 @@
+package com.ensab.service.de.scolarite.dto.cache;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.util.Date;
+
+@Data
+public class CacheCoherenceStatsDTO {
+    private String noeud;
+    // Highest change log id applied by this node
+    private long hauteur;
+    // Ids below the mark not seen yet (transactions still open), re-read until they expire
+    private int trous;
+    private long publiees;
+    private long appliquees;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm:ss")
+    private Date dernierPoll;
+}
@@ -0,0 +1,10 @@
+package com.ensab.service.de.scolarite.dto.deliberation;
+
+import lombok.Data;
+
+@Data
+public class DeliberationRequestDTO {
+    private String filiere;
+    private String niveau;
+    private String anneeUniversitaire;
+}
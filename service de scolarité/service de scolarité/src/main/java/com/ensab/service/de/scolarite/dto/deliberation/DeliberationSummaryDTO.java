@@ -0,0 +1,19 @@
+package com.ensab.service.de.scolarite.dto.deliberation;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class DeliberationSummaryDTO {
+    private String filiere;
+    private String niveau;
+    private String anneeUniversitaire;
+    private int effectif;
+    private List<String> modules;
+    private int valides;
+    private int rattrapages;
+    private int ajournes;
+    private long dureeCalculMs;
+    private long dureeTotaleMs;
+}
@@ -0,0 +1,21 @@
+package com.ensab.service.de.scolarite.dto.deliberation;
+
+import com.ensab.service.de.scolarite.dto.etudiant.EtudiantBasicDTO;
+import com.ensab.service.de.scolarite.enums.DecisionJury;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.util.Date;
+
+@Data
+public class ResultatDeliberationDTO {
+    private Long id;
+    private String anneeUniversitaire;
+    private Double moyenne;
+    private int modulesValides;
+    private int modulesNonValides;
+    private DecisionJury decision;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy")
+    private Date dateDeliberation;
+    private EtudiantBasicDTO etudiant;
+}
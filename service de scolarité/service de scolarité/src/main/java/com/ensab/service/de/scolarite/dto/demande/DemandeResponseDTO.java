@@ -18,6 +18,8 @@ public class DemandeResponseDTO {
     private Date dateCreation;
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy")
     private Date dateTraitement;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm:ss")
+    private Date dateExpirationReservation;
     private EtudiantBasicDTO etudiant;
     private AdminBasicDTO admin;
     private String asyncErrorMessage;
@@ -0,0 +1,12 @@
+package com.ensab.service.de.scolarite.dto.document;
+
+import com.ensab.service.de.scolarite.enums.TypeDocument;
+import lombok.Data;
+
+@Data
+public class DocumentBatchRequestDTO {
+    private TypeDocument typeDocument;
+    private String filiere;
+    private String niveau;
+    private String anneeUniversitaire; // optional, every year when null
+}
@@ -0,0 +1,25 @@
+package com.ensab.service.de.scolarite.dto.document;
+
+import com.ensab.service.de.scolarite.enums.StatusBatch;
+import com.ensab.service.de.scolarite.enums.TypeDocument;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.util.Date;
+
+@Data
+public class DocumentBatchStatusDTO {
+    private String id;
+    private TypeDocument typeDocument;
+    private String filiere;
+    private String niveau;
+    private String anneeUniversitaire;
+    private StatusBatch status;
+    private long total;
+    private long completed;
+    private long failed;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm:ss")
+    private Date dateDebut;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm:ss")
+    private Date dateFin;
+}
@@ -0,0 +1,20 @@
+package com.ensab.service.de.scolarite.dto.echeancier;
+
+import com.ensab.service.de.scolarite.enums.TypePaiement;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+@Data
+public class EcheancierRequestDTO {
+    private String filiere;
+    private TypePaiement typePaiement;
+    private String anneeUniversitaire;
+    private BigDecimal montantTotal;
+    private int nombreEcheances;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy")
+    private Date datePremiereEcheance;
+    private int intervalleMois = 1;
+}
@@ -0,0 +1,12 @@
+package com.ensab.service.de.scolarite.dto.echeancier;
+
+import lombok.Data;
+
+@Data
+public class GenerationEcheancierDTO {
+    private Long echeancierId;
+    private long etudiants;
+    // Rows actually inserted; installments that already existed are skipped
+    private long paiementsCrees;
+    private long dureeMs;
+}
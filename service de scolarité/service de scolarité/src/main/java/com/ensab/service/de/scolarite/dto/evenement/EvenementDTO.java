@@ -0,0 +1,21 @@
+package com.ensab.service.de.scolarite.dto.evenement;
+
+import com.ensab.service.de.scolarite.enums.StatusBatch;
+import com.ensab.service.de.scolarite.enums.TypeEvenement;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.util.Date;
+
+@Data
+public class EvenementDTO {
+    private Long id;
+    private TypeEvenement type;
+    private Long agregatId;
+    private Long etudiantId;
+    private StatusBatch status;
+    private int tentatives;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm:ss")
+    private Date dateCreation;
+    private String derniereErreur;
+}
@@ -0,0 +1,17 @@
+package com.ensab.service.de.scolarite.dto.evenement;
+
+import com.ensab.service.de.scolarite.enums.TypeEvenement;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.util.Date;
+
+// Status change pushed to the student concerned; the client re-reads the aggregate if it needs the details
+@Data
+public class EvenementEtudiantDTO {
+    private Long id;
+    private TypeEvenement type;
+    private Long agregatId;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm:ss")
+    private Date date;
+}
@@ -0,0 +1,24 @@
+package com.ensab.service.de.scolarite.dto.job;
+
+import com.ensab.service.de.scolarite.enums.StatusBatch;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.util.Date;
+
+@Data
+public class JobExecutionDTO {
+    private Long id;
+    private String nom;
+    private String noeud;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm:ss")
+    private Date debut;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm:ss")
+    private Date fin;
+    private StatusBatch status;
+    private String reprise;
+    private int etapes;
+    private long elements;
+    private long dureeMs;
+    private String erreur;
+}
@@ -0,0 +1,23 @@
+package com.ensab.service.de.scolarite.dto.job;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.util.Date;
+
+@Data
+public class JobStatutDTO {
+    private String nom;
+    private long intervalleSecondes;
+    // Node currently holding the lease, null when the job is idle
+    private String proprietaire;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm:ss")
+    private Date expiration;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm:ss")
+    private Date prochaineExecution;
+    private String checkpoint;
+    private long executions;
+    private long echecs;
+    private Long dureeMoyenneMs;
+    private JobExecutionDTO derniereExecution;
+}
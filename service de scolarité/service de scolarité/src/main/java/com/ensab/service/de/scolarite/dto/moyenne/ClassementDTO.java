@@ -0,0 +1,11 @@
+package com.ensab.service.de.scolarite.dto.moyenne;
+
+import com.ensab.service.de.scolarite.dto.etudiant.EtudiantBasicDTO;
+import lombok.Data;
+
+@Data
+public class ClassementDTO {
+    private int rang;
+    private Double moyenne;
+    private EtudiantBasicDTO etudiant;
+}
@@ -0,0 +1,17 @@
+package com.ensab.service.de.scolarite.dto.moyenne;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class MoyenneEtudiantDTO {
+    private Long etudiantId;
+    private Double moyenne;
+    private long nombreNotes;
+    private Double minimum;
+    private Double maximum;
+    private Integer rang;      // rank within filiere/niveau/anneeUniversitaire, null without notes
+    private int effectif;      // ranked etudiants in the same cohort
+    private List<MoyenneModuleDTO> modules;
+}
@@ -0,0 +1,12 @@
+package com.ensab.service.de.scolarite.dto.moyenne;
+
+import lombok.Data;
+
+@Data
+public class MoyenneModuleDTO {
+    private String module;
+    private Double moyenne;
+    private long nombreNotes;
+    private Double minimum;
+    private Double maximum;
+}
@@ -0,0 +1,24 @@
+package com.ensab.service.de.scolarite.dto.notification;
+
+import com.ensab.service.de.scolarite.enums.StatusBatch;
+import com.ensab.service.de.scolarite.enums.TypeEvenement;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.util.Date;
+
+@Data
+public class NotificationDTO {
+    private Long id;
+    private Long evenementId;
+    private TypeEvenement type;
+    private Long agregatId;
+    private String destinataire;
+    private StatusBatch status;
+    private int tentatives;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm:ss")
+    private Date dateCreation;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm:ss")
+    private Date dateEnvoi;
+    private String derniereErreur;
+}
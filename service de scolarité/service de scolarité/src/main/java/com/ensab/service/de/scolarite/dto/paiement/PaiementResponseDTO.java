@@ -19,5 +19,8 @@ public class PaiementResponseDTO {
     private Date dateCreation;
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy")
     private Date datePaiement;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy")
+    private Date dateEcheance;
+    private Integer numeroEcheance;
     private EtudiantBasicDTO etudiant;
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.ensab.service.de.scolarite.dto.paiement;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class PaiementWebhookDTO {
+    private String evenementId;
+    private Long paiementId;
+    // PAYE or ECHEC, only PAYE changes the paiement
+    private String statut;
+    private BigDecimal montant;
+}
@@ -0,0 +1,27 @@
+package com.ensab.service.de.scolarite.dto.passage;
+
+import com.ensab.service.de.scolarite.enums.StatusBatch;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.util.Date;
+import java.util.List;
+
+@Data
+public class PassageAnnuelReportDTO {
+    private Long id;
+    private String anneeSource;
+    private String anneeCible;
+    private boolean dryRun;
+    private StatusBatch status;
+    private long dernierEtudiantId;
+    private long inscriptionsCreees;
+    private long etudiantsPromus;
+    private long etudiantsRedoublants;
+    private List<PassageNiveauDTO> niveaux;
+    private long dureeMs;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm:ss")
+    private Date dateDebut;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm:ss")
+    private Date dateFin;
+}
@@ -0,0 +1,14 @@
+package com.ensab.service.de.scolarite.dto.passage;
+
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+public class PassageAnnuelRequestDTO {
+    private String anneeSource;
+    private String anneeCible;
+    // niveau -> niveau suivant; an empty value marks the last niveau (validated etudiants leave the school)
+    private Map<String, String> promotions;
+    private boolean dryRun;
+}
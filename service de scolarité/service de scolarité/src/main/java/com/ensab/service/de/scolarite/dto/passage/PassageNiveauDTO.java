@@ -0,0 +1,14 @@
+package com.ensab.service.de.scolarite.dto.passage;
+
+import lombok.Data;
+
+@Data
+public class PassageNiveauDTO {
+    private String niveau;
+    private String niveauSuivant;
+    private long effectif;
+    private long promus;
+    private long redoublants;
+    private long diplomes;
+    private long dejaReinscrits;
+}
@@ -0,0 +1,11 @@
+package com.ensab.service.de.scolarite.dto.purge;
+
+import lombok.Data;
+
+@Data
+public class PurgeRequestDTO {
+    private String filiere;
+    private String niveau;
+    private String anneeUniversitaire;
+    private boolean archiver = true;
+}
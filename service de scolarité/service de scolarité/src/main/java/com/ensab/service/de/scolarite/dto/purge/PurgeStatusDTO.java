@@ -0,0 +1,27 @@
+package com.ensab.service.de.scolarite.dto.purge;
+
+import com.ensab.service.de.scolarite.enums.StatusBatch;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.util.Date;
+import java.util.Map;
+
+@Data
+public class PurgeStatusDTO {
+    private String id;
+    private String filiere;
+    private String niveau;
+    private String anneeUniversitaire;
+    private boolean archiver;
+    private StatusBatch status;
+    private long total;
+    private long traites;
+    // Deleted rows per table
+    private Map<String, Long> lignes;
+    private String erreur;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm:ss")
+    private Date dateDebut;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm:ss")
+    private Date dateFin;
+}
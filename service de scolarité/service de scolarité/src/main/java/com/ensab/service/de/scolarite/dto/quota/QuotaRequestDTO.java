@@ -0,0 +1,12 @@
+package com.ensab.service.de.scolarite.dto.quota;
+
+import com.ensab.service.de.scolarite.enums.TypeInscription;
+import lombok.Data;
+
+@Data
+public class QuotaRequestDTO {
+    private String filiere;
+    private TypeInscription typeInscription;
+    private String anneeUniversitaire;
+    private int capacite;
+}
@@ -0,0 +1,15 @@
+package com.ensab.service.de.scolarite.dto.quota;
+
+import com.ensab.service.de.scolarite.enums.TypeInscription;
+import lombok.Data;
+
+@Data
+public class QuotaResponseDTO {
+    private Long id;
+    private String filiere;
+    private TypeInscription typeInscription;
+    private String anneeUniversitaire;
+    private int capacite;
+    private int confirmes;
+    private int disponibles;
+}
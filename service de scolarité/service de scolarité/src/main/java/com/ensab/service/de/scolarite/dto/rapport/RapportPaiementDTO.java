@@ -0,0 +1,20 @@
+package com.ensab.service.de.scolarite.dto.rapport;
+
+import com.ensab.service.de.scolarite.enums.PeriodeRapport;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class RapportPaiementDTO {
+    private LocalDate debut;
+    private LocalDate fin;
+    private PeriodeRapport periode;
+    private List<RapportPaiementLigneDTO> lignes;
+    private long nombreTotal;
+    private BigDecimal montantTotal;
+    private Map<String, BigDecimal> montantParStatus;
+}
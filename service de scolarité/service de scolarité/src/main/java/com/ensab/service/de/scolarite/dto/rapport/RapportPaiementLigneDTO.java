@@ -0,0 +1,17 @@
+package com.ensab.service.de.scolarite.dto.rapport;
+
+import com.ensab.service.de.scolarite.enums.StatusPaiement;
+import com.ensab.service.de.scolarite.enums.TypePaiement;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class RapportPaiementLigneDTO {
+    private String periode;
+    private TypePaiement typePaiement;
+    private StatusPaiement status;
+    private String filiere;
+    private long nombre;
+    private BigDecimal montant;
+}
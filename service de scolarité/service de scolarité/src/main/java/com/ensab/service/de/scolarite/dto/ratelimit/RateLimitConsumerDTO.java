@@ -0,0 +1,13 @@
+package com.ensab.service.de.scolarite.dto.ratelimit;
+
+import lombok.Data;
+
+@Data
+public class RateLimitConsumerDTO {
+    private String principal;
+    private String regle;
+    private int limite;
+    // Sliding-window estimate of the requests in the last window
+    private long requetes;
+    private long rejets;
+}
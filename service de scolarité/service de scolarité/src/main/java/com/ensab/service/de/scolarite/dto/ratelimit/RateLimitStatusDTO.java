@@ -0,0 +1,12 @@
+package com.ensab.service.de.scolarite.dto.ratelimit;
+
+import lombok.Data;
+
+@Data
+public class RateLimitStatusDTO {
+    private boolean autorise;
+    private int limite;
+    private int restant;
+    // Seconds until the current window ends
+    private long reset;
+}
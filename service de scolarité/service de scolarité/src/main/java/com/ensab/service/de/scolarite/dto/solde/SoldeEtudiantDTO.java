@@ -0,0 +1,20 @@
+package com.ensab.service.de.scolarite.dto.solde;
+
+import com.ensab.service.de.scolarite.dto.etudiant.EtudiantBasicDTO;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+@Data
+public class SoldeEtudiantDTO {
+    private EtudiantBasicDTO etudiant;
+    private BigDecimal totalDu;
+    private BigDecimal totalPaye;
+    private BigDecimal resteAPayer;
+    private int nombreImpayes;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy")
+    private Date dateImpayeAncienne;
+    private long joursRetard;
+}
@@ -0,0 +1,13 @@
+package com.ensab.service.de.scolarite.dto.solde;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class SoldeVerificationDTO {
+    private long incoherences;
+    // First etudiant ids whose stored balance differs from their paiements
+    private List<Long> exemples;
+    private boolean reconstruit;
+}
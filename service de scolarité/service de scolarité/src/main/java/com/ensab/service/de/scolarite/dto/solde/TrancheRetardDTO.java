@@ -0,0 +1,13 @@
+package com.ensab.service.de.scolarite.dto.solde;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class TrancheRetardDTO {
+    // "0-30", "30-60", "60-90" or "90+" days since the oldest unpaid paiement
+    private String tranche;
+    private long nombreEtudiants;
+    private BigDecimal montantDu;
+}
@@ -0,0 +1,40 @@
+package com.ensab.service.de.scolarite.entity;
+
+import com.ensab.service.de.scolarite.enums.EntiteAudit;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.util.Date;
+
+// Append-only: rows are inserted in batches by the audit writer and never updated
+@Entity
+@Data
+@Table(indexes = {
+        @Index(name = "idx_audit_etudiant", columnList = "etudiant_id, id"),
+        @Index(name = "idx_audit_acteur", columnList = "acteur, id")})
+public class AuditLog {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Date date;
+
+    // Admin username or student email, "system" for background work
+    @Column(length = 100)
+    private String acteur;
+
+    private Long etudiantId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private EntiteAudit entite;
+
+    private Long entiteId;
+
+    @Column(length = 40)
+    private String action;
+
+    private String ancienneValeur;
+
+    private String nouvelleValeur;
+}
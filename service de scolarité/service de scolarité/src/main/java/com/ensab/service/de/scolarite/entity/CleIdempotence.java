@@ -0,0 +1,35 @@
+package com.ensab.service.de.scolarite.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.util.Date;
+
+@Entity
+@Data
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"portee", "cle"}),
+        indexes = @Index(name = "idx_cle_idempotence_date", columnList = "date_creation"))
+public class CleIdempotence {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Principal and endpoint the key was sent to: the same key from two users never collides
+    @Column(length = 200)
+    private String portee;
+
+    @Column(length = 100)
+    private String cle;
+
+    // SHA-256 of the request body, a key reused with another body is refused
+    @Column(length = 64)
+    private String empreinte;
+
+    // Null while the first request is still running
+    private Integer statusHttp;
+
+    @Column(columnDefinition = "TEXT")
+    private String reponse;
+
+    private Date dateCreation;
+}
@@ -10,6 +10,7 @@ import java.util.Date;
 
 @Entity
 @Data
+@Table(indexes = @Index(name = "idx_demande_status_date", columnList = "status, date_creation"))
 public class Demande {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -27,6 +28,10 @@ public class Demande {
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy")
     private Date dateTraitement;
 
+    // Lease held by the admin working an EN_COURS demande; back to EN_ATTENTE once expired
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm:ss")
+    private Date dateExpirationReservation;
+
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "etudiant_id", nullable = false)
     private Etudiant etudiant;
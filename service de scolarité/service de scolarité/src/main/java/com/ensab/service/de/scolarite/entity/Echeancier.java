@@ -0,0 +1,35 @@
+package com.ensab.service.de.scolarite.entity;
+
+import com.ensab.service.de.scolarite.enums.TypePaiement;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+// Fee schedule of a filiere for one année: montantTotal split into nombreEcheances paiements
+@Entity
+@Data
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"filiere", "type_paiement", "annee_universitaire"}))
+public class Echeancier {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String filiere;
+
+    @Enumerated(EnumType.STRING)
+    private TypePaiement typePaiement;
+
+    private String anneeUniversitaire;
+
+    private BigDecimal montantTotal;
+
+    private int nombreEcheances;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy")
+    private Date datePremiereEcheance;
+
+    private int intervalleMois;
+}
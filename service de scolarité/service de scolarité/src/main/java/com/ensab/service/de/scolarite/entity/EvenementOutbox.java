@@ -0,0 +1,43 @@
+package com.ensab.service.de.scolarite.entity;
+
+import com.ensab.service.de.scolarite.enums.StatusBatch;
+import com.ensab.service.de.scolarite.enums.TypeEvenement;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.util.Date;
+
+// Written in the transaction of the change it describes, dispatched to the listeners after commit
+@Entity
+@Data
+@Table(indexes = {
+        @Index(name = "idx_outbox_relay", columnList = "status, prochaine_tentative, id"),
+        @Index(name = "idx_outbox_etudiant", columnList = "etudiant_id, id")})
+public class EvenementOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 40)
+    private TypeEvenement type;
+
+    private Long agregatId;
+
+    private Long etudiantId;
+
+    // EN_ATTENTE, EN_COURS while leased by a relay, TERMINE, or ECHOUE once the retries are exhausted
+    @Enumerated(EnumType.STRING)
+    private StatusBatch status;
+
+    private int tentatives;
+
+    private Date prochaineTentative;
+
+    private Date dateCreation;
+
+    private Date dateTraitement;
+
+    @Column(length = 1000)
+    private String derniereErreur;
+}
@@ -0,0 +1,33 @@
+package com.ensab.service.de.scolarite.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+@Entity
+@Data
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = "evenement_id"),
+        indexes = @Index(name = "idx_evenement_paiement_en_attente", columnList = "en_attente, id"))
+public class EvenementPaiement {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Provider-side id of the callback, the deduplication key
+    @Column(length = 100)
+    private String evenementId;
+
+    private Long paiementId;
+
+    @Column(length = 30)
+    private String statut;
+
+    private BigDecimal montant;
+
+    private Date dateReception;
+
+    // Stored but not applied yet. A primitive so that rows stored before the column existed read as applied.
+    private boolean enAttente;
+}
@@ -15,15 +15,20 @@ public class Inscription {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(length = 30)
+    // Type, annee and filiereQuota are the quota bucket the inscription holds a place in
+    @Column(length = 30, updatable = false)
     @Enumerated(EnumType.STRING)
     private TypeInscription typeInscription;
 
     @Enumerated(EnumType.STRING)
     private StatusInscription status;
 
+    @Column(updatable = false)
     private String anneeUniversitaire;
 
+    // Filiere at confirmation: the place is released there even if the etudiant has changed filiere since
+    private String filiereQuota;
+
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy")
     private Date dateCreation;
 
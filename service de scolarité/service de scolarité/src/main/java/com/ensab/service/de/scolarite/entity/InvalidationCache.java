@@ -0,0 +1,29 @@
+package com.ensab.service.de.scolarite.entity;
+
+import com.ensab.service.de.scolarite.enums.CacheDistribue;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.util.Date;
+
+// Change log read by every node past its high-water mark; rows are short-lived and purged after a while
+@Entity
+@Data
+public class InvalidationCache {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private CacheDistribue cache;
+
+    // Null evicts the whole cache
+    private String cle;
+
+    // Node that made the change; it has already updated its own cache
+    @Column(length = 40)
+    private String noeud;
+
+    private Date dateCreation;
+}
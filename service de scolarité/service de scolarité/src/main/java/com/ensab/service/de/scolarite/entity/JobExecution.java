@@ -0,0 +1,42 @@
+package com.ensab.service.de.scolarite.entity;
+
+import com.ensab.service.de.scolarite.enums.StatusBatch;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.util.Date;
+
+@Entity
+@Data
+@Table(indexes = @Index(name = "idx_job_execution_nom", columnList = "nom, id"))
+public class JobExecution {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 60)
+    private String nom;
+
+    @Column(length = 40)
+    private String noeud;
+
+    private Date debut;
+
+    private Date fin;
+
+    // EN_COURS, TERMINE, ECHOUE, or ANNULE when the lease was lost mid-run
+    @Enumerated(EnumType.STRING)
+    private StatusBatch status;
+
+    // Checkpoint the run started from, when it resumed an interrupted one
+    private String reprise;
+
+    private int etapes;
+
+    private long elements;
+
+    private long dureeMs;
+
+    @Column(length = 1000)
+    private String erreur;
+}
@@ -0,0 +1,27 @@
+package com.ensab.service.de.scolarite.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.util.Date;
+
+// One row per scheduled job: the node holding the lease runs it, the others skip it until the lease expires
+@Entity
+@Data
+public class JobVerrou {
+    @Id
+    @Column(length = 60)
+    private String nom;
+
+    @Column(length = 40)
+    private String proprietaire;
+
+    private Date expiration;
+
+    private Date heartbeat;
+
+    private Date prochaineExecution;
+
+    // Where an interrupted run resumes; null between runs
+    private String checkpoint;
+}
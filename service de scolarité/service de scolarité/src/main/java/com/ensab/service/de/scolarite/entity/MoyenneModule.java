@@ -0,0 +1,27 @@
+package com.ensab.service.de.scolarite.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+// Running aggregate of an etudiant's notes for one module, maintained by NoteServiceImpl
+@Entity
+@Data
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"etudiant_id", "module"}))
+public class MoyenneModule {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String module;
+    private double somme;
+    private long nombre;
+    private Double minimum;
+    private Double maximum;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "etudiant_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Etudiant etudiant;
+}
@@ -0,0 +1,46 @@
+package com.ensab.service.de.scolarite.entity;
+
+import com.ensab.service.de.scolarite.enums.StatusBatch;
+import com.ensab.service.de.scolarite.enums.TypeEvenement;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.util.Date;
+
+// Email queued for a workflow transition; one row per outbox event, so a redelivered event is not mailed twice
+@Entity
+@Data
+@Table(indexes = @Index(name = "idx_notification_envoi", columnList = "status, prochaine_tentative, id"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_notification_evenement", columnNames = "evenement_id"))
+public class Notification {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long evenementId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 40)
+    private TypeEvenement type;
+
+    private Long agregatId;
+
+    private Long etudiantId;
+
+    private String destinataire;
+
+    // EN_ATTENTE, EN_COURS while leased by a sender, TERMINE once sent, or ECHOUE once the retries are exhausted
+    @Enumerated(EnumType.STRING)
+    private StatusBatch status;
+
+    private int tentatives;
+
+    private Date prochaineTentative;
+
+    private Date dateCreation;
+
+    private Date dateEnvoi;
+
+    @Column(length = 1000)
+    private String derniereErreur;
+}
@@ -11,6 +11,10 @@ import java.util.Date;
 
 @Entity
 @Data
+@Table(indexes = {
+        @Index(name = "idx_paiement_etudiant_status", columnList = "etudiant_id, status, date_creation"),
+        @Index(name = "idx_paiement_date", columnList = "date_creation")},
+        uniqueConstraints = @UniqueConstraint(columnNames = {"echeancier_id", "etudiant_id", "numero_echeance"}))
 public class Paiement {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -33,4 +37,14 @@ public class Paiement {
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "etudiant_id", nullable = false)
     private Etudiant etudiant;
+
+    // Set on paiements generated from an echeancier only
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy")
+    private Date dateEcheance;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "echeancier_id")
+    private Echeancier echeancier;
+
+    private Integer numeroEcheance;
 }
\ No newline at end of file
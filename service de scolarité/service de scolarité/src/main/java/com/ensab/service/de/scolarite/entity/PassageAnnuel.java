@@ -0,0 +1,41 @@
+package com.ensab.service.de.scolarite.entity;
+
+import com.ensab.service.de.scolarite.enums.StatusBatch;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.util.Date;
+
+@Entity
+@Data
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"annee_source", "annee_cible"}))
+public class PassageAnnuel {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String anneeSource;
+    private String anneeCible;
+
+    // "niveau=niveauSuivant" lines, kept so that a restart applies the same promotions
+    @Column(columnDefinition = "TEXT")
+    private String promotions;
+
+    @Column(length = 20)
+    @Enumerated(EnumType.STRING)
+    private StatusBatch status;
+
+    // Checkpoint: every etudiant up to this id has been processed
+    private long dernierEtudiantId;
+
+    private long inscriptionsCreees;
+    private long etudiantsPromus;
+    private long etudiantsRedoublants;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm:ss")
+    private Date dateDebut;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm:ss")
+    private Date dateFin;
+}
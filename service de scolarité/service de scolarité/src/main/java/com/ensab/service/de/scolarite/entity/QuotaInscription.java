@@ -0,0 +1,27 @@
+package com.ensab.service.de.scolarite.entity;
+
+import com.ensab.service.de.scolarite.enums.TypeInscription;
+import jakarta.persistence.*;
+import lombok.Data;
+
+@Entity
+@Data
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"filiere", "type_inscription", "annee_universitaire"}))
+public class QuotaInscription {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String filiere;
+
+    @Column(length = 30)
+    @Enumerated(EnumType.STRING)
+    private TypeInscription typeInscription;
+
+    private String anneeUniversitaire;
+
+    private int capacite;
+
+    // CONFIRME inscriptions counted against the capacite, only changed by conditional updates
+    private int confirmes;
+}
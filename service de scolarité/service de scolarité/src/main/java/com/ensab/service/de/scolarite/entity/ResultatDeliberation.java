@@ -0,0 +1,36 @@
+package com.ensab.service.de.scolarite.entity;
+
+import com.ensab.service.de.scolarite.enums.DecisionJury;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.util.Date;
+
+@Entity
+@Data
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"etudiant_id", "annee_universitaire"}))
+public class ResultatDeliberation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String anneeUniversitaire;
+    private Double moyenne;
+    private int modulesValides;
+    private int modulesNonValides;
+
+    @Column(length = 20)
+    @Enumerated(EnumType.STRING)
+    private DecisionJury decision;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy")
+    private Date dateDeliberation;
+
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "etudiant_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Etudiant etudiant;
+}
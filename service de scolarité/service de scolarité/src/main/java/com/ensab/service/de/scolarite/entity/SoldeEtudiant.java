@@ -0,0 +1,35 @@
+package com.ensab.service.de.scolarite.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+// Balance of an etudiant's paiements, maintained by PaiementServiceImpl; the covering index serves the aging queries
+@Entity
+@Data
+@Table(indexes = @Index(name = "idx_solde_impaye", columnList = "date_impaye_ancienne, etudiant_id, total_du, total_paye"))
+public class SoldeEtudiant {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(precision = 12, scale = 2)
+    private BigDecimal totalDu;
+
+    @Column(precision = 12, scale = 2)
+    private BigDecimal totalPaye;
+
+    private int nombreImpayes;
+
+    // Due date (dateEcheance, else dateCreation) of the oldest paiement not PAYE, null when everything is paid
+    private Date dateImpayeAncienne;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "etudiant_id", nullable = false, unique = true)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Etudiant etudiant;
+}
@@ -0,0 +1,8 @@
+package com.ensab.service.de.scolarite.enums;
+
+// In-process caches kept coherent across nodes through the invalidation log
+public enum CacheDistribue {
+    CLASSEMENT,
+    QUOTA,
+    ANALYTICS
+}
@@ -0,0 +1,7 @@
+package com.ensab.service.de.scolarite.enums;
+
+public enum DecisionJury {
+    VALIDE,
+    RATTRAPAGE,
+    AJOURNE
+}
@@ -0,0 +1,12 @@
+package com.ensab.service.de.scolarite.enums;
+
+public enum DimensionAnalytique {
+    FAIT,
+    FILIERE,
+    NIVEAU,
+    ANNEE_UNIVERSITAIRE,
+    STATUS,
+    TYPE,
+    MOIS,
+    SEMAINE
+}
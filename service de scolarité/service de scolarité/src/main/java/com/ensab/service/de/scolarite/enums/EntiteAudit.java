@@ -0,0 +1,10 @@
+package com.ensab.service.de.scolarite.enums;
+
+public enum EntiteAudit {
+    NOTE,
+    DEMANDE,
+    PAIEMENT,
+    RECLAMATION,
+    INSCRIPTION,
+    ETUDIANT
+}
@@ -0,0 +1,9 @@
+package com.ensab.service.de.scolarite.enums;
+
+public enum PeriodeRapport {
+    JOUR,
+    SEMAINE,
+    MOIS,
+    TRIMESTRE,
+    ANNEE
+}
@@ -0,0 +1,9 @@
+package com.ensab.service.de.scolarite.enums;
+
+public enum StatusBatch {
+    EN_ATTENTE,
+    EN_COURS,
+    TERMINE,
+    ANNULE,
+    ECHOUE
+}
@@ -0,0 +1,28 @@
+package com.ensab.service.de.scolarite.enums;
+
+// Domain events written to the outbox; the table is the one of the aggregate the event refers to
+public enum TypeEvenement {
+    DEMANDE_CREEE("demande"),
+    DEMANDE_RESERVEE("demande"),
+    DEMANDE_LIBEREE("demande"),
+    DEMANDE_APPROUVEE("demande"),
+    DEMANDE_REFUSEE("demande"),
+    PAIEMENT_CREE("paiement"),
+    PAIEMENT_PAYE("paiement"),
+    PAIEMENT_ANNULE("paiement"),
+    RECLAMATION_CREEE("reclamation"),
+    RECLAMATION_TRAITEE("reclamation"),
+    INSCRIPTION_CREEE("inscription"),
+    INSCRIPTION_CONFIRMEE("inscription"),
+    INSCRIPTION_ANNULEE("inscription");
+
+    private final String agregat;
+
+    TypeEvenement(String agregat) {
+        this.agregat = agregat;
+    }
+
+    public String getAgregat() {
+        return agregat;
+    }
+}
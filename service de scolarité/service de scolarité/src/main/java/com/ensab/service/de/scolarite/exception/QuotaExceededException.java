@@ -0,0 +1,7 @@
+package com.ensab.service.de.scolarite.exception;
+
+public class QuotaExceededException extends RuntimeException {
+    public QuotaExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,52 @@
+package com.ensab.service.de.scolarite.filter;
+
+import com.ensab.service.de.scolarite.dto.ratelimit.RateLimitStatusDTO;
+import com.ensab.service.de.scolarite.exception.TooManyRequestsException;
+import com.ensab.service.de.scolarite.service.RateLimitService;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+// Runs after the security filters, so students are limited by account and anonymous callers by address.
+// Throwing lets GlobalExceptionHandler answer 429 with Retry-After; the RateLimit-* headers are already set.
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private RateLimitService rateLimitService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Async results are dispatched a second time through the same handler: count the request once
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        final String chemin = request.getRequestURI().substring(request.getContextPath().length());
+        final RateLimitStatusDTO status = rateLimitService.consommer(principal(request), request.getMethod(), chemin);
+        if (status == null) {
+            return true;
+        }
+        response.setHeader("RateLimit-Limit", String.valueOf(status.getLimite()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(status.getRestant()));
+        response.setHeader("RateLimit-Reset", String.valueOf(status.getReset()));
+        if (!status.isAutorise()) {
+            throw new TooManyRequestsException("Limite de " + status.getLimite() + " requêtes atteinte pour cette ressource.",
+                    status.getReset());
+        }
+        return true;
+    }
+
+    private String principal(HttpServletRequest request) {
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken || !authentication.isAuthenticated()) {
+            return "ip:" + request.getRemoteAddr();
+        }
+        return authentication.getName();
+    }
+}
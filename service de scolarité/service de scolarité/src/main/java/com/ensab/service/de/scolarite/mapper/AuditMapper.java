@@ -0,0 +1,25 @@
+package com.ensab.service.de.scolarite.mapper;
+
+import com.ensab.service.de.scolarite.dto.audit.AuditDTO;
+import com.ensab.service.de.scolarite.entity.AuditLog;
+
+public class AuditMapper {
+
+    public static AuditDTO toDTO(final AuditLog audit) {
+        if (audit == null) {
+            return null;
+        }
+
+        final AuditDTO dto = new AuditDTO();
+        dto.setId(audit.getId());
+        dto.setDate(audit.getDate());
+        dto.setActeur(audit.getActeur());
+        dto.setEtudiantId(audit.getEtudiantId());
+        dto.setEntite(audit.getEntite());
+        dto.setEntiteId(audit.getEntiteId());
+        dto.setAction(audit.getAction());
+        dto.setAncienneValeur(audit.getAncienneValeur());
+        dto.setNouvelleValeur(audit.getNouvelleValeur());
+        return dto;
+    }
+}
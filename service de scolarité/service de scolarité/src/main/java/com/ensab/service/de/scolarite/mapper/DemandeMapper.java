@@ -27,6 +27,7 @@ public class DemandeMapper {
         demandeDTO.setStatus(demande.getStatus());
         demandeDTO.setDateCreation(demande.getDateCreation());
         demandeDTO.setDateTraitement(demande.getDateTraitement());
+        demandeDTO.setDateExpirationReservation(demande.getDateExpirationReservation());
         demandeDTO.setEtudiant(EtudiantMapper.toBasicDTO(demande.getEtudiant()));
         demandeDTO.setAdmin(AdminMapper.toBasicDTO(demande.getAdmin()));
         demandeDTO.setAsyncErrorMessage(demande.getAsyncErrorMessage());
@@ -0,0 +1,35 @@
+package com.ensab.service.de.scolarite.mapper;
+
+import com.ensab.service.de.scolarite.dto.echeancier.EcheancierRequestDTO;
+import com.ensab.service.de.scolarite.dto.echeancier.EcheancierResponseDTO;
+import com.ensab.service.de.scolarite.entity.Echeancier;
+
+public class EcheancierMapper {
+
+    public static void updateEntity(final Echeancier echeancier, final EcheancierRequestDTO dto) {
+        echeancier.setFiliere(dto.getFiliere());
+        echeancier.setTypePaiement(dto.getTypePaiement());
+        echeancier.setAnneeUniversitaire(dto.getAnneeUniversitaire());
+        echeancier.setMontantTotal(dto.getMontantTotal());
+        echeancier.setNombreEcheances(dto.getNombreEcheances());
+        echeancier.setDatePremiereEcheance(dto.getDatePremiereEcheance());
+        echeancier.setIntervalleMois(dto.getIntervalleMois());
+    }
+
+    public static EcheancierResponseDTO toDTO(final Echeancier echeancier) {
+        if (echeancier == null) {
+            return null;
+        }
+
+        final EcheancierResponseDTO dto = new EcheancierResponseDTO();
+        dto.setId(echeancier.getId());
+        dto.setFiliere(echeancier.getFiliere());
+        dto.setTypePaiement(echeancier.getTypePaiement());
+        dto.setAnneeUniversitaire(echeancier.getAnneeUniversitaire());
+        dto.setMontantTotal(echeancier.getMontantTotal());
+        dto.setNombreEcheances(echeancier.getNombreEcheances());
+        dto.setDatePremiereEcheance(echeancier.getDatePremiereEcheance());
+        dto.setIntervalleMois(echeancier.getIntervalleMois());
+        return dto;
+    }
+}
@@ -0,0 +1,34 @@
+package com.ensab.service.de.scolarite.mapper;
+
+import com.ensab.service.de.scolarite.dto.evenement.EvenementDTO;
+import com.ensab.service.de.scolarite.dto.evenement.EvenementEtudiantDTO;
+import com.ensab.service.de.scolarite.entity.EvenementOutbox;
+
+public class EvenementMapper {
+
+    public static EvenementDTO toDTO(final EvenementOutbox evenement) {
+        if (evenement == null) {
+            return null;
+        }
+
+        final EvenementDTO dto = new EvenementDTO();
+        dto.setId(evenement.getId());
+        dto.setType(evenement.getType());
+        dto.setAgregatId(evenement.getAgregatId());
+        dto.setEtudiantId(evenement.getEtudiantId());
+        dto.setStatus(evenement.getStatus());
+        dto.setTentatives(evenement.getTentatives());
+        dto.setDateCreation(evenement.getDateCreation());
+        dto.setDerniereErreur(evenement.getDerniereErreur());
+        return dto;
+    }
+
+    public static EvenementEtudiantDTO toEtudiantDTO(final EvenementDTO evenement) {
+        final EvenementEtudiantDTO dto = new EvenementEtudiantDTO();
+        dto.setId(evenement.getId());
+        dto.setType(evenement.getType());
+        dto.setAgregatId(evenement.getAgregatId());
+        dto.setDate(evenement.getDateCreation());
+        return dto;
+    }
+}
@@ -0,0 +1,27 @@
+package com.ensab.service.de.scolarite.mapper;
+
+import com.ensab.service.de.scolarite.dto.job.JobExecutionDTO;
+import com.ensab.service.de.scolarite.entity.JobExecution;
+
+public class JobMapper {
+
+    public static JobExecutionDTO toDTO(final JobExecution execution) {
+        if (execution == null) {
+            return null;
+        }
+
+        final JobExecutionDTO dto = new JobExecutionDTO();
+        dto.setId(execution.getId());
+        dto.setNom(execution.getNom());
+        dto.setNoeud(execution.getNoeud());
+        dto.setDebut(execution.getDebut());
+        dto.setFin(execution.getFin());
+        dto.setStatus(execution.getStatus());
+        dto.setReprise(execution.getReprise());
+        dto.setEtapes(execution.getEtapes());
+        dto.setElements(execution.getElements());
+        dto.setDureeMs(execution.getDureeMs());
+        dto.setErreur(execution.getErreur());
+        return dto;
+    }
+}
@@ -0,0 +1,26 @@
+package com.ensab.service.de.scolarite.mapper;
+
+import com.ensab.service.de.scolarite.dto.notification.NotificationDTO;
+import com.ensab.service.de.scolarite.entity.Notification;
+
+public class NotificationMapper {
+
+    public static NotificationDTO toDTO(final Notification notification) {
+        if (notification == null) {
+            return null;
+        }
+
+        final NotificationDTO dto = new NotificationDTO();
+        dto.setId(notification.getId());
+        dto.setEvenementId(notification.getEvenementId());
+        dto.setType(notification.getType());
+        dto.setAgregatId(notification.getAgregatId());
+        dto.setDestinataire(notification.getDestinataire());
+        dto.setStatus(notification.getStatus());
+        dto.setTentatives(notification.getTentatives());
+        dto.setDateCreation(notification.getDateCreation());
+        dto.setDateEnvoi(notification.getDateEnvoi());
+        dto.setDerniereErreur(notification.getDerniereErreur());
+        return dto;
+    }
+}
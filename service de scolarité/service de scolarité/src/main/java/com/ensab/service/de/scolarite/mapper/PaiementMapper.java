@@ -30,6 +30,8 @@ public class PaiementMapper {
         dto.setMontant(paiement.getMontant());
         dto.setDateCreation(paiement.getDateCreation());
         dto.setDatePaiement(paiement.getDatePaiement());
+        dto.setDateEcheance(paiement.getDateEcheance());
+        dto.setNumeroEcheance(paiement.getNumeroEcheance());
         dto.setEtudiant(EtudiantMapper.toBasicDTO(paiement.getEtudiant()));
         return dto;
     }
@@ -0,0 +1,26 @@
+package com.ensab.service.de.scolarite.mapper;
+
+import com.ensab.service.de.scolarite.dto.passage.PassageAnnuelReportDTO;
+import com.ensab.service.de.scolarite.entity.PassageAnnuel;
+
+public class PassageAnnuelMapper {
+
+    public static PassageAnnuelReportDTO toDTO(final PassageAnnuel passage) {
+        if (passage == null) {
+            return null;
+        }
+
+        final PassageAnnuelReportDTO dto = new PassageAnnuelReportDTO();
+        dto.setId(passage.getId());
+        dto.setAnneeSource(passage.getAnneeSource());
+        dto.setAnneeCible(passage.getAnneeCible());
+        dto.setStatus(passage.getStatus());
+        dto.setDernierEtudiantId(passage.getDernierEtudiantId());
+        dto.setInscriptionsCreees(passage.getInscriptionsCreees());
+        dto.setEtudiantsPromus(passage.getEtudiantsPromus());
+        dto.setEtudiantsRedoublants(passage.getEtudiantsRedoublants());
+        dto.setDateDebut(passage.getDateDebut());
+        dto.setDateFin(passage.getDateFin());
+        return dto;
+    }
+}
@@ -0,0 +1,23 @@
+package com.ensab.service.de.scolarite.mapper;
+
+import com.ensab.service.de.scolarite.dto.quota.QuotaResponseDTO;
+import com.ensab.service.de.scolarite.entity.QuotaInscription;
+
+public class QuotaMapper {
+
+    public static QuotaResponseDTO toDTO(final QuotaInscription quota) {
+        if (quota == null) {
+            return null;
+        }
+
+        final QuotaResponseDTO dto = new QuotaResponseDTO();
+        dto.setId(quota.getId());
+        dto.setFiliere(quota.getFiliere());
+        dto.setTypeInscription(quota.getTypeInscription());
+        dto.setAnneeUniversitaire(quota.getAnneeUniversitaire());
+        dto.setCapacite(quota.getCapacite());
+        dto.setConfirmes(quota.getConfirmes());
+        dto.setDisponibles(Math.max(0, quota.getCapacite() - quota.getConfirmes()));
+        return dto;
+    }
+}
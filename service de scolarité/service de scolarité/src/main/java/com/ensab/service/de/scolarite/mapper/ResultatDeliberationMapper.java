@@ -0,0 +1,24 @@
+package com.ensab.service.de.scolarite.mapper;
+
+import com.ensab.service.de.scolarite.dto.deliberation.ResultatDeliberationDTO;
+import com.ensab.service.de.scolarite.entity.ResultatDeliberation;
+
+public class ResultatDeliberationMapper {
+
+    public static ResultatDeliberationDTO toDTO(final ResultatDeliberation resultat) {
+        if (resultat == null) {
+            return null;
+        }
+
+        final ResultatDeliberationDTO dto = new ResultatDeliberationDTO();
+        dto.setId(resultat.getId());
+        dto.setAnneeUniversitaire(resultat.getAnneeUniversitaire());
+        dto.setMoyenne(resultat.getMoyenne());
+        dto.setModulesValides(resultat.getModulesValides());
+        dto.setModulesNonValides(resultat.getModulesNonValides());
+        dto.setDecision(resultat.getDecision());
+        dto.setDateDeliberation(resultat.getDateDeliberation());
+        dto.setEtudiant(EtudiantMapper.toBasicDTO(resultat.getEtudiant()));
+        return dto;
+    }
+}
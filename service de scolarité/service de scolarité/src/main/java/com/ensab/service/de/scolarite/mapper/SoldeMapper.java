@@ -0,0 +1,28 @@
+package com.ensab.service.de.scolarite.mapper;
+
+import com.ensab.service.de.scolarite.dto.solde.SoldeEtudiantDTO;
+import com.ensab.service.de.scolarite.entity.SoldeEtudiant;
+
+import java.util.concurrent.TimeUnit;
+
+public class SoldeMapper {
+
+    public static SoldeEtudiantDTO toDTO(final SoldeEtudiant solde) {
+        if (solde == null) {
+            return null;
+        }
+
+        final SoldeEtudiantDTO dto = new SoldeEtudiantDTO();
+        dto.setEtudiant(EtudiantMapper.toBasicDTO(solde.getEtudiant()));
+        dto.setTotalDu(solde.getTotalDu());
+        dto.setTotalPaye(solde.getTotalPaye());
+        dto.setResteAPayer(solde.getTotalDu().subtract(solde.getTotalPaye()));
+        dto.setNombreImpayes(solde.getNombreImpayes());
+        dto.setDateImpayeAncienne(solde.getDateImpayeAncienne());
+        if (solde.getDateImpayeAncienne() != null) {
+            dto.setJoursRetard(TimeUnit.MILLISECONDS.toDays(
+                    System.currentTimeMillis() - solde.getDateImpayeAncienne().getTime()));
+        }
+        return dto;
+    }
+}
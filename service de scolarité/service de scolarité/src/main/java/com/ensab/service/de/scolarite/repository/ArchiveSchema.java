@@ -0,0 +1,78 @@
+package com.ensab.service.de.scolarite.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Cold storage for a live table: an archive_&lt;table&gt; copy without foreign keys and a &lt;table&gt;_historique view
+ * over both. Live tables evolve through ddl-auto, so the archive side is aligned column by column, and index by
+ * index, on every call.
+ */
+@Repository
+public class ArchiveSchema {
+
+    private static final String SELECT_COLUMNS = """
+            SELECT column_name, column_type FROM information_schema.columns
+            WHERE table_schema = DATABASE() AND table_name = ?
+            ORDER BY ordinal_position
+            """;
+
+    private static final String SELECT_INDEXES = """
+            SELECT index_name, GROUP_CONCAT(CONCAT('`', column_name, '`') ORDER BY seq_in_index)
+            FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = ? AND index_name <> 'PRIMARY'
+            GROUP BY index_name
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Returns the column list shared by the live and the archive table, in live order
+    public String prepare(final String table) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS archive_" + table + " LIKE " + table);
+        final List<String[]> live = columns(table);
+        final Set<String> archived = new HashSet<>();
+        for (String[] column : columns("archive_" + table)) {
+            archived.add(column[0]);
+        }
+        for (String[] column : live) {
+            if (!archived.contains(column[0])) {
+                jdbcTemplate.execute("ALTER TABLE archive_" + table + " ADD COLUMN " + column[0] + " " + column[1] + " NULL");
+            }
+        }
+        prepareIndexes(table);
+        return String.join(", ", live.stream().map(column -> column[0]).toList());
+    }
+
+    // Indexes added to the live table after the archive was created (CREATE TABLE LIKE only copies the first ones).
+    // Archive copies are never unique: the archive holds closed rows of several years.
+    private void prepareIndexes(final String table) {
+        final Set<String> archived = new HashSet<>();
+        for (String[] index : indexes("archive_" + table)) {
+            archived.add(index[0]);
+        }
+        for (String[] index : indexes(table)) {
+            if (!archived.contains(index[0])) {
+                jdbcTemplate.execute("CREATE INDEX `" + index[0] + "` ON archive_" + table + " (" + index[1] + ")");
+            }
+        }
+    }
+
+    private List<String[]> indexes(final String table) {
+        return jdbcTemplate.query(SELECT_INDEXES, (rs, rowNum) -> new String[]{rs.getString(1), rs.getString(2)}, table);
+    }
+
+    public void createHistoryView(final String table, final String columns) {
+        jdbcTemplate.execute("CREATE OR REPLACE VIEW " + table + "_historique AS SELECT " + columns + " FROM " + table
+                + " UNION ALL SELECT " + columns + " FROM archive_" + table);
+    }
+
+    private List<String[]> columns(final String table) {
+        return jdbcTemplate.query(SELECT_COLUMNS, (rs, rowNum) -> new String[]{rs.getString(1), rs.getString(2)}, table);
+    }
+}
@@ -0,0 +1,16 @@
+package com.ensab.service.de.scolarite.repository;
+
+import com.ensab.service.de.scolarite.entity.AuditLog;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
+
+    List<AuditLog> findByEtudiantIdOrderByIdDesc(Long etudiantId, Pageable pageable);
+
+    List<AuditLog> findByActeurOrderByIdDesc(String acteur, Pageable pageable);
+}
@@ -0,0 +1,23 @@
+package com.ensab.service.de.scolarite.repository;
+
+import com.ensab.service.de.scolarite.entity.CleIdempotence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.Optional;
+
+@Repository
+public interface CleIdempotenceRepository extends JpaRepository<CleIdempotence, Long> {
+
+    Optional<CleIdempotence> findByPorteeAndCle(String portee, String cle);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM cle_idempotence WHERE date_creation < :limite ORDER BY id LIMIT :taille", nativeQuery = true)
+    int deleteCreatedBefore(@Param("limite") Date limite, @Param("taille") int taille);
+}
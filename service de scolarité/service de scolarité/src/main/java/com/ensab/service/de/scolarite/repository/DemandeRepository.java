@@ -1,13 +1,18 @@
 package com.ensab.service.de.scolarite.repository;
 
+import com.ensab.service.de.scolarite.entity.Admin;
 import com.ensab.service.de.scolarite.entity.Demande;
 import com.ensab.service.de.scolarite.entity.Etudiant;
 import com.ensab.service.de.scolarite.enums.StatusDemande;
 import com.ensab.service.de.scolarite.enums.TypeDocument;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
 @Repository
@@ -15,6 +20,37 @@ public interface DemandeRepository extends JpaRepository<Demande, Long> {
 
     List<Demande> findByEtudiantId(Long etudiantId);
 
+    // Opt-in reads including the archived years (see ArchivageServiceImpl)
+    @Query(value = "SELECT d.* FROM demande_historique d WHERE d.etudiant_id = :etudiantId", nativeQuery = true)
+    List<Demande> findByEtudiantIdWithArchive(@Param("etudiantId") Long etudiantId);
+
+    // Archived rows of purged etudiants are left out, they have no etudiant to map to
+    @Query(value = "SELECT d.* FROM demande_historique d JOIN etudiant e ON e.id = d.etudiant_id", nativeQuery = true)
+    List<Demande> findAllWithArchive();
+
+    List<Demande> findByStatusAndAdminIdOrderByDateCreation(StatusDemande status, Long adminId);
+
+    // Oldest pending demandes; rows locked by a concurrent claim are skipped instead of waited on
+    @Query(value = "SELECT d.id FROM demande d WHERE d.status = 'EN_ATTENTE' " +
+            "ORDER BY d.date_creation, d.id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockNextPendingIds(@Param("limit") int limit);
+
+    // Expired leases are claimable again, with the same skip-locked semantics
+    @Query(value = "SELECT d.id FROM demande d WHERE d.status = 'EN_COURS' AND d.date_expiration_reservation < :now " +
+            "ORDER BY d.date_creation, d.id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockExpiredLeaseIds(@Param("now") Date now, @Param("limit") int limit);
+
+    // Only called on ids locked by the current transaction
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Demande d SET d.status = 'EN_COURS', d.admin = :admin, d.dateExpirationReservation = :expiration " +
+            "WHERE d.id IN :ids")
+    int lease(@Param("ids") List<Long> ids, @Param("admin") Admin admin, @Param("expiration") Date expiration);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Demande d SET d.status = 'EN_ATTENTE', d.admin = NULL, d.dateExpirationReservation = NULL " +
+            "WHERE d.status = 'EN_COURS' AND d.dateExpirationReservation < :now")
+    int releaseExpiredLeases(@Param("now") Date now);
+
     Long countByStatus(StatusDemande status);
 
     @Query(value = "SELECT AVG(DATEDIFF(d.date_traitement, d.date_creation)) FROM demande d WHERE d.date_traitement IS NOT NULL", nativeQuery = true)
@@ -38,5 +74,10 @@ public interface DemandeRepository extends JpaRepository<Demande, Long> {
             """, nativeQuery = true)
     List<Object[]> countDemandesPerDayOfWeek();
 
-    boolean existsByEtudiantAndStatusAndTypeDocument(Etudiant etudiant, StatusDemande enAttente, TypeDocument typeDocument);
+    boolean existsByEtudiantAndStatusInAndTypeDocument(Etudiant etudiant, Collection<StatusDemande> statuses, TypeDocument typeDocument);
+
+    // Scalar rows for the analytics snapshot
+    @Query("SELECT d.id, d.etudiant.id, d.etudiant.filiere, d.etudiant.niveau, d.etudiant.anneeUniversitaire, " +
+            "d.status, d.typeDocument, d.dateCreation FROM Demande d")
+    List<Object[]> findAnalyticsRows();
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.ensab.service.de.scolarite.repository;
+
+import com.ensab.service.de.scolarite.entity.Echeancier;
+import com.ensab.service.de.scolarite.enums.TypePaiement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface EcheancierRepository extends JpaRepository<Echeancier, Long> {
+
+    Optional<Echeancier> findByFiliereAndTypePaiementAndAnneeUniversitaire(
+            String filiere, TypePaiement typePaiement, String anneeUniversitaire);
+}
@@ -1,11 +1,13 @@
 package com.ensab.service.de.scolarite.repository;
 
 import com.ensab.service.de.scolarite.entity.Etudiant;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,6 +16,28 @@ public interface EtudiantRepository extends JpaRepository<Etudiant, Long> {
 
     Optional<Etudiant> findByEmail(String email);
 
+    // Student reads only need the id of the authenticated etudiant
+    @Query("SELECT e.id FROM Etudiant e WHERE e.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    @Query("SELECT e FROM Etudiant e LEFT JOIN FETCH e.notes WHERE e.email = :email")
+    Optional<Etudiant> findByEmailWithNotes(@Param("email") String email);
+
     @Query("SELECT e FROM Etudiant e LEFT JOIN FETCH e.notes WHERE e.id = :id")
     Optional<Etudiant> findByIdWithNotes(@Param("id") Long id);
+
+    // Cohort filters: a null anneeUniversitaire matches every year
+    @Query("SELECT COUNT(e) FROM Etudiant e WHERE e.filiere = :filiere AND e.niveau = :niveau " +
+            "AND (:annee IS NULL OR e.anneeUniversitaire = :annee)")
+    long countByCohort(@Param("filiere") String filiere, @Param("niveau") String niveau, @Param("annee") String anneeUniversitaire);
+
+    // Keyset pagination over a cohort, so each chunk stays an index range scan
+    @Query("SELECT e.id FROM Etudiant e WHERE e.filiere = :filiere AND e.niveau = :niveau " +
+            "AND (:annee IS NULL OR e.anneeUniversitaire = :annee) AND e.id > :afterId ORDER BY e.id")
+    List<Long> findCohortIdsAfter(@Param("filiere") String filiere, @Param("niveau") String niveau,
+                                  @Param("annee") String anneeUniversitaire, @Param("afterId") Long afterId,
+                                  Pageable pageable);
+
+    @Query("SELECT DISTINCT e FROM Etudiant e LEFT JOIN FETCH e.notes WHERE e.id IN :ids ORDER BY e.id")
+    List<Etudiant> findAllByIdWithNotes(@Param("ids") List<Long> ids);
 }
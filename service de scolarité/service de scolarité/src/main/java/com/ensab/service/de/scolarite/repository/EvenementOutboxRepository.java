@@ -0,0 +1,30 @@
+package com.ensab.service.de.scolarite.repository;
+
+import com.ensab.service.de.scolarite.entity.EvenementOutbox;
+import com.ensab.service.de.scolarite.enums.StatusBatch;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface EvenementOutboxRepository extends JpaRepository<EvenementOutbox, Long> {
+
+    List<EvenementOutbox> findByStatusOrderByIdDesc(StatusBatch status, Pageable pageable);
+
+    // Events a reconnecting student missed after Last-Event-ID
+    List<EvenementOutbox> findByEtudiantIdAndIdGreaterThanOrderById(Long etudiantId, Long id, Pageable pageable);
+
+    @Query("SELECT e.status, COUNT(e) FROM EvenementOutbox e GROUP BY e.status")
+    List<Object[]> countByStatus();
+
+    @Modifying
+    @Query("UPDATE EvenementOutbox e SET e.status = com.ensab.service.de.scolarite.enums.StatusBatch.EN_ATTENTE, e.tentatives = 0, e.prochaineTentative = :maintenant " +
+            "WHERE e.status = 'ECHOUE'")
+    int rejouerEchecs(@Param("maintenant") Date maintenant);
+}
@@ -0,0 +1,9 @@
+package com.ensab.service.de.scolarite.repository;
+
+import com.ensab.service.de.scolarite.entity.EvenementPaiement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EvenementPaiementRepository extends JpaRepository<EvenementPaiement, Long> {
+}
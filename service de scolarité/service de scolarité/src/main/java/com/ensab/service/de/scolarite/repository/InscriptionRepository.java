@@ -2,23 +2,43 @@ package com.ensab.service.de.scolarite.repository;
 
 import com.ensab.service.de.scolarite.entity.Inscription;
 import com.ensab.service.de.scolarite.enums.StatusInscription;
+import com.ensab.service.de.scolarite.enums.TypeInscription;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface InscriptionRepository extends JpaRepository<Inscription, Long> {
 
     List<Inscription> findByEtudiantId(Long etudiantId);
 
+    // Status transitions that move a quota place hold the row until commit
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inscription i WHERE i.id = :id")
+    Optional<Inscription> findByIdForUpdate(@Param("id") Long id);
+
     Long countByStatus(StatusInscription status);
 
+    @Query("SELECT COUNT(i) FROM Inscription i WHERE i.status = 'CONFIRME' AND COALESCE(i.filiereQuota, i.etudiant.filiere) = :filiere " +
+            "AND i.typeInscription = :type AND i.anneeUniversitaire = :annee")
+    long countConfirmedInBucket(@Param("filiere") String filiere, @Param("type") TypeInscription typeInscription,
+                                @Param("annee") String anneeUniversitaire);
+
     @Query(value = "SELECT AVG(DATEDIFF(i.date_confirmation, i.date_creation)) FROM inscription i WHERE i.date_confirmation IS NOT NULL", nativeQuery = true)
     Double calculateAverageInscriptionsProcessingTime();
 
     // Monthly Inscriptions
     @Query("SELECT FUNCTION('MONTH', i.dateCreation), i.typeInscription, COUNT(i) FROM Inscription i WHERE FUNCTION('YEAR', i.dateCreation) = FUNCTION('YEAR', CURRENT_DATE) GROUP BY FUNCTION('MONTH', i.dateCreation), i.typeInscription ORDER BY FUNCTION('MONTH', i.dateCreation)")
     List<Object[]> countInscriptionsPerMonthAndType();
+
+    // Scalar rows for the analytics snapshot
+    @Query("SELECT i.id, i.etudiant.id, i.etudiant.filiere, i.etudiant.niveau, i.etudiant.anneeUniversitaire, " +
+            "i.status, i.typeInscription, i.dateCreation FROM Inscription i")
+    List<Object[]> findAnalyticsRows();
 }
\ No newline at end of file
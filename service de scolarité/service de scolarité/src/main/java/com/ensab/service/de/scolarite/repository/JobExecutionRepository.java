@@ -0,0 +1,20 @@
+package com.ensab.service.de.scolarite.repository;
+
+import com.ensab.service.de.scolarite.entity.JobExecution;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface JobExecutionRepository extends JpaRepository<JobExecution, Long> {
+
+    List<JobExecution> findByNomOrderByIdDesc(String nom, Pageable pageable);
+
+    // nom, runs, failed runs, average duration of the finished runs
+    @Query("SELECT e.nom, COUNT(e), SUM(CASE WHEN e.status = 'ECHOUE' THEN 1 ELSE 0 END), AVG(e.dureeMs) " +
+            "FROM JobExecution e WHERE e.fin IS NOT NULL GROUP BY e.nom")
+    List<Object[]> statsParJob();
+}
@@ -0,0 +1,71 @@
+package com.ensab.service.de.scolarite.repository;
+
+import com.ensab.service.de.scolarite.entity.MoyenneModule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MoyenneModuleRepository extends JpaRepository<MoyenneModule, Long> {
+
+    List<MoyenneModule> findByEtudiantIdOrderByModule(Long etudiantId);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO moyenne_module (etudiant_id, module, somme, nombre, minimum, maximum)
+            VALUES (:etudiantId, :module, :valeur, 1, :valeur, :valeur)
+            ON DUPLICATE KEY UPDATE
+                somme = somme + :valeur,
+                nombre = nombre + 1,
+                minimum = LEAST(minimum, :valeur),
+                maximum = GREATEST(maximum, :valeur)
+            """, nativeQuery = true)
+    void addNote(@Param("etudiantId") Long etudiantId, @Param("module") String module, @Param("valeur") Double valeur);
+
+    @Modifying
+    @Query(value = "UPDATE moyenne_module SET somme = somme - :valeur, nombre = nombre - 1 " +
+            "WHERE etudiant_id = :etudiantId AND module = :module", nativeQuery = true)
+    void removeNote(@Param("etudiantId") Long etudiantId, @Param("module") String module, @Param("valeur") Double valeur);
+
+    // Only needed when the removed value was a bound; reads that etudiant's notes for one module
+    @Modifying
+    @Query(value = """
+            UPDATE moyenne_module a SET
+                a.minimum = (SELECT MIN(n.valeur) FROM note n WHERE n.etudiant_id = a.etudiant_id AND COALESCE(n.module, '') = a.module),
+                a.maximum = (SELECT MAX(n.valeur) FROM note n WHERE n.etudiant_id = a.etudiant_id AND COALESCE(n.module, '') = a.module)
+            WHERE a.etudiant_id = :etudiantId AND a.module = :module
+              AND (a.minimum = :valeur OR a.maximum = :valeur)
+            """, nativeQuery = true)
+    void recomputeBounds(@Param("etudiantId") Long etudiantId, @Param("module") String module, @Param("valeur") Double valeur);
+
+    @Modifying
+    @Query(value = "DELETE FROM moyenne_module WHERE etudiant_id = :etudiantId AND module = :module AND nombre <= 0", nativeQuery = true)
+    void deleteEmpty(@Param("etudiantId") Long etudiantId, @Param("module") String module);
+
+    @Modifying
+    @Query(value = "DELETE FROM moyenne_module", nativeQuery = true)
+    void deleteAllInBulk();
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO moyenne_module (etudiant_id, module, somme, nombre, minimum, maximum)
+            SELECT n.etudiant_id, COALESCE(n.module, ''), SUM(n.valeur), COUNT(*), MIN(n.valeur), MAX(n.valeur)
+            FROM note n
+            WHERE n.valeur IS NOT NULL AND n.etudiant_id IS NOT NULL
+            GROUP BY n.etudiant_id, COALESCE(n.module, '')
+            """, nativeQuery = true)
+    int rebuildFromNotes();
+
+    @Query("SELECT SUM(a.somme), SUM(a.nombre) FROM MoyenneModule a WHERE a.etudiant.id = :etudiantId")
+    List<Object[]> sumByEtudiant(@Param("etudiantId") Long etudiantId);
+
+    @Query("SELECT a.etudiant.id, SUM(a.somme) / SUM(a.nombre) FROM MoyenneModule a " +
+            "WHERE a.etudiant.filiere = :filiere AND a.etudiant.niveau = :niveau " +
+            "AND a.etudiant.anneeUniversitaire = :annee GROUP BY a.etudiant.id")
+    List<Object[]> findMoyennesByCohort(@Param("filiere") String filiere, @Param("niveau") String niveau,
+                                       @Param("annee") String anneeUniversitaire);
+}
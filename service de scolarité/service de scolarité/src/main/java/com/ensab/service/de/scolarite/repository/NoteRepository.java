@@ -2,6 +2,8 @@ package com.ensab.service.de.scolarite.repository;
 
 import com.ensab.service.de.scolarite.entity.Note;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,4 +11,10 @@ import java.util.List;
 @Repository
 public interface NoteRepository extends JpaRepository<Note, Long> {
     List<Note> findByEtudiantId(Long etudiantId);
+
+    // Scalar projection for deliberations: no entity hydration for a whole cohort
+    @Query("SELECT n.etudiant.id, n.module, n.valeur FROM Note n WHERE n.etudiant.filiere = :filiere " +
+            "AND n.etudiant.niveau = :niveau AND n.etudiant.anneeUniversitaire = :annee AND n.valeur IS NOT NULL")
+    List<Object[]> findValeursByCohort(@Param("filiere") String filiere, @Param("niveau") String niveau,
+                                       @Param("annee") String anneeUniversitaire);
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.ensab.service.de.scolarite.repository;
+
+import com.ensab.service.de.scolarite.entity.Notification;
+import com.ensab.service.de.scolarite.enums.StatusBatch;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface NotificationRepository extends JpaRepository<Notification, Long> {
+
+    List<Notification> findByStatusOrderByIdDesc(StatusBatch status, Pageable pageable);
+
+    @Query("SELECT n.status, COUNT(n) FROM Notification n GROUP BY n.status")
+    List<Object[]> countByStatus();
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = com.ensab.service.de.scolarite.enums.StatusBatch.EN_ATTENTE, n.tentatives = 0, n.prochaineTentative = :maintenant " +
+            "WHERE n.status = 'ECHOUE'")
+    int rejouerEchecs(@Param("maintenant") Date maintenant);
+}
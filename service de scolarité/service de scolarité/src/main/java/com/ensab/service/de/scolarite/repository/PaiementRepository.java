@@ -3,9 +3,12 @@ package com.ensab.service.de.scolarite.repository;
 import com.ensab.service.de.scolarite.entity.Paiement;
 import com.ensab.service.de.scolarite.enums.StatusPaiement;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
 import java.util.List;
 
 @Repository
@@ -13,6 +16,28 @@ public interface PaiementRepository extends JpaRepository<Paiement, Long> {
 
     List<Paiement> findByEtudiantId(Long etudiantId);
 
+    // Conditional status transitions: of two concurrent callers (or a caller and the webhook flush) only one
+    // changes the row, and only that one may move the solde
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Paiement p SET p.status = 'PAYE', p.datePaiement = :date WHERE p.id = :id AND p.status <> 'PAYE'")
+    int marquerPaye(@Param("id") Long id, @Param("date") Date date);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Paiement p SET p.status = 'NON_PAYE' WHERE p.id = :id AND p.status = 'PAYE'")
+    int annulerPaye(@Param("id") Long id);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Paiement p SET p.status = 'NON_PAYE' WHERE p.id = :id AND p.status <> 'NON_PAYE'")
+    int annuler(@Param("id") Long id);
+
+    // Opt-in reads including the archived years (see ArchivageServiceImpl)
+    @Query(value = "SELECT p.* FROM paiement_historique p WHERE p.etudiant_id = :etudiantId", nativeQuery = true)
+    List<Paiement> findByEtudiantIdWithArchive(@Param("etudiantId") Long etudiantId);
+
+    // Archived rows of purged etudiants are left out, they have no etudiant to map to
+    @Query(value = "SELECT p.* FROM paiement_historique p JOIN etudiant e ON e.id = p.etudiant_id", nativeQuery = true)
+    List<Paiement> findAllWithArchive();
+
     Long countByStatus(StatusPaiement status);
 
     @Query(value = "SELECT AVG(DATEDIFF(p.date_paiement, p.date_creation)) FROM paiement p WHERE p.date_paiement IS NOT NULL", nativeQuery = true)
@@ -21,4 +46,9 @@ public interface PaiementRepository extends JpaRepository<Paiement, Long> {
     // Monthly Paiements
     @Query("SELECT FUNCTION('MONTH', p.dateCreation), p.typePaiement, COUNT(p) FROM Paiement p WHERE FUNCTION('YEAR', p.dateCreation) = FUNCTION('YEAR', CURRENT_DATE) GROUP BY FUNCTION('MONTH', p.dateCreation), p.typePaiement ORDER BY FUNCTION('MONTH', p.dateCreation)")
     List<Object[]> countPaiementsPerMonthAndType();
+
+    // Scalar rows for the analytics snapshot
+    @Query("SELECT p.id, p.etudiant.id, p.etudiant.filiere, p.etudiant.niveau, p.etudiant.anneeUniversitaire, " +
+            "p.status, p.typePaiement, p.dateCreation, p.montant FROM Paiement p")
+    List<Object[]> findAnalyticsRows();
 }
\ No newline at end of file
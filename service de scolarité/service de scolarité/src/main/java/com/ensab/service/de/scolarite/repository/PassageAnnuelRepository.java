@@ -0,0 +1,16 @@
+package com.ensab.service.de.scolarite.repository;
+
+import com.ensab.service.de.scolarite.entity.PassageAnnuel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PassageAnnuelRepository extends JpaRepository<PassageAnnuel, Long> {
+
+    Optional<PassageAnnuel> findByAnneeSourceAndAnneeCible(String anneeSource, String anneeCible);
+
+    List<PassageAnnuel> findAllByOrderByDateDebutDesc();
+}
@@ -0,0 +1,31 @@
+package com.ensab.service.de.scolarite.repository;
+
+import com.ensab.service.de.scolarite.entity.QuotaInscription;
+import com.ensab.service.de.scolarite.enums.TypeInscription;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface QuotaInscriptionRepository extends JpaRepository<QuotaInscription, Long> {
+
+    Optional<QuotaInscription> findByFiliereAndTypeInscriptionAndAnneeUniversitaire(
+            String filiere, TypeInscription typeInscription, String anneeUniversitaire);
+
+    // Atomic check-and-increment: 0 rows updated means the bucket is full (or has no quota)
+    @Modifying
+    @Query("UPDATE QuotaInscription q SET q.confirmes = q.confirmes + 1 WHERE q.filiere = :filiere " +
+            "AND q.typeInscription = :type AND q.anneeUniversitaire = :annee AND q.confirmes < q.capacite")
+    int reserve(@Param("filiere") String filiere, @Param("type") TypeInscription typeInscription,
+                @Param("annee") String anneeUniversitaire);
+
+    @Modifying
+    @Query("UPDATE QuotaInscription q SET q.confirmes = q.confirmes - 1 WHERE q.filiere = :filiere " +
+            "AND q.typeInscription = :type AND q.anneeUniversitaire = :annee AND q.confirmes > 0")
+    int release(@Param("filiere") String filiere, @Param("type") TypeInscription typeInscription,
+                @Param("annee") String anneeUniversitaire);
+}
@@ -5,6 +5,7 @@ import com.ensab.service.de.scolarite.entity.Reclamation;
 import com.ensab.service.de.scolarite.enums.StatusReclamation;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,6 +15,14 @@ public interface ReclamationRepository extends JpaRepository<Reclamation, Long>
 
     List<Reclamation> findByEtudiantId(Long etudiantId);
 
+    // Opt-in reads including the archived years (see ArchivageServiceImpl)
+    @Query(value = "SELECT r.* FROM reclamation_historique r WHERE r.etudiant_id = :etudiantId", nativeQuery = true)
+    List<Reclamation> findByEtudiantIdWithArchive(@Param("etudiantId") Long etudiantId);
+
+    // Archived rows of purged etudiants are left out, they have no etudiant to map to
+    @Query(value = "SELECT r.* FROM reclamation_historique r JOIN etudiant e ON e.id = r.etudiant_id", nativeQuery = true)
+    List<Reclamation> findAllWithArchive();
+
     @Query(value = "SELECT AVG(DATEDIFF(r.date_traitement, r.date_creation)) FROM reclamation r WHERE r.date_traitement IS NOT NULL", nativeQuery = true)
     Double calculateAverageReclamationsProcessingTime();
 
@@ -37,4 +46,9 @@ public interface ReclamationRepository extends JpaRepository<Reclamation, Long>
     Long countByStatus(StatusReclamation status);
 
     boolean existsByEtudiantAndStatus(Etudiant etudiant, StatusReclamation enAttente);
+
+    // Scalar rows for the analytics snapshot
+    @Query("SELECT r.id, r.etudiant.id, r.etudiant.filiere, r.etudiant.niveau, r.etudiant.anneeUniversitaire, " +
+            "r.status, r.dateCreation FROM Reclamation r")
+    List<Object[]> findAnalyticsRows();
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.ensab.service.de.scolarite.repository;
+
+import com.ensab.service.de.scolarite.entity.ResultatDeliberation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ResultatDeliberationRepository extends JpaRepository<ResultatDeliberation, Long> {
+
+    List<ResultatDeliberation> findByEtudiantId(Long etudiantId);
+
+    @Query("SELECT r FROM ResultatDeliberation r WHERE r.etudiant.filiere = :filiere AND r.etudiant.niveau = :niveau " +
+            "AND r.anneeUniversitaire = :annee ORDER BY r.moyenne DESC")
+    List<ResultatDeliberation> findByCohort(@Param("filiere") String filiere, @Param("niveau") String niveau,
+                                            @Param("annee") String anneeUniversitaire);
+}
@@ -0,0 +1,41 @@
+package com.ensab.service.de.scolarite.repository;
+
+import com.ensab.service.de.scolarite.entity.SoldeEtudiant;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SoldeEtudiantRepository extends JpaRepository<SoldeEtudiant, Long> {
+
+    @Query("SELECT s FROM SoldeEtudiant s JOIN FETCH s.etudiant WHERE s.etudiant.id = :etudiantId")
+    Optional<SoldeEtudiant> findByEtudiantId(@Param("etudiantId") Long etudiantId);
+
+    // Range scan on idx_solde_impaye, the etudiant rows are only joined for the returned page
+    @Query("SELECT s FROM SoldeEtudiant s JOIN FETCH s.etudiant WHERE s.dateImpayeAncienne < :limite " +
+            "ORDER BY s.dateImpayeAncienne")
+    List<SoldeEtudiant> findImpayesBefore(@Param("limite") Date limite, Pageable pageable);
+
+    // Index-only: every column read is in idx_solde_impaye
+    @Query(value = """
+            SELECT CASE
+                       WHEN s.date_impaye_ancienne >= :j30 THEN '0-30'
+                       WHEN s.date_impaye_ancienne >= :j60 THEN '30-60'
+                       WHEN s.date_impaye_ancienne >= :j90 THEN '60-90'
+                       ELSE '90+'
+                   END AS tranche,
+                   COUNT(*),
+                   SUM(s.total_du - s.total_paye)
+            FROM solde_etudiant s
+            WHERE s.date_impaye_ancienne <= :maintenant
+            GROUP BY tranche
+            """, nativeQuery = true)
+    List<Object[]> countByTrancheRetard(@Param("maintenant") Date maintenant, @Param("j30") Date j30,
+                                        @Param("j60") Date j60, @Param("j90") Date j90);
+}
@@ -0,0 +1,12 @@
+package com.ensab.service.de.scolarite.service;
+
+import com.ensab.service.de.scolarite.dto.admission.AdmissionStatsDTO;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+public interface AdmissionService {
+    <T> CompletableFuture<T> submit(String cle, Supplier<T> ecriture);
+
+    AdmissionStatsDTO getStats();
+}
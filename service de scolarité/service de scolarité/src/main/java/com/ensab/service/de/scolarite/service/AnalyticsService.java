@@ -0,0 +1,23 @@
+package com.ensab.service.de.scolarite.service;
+
+import com.ensab.service.de.scolarite.dto.analytics.AnalyticsQueryDTO;
+import com.ensab.service.de.scolarite.dto.analytics.AnalyticsResultDTO;
+import com.ensab.service.de.scolarite.entity.*;
+
+public interface AnalyticsService {
+    AnalyticsResultDTO query(AnalyticsQueryDTO queryDTO);
+
+    int refresh();
+
+    void onDemande(Demande demande);
+
+    void onPaiement(Paiement paiement);
+
+    void onInscription(Inscription inscription);
+
+    void onReclamation(Reclamation reclamation);
+
+    void onEtudiantUpdated(Etudiant etudiant);
+
+    void onEtudiantDeleted(Long etudiantId);
+}
@@ -0,0 +1,14 @@
+package com.ensab.service.de.scolarite.service;
+
+import com.ensab.service.de.scolarite.dto.archivage.ArchivageReportDTO;
+
+import java.util.List;
+
+public interface ArchivageService {
+    ArchivageReportDTO archiver();
+
+    List<String> getTables();
+
+    // Archives a single table, without refreshing the analytics
+    long archiverTable(String table);
+}
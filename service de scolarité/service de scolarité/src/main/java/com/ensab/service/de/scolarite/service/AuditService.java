@@ -0,0 +1,22 @@
+package com.ensab.service.de.scolarite.service;
+
+import com.ensab.service.de.scolarite.dto.audit.AuditDTO;
+import com.ensab.service.de.scolarite.dto.audit.AuditStatsDTO;
+import com.ensab.service.de.scolarite.enums.EntiteAudit;
+
+import java.util.List;
+
+public interface AuditService {
+    // Recorded once the current transaction commits; the actor is the authenticated user
+    void enregistrer(EntiteAudit entite, Long entiteId, Long etudiantId, String action, Object ancienneValeur, Object nouvelleValeur);
+
+    // Same, for writes that no user makes (payment webhooks, jobs)
+    void enregistrer(String acteur, EntiteAudit entite, Long entiteId, Long etudiantId, String action,
+                     Object ancienneValeur, Object nouvelleValeur);
+
+    List<AuditDTO> getByEtudiant(Long etudiantId, int limit);
+
+    List<AuditDTO> getByActeur(String acteur, int limit);
+
+    AuditStatsDTO getStats();
+}
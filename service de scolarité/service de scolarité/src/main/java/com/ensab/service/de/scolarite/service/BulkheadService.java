@@ -0,0 +1,9 @@
+package com.ensab.service.de.scolarite.service;
+
+import com.ensab.service.de.scolarite.dto.bulkhead.BulkheadStatsDTO;
+
+import java.util.List;
+
+public interface BulkheadService {
+    List<BulkheadStatsDTO> getStats();
+}
@@ -0,0 +1,21 @@
+package com.ensab.service.de.scolarite.service;
+
+import com.ensab.service.de.scolarite.dto.cache.CacheCoherenceStatsDTO;
+import com.ensab.service.de.scolarite.enums.CacheDistribue;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public interface CacheCoherenceService {
+    // Written in the current transaction; the other nodes evict once it has committed. A null key evicts the whole
+    // cache. The calling node keeps its own cache up to date itself.
+    void invalider(CacheDistribue cache, String cle);
+
+    void invalider(CacheDistribue cache, Collection<String> cles);
+
+    // The callback gets the keys changed by other nodes since the last poll, or null when the whole cache is stale
+    void abonner(CacheDistribue cache, Consumer<Set<String>> eviction);
+
+    CacheCoherenceStatsDTO getStats();
+}
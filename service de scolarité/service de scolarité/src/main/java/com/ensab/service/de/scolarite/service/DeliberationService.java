@@ -0,0 +1,15 @@
+package com.ensab.service.de.scolarite.service;
+
+import com.ensab.service.de.scolarite.dto.deliberation.DeliberationRequestDTO;
+import com.ensab.service.de.scolarite.dto.deliberation.DeliberationSummaryDTO;
+import com.ensab.service.de.scolarite.dto.deliberation.ResultatDeliberationDTO;
+
+import java.util.List;
+
+public interface DeliberationService {
+    DeliberationSummaryDTO deliberer(DeliberationRequestDTO deliberationDTO);
+
+    List<ResultatDeliberationDTO> getResultats(String filiere, String niveau, String anneeUniversitaire);
+
+    List<ResultatDeliberationDTO> getResultatsByEtudiant(Long etudiantId);
+}
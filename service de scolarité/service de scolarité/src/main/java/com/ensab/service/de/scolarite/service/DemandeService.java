@@ -10,6 +10,8 @@ public interface DemandeService {
 
     List<DemandeResponseDTO> getAllDemandes();
 
+    List<DemandeResponseDTO> getAllDemandes(boolean archive);
+
     DemandeResponseDTO getDemandeById(Long id);
 
     DemandeResponseDTO approveDemande(Long id);
@@ -18,4 +20,14 @@ public interface DemandeService {
 
     List<DemandeResponseDTO> getDemandesByEtudiant(Long etudiantId);
 
+    List<DemandeResponseDTO> getDemandesByEtudiant(Long etudiantId, boolean archive);
+
+    List<DemandeResponseDTO> claimDemandes(int limit);
+
+    List<DemandeResponseDTO> getClaimedDemandes();
+
+    DemandeResponseDTO releaseDemande(Long id);
+
+    int releaseExpiredDemandes();
+
 }
@@ -0,0 +1,19 @@
+package com.ensab.service.de.scolarite.service;
+
+import com.ensab.service.de.scolarite.dto.document.DocumentBatchRequestDTO;
+import com.ensab.service.de.scolarite.dto.document.DocumentBatchStatusDTO;
+
+import java.io.OutputStream;
+import java.util.List;
+
+public interface DocumentBatchService {
+    DocumentBatchStatusDTO startBatch(DocumentBatchRequestDTO batchDTO);
+
+    void writeBatch(String batchId, OutputStream outputStream);
+
+    DocumentBatchStatusDTO getBatchStatus(String batchId);
+
+    List<DocumentBatchStatusDTO> getAllBatches();
+
+    DocumentBatchStatusDTO cancelBatch(String batchId);
+}
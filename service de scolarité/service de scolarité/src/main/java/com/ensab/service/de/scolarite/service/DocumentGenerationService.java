@@ -1,11 +1,17 @@
 package com.ensab.service.de.scolarite.service;
 
+import com.ensab.service.de.scolarite.entity.Etudiant;
 import com.ensab.service.de.scolarite.enums.TypeDocument;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.OutputStream;
 import java.util.concurrent.CompletableFuture;
 
 public interface DocumentGenerationService {
     CompletableFuture<byte[]> generateDocument(TypeDocument type, Long etudiantId);
     CompletableFuture<byte[]> generateAttestation(Long etudiantId);
     CompletableFuture<byte[]> generateReleveDeNotes(Long etudiantId);
-}
\ No newline at end of file
+    StreamingResponseBody streamDocument(TypeDocument type, Long etudiantId);
+    void writeDocument(TypeDocument type, Long etudiantId, OutputStream outputStream);
+    void writeDocument(TypeDocument type, Etudiant etudiant, OutputStream outputStream);
+}
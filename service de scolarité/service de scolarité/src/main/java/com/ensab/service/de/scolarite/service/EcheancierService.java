@@ -0,0 +1,15 @@
+package com.ensab.service.de.scolarite.service;
+
+import com.ensab.service.de.scolarite.dto.echeancier.EcheancierRequestDTO;
+import com.ensab.service.de.scolarite.dto.echeancier.EcheancierResponseDTO;
+import com.ensab.service.de.scolarite.dto.echeancier.GenerationEcheancierDTO;
+
+import java.util.List;
+
+public interface EcheancierService {
+    EcheancierResponseDTO saveEcheancier(EcheancierRequestDTO echeancierDTO);
+
+    List<EcheancierResponseDTO> getAllEcheanciers();
+
+    GenerationEcheancierDTO generer(Long echeancierId);
+}
@@ -0,0 +1,16 @@
+package com.ensab.service.de.scolarite.service;
+
+import com.ensab.service.de.scolarite.dto.evenement.EvenementDTO;
+import com.ensab.service.de.scolarite.enums.TypeEvenement;
+
+import java.util.List;
+
+/**
+ * Post-commit consumer of domain events. Events are delivered in batches, at least once: a failed batch is
+ * retried and the same event may reach a listener twice, so listeners must be idempotent.
+ */
+public interface EvenementListener {
+    boolean supporte(TypeEvenement type);
+
+    void traiter(List<EvenementDTO> evenements);
+}
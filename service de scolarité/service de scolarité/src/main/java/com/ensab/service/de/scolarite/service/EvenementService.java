@@ -0,0 +1,22 @@
+package com.ensab.service.de.scolarite.service;
+
+import com.ensab.service.de.scolarite.dto.evenement.EvenementDTO;
+import com.ensab.service.de.scolarite.enums.StatusBatch;
+import com.ensab.service.de.scolarite.enums.TypeEvenement;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface EvenementService {
+    // Must run inside the transaction of the change; nothing is written if it rolls back
+    void publier(TypeEvenement type, Long agregatId);
+
+    void publier(TypeEvenement type, Collection<Long> agregatIds);
+
+    Map<StatusBatch, Long> getStats();
+
+    List<EvenementDTO> getEchecs(int limit);
+
+    int rejouerEchecs();
+}
@@ -0,0 +1,13 @@
+package com.ensab.service.de.scolarite.service;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+public interface IdempotenceService {
+    <T> ResponseEntity<T> executer(String cle, String portee, Object requete, Class<T> type,
+                                   Supplier<ResponseEntity<T>> action);
+
+    // Deletes at most taille expired keys, oldest first
+    int purgerClesExpirees(int taille);
+}
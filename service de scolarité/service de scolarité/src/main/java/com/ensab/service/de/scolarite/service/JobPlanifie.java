@@ -0,0 +1,23 @@
+package com.ensab.service.de.scolarite.service;
+
+import java.time.Duration;
+
+/**
+ * Background job run on one node of the cluster at a time (see JobService). A run is a sequence of short steps;
+ * the checkpoint returned by each step is stored with the lease, so a run interrupted by a failure or a node crash
+ * resumes from it on whichever node takes the lease next. Steps must therefore be safe to repeat.
+ */
+public interface JobPlanifie {
+    String getNom();
+
+    Duration getIntervalle();
+
+    // checkpoint is null at the start of a run
+    Etape executer(String checkpoint);
+
+    record Etape(String checkpoint, long elements) {
+        public static Etape fin(long elements) {
+            return new Etape(null, elements);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.ensab.service.de.scolarite.service;
+
+import com.ensab.service.de.scolarite.dto.job.JobExecutionDTO;
+import com.ensab.service.de.scolarite.dto.job.JobStatutDTO;
+
+import java.util.List;
+
+public interface JobService {
+    List<JobStatutDTO> getJobs();
+
+    List<JobExecutionDTO> getHistorique(String nom, int limit);
+
+    // Makes the job due now; the node that takes the lease runs it on its next tick
+    void declencher(String nom);
+}
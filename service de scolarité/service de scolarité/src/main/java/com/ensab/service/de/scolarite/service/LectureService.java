@@ -0,0 +1,8 @@
+package com.ensab.service.de.scolarite.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+public interface LectureService {
+    <T> CompletableFuture<T> lire(Supplier<T> lecture);
+}
@@ -0,0 +1,21 @@
+package com.ensab.service.de.scolarite.service;
+
+import com.ensab.service.de.scolarite.dto.moyenne.ClassementDTO;
+import com.ensab.service.de.scolarite.dto.moyenne.MoyenneEtudiantDTO;
+import com.ensab.service.de.scolarite.entity.Etudiant;
+
+import java.util.List;
+
+public interface MoyenneService {
+    void onNoteAdded(Etudiant etudiant, String module, Double valeur);
+
+    void onNoteRemoved(Etudiant etudiant, String module, Double valeur);
+
+    MoyenneEtudiantDTO getMoyenneByEtudiant(Long etudiantId);
+
+    List<ClassementDTO> getClassement(String filiere, String niveau, String anneeUniversitaire, int top);
+
+    void invalidateClassements();
+
+    int rebuildMoyennes();
+}
@@ -0,0 +1,15 @@
+package com.ensab.service.de.scolarite.service;
+
+import com.ensab.service.de.scolarite.dto.notification.NotificationDTO;
+import com.ensab.service.de.scolarite.enums.StatusBatch;
+
+import java.util.List;
+import java.util.Map;
+
+public interface NotificationService {
+    Map<StatusBatch, Long> getStats();
+
+    List<NotificationDTO> getEchecs(int limit);
+
+    int rejouerEchecs();
+}
@@ -10,6 +10,8 @@ public interface PaiementService {
 
     List<PaiementResponseDTO> getAllPaiements();
 
+    List<PaiementResponseDTO> getAllPaiements(boolean archive);
+
     PaiementResponseDTO getPaiementById(Long id);
 
     PaiementResponseDTO payPaiement(Long id);
@@ -17,4 +19,6 @@ public interface PaiementService {
     PaiementResponseDTO cancelPaiement(Long id);
 
     List<PaiementResponseDTO> getPaiementsByEtudiant(Long etudiantId);
+
+    List<PaiementResponseDTO> getPaiementsByEtudiant(Long etudiantId, boolean archive);
 }
\ No newline at end of file
@@ -0,0 +1,5 @@
+package com.ensab.service.de.scolarite.service;
+
+public interface PaiementWebhookService {
+    boolean recevoir(String payload, String signature);
+}
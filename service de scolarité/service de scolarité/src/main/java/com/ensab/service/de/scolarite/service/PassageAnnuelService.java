@@ -0,0 +1,12 @@
+package com.ensab.service.de.scolarite.service;
+
+import com.ensab.service.de.scolarite.dto.passage.PassageAnnuelReportDTO;
+import com.ensab.service.de.scolarite.dto.passage.PassageAnnuelRequestDTO;
+
+import java.util.List;
+
+public interface PassageAnnuelService {
+    PassageAnnuelReportDTO executer(PassageAnnuelRequestDTO passageDTO);
+
+    List<PassageAnnuelReportDTO> getAllPassages();
+}
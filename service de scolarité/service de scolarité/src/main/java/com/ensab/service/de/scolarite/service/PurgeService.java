@@ -0,0 +1,14 @@
+package com.ensab.service.de.scolarite.service;
+
+import com.ensab.service.de.scolarite.dto.purge.PurgeRequestDTO;
+import com.ensab.service.de.scolarite.dto.purge.PurgeStatusDTO;
+
+import java.util.List;
+
+public interface PurgeService {
+    PurgeStatusDTO startPurge(PurgeRequestDTO purgeDTO);
+
+    PurgeStatusDTO getPurgeStatus(String purgeId);
+
+    List<PurgeStatusDTO> getAllPurges();
+}
@@ -0,0 +1,17 @@
+package com.ensab.service.de.scolarite.service;
+
+import com.ensab.service.de.scolarite.dto.quota.QuotaRequestDTO;
+import com.ensab.service.de.scolarite.dto.quota.QuotaResponseDTO;
+import com.ensab.service.de.scolarite.entity.Inscription;
+
+import java.util.List;
+
+public interface QuotaService {
+    void reserve(Inscription inscription);
+
+    void release(Inscription inscription);
+
+    QuotaResponseDTO saveQuota(QuotaRequestDTO quotaDTO);
+
+    List<QuotaResponseDTO> getAllQuotas();
+}
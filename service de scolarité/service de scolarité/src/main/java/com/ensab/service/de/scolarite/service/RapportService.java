@@ -0,0 +1,13 @@
+package com.ensab.service.de.scolarite.service;
+
+import com.ensab.service.de.scolarite.dto.rapport.RapportPaiementDTO;
+import com.ensab.service.de.scolarite.enums.PeriodeRapport;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+public interface RapportService {
+    RapportPaiementDTO getRapportPaiements(LocalDate debut, LocalDate fin, PeriodeRapport periode);
+
+    void writePaiementsCsv(LocalDate debut, LocalDate fin, OutputStream outputStream);
+}
@@ -0,0 +1,13 @@
+package com.ensab.service.de.scolarite.service;
+
+import com.ensab.service.de.scolarite.dto.ratelimit.RateLimitConsumerDTO;
+import com.ensab.service.de.scolarite.dto.ratelimit.RateLimitStatusDTO;
+
+import java.util.List;
+
+public interface RateLimitService {
+    // Null when no rule applies to the route
+    RateLimitStatusDTO consommer(String principal, String methode, String chemin);
+
+    List<RateLimitConsumerDTO> getTopConsumers(int limit);
+}
@@ -10,9 +10,13 @@ public interface ReclamationService {
 
     List<ReclamationResponseDTO> getAllReclamations();
 
+    List<ReclamationResponseDTO> getAllReclamations(boolean archive);
+
     ReclamationResponseDTO treatReclamation(Long id, ReclamationRequestDTO reclamationDTO);
 
     ReclamationResponseDTO getReclamationById(Long id);
 
     List<ReclamationResponseDTO> getReclamationsByEtudiant(Long etudiantId);
+
+    List<ReclamationResponseDTO> getReclamationsByEtudiant(Long etudiantId, boolean archive);
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.ensab.service.de.scolarite.service;
+
+import com.ensab.service.de.scolarite.dto.solde.SoldeEtudiantDTO;
+import com.ensab.service.de.scolarite.dto.solde.SoldeVerificationDTO;
+import com.ensab.service.de.scolarite.dto.solde.TrancheRetardDTO;
+import com.ensab.service.de.scolarite.entity.Paiement;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface SoldeService {
+    void onPaiementCree(Paiement paiement);
+
+    void onPaiementPaye(Paiement paiement);
+
+    void onPaiementAnnule(Paiement paiement);
+
+    void recalculerPourPaiements(Collection<Long> paiementIds);
+
+    void recalculerPourEtudiants(Collection<Long> etudiantIds);
+
+    SoldeEtudiantDTO getSoldeByEtudiant(Long etudiantId);
+
+    List<SoldeEtudiantDTO> getRetards(int jours, int limit);
+
+    List<TrancheRetardDTO> getTranchesRetard();
+
+    SoldeVerificationDTO verifier(boolean reconstruire);
+}
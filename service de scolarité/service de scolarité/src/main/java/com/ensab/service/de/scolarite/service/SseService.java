@@ -0,0 +1,8 @@
+package com.ensab.service.de.scolarite.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface SseService {
+    // lastEventId may be null; otherwise the events committed after it are sent first
+    SseEmitter connecter(Long etudiantId, Long lastEventId);
+}
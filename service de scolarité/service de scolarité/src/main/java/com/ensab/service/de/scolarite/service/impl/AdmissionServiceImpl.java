@@ -0,0 +1,84 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.dto.admission.AdmissionStatsDTO;
+import com.ensab.service.de.scolarite.exception.ServiceUnavailableException;
+import com.ensab.service.de.scolarite.exception.TooManyRequestsException;
+import com.ensab.service.de.scolarite.service.AdmissionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Service
+public class AdmissionServiceImpl implements AdmissionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionServiceImpl.class);
+
+    @Autowired
+    @Qualifier("admissionExecutor")
+    private ThreadPoolTaskExecutor admissionExecutor;
+
+    @Value("${admission.retry-after-seconds:2}")
+    private long retryAfterSeconds;
+
+    // One in-flight write per key (student + operation): retries and double clicks are refused, not queued
+    private final Map<String, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong rejetsSaturation = new AtomicLong();
+    private final AtomicLong rejetsDoublon = new AtomicLong();
+
+    @Override
+    public <T> CompletableFuture<T> submit(final String cle, final Supplier<T> ecriture) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(cle, future) != null) {
+            rejetsDoublon.incrementAndGet();
+            throw new TooManyRequestsException("Une requête identique est déjà en cours de traitement.", retryAfterSeconds);
+        }
+        try {
+            admissionExecutor.execute(() -> {
+                T result;
+                try {
+                    result = ecriture.get();
+                } catch (Throwable e) {
+                    inFlight.remove(cle, future);
+                    future.completeExceptionally(e);
+                    return;
+                }
+                inFlight.remove(cle, future);
+                future.complete(result);
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(cle, future);
+            long rejets = rejetsSaturation.incrementAndGet();
+            if (rejets % 100 == 1) {
+                logger.warn("Admission queue full, {} requests rejected so far.", rejets);
+            }
+            throw new ServiceUnavailableException("Trop de requêtes en attente, veuillez réessayer.", retryAfterSeconds);
+        }
+        return future;
+    }
+
+    @Override
+    public AdmissionStatsDTO getStats() {
+        final ThreadPoolExecutor executor = admissionExecutor.getThreadPoolExecutor();
+        final AdmissionStatsDTO dto = new AdmissionStatsDTO();
+        dto.setWriters(executor.getMaximumPoolSize());
+        dto.setActifs(executor.getActiveCount());
+        dto.setEnAttente(executor.getQueue().size());
+        dto.setCapacite(executor.getQueue().size() + executor.getQueue().remainingCapacity());
+        dto.setTraites(executor.getCompletedTaskCount());
+        dto.setRejetsSaturation(rejetsSaturation.get());
+        dto.setRejetsDoublon(rejetsDoublon.get());
+        return dto;
+    }
+}
@@ -0,0 +1,67 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.dto.evenement.EvenementDTO;
+import com.ensab.service.de.scolarite.enums.CacheDistribue;
+import com.ensab.service.de.scolarite.enums.TypeEvenement;
+import com.ensab.service.de.scolarite.repository.DemandeRepository;
+import com.ensab.service.de.scolarite.repository.InscriptionRepository;
+import com.ensab.service.de.scolarite.repository.PaiementRepository;
+import com.ensab.service.de.scolarite.repository.ReclamationRepository;
+import com.ensab.service.de.scolarite.service.AnalyticsService;
+import com.ensab.service.de.scolarite.service.CacheCoherenceService;
+import com.ensab.service.de.scolarite.service.EvenementListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Keeps the analytics cube in step with the writes: the current state of each aggregate is re-read once per batch,
+// so replays and out-of-order events still leave the cube on the committed row
+@Component
+public class AnalyticsEvenementListener implements EvenementListener {
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private DemandeRepository demandeRepository;
+
+    @Autowired
+    private PaiementRepository paiementRepository;
+
+    @Autowired
+    private ReclamationRepository reclamationRepository;
+
+    @Autowired
+    private InscriptionRepository inscriptionRepository;
+
+    @Autowired
+    private CacheCoherenceService cacheCoherenceService;
+
+    @Override
+    public boolean supporte(final TypeEvenement type) {
+        return true;
+    }
+
+    @Override
+    public void traiter(final List<EvenementDTO> evenements) {
+        final Map<String, List<Long>> idsParAgregat = evenements.stream()
+                .collect(Collectors.groupingBy(evenement -> evenement.getType().getAgregat(),
+                        Collectors.mapping(EvenementDTO::getAgregatId, Collectors.collectingAndThen(Collectors.toSet(), List::copyOf))));
+        idsParAgregat.forEach((agregat, ids) -> {
+            switch (agregat) {
+                case "demande" -> demandeRepository.findAllById(ids).forEach(analyticsService::onDemande);
+                case "paiement" -> paiementRepository.findAllById(ids).forEach(analyticsService::onPaiement);
+                case "reclamation" -> reclamationRepository.findAllById(ids).forEach(analyticsService::onReclamation);
+                case "inscription" -> inscriptionRepository.findAllById(ids).forEach(analyticsService::onInscription);
+                default -> throw new IllegalStateException("Agrégat inconnu: " + agregat);
+            }
+        });
+        // The relay runs on one node only: the other nodes re-read the same aggregates into their own cube
+        cacheCoherenceService.invalider(CacheDistribue.ANALYTICS, idsParAgregat.entrySet().stream()
+                .flatMap(entry -> entry.getValue().stream().map(id -> entry.getKey() + ":" + id))
+                .toList());
+    }
+}
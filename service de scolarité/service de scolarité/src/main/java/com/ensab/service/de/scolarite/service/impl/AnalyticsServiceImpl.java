@@ -0,0 +1,281 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.dto.analytics.AnalyticsQueryDTO;
+import com.ensab.service.de.scolarite.dto.analytics.AnalyticsResultDTO;
+import com.ensab.service.de.scolarite.dto.analytics.AnalyticsRowDTO;
+import com.ensab.service.de.scolarite.entity.*;
+import com.ensab.service.de.scolarite.enums.CacheDistribue;
+import com.ensab.service.de.scolarite.enums.DimensionAnalytique;
+import com.ensab.service.de.scolarite.exception.BadRequestException;
+import com.ensab.service.de.scolarite.repository.DemandeRepository;
+import com.ensab.service.de.scolarite.repository.EtudiantRepository;
+import com.ensab.service.de.scolarite.repository.InscriptionRepository;
+import com.ensab.service.de.scolarite.repository.PaiementRepository;
+import com.ensab.service.de.scolarite.repository.ReclamationRepository;
+import com.ensab.service.de.scolarite.service.AnalyticsService;
+import com.ensab.service.de.scolarite.service.CacheCoherenceService;
+import com.ensab.service.de.scolarite.util.AnalyticsCube;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.IsoFields;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Service
+public class AnalyticsServiceImpl implements AnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsServiceImpl.class);
+
+    private static final String DEMANDE = "DEMANDE";
+    private static final String PAIEMENT = "PAIEMENT";
+    private static final String INSCRIPTION = "INSCRIPTION";
+    private static final String RECLAMATION = "RECLAMATION";
+
+    @Autowired
+    private DemandeRepository demandeRepository;
+
+    @Autowired
+    private PaiementRepository paiementRepository;
+
+    @Autowired
+    private InscriptionRepository inscriptionRepository;
+
+    @Autowired
+    private ReclamationRepository reclamationRepository;
+
+    @Autowired
+    private EtudiantRepository etudiantRepository;
+
+    @Autowired
+    private CacheCoherenceService cacheCoherenceService;
+
+    // Replaced as a whole by each reload; the cube being loaded is not visible until it is complete
+    private volatile AnalyticsCube cube = new AnalyticsCube();
+
+    // Writes made while a reload runs, replayed on the new cube before the swap; null outside a reload
+    private final Object ecritures = new Object();
+    private List<Consumer<AnalyticsCube>> journal;
+
+    @PostConstruct
+    void abonnerInvalidations() {
+        cacheCoherenceService.abonner(CacheDistribue.ANALYTICS, this::synchroniser);
+    }
+
+    @Override
+    public AnalyticsResultDTO query(final AnalyticsQueryDTO queryDTO) {
+        if (queryDTO.getGroupBy().size() > AnalyticsCube.MAX_GROUP_BY) {
+            throw new BadRequestException("Au plus " + AnalyticsCube.MAX_GROUP_BY + " dimensions de regroupement.");
+        }
+        if (!cube.isLoaded()) {
+            charger();
+        }
+        final AnalyticsCube courant = cube;
+        final long debut = System.nanoTime();
+        final List<AnalyticsCube.Group> groups = courant.query(queryDTO.getGroupBy(), queryDTO.getFiltres());
+
+        final List<AnalyticsRowDTO> lignes = groups.stream()
+                .map(group -> {
+                    AnalyticsRowDTO row = new AnalyticsRowDTO();
+                    Map<String, String> dimensions = new LinkedHashMap<>();
+                    for (int g = 0; g < queryDTO.getGroupBy().size(); g++) {
+                        dimensions.put(queryDTO.getGroupBy().get(g).name(), group.valeurs()[g]);
+                    }
+                    row.setDimensions(dimensions);
+                    row.setNombre(group.nombre());
+                    row.setMontant(BigDecimal.valueOf(group.montant()).setScale(2, RoundingMode.HALF_UP));
+                    return row;
+                })
+                .sorted(Comparator.comparing(row -> String.join("|", row.getDimensions().values())))
+                .collect(Collectors.toList());
+
+        final AnalyticsResultDTO result = new AnalyticsResultDTO();
+        result.setLignes(lignes);
+        result.setLignesScannees(courant.size());
+        result.setDureeMs((System.nanoTime() - debut) / 1_000_000);
+        return result;
+    }
+
+    @Override
+    public int refresh() {
+        final int lignes = charger();
+        cacheCoherenceService.invalider(CacheDistribue.ANALYTICS, (String) null);
+        return lignes;
+    }
+
+    // The four full-table reads fill a new cube outside any lock the queries and upserts use
+    private synchronized int charger() {
+        final long debut = System.currentTimeMillis();
+        synchronized (ecritures) {
+            journal = new ArrayList<>();
+        }
+        try {
+            final AnalyticsCube nouveau = new AnalyticsCube();
+            nouveau.rebuild(target -> {
+                for (Object[] row : demandeRepository.findAnalyticsRows()) {
+                    target.upsert((Long) row[0], (Long) row[1],
+                            values(DEMANDE, row[2], row[3], row[4], row[5], row[6], (Date) row[7]), 0);
+                }
+                for (Object[] row : paiementRepository.findAnalyticsRows()) {
+                    target.upsert((Long) row[0], (Long) row[1],
+                            values(PAIEMENT, row[2], row[3], row[4], row[5], row[6], (Date) row[7]), montant((BigDecimal) row[8]));
+                }
+                for (Object[] row : inscriptionRepository.findAnalyticsRows()) {
+                    target.upsert((Long) row[0], (Long) row[1],
+                            values(INSCRIPTION, row[2], row[3], row[4], row[5], row[6], (Date) row[7]), 0);
+                }
+                for (Object[] row : reclamationRepository.findAnalyticsRows()) {
+                    target.upsert((Long) row[0], (Long) row[1],
+                            values(RECLAMATION, row[2], row[3], row[4], row[5], null, (Date) row[6]), 0);
+                }
+            });
+            // Writes committed during the load are applied on top, then the new cube takes over
+            synchronized (ecritures) {
+                journal.forEach(ecriture -> ecriture.accept(nouveau));
+                cube = nouveau;
+            }
+            logger.info("Analytics snapshot loaded: {} rows in {} ms.", nouveau.size(), System.currentTimeMillis() - debut);
+            return nouveau.size();
+        } finally {
+            synchronized (ecritures) {
+                journal = null;
+            }
+        }
+    }
+
+    private void ecrire(final Consumer<AnalyticsCube> ecriture) {
+        synchronized (ecritures) {
+            ecriture.accept(cube);
+            if (journal != null) {
+                journal.add(ecriture);
+            }
+        }
+    }
+
+    @Override
+    public void onDemande(final Demande demande) {
+        final Etudiant etudiant = demande.getEtudiant();
+        final String[] values = values(DEMANDE, etudiant.getFiliere(), etudiant.getNiveau(),
+                etudiant.getAnneeUniversitaire(), demande.getStatus(), demande.getTypeDocument(), demande.getDateCreation());
+        ecrire(target -> target.upsert(demande.getId(), etudiant.getId(), values, 0));
+    }
+
+    @Override
+    public void onPaiement(final Paiement paiement) {
+        final Etudiant etudiant = paiement.getEtudiant();
+        final String[] values = values(PAIEMENT, etudiant.getFiliere(), etudiant.getNiveau(),
+                etudiant.getAnneeUniversitaire(), paiement.getStatus(), paiement.getTypePaiement(), paiement.getDateCreation());
+        final double montant = montant(paiement.getMontant());
+        ecrire(target -> target.upsert(paiement.getId(), etudiant.getId(), values, montant));
+    }
+
+    @Override
+    public void onInscription(final Inscription inscription) {
+        final Etudiant etudiant = inscription.getEtudiant();
+        final String[] values = values(INSCRIPTION, etudiant.getFiliere(), etudiant.getNiveau(),
+                etudiant.getAnneeUniversitaire(), inscription.getStatus(), inscription.getTypeInscription(),
+                inscription.getDateCreation());
+        ecrire(target -> target.upsert(inscription.getId(), etudiant.getId(), values, 0));
+    }
+
+    @Override
+    public void onReclamation(final Reclamation reclamation) {
+        final Etudiant etudiant = reclamation.getEtudiant();
+        final String[] values = values(RECLAMATION, etudiant.getFiliere(), etudiant.getNiveau(),
+                etudiant.getAnneeUniversitaire(), reclamation.getStatus(), null, reclamation.getDateCreation());
+        ecrire(target -> target.upsert(reclamation.getId(), etudiant.getId(), values, 0));
+    }
+
+    @Override
+    public void onEtudiantUpdated(final Etudiant etudiant) {
+        mettreAJourEtudiant(etudiant);
+        cacheCoherenceService.invalider(CacheDistribue.ANALYTICS, cleEtudiant(etudiant.getId()));
+    }
+
+    @Override
+    public void onEtudiantDeleted(final Long etudiantId) {
+        ecrire(target -> target.removeEtudiant(etudiantId));
+        cacheCoherenceService.invalider(CacheDistribue.ANALYTICS, cleEtudiant(etudiantId));
+    }
+
+    // Keys are "agregat:id" (see AnalyticsEvenementListener) or "etudiant:id"; the rows changed on other nodes are
+    // re-read and upserted, a full reload on another node reloads this cube too
+    private void synchroniser(final Set<String> cles) {
+        if (!cube.isLoaded()) {
+            return;
+        }
+        if (cles == null) {
+            charger();
+            return;
+        }
+        final Map<String, List<Long>> idsParAgregat = cles.stream()
+                .collect(Collectors.groupingBy(cle -> cle.substring(0, cle.indexOf(':')),
+                        Collectors.mapping(cle -> Long.valueOf(cle.substring(cle.indexOf(':') + 1)), Collectors.toList())));
+        idsParAgregat.forEach((agregat, ids) -> {
+            switch (agregat) {
+                case "demande" -> demandeRepository.findAllById(ids).forEach(this::onDemande);
+                case "paiement" -> paiementRepository.findAllById(ids).forEach(this::onPaiement);
+                case "reclamation" -> reclamationRepository.findAllById(ids).forEach(this::onReclamation);
+                case "inscription" -> inscriptionRepository.findAllById(ids).forEach(this::onInscription);
+                case "etudiant" -> {
+                    final Set<Long> supprimes = new HashSet<>(ids);
+                    for (Etudiant etudiant : etudiantRepository.findAllById(ids)) {
+                        supprimes.remove(etudiant.getId());
+                        mettreAJourEtudiant(etudiant);
+                    }
+                    supprimes.forEach(id -> ecrire(target -> target.removeEtudiant(id)));
+                }
+                default -> logger.warn("Unknown analytics invalidation key prefix: {}", agregat);
+            }
+        });
+    }
+
+    private void mettreAJourEtudiant(final Etudiant etudiant) {
+        final Long id = etudiant.getId();
+        final String filiere = etudiant.getFiliere();
+        final String niveau = etudiant.getNiveau();
+        final String annee = etudiant.getAnneeUniversitaire();
+        ecrire(target -> target.updateEtudiant(id, filiere, niveau, annee));
+    }
+
+    private static String cleEtudiant(final Long etudiantId) {
+        return "etudiant:" + etudiantId;
+    }
+
+    private static String[] values(String fait, Object filiere, Object niveau, Object annee,
+                                   Object status, Object type, Date dateCreation) {
+        final String[] values = new String[DimensionAnalytique.values().length];
+        values[DimensionAnalytique.FAIT.ordinal()] = fait;
+        values[DimensionAnalytique.FILIERE.ordinal()] = asString(filiere);
+        values[DimensionAnalytique.NIVEAU.ordinal()] = asString(niveau);
+        values[DimensionAnalytique.ANNEE_UNIVERSITAIRE.ordinal()] = asString(annee);
+        values[DimensionAnalytique.STATUS.ordinal()] = asString(status);
+        values[DimensionAnalytique.TYPE.ordinal()] = asString(type);
+        if (dateCreation != null) {
+            LocalDate date = new Date(dateCreation.getTime()).toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+            values[DimensionAnalytique.MOIS.ordinal()] = String.format("%d-%02d", date.getYear(), date.getMonthValue());
+            values[DimensionAnalytique.SEMAINE.ordinal()] = String.format("%d-W%02d",
+                    date.get(IsoFields.WEEK_BASED_YEAR), date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+        }
+        return values;
+    }
+
+    private static String asString(Object value) {
+        if (value == null) {
+            return null;
+        }
+        return value instanceof Enum<?> e ? e.name() : value.toString();
+    }
+
+    private static double montant(BigDecimal montant) {
+        return montant == null ? 0 : montant.doubleValue();
+    }
+}
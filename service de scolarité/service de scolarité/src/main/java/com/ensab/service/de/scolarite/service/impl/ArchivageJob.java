@@ -0,0 +1,56 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.service.AnalyticsService;
+import com.ensab.service.de.scolarite.service.ArchivageService;
+import com.ensab.service.de.scolarite.service.JobPlanifie;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+// Hot/cold archivage, one table per step. Checkpoint: "<next table index>|<rows archived so far>"
+@Component
+public class ArchivageJob implements JobPlanifie {
+
+    @Autowired
+    private ArchivageService archivageService;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Value("${jobs.archivage.intervalle-heures:24}")
+    private long intervalleHeures;
+
+    @Override
+    public String getNom() {
+        return "archivage";
+    }
+
+    @Override
+    public Duration getIntervalle() {
+        return Duration.ofHours(intervalleHeures);
+    }
+
+    @Override
+    public Etape executer(final String checkpoint) {
+        final List<String> tables = archivageService.getTables();
+        int index = 0;
+        long cumul = 0;
+        if (checkpoint != null) {
+            final String[] parts = checkpoint.split("\\|");
+            index = Integer.parseInt(parts[0]);
+            cumul = Long.parseLong(parts[1]);
+        }
+        if (index >= tables.size()) {
+            // The cube of every node is rebuilt through the ANALYTICS invalidation
+            if (cumul > 0) {
+                analyticsService.refresh();
+            }
+            return Etape.fin(0);
+        }
+        final long lignes = archivageService.archiverTable(tables.get(index));
+        return new Etape((index + 1) + "|" + (cumul + lignes), lignes);
+    }
+}
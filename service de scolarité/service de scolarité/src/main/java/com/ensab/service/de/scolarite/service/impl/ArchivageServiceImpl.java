@@ -0,0 +1,167 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.dto.archivage.ArchivageReportDTO;
+import com.ensab.service.de.scolarite.exception.BadRequestException;
+import com.ensab.service.de.scolarite.repository.ArchiveSchema;
+import com.ensab.service.de.scolarite.service.AnalyticsService;
+import com.ensab.service.de.scolarite.service.ArchivageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hot/cold split of the yearly tables: rows of a closed status created before the previous année universitaire
+ * move to archive_* tables, so the live tables (and their indexes) only hold the current and previous year.
+ * Archive reads go through the *_historique views and are opt-in.
+ */
+@Service
+public class ArchivageServiceImpl implements ArchivageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchivageServiceImpl.class);
+
+    // Table -> statuses that never change again; open rows stay hot whatever their age
+    private static final Map<String, List<String>> TABLES = new LinkedHashMap<>();
+
+    static {
+        TABLES.put("demande", List.of("APPROVEE", "REFUSEE"));
+        TABLES.put("paiement", List.of("PAYE"));
+        TABLES.put("reclamation", List.of("TRAITEE"));
+    }
+
+    @Autowired
+    private ArchiveSchema archiveSchema;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Value("${archivage.chunk-size:1000}")
+    private int chunkSize;
+
+    // First month of an année universitaire
+    @Value("${archivage.mois-debut-annee:9}")
+    private int moisDebutAnnee;
+
+    private final Map<String, String> columns = new HashMap<>();
+    private final AtomicBoolean enCours = new AtomicBoolean();
+
+    // The views must exist before the first archive read
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void prepareArchives() {
+        for (String table : TABLES.keySet()) {
+            String tableColumns = archiveSchema.prepare(table);
+            archiveSchema.createHistoryView(table, tableColumns);
+            columns.put(table, tableColumns);
+        }
+        logger.info("Archive tables and views ready for {}.", TABLES.keySet());
+    }
+
+    @Override
+    public ArchivageReportDTO archiver() {
+        if (!enCours.compareAndSet(false, true)) {
+            throw new BadRequestException("Un archivage est déjà en cours.");
+        }
+        try {
+            final long debut = System.nanoTime();
+            // Live tables may have gained columns since startup
+            prepareArchives();
+            final Date dateLimite = dateLimite();
+            final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            final Map<String, Long> lignes = new LinkedHashMap<>();
+            for (Map.Entry<String, List<String>> table : TABLES.entrySet()) {
+                lignes.put(table.getKey(), archiverTable(transactionTemplate, table.getKey(), table.getValue(), dateLimite));
+            }
+            analyticsService.refresh();
+
+            final ArchivageReportDTO report = new ArchivageReportDTO();
+            report.setDateLimite(dateLimite);
+            report.setLignesArchivees(lignes);
+            report.setDureeMs((System.nanoTime() - debut) / 1_000_000);
+            logger.info("Archivage before {} done in {} ms: {}.", dateLimite, report.getDureeMs(), lignes);
+            return report;
+        } finally {
+            enCours.set(false);
+        }
+    }
+
+    @Override
+    public List<String> getTables() {
+        return List.copyOf(TABLES.keySet());
+    }
+
+    @Override
+    public long archiverTable(final String table) {
+        final List<String> statuts = TABLES.get(table);
+        if (statuts == null) {
+            throw new BadRequestException("Table non archivable : " + table);
+        }
+        if (!enCours.compareAndSet(false, true)) {
+            throw new BadRequestException("Un archivage est déjà en cours.");
+        }
+        try {
+            prepareArchives();
+            final Date dateLimite = dateLimite();
+            final long lignes = archiverTable(new TransactionTemplate(transactionManager), table, statuts, dateLimite);
+            logger.info("Archivage of {} before {} done: {} rows.", table, dateLimite, lignes);
+            return lignes;
+        } finally {
+            enCours.set(false);
+        }
+    }
+
+    // One short transaction per chunk of ids: copy, then delete the same ids
+    private long archiverTable(TransactionTemplate transactionTemplate, String table, List<String> statuts, Date dateLimite) {
+        final String tableColumns = columns.get(table);
+        final String selectChunk = "SELECT id FROM " + table
+                + " WHERE date_creation < :limite AND status IN (:statuts) ORDER BY id LIMIT :taille";
+        final String copy = "INSERT INTO archive_" + table + " (" + tableColumns + ") SELECT " + tableColumns
+                + " FROM " + table + " WHERE id IN (:ids)";
+        final String delete = "DELETE FROM " + table + " WHERE id IN (:ids)";
+        final MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("limite", dateLimite)
+                .addValue("statuts", statuts)
+                .addValue("taille", chunkSize);
+
+        long total = 0;
+        while (true) {
+            final Integer moved = transactionTemplate.execute(status -> {
+                List<Long> ids = jdbcTemplate.queryForList(selectChunk, params, Long.class);
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                MapSqlParameterSource idsParams = new MapSqlParameterSource("ids", ids);
+                jdbcTemplate.update(copy, idsParams);
+                return jdbcTemplate.update(delete, idsParams);
+            });
+            if (moved == null || moved == 0) {
+                return total;
+            }
+            total += moved;
+        }
+    }
+
+    // Start of the previous année universitaire
+    private Date dateLimite() {
+        final LocalDate today = LocalDate.now();
+        int annee = today.getMonthValue() >= moisDebutAnnee ? today.getYear() : today.getYear() - 1;
+        return Date.from(LocalDate.of(annee - 1, moisDebutAnnee, 1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,205 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.dto.audit.AuditDTO;
+import com.ensab.service.de.scolarite.dto.audit.AuditStatsDTO;
+import com.ensab.service.de.scolarite.enums.EntiteAudit;
+import com.ensab.service.de.scolarite.mapper.AuditMapper;
+import com.ensab.service.de.scolarite.repository.AuditLogRepository;
+import com.ensab.service.de.scolarite.service.AuditService;
+import com.ensab.service.de.scolarite.util.RingBuffer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Audit trail of the admin writes. A request only builds an entry and publishes it to a ring buffer after commit;
+ * a single writer thread drains the buffer and appends batches to audit_log with one multi-row insert. When the
+ * writer falls behind (or the database is down), the buffer fills up and the requests wait for room instead of
+ * losing entries.
+ */
+@Service
+public class AuditServiceImpl implements AuditService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditServiceImpl.class);
+
+    private static final String INSERER = """
+            INSERT INTO audit_log (date, acteur, etudiant_id, entite, entite_id, action, ancienne_valeur, nouvelle_valeur)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private record Entree(long date, String acteur, Long etudiantId, EntiteAudit entite, Long entiteId,
+                          String action, String ancienneValeur, String nouvelleValeur) {
+    }
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${audit.batch-size:500}")
+    private int batchSize;
+
+    @Value("${audit.flush-ms:200}")
+    private long flushMs;
+
+    @Value("${audit.retry-ms:1000}")
+    private long retryMs;
+
+    private final RingBuffer<Entree> buffer;
+
+    private final AtomicLong ecrits = new AtomicLong();
+    private final AtomicLong lots = new AtomicLong();
+    private final AtomicLong erreursEcriture = new AtomicLong();
+
+    private Thread writer;
+    private volatile boolean arret;
+
+    public AuditServiceImpl(@Value("${audit.buffer-capacity:16384}") int capacite) {
+        this.buffer = new RingBuffer<>(capacite);
+    }
+
+    @PostConstruct
+    void startWriter() {
+        writer = new Thread(this::ecrire, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Entries already accepted are written before the context (and the datasource) goes away
+    @PreDestroy
+    void stopWriter() throws InterruptedException {
+        arret = true;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    @Override
+    public void enregistrer(final EntiteAudit entite, final Long entiteId, final Long etudiantId, final String action,
+                            final Object ancienneValeur, final Object nouvelleValeur) {
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        enregistrer(authentication != null ? authentication.getName() : "system",
+                entite, entiteId, etudiantId, action, ancienneValeur, nouvelleValeur);
+    }
+
+    @Override
+    public void enregistrer(final String acteur, final EntiteAudit entite, final Long entiteId, final Long etudiantId,
+                            final String action, final Object ancienneValeur, final Object nouvelleValeur) {
+        final Entree entree = new Entree(System.currentTimeMillis(), acteur,
+                etudiantId, entite, entiteId, action, texte(ancienneValeur), texte(nouvelleValeur));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publier(entree);
+                }
+            });
+        } else {
+            publier(entree);
+        }
+    }
+
+    @Override
+    public List<AuditDTO> getByEtudiant(final Long etudiantId, final int limit) {
+        return auditLogRepository.findByEtudiantIdOrderByIdDesc(etudiantId, PageRequest.of(0, limit)).stream()
+                .map(AuditMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<AuditDTO> getByActeur(final String acteur, final int limit) {
+        return auditLogRepository.findByActeurOrderByIdDesc(acteur, PageRequest.of(0, limit)).stream()
+                .map(AuditMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public AuditStatsDTO getStats() {
+        final AuditStatsDTO stats = new AuditStatsDTO();
+        stats.setCapacite(buffer.getCapacite());
+        stats.setEnAttente(buffer.getTaille());
+        stats.setEcrits(ecrits.get());
+        stats.setLots(lots.get());
+        stats.setAttentes(buffer.getAttentes());
+        stats.setErreursEcriture(erreursEcriture.get());
+        return stats;
+    }
+
+    private void publier(final Entree entree) {
+        buffer.publier(entree, () -> LockSupport.unpark(writer));
+    }
+
+    // Writer loop: drains full batches back to back, otherwise sleeps up to flushMs
+    private void ecrire() {
+        final List<Entree> lot = new ArrayList<>(batchSize);
+        while (true) {
+            buffer.drainer(lot::add, batchSize);
+            if (lot.isEmpty()) {
+                if (arret) {
+                    return;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushMs));
+                continue;
+            }
+            while (!inserer(lot)) {
+                // The batch is kept and retried; meanwhile the buffer fills up and pushes back on the requests
+                if (arret) {
+                    logger.error("Audit writer stopped with {} unwritten entries.", lot.size() + buffer.getTaille());
+                    return;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(retryMs));
+            }
+            lot.clear();
+        }
+    }
+
+    private boolean inserer(final List<Entree> lot) {
+        try {
+            jdbcTemplate.batchUpdate(INSERER, lot, lot.size(), (ps, entree) -> {
+                ps.setTimestamp(1, new Timestamp(entree.date()));
+                ps.setString(2, entree.acteur());
+                ps.setObject(3, entree.etudiantId(), Types.BIGINT);
+                ps.setString(4, entree.entite().name());
+                ps.setObject(5, entree.entiteId(), Types.BIGINT);
+                ps.setString(6, entree.action());
+                ps.setString(7, entree.ancienneValeur());
+                ps.setString(8, entree.nouvelleValeur());
+            });
+            ecrits.addAndGet(lot.size());
+            lots.incrementAndGet();
+            return true;
+        } catch (DataAccessException e) {
+            erreursEcriture.incrementAndGet();
+            logger.warn("Audit batch of {} entries not written, retrying: {}", lot.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    private static String texte(final Object valeur) {
+        if (valeur == null) {
+            return null;
+        }
+        final String texte = valeur.toString();
+        return texte.length() > 255 ? texte.substring(0, 255) : texte;
+    }
+}
@@ -0,0 +1,94 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.config.Bulkhead;
+import com.ensab.service.de.scolarite.config.ConnexionQuota;
+import com.ensab.service.de.scolarite.config.RejectionCounter;
+import com.ensab.service.de.scolarite.dto.bulkhead.BulkheadStatsDTO;
+import com.ensab.service.de.scolarite.service.BulkheadService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Named bulkheads: each pool (or semaphore) has its own limit, queue and rejection policy.
+ * The request-driven pools hold at most one connection per thread, so their sizes are their connection quotas;
+ * the background thread groups get theirs from ConnexionQuota permits. Whatever the Hikari pool has left over
+ * is the share of the interactive Tomcat requests.
+ */
+@Service
+public class BulkheadServiceImpl implements BulkheadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkheadServiceImpl.class);
+
+    private static final Set<String> POOLS_BASE = Set.of("studentReadExecutor", "admissionExecutor", "taskExecutor");
+
+    @Autowired
+    private Map<String, ThreadPoolTaskExecutor> pools;
+
+    @Autowired
+    private Map<String, Bulkhead> bulkheads;
+
+    @Autowired
+    private Map<String, ConnexionQuota> quotas;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${bulkhead.connexions-interactives:5}")
+    private int connexionsInteractives;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifierQuotas() throws SQLException {
+        if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+            return;
+        }
+        final HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        final int reserves = pools.entrySet().stream()
+                .filter(pool -> POOLS_BASE.contains(pool.getKey()))
+                .mapToInt(pool -> pool.getValue().getMaxPoolSize())
+                .sum()
+                + quotas.values().stream().mapToInt(ConnexionQuota::getPermits).sum();
+        if (reserves + connexionsInteractives > hikari.getMaximumPoolSize()) {
+            logger.warn("Connection quotas of the bulkheads ({}) leave less than {} of the {} pooled connections to interactive requests.",
+                    reserves, connexionsInteractives, hikari.getMaximumPoolSize());
+        } else {
+            logger.info("Bulkhead connection quotas: {} of {} pooled connections.", reserves, hikari.getMaximumPoolSize());
+        }
+    }
+
+    @Override
+    public List<BulkheadStatsDTO> getStats() {
+        final List<BulkheadStatsDTO> stats = new ArrayList<>();
+        new TreeMap<>(pools).forEach((nom, pool) -> stats.add(toDTO(nom, pool)));
+        new TreeMap<>(bulkheads).forEach((nom, bulkhead) -> stats.add(bulkhead.getStats()));
+        new TreeMap<>(quotas).forEach((nom, quota) -> stats.add(quota.getStats()));
+        return stats;
+    }
+
+    private BulkheadStatsDTO toDTO(final String nom, final ThreadPoolTaskExecutor pool) {
+        final ThreadPoolExecutor executor = pool.getThreadPoolExecutor();
+        final BulkheadStatsDTO dto = new BulkheadStatsDTO();
+        dto.setNom(nom);
+        dto.setLimite(executor.getMaximumPoolSize());
+        dto.setActifs(executor.getActiveCount());
+        dto.setEnAttente(executor.getQueue().size());
+        dto.setCapacite(executor.getQueue().size() + executor.getQueue().remainingCapacity());
+        dto.setTraites(executor.getCompletedTaskCount());
+        if (executor.getRejectedExecutionHandler() instanceof RejectionCounter rejets) {
+            dto.setRejets(rejets.getCount());
+        }
+        dto.setConnexions(POOLS_BASE.contains(nom) ? executor.getMaximumPoolSize() : 0);
+        return dto;
+    }
+}
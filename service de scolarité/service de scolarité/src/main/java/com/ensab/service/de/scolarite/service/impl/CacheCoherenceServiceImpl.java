@@ -0,0 +1,235 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.config.Noeud;
+import com.ensab.service.de.scolarite.dto.cache.CacheCoherenceStatsDTO;
+import com.ensab.service.de.scolarite.enums.CacheDistribue;
+import com.ensab.service.de.scolarite.service.CacheCoherenceService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the in-process caches coherent across nodes without a broker. Writers append invalidation keys to a change
+ * log in their own transaction; every node polls the rows above its high-water mark and evicts the keys written by
+ * the other nodes, so a committed change is seen cluster-wide within one poll interval.
+ * Auto-increment ids are not committed in order: an id skipped below the mark is re-read until it shows up or its
+ * transaction can no longer be open.
+ */
+@Service
+public class CacheCoherenceServiceImpl implements CacheCoherenceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheCoherenceServiceImpl.class);
+
+    private static final int MAX_TROUS = 10_000;
+
+    private static final String PUBLIER = """
+            INSERT INTO invalidation_cache (cache, cle, noeud, date_creation) VALUES (:cache, :cle, :noeud, :maintenant)
+            """;
+
+    private static final String HAUTEUR = "SELECT COALESCE(MAX(id), 0) FROM invalidation_cache";
+
+    private static final String NOUVELLES = """
+            SELECT id, cache, cle, noeud FROM invalidation_cache WHERE id > :hauteur ORDER BY id LIMIT :taille
+            """;
+
+    private static final String TROUS = """
+            SELECT id, cache, cle, noeud FROM invalidation_cache WHERE id IN (:ids)
+            """;
+
+    private static final String PURGER = """
+            DELETE FROM invalidation_cache WHERE date_creation < :limite LIMIT :taille
+            """;
+
+    private record Invalidation(long id, CacheDistribue cache, String cle, String noeud) {
+    }
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    @Qualifier("cacheScheduler")
+    private ThreadPoolTaskScheduler cacheScheduler;
+
+    @Value("${cache.poll-ms:1000}")
+    private long pollMs;
+
+    @Value("${cache.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${cache.trou-timeout-seconds:60}")
+    private long trouTimeoutSeconds;
+
+    @Value("${cache.retention-minutes:60}")
+    private long retentionMinutes;
+
+    private final String noeud;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<CacheDistribue, List<Consumer<Set<String>>>> abonnes = new ConcurrentHashMap<>();
+
+    // Poller state, only written by the cache scheduler thread
+    private volatile long hauteur;
+    private final Map<Long, Long> trous = new HashMap<>();
+    private long prochainePurge;
+
+    private volatile Date dernierPoll;
+    private final AtomicLong publiees = new AtomicLong();
+    private final AtomicLong appliquees = new AtomicLong();
+
+    public CacheCoherenceServiceImpl(PlatformTransactionManager transactionManager, Noeud noeud) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.noeud = noeud.getId();
+    }
+
+    // Caches start empty, so nothing older than the current mark needs to be applied
+    @PostConstruct
+    void startPoller() {
+        hauteur = jdbcTemplate.queryForObject(HAUTEUR, new MapSqlParameterSource(), Long.class);
+        cacheScheduler.scheduleWithFixedDelay(this::pollSafely, Duration.ofMillis(pollMs));
+        logger.info("Cache coherence started for node {} at change {}.", noeud, hauteur);
+    }
+
+    @Override
+    public void invalider(final CacheDistribue cache, final String cle) {
+        invalider(cache, Collections.singletonList(cle));
+    }
+
+    @Override
+    public void invalider(final CacheDistribue cache, final Collection<String> cles) {
+        if (cles.isEmpty()) {
+            return;
+        }
+        final Timestamp maintenant = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.batchUpdate(PUBLIER, cles.stream()
+                .map(cle -> new MapSqlParameterSource()
+                        .addValue("cache", cache.name())
+                        .addValue("cle", cle)
+                        .addValue("noeud", noeud)
+                        .addValue("maintenant", maintenant))
+                .toArray(MapSqlParameterSource[]::new));
+        publiees.addAndGet(cles.size());
+    }
+
+    @Override
+    public void abonner(final CacheDistribue cache, final Consumer<Set<String>> eviction) {
+        abonnes.computeIfAbsent(cache, c -> new CopyOnWriteArrayList<>()).add(eviction);
+    }
+
+    @Override
+    public CacheCoherenceStatsDTO getStats() {
+        final CacheCoherenceStatsDTO stats = new CacheCoherenceStatsDTO();
+        stats.setNoeud(noeud);
+        stats.setHauteur(hauteur);
+        stats.setTrous(trous.size());
+        stats.setPubliees(publiees.get());
+        stats.setAppliquees(appliquees.get());
+        stats.setDernierPoll(dernierPoll);
+        return stats;
+    }
+
+    private void pollSafely() {
+        try {
+            List<Invalidation> lot;
+            do {
+                lot = poll();
+            } while (lot.size() == batchSize);
+            purger();
+            dernierPoll = new Date();
+        } catch (RuntimeException e) {
+            logger.error("Cache invalidation poll failed.", e);
+        }
+    }
+
+    // Evictions run in a read-only transaction: subscribers may reload what they evicted
+    private List<Invalidation> poll() {
+        return transactionTemplate.execute(status -> {
+            final List<Invalidation> lues = new ArrayList<>(jdbcTemplate.query(NOUVELLES, new MapSqlParameterSource()
+                    .addValue("hauteur", hauteur)
+                    .addValue("taille", batchSize), (rs, rowNum) -> lire(rs)));
+            final long maintenant = System.currentTimeMillis();
+            final int nouvelles = lues.size();
+            if (!trous.isEmpty()) {
+                lues.addAll(jdbcTemplate.query(TROUS, new MapSqlParameterSource("ids", trous.keySet()), (rs, rowNum) -> lire(rs)));
+                trous.values().removeIf(expiration -> expiration < maintenant);
+            }
+            for (int i = 0; i < nouvelles; i++) {
+                final long id = lues.get(i).id();
+                if (id > hauteur + 1 && trous.size() < MAX_TROUS) {
+                    for (long trou = hauteur + 1; trou < id && trous.size() < MAX_TROUS; trou++) {
+                        trous.put(trou, maintenant + trouTimeoutSeconds * 1000);
+                    }
+                }
+                hauteur = id;
+            }
+            appliquer(lues);
+            lues.subList(nouvelles, lues.size()).forEach(invalidation -> trous.remove(invalidation.id()));
+            return lues.subList(0, nouvelles);
+        });
+    }
+
+    private Invalidation lire(final ResultSet rs) throws SQLException {
+        return new Invalidation(rs.getLong(1), CacheDistribue.valueOf(rs.getString(2)), rs.getString(3), rs.getString(4));
+    }
+
+    private void appliquer(final List<Invalidation> invalidations) {
+        final Map<CacheDistribue, Set<String>> parCache = new EnumMap<>(CacheDistribue.class);
+        final Set<CacheDistribue> complets = EnumSet.noneOf(CacheDistribue.class);
+        for (Invalidation invalidation : invalidations) {
+            if (noeud.equals(invalidation.noeud())) {
+                continue;
+            }
+            if (invalidation.cle() == null) {
+                complets.add(invalidation.cache());
+            } else {
+                parCache.computeIfAbsent(invalidation.cache(), c -> new HashSet<>()).add(invalidation.cle());
+            }
+            appliquees.incrementAndGet();
+        }
+        complets.forEach(cache -> parCache.put(cache, null));
+        parCache.forEach((cache, cles) -> {
+            for (Consumer<Set<String>> eviction : abonnes.getOrDefault(cache, List.of())) {
+                try {
+                    eviction.accept(cles);
+                } catch (RuntimeException e) {
+                    logger.error("Eviction of cache {} failed.", cache, e);
+                }
+            }
+        });
+    }
+
+    private void purger() {
+        final long maintenant = System.currentTimeMillis();
+        if (maintenant < prochainePurge) {
+            return;
+        }
+        prochainePurge = maintenant + Duration.ofMinutes(10).toMillis();
+        final MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("limite", new Timestamp(maintenant - Duration.ofMinutes(retentionMinutes).toMillis()))
+                .addValue("taille", 1000);
+        int supprimes;
+        do {
+            supprimes = jdbcTemplate.update(PURGER, params);
+        } while (supprimes == 1000);
+    }
+}
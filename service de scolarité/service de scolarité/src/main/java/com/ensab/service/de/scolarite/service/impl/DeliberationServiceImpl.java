@@ -0,0 +1,168 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.dto.deliberation.DeliberationRequestDTO;
+import com.ensab.service.de.scolarite.dto.deliberation.DeliberationSummaryDTO;
+import com.ensab.service.de.scolarite.dto.deliberation.ResultatDeliberationDTO;
+import com.ensab.service.de.scolarite.enums.DecisionJury;
+import com.ensab.service.de.scolarite.exception.BadRequestException;
+import com.ensab.service.de.scolarite.mapper.ResultatDeliberationMapper;
+import com.ensab.service.de.scolarite.repository.EtudiantRepository;
+import com.ensab.service.de.scolarite.repository.NoteRepository;
+import com.ensab.service.de.scolarite.repository.ResultatDeliberationRepository;
+import com.ensab.service.de.scolarite.service.DeliberationService;
+import com.ensab.service.de.scolarite.util.DeliberationEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+@Service
+public class DeliberationServiceImpl implements DeliberationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeliberationServiceImpl.class);
+
+    private static final String UPSERT_RESULTAT = """
+            INSERT INTO resultat_deliberation
+                (etudiant_id, annee_universitaire, moyenne, modules_valides, modules_non_valides, decision, date_deliberation)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                moyenne = VALUES(moyenne),
+                modules_valides = VALUES(modules_valides),
+                modules_non_valides = VALUES(modules_non_valides),
+                decision = VALUES(decision),
+                date_deliberation = VALUES(date_deliberation)
+            """;
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private EtudiantRepository etudiantRepository;
+
+    @Autowired
+    private ResultatDeliberationRepository resultatDeliberationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${deliberation.seuil-validation:12}")
+    private float seuilValidation;
+
+    @Value("${deliberation.seuil-eliminatoire:7}")
+    private float seuilEliminatoire;
+
+    @Value("${deliberation.seuil-rattrapage:8}")
+    private float seuilRattrapage;
+
+    @Value("${deliberation.batch-size:500}")
+    private int batchSize;
+
+    @Override
+    @Transactional
+    public DeliberationSummaryDTO deliberer(final DeliberationRequestDTO deliberationDTO) {
+        final String filiere = deliberationDTO.getFiliere();
+        final String niveau = deliberationDTO.getNiveau();
+        final String annee = deliberationDTO.getAnneeUniversitaire();
+        if (filiere == null || niveau == null || annee == null) {
+            throw new BadRequestException("La filière, le niveau et l'année universitaire sont obligatoires.");
+        }
+        final long debut = System.nanoTime();
+
+        // Etudiants without any note are deliberated too (every module counts as absent)
+        final List<Long> etudiantIds = etudiantRepository.findCohortIdsAfter(filiere, niveau, annee, 0L, Pageable.unpaged());
+        final Map<Long, Integer> etudiantIndex = new HashMap<>(etudiantIds.size() * 2);
+        for (int i = 0; i < etudiantIds.size(); i++) {
+            etudiantIndex.put(etudiantIds.get(i), i);
+        }
+        final List<Object[]> valeurs = noteRepository.findValeursByCohort(filiere, niveau, annee);
+        final Map<String, Integer> moduleIndex = new LinkedHashMap<>();
+        for (Object[] row : valeurs) {
+            moduleIndex.putIfAbsent(row[1] == null ? "" : (String) row[1], moduleIndex.size());
+        }
+        // Without any note there is nothing to deliberate on; the passage annuel would promote the whole cohort
+        if (moduleIndex.isEmpty()) {
+            throw new BadRequestException("Aucune note n'est saisie pour cette cohorte.");
+        }
+
+        final DeliberationEngine engine = new DeliberationEngine(etudiantIds.size(), moduleIndex.size());
+        for (Object[] row : valeurs) {
+            Integer etudiant = etudiantIndex.get((Long) row[0]);
+            if (etudiant != null) {
+                engine.addNote(etudiant, moduleIndex.get(row[1] == null ? "" : (String) row[1]),
+                        ((Number) row[2]).floatValue());
+            }
+        }
+
+        final long debutCalcul = System.nanoTime();
+        engine.deliberer(new DeliberationEngine.Regles(seuilValidation, seuilEliminatoire, seuilRattrapage),
+                ForkJoinPool.commonPool());
+        final long dureeCalculMs = (System.nanoTime() - debutCalcul) / 1_000_000;
+
+        final int[] decisions = writeResultats(engine, etudiantIds, annee);
+
+        final DeliberationSummaryDTO summary = new DeliberationSummaryDTO();
+        summary.setFiliere(filiere);
+        summary.setNiveau(niveau);
+        summary.setAnneeUniversitaire(annee);
+        summary.setEffectif(etudiantIds.size());
+        summary.setModules(new ArrayList<>(moduleIndex.keySet()));
+        summary.setValides(decisions[DecisionJury.VALIDE.ordinal()]);
+        summary.setRattrapages(decisions[DecisionJury.RATTRAPAGE.ordinal()]);
+        summary.setAjournes(decisions[DecisionJury.AJOURNE.ordinal()]);
+        summary.setDureeCalculMs(dureeCalculMs);
+        summary.setDureeTotaleMs((System.nanoTime() - debut) / 1_000_000);
+        logger.info("Deliberation {} {} {}: {} etudiants, {} modules, compute {} ms, total {} ms.",
+                filiere, niveau, annee, etudiantIds.size(), moduleIndex.size(), dureeCalculMs, summary.getDureeTotaleMs());
+        return summary;
+    }
+
+    @Override
+    public List<ResultatDeliberationDTO> getResultats(String filiere, String niveau, String anneeUniversitaire) {
+        return resultatDeliberationRepository.findByCohort(filiere, niveau, anneeUniversitaire).stream()
+                .map(ResultatDeliberationMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<ResultatDeliberationDTO> getResultatsByEtudiant(Long etudiantId) {
+        return resultatDeliberationRepository.findByEtudiantId(etudiantId).stream()
+                .map(ResultatDeliberationMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    // JDBC batches of upserts; returns the number of etudiants per decision
+    private int[] writeResultats(DeliberationEngine engine, List<Long> etudiantIds, String annee) {
+        final int[] decisions = new int[DecisionJury.values().length];
+        final Timestamp dateDeliberation = new Timestamp(System.currentTimeMillis());
+        final List<Object[]> batch = new ArrayList<>(batchSize);
+        for (int etudiant = 0; etudiant < engine.getEtudiants(); etudiant++) {
+            DecisionJury decision = engine.getDecision(etudiant);
+            decisions[decision.ordinal()]++;
+            batch.add(new Object[]{
+                    etudiantIds.get(etudiant),
+                    annee,
+                    Math.round(engine.getMoyenne(etudiant) * 100) / 100.0,
+                    engine.getModulesValides(etudiant),
+                    engine.getModulesNonValides(etudiant),
+                    decision.name(),
+                    dateDeliberation});
+            if (batch.size() == batchSize) {
+                jdbcTemplate.batchUpdate(UPSERT_RESULTAT, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_RESULTAT, batch);
+        }
+        return decisions;
+    }
+}
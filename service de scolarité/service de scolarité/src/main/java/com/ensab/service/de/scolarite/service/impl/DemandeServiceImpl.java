@@ -5,23 +5,34 @@ import com.ensab.service.de.scolarite.dto.demande.DemandeResponseDTO;
 import com.ensab.service.de.scolarite.entity.Admin;
 import com.ensab.service.de.scolarite.entity.Demande;
 import com.ensab.service.de.scolarite.entity.Etudiant;
+import com.ensab.service.de.scolarite.enums.EntiteAudit;
 import com.ensab.service.de.scolarite.enums.StatusDemande;
+import com.ensab.service.de.scolarite.enums.TypeEvenement;
+import com.ensab.service.de.scolarite.exception.BadRequestException;
 import com.ensab.service.de.scolarite.exception.EntityDuplicateException;
 import com.ensab.service.de.scolarite.exception.ResourceNotFoundException;
 import com.ensab.service.de.scolarite.mapper.DemandeMapper;
 import com.ensab.service.de.scolarite.repository.AdminRepository;
 import com.ensab.service.de.scolarite.repository.DemandeRepository;
 import com.ensab.service.de.scolarite.repository.EtudiantRepository;
+import com.ensab.service.de.scolarite.service.AuditService;
 import com.ensab.service.de.scolarite.service.DemandeService;
 import com.ensab.service.de.scolarite.service.DocumentGenerationService;
+import com.ensab.service.de.scolarite.service.EvenementService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,6 +40,8 @@ public class DemandeServiceImpl implements DemandeService {
 
     private static final Logger logger = LoggerFactory.getLogger(DemandeServiceImpl.class);
 
+    private static final int MAX_CLAIM = 50;
+
     @Autowired
     DemandeRepository demandeRepository;
 
@@ -41,7 +54,17 @@ public class DemandeServiceImpl implements DemandeService {
     @Autowired
     private DocumentGenerationService documentGenerationService;
 
+    @Autowired
+    private EvenementService evenementService;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Value("${demande.lease-minutes:15}")
+    private long leaseMinutes;
+
     @Override
+    @Transactional
     public DemandeResponseDTO createDemande(final DemandeRequestDTO demandeDTO) {
 
         final Etudiant etudiant = etudiantRepository.findByEmailAndCodeApogeeAndCin(
@@ -53,9 +76,9 @@ public class DemandeServiceImpl implements DemandeService {
             throw new ResourceNotFoundException("Étudiant non trouvé avec les informations fournies.");
         }
 
-        // Vérification d'une demande en attente existante
-        if (demandeRepository.existsByEtudiantAndStatusAndTypeDocument(etudiant, StatusDemande.EN_ATTENTE,
-                demandeDTO.getTypeDocument())) {
+        // Vérification d'une demande en attente ou en cours de traitement existante
+        if (demandeRepository.existsByEtudiantAndStatusInAndTypeDocument(etudiant,
+                EnumSet.of(StatusDemande.EN_ATTENTE, StatusDemande.EN_COURS), demandeDTO.getTypeDocument())) {
             throw new EntityDuplicateException("Une demande en attente existe déjà pour cet étudiant.");
         }
 
@@ -65,6 +88,7 @@ public class DemandeServiceImpl implements DemandeService {
         demande.setEtudiant(etudiant);
 
         final Demande savedDemande = demandeRepository.save(demande);
+        evenementService.publier(TypeEvenement.DEMANDE_CREEE, savedDemande.getId());
         logger.info("Demande created successfully with ID: {}", savedDemande.getId());
 
         return DemandeMapper.toDTO(savedDemande);
@@ -79,36 +103,54 @@ public class DemandeServiceImpl implements DemandeService {
     }
 
     @Override
+    public List<DemandeResponseDTO> getAllDemandes(boolean archive) {
+        if (!archive) {
+            return getAllDemandes();
+        }
+        return demandeRepository.findAllWithArchive().stream()
+                .map(DemandeMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
     public DemandeResponseDTO approveDemande(final Long id) {
         final Demande demande = demandeRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Demande non trouvée avec l'ID: " + id));
 
-        String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
-        Admin admin = adminRepository.findByNomUtilisateur(currentUsername)
-                .orElseThrow(() -> new ResourceNotFoundException("Admin not found with username: " + currentUsername));
+        Admin admin = getCurrentAdmin();
+        checkNotLeasedByAnotherAdmin(demande, admin);
 
+        final StatusDemande ancienStatus = demande.getStatus();
         demande.setStatus(StatusDemande.APPROVEE);
         demande.setDateTraitement(new Date());
+        demande.setDateExpirationReservation(null);
         demande.setAdmin(admin);
         demandeRepository.save(demande);
+        evenementService.publier(TypeEvenement.DEMANDE_APPROUVEE, id);
+        auditService.enregistrer(EntiteAudit.DEMANDE, id, demande.getEtudiant().getId(), "APPROBATION", ancienStatus, StatusDemande.APPROVEE);
         logger.info("Demande with ID: {} updated to APPROVEE.", id);
 
         return DemandeMapper.toDTO(demande);
     }
 
     @Override
+    @Transactional
     public DemandeResponseDTO rejectDemande(final Long id) {
         final Demande demande = demandeRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Demande non trouvée avec l'ID: " + id));
 
-        String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
-        Admin admin = adminRepository.findByNomUtilisateur(currentUsername)
-                .orElseThrow(() -> new ResourceNotFoundException("Admin not found with username: " + currentUsername));
+        Admin admin = getCurrentAdmin();
+        checkNotLeasedByAnotherAdmin(demande, admin);
 
+        final StatusDemande ancienStatus = demande.getStatus();
         demande.setStatus(StatusDemande.REFUSEE);
         demande.setDateTraitement(new Date());
+        demande.setDateExpirationReservation(null);
         demande.setAdmin(admin);
         demandeRepository.save(demande);
+        evenementService.publier(TypeEvenement.DEMANDE_REFUSEE, id);
+        auditService.enregistrer(EntiteAudit.DEMANDE, id, demande.getEtudiant().getId(), "REFUS", ancienStatus, StatusDemande.REFUSEE);
         logger.info("Demande with ID: {} updated to REFUSEE.", id);
 
         return DemandeMapper.toDTO(demande);
@@ -128,4 +170,99 @@ public class DemandeServiceImpl implements DemandeService {
                 .map(DemandeMapper::toDTO)
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    @Override
+    public List<DemandeResponseDTO> getDemandesByEtudiant(Long etudiantId, boolean archive) {
+        if (!archive) {
+            return getDemandesByEtudiant(etudiantId);
+        }
+        return demandeRepository.findByEtudiantIdWithArchive(etudiantId).stream()
+                .map(DemandeMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    // Leases the oldest claimable demandes (expired leases first, then EN_ATTENTE) to the current admin.
+    // Rows locked by a concurrent claim are skipped, so admins draining the queue never wait on each other.
+    @Override
+    @Transactional
+    public List<DemandeResponseDTO> claimDemandes(final int limit) {
+        if (limit <= 0 || limit > MAX_CLAIM) {
+            throw new BadRequestException("Le nombre de demandes à réserver doit être entre 1 et " + MAX_CLAIM + ".");
+        }
+        final Admin admin = getCurrentAdmin();
+        final Date now = new Date();
+
+        final List<Long> ids = new ArrayList<>(demandeRepository.lockExpiredLeaseIds(now, limit));
+        if (ids.size() < limit) {
+            ids.addAll(demandeRepository.lockNextPendingIds(limit - ids.size()));
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        demandeRepository.lease(ids, admin, new Date(now.getTime() + leaseMinutes * 60_000));
+        final List<Demande> demandes = demandeRepository.findAllById(ids);
+        evenementService.publier(TypeEvenement.DEMANDE_RESERVEE, ids);
+        logger.info("{} demandes leased to admin {} for {} minutes.", demandes.size(), admin.getNomUtilisateur(), leaseMinutes);
+
+        return demandes.stream()
+                .sorted(Comparator.comparing(Demande::getDateCreation, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .map(DemandeMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<DemandeResponseDTO> getClaimedDemandes() {
+        final Admin admin = getCurrentAdmin();
+        return demandeRepository.findByStatusAndAdminIdOrderByDateCreation(StatusDemande.EN_COURS, admin.getId()).stream()
+                .map(DemandeMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    public DemandeResponseDTO releaseDemande(final Long id) {
+        final Demande demande = demandeRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Demande non trouvée avec l'ID: " + id));
+        if (demande.getStatus() != StatusDemande.EN_COURS) {
+            throw new BadRequestException("La demande " + id + " n'est pas réservée.");
+        }
+        checkNotLeasedByAnotherAdmin(demande, getCurrentAdmin());
+
+        demande.setStatus(StatusDemande.EN_ATTENTE);
+        demande.setAdmin(null);
+        demande.setDateExpirationReservation(null);
+        demandeRepository.save(demande);
+        evenementService.publier(TypeEvenement.DEMANDE_LIBEREE, id);
+        auditService.enregistrer(EntiteAudit.DEMANDE, id, demande.getEtudiant().getId(), "LIBERATION", StatusDemande.EN_COURS, StatusDemande.EN_ATTENTE);
+        logger.info("Demande with ID: {} released back to EN_ATTENTE.", id);
+
+        return DemandeMapper.toDTO(demande);
+    }
+
+    @Override
+    @Transactional
+    public int releaseExpiredDemandes() {
+        final int released = demandeRepository.releaseExpiredLeases(new Date());
+        if (released > 0) {
+            logger.info("{} expired demande leases released.", released);
+        }
+        return released;
+    }
+
+    private Admin getCurrentAdmin() {
+        String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
+        return adminRepository.findByNomUtilisateur(currentUsername)
+                .orElseThrow(() -> new ResourceNotFoundException("Admin not found with username: " + currentUsername));
+    }
+
+    private void checkNotLeasedByAnotherAdmin(Demande demande, Admin admin) {
+        if (demande.getStatus() == StatusDemande.EN_COURS
+                && demande.getAdmin() != null
+                && !Objects.equals(demande.getAdmin().getId(), admin.getId())
+                && demande.getDateExpirationReservation() != null
+                && demande.getDateExpirationReservation().after(new Date())) {
+            throw new BadRequestException("La demande " + demande.getId() + " est en cours de traitement par un autre administrateur.");
+        }
+    }
+}
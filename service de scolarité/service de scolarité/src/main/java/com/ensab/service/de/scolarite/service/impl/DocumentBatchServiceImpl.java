@@ -0,0 +1,256 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.dto.document.DocumentBatchRequestDTO;
+import com.ensab.service.de.scolarite.dto.document.DocumentBatchStatusDTO;
+import com.ensab.service.de.scolarite.entity.Etudiant;
+import com.ensab.service.de.scolarite.enums.StatusBatch;
+import com.ensab.service.de.scolarite.enums.TypeDocument;
+import com.ensab.service.de.scolarite.exception.BadRequestException;
+import com.ensab.service.de.scolarite.exception.DocumentGenerationException;
+import com.ensab.service.de.scolarite.exception.ResourceNotFoundException;
+import com.ensab.service.de.scolarite.repository.EtudiantRepository;
+import com.ensab.service.de.scolarite.service.DocumentBatchService;
+import com.ensab.service.de.scolarite.service.DocumentGenerationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+@Service
+public class DocumentBatchServiceImpl implements DocumentBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentBatchServiceImpl.class);
+
+    // Finished batches stay visible for progress polling this long
+    private static final long FINISHED_RETENTION_MS = 60 * 60 * 1000;
+
+    @Autowired
+    private EtudiantRepository etudiantRepository;
+
+    @Autowired
+    private DocumentGenerationService documentGenerationService;
+
+    @Autowired
+    @Qualifier("documentBatchExecutor")
+    private Executor documentBatchExecutor;
+
+    @Value("${document.batch.chunk-size:32}")
+    private int chunkSize;
+
+    private final Map<String, BatchProgress> batches = new ConcurrentHashMap<>();
+
+    @Override
+    public DocumentBatchStatusDTO startBatch(final DocumentBatchRequestDTO batchDTO) {
+        if (batchDTO.getTypeDocument() != TypeDocument.ATTESTATION_SCOLARITE
+                && batchDTO.getTypeDocument() != TypeDocument.RELEVE_NOTES) {
+            throw new BadRequestException("Type de document non supporté pour un lot: " + batchDTO.getTypeDocument());
+        }
+        if (batchDTO.getFiliere() == null || batchDTO.getNiveau() == null) {
+            throw new BadRequestException("La filière et le niveau sont obligatoires.");
+        }
+        evictFinishedBatches();
+
+        long total = etudiantRepository.countByCohort(
+                batchDTO.getFiliere(), batchDTO.getNiveau(), batchDTO.getAnneeUniversitaire());
+        BatchProgress batch = new BatchProgress(UUID.randomUUID().toString(), batchDTO, total);
+        batches.put(batch.id, batch);
+        logger.info("Document batch {} registered for {} students ({} {}).",
+                batch.id, total, batchDTO.getFiliere(), batchDTO.getNiveau());
+        return batch.toDTO();
+    }
+
+    @Override
+    public void writeBatch(final String batchId, final OutputStream outputStream) {
+        final BatchProgress batch = findBatch(batchId);
+        if (!batch.status.compareAndSet(StatusBatch.EN_ATTENTE, StatusBatch.EN_COURS)) {
+            throw new BadRequestException("Le lot " + batchId + " a déjà été lancé ou annulé.");
+        }
+
+        final List<Long> failedIds = new ArrayList<>();
+        final ZipOutputStream zip = new ZipOutputStream(StreamUtils.nonClosing(outputStream));
+        try {
+            Long afterId = 0L;
+            List<Long> ids;
+            while (!batch.cancelled && !(ids = etudiantRepository.findCohortIdsAfter(
+                    batch.request.getFiliere(), batch.request.getNiveau(), batch.request.getAnneeUniversitaire(),
+                    afterId, PageRequest.of(0, chunkSize))).isEmpty()) {
+                afterId = ids.get(ids.size() - 1);
+                List<Etudiant> etudiants = batch.request.getTypeDocument() == TypeDocument.RELEVE_NOTES
+                        ? etudiantRepository.findAllByIdWithNotes(ids)
+                        : etudiantRepository.findAllById(ids);
+                writeChunk(batch, etudiants, zip, failedIds);
+            }
+
+            if (!failedIds.isEmpty()) {
+                zip.putNextEntry(new ZipEntry("erreurs.txt"));
+                zip.write(("Échec de génération pour les étudiants: " + failedIds.stream()
+                        .map(String::valueOf).collect(Collectors.joining(", ")))
+                        .getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            zip.finish();
+            batch.finish(batch.cancelled ? StatusBatch.ANNULE : StatusBatch.TERMINE);
+            logger.info("Document batch {} {}: {} generated, {} failed.",
+                    batchId, batch.status.get(), batch.completed.get(), batch.failed.get());
+        } catch (IOException e) {
+            // Usually the client went away mid-download
+            batch.finish(StatusBatch.ECHOUE);
+            logger.error("Document batch {} aborted: {}", batchId, e.getMessage());
+            throw new DocumentGenerationException("Erreur lors de l'écriture du lot de documents.", e);
+        } catch (RuntimeException e) {
+            batch.finish(StatusBatch.ECHOUE);
+            throw e;
+        }
+    }
+
+    @Override
+    public DocumentBatchStatusDTO getBatchStatus(final String batchId) {
+        return findBatch(batchId).toDTO();
+    }
+
+    @Override
+    public List<DocumentBatchStatusDTO> getAllBatches() {
+        return batches.values().stream()
+                .map(BatchProgress::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public DocumentBatchStatusDTO cancelBatch(final String batchId) {
+        final BatchProgress batch = findBatch(batchId);
+        batch.cancelled = true;
+        // A batch whose download never started is cancelled right away
+        if (batch.status.compareAndSet(StatusBatch.EN_ATTENTE, StatusBatch.ANNULE)) {
+            batch.dateFin = new Date();
+        }
+        logger.info("Document batch {} cancellation requested.", batchId);
+        return batch.toDTO();
+    }
+
+    // Renders one chunk on the batch pool and appends each PDF to the zip as soon as it completes,
+    // so at most one chunk of documents is held in memory.
+    private void writeChunk(BatchProgress batch, List<Etudiant> etudiants, ZipOutputStream zip,
+                            List<Long> failedIds) throws IOException {
+        final CompletionService<RenderedDocument> completionService =
+                new ExecutorCompletionService<>(documentBatchExecutor);
+        final List<Future<RenderedDocument>> futures = new ArrayList<>(etudiants.size());
+        for (Etudiant etudiant : etudiants) {
+            futures.add(completionService.submit(() -> render(batch.request.getTypeDocument(), etudiant)));
+        }
+
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                if (batch.cancelled) {
+                    futures.forEach(future -> future.cancel(true));
+                    return;
+                }
+                RenderedDocument document = completionService.take().get();
+                if (document.content() == null) {
+                    failedIds.add(document.etudiantId());
+                    batch.failed.incrementAndGet();
+                    continue;
+                }
+                zip.putNextEntry(new ZipEntry(document.fileName()));
+                zip.write(document.content());
+                zip.closeEntry();
+                zip.flush();
+                batch.completed.incrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            batch.cancelled = true;
+            futures.forEach(future -> future.cancel(true));
+        } catch (ExecutionException e) {
+            // render() never throws, this only happens if the task itself was broken
+            throw new DocumentGenerationException("Erreur lors de la génération du lot de documents.", e);
+        }
+    }
+
+    private RenderedDocument render(TypeDocument type, Etudiant etudiant) {
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            documentGenerationService.writeDocument(type, etudiant, outputStream);
+            return new RenderedDocument(etudiant.getId(), fileName(type, etudiant), outputStream.toByteArray());
+        } catch (Exception e) {
+            logger.error("Error generating {} for Etudiant ID {}: {}", type, etudiant.getId(), e.getMessage());
+            return new RenderedDocument(etudiant.getId(), null, null);
+        }
+    }
+
+    private String fileName(TypeDocument type, Etudiant etudiant) {
+        String prefix = type == TypeDocument.ATTESTATION_SCOLARITE ? "Attestation_Scolarite_" : "Releve_de_Notes_";
+        String name = etudiant.getCodeApogee() + "_" + etudiant.getNom() + "_" + etudiant.getPrenom();
+        return prefix + name.replaceAll("[^\\p{L}\\p{N}_-]", "_") + ".pdf";
+    }
+
+    private BatchProgress findBatch(String batchId) {
+        BatchProgress batch = batches.get(batchId);
+        if (batch == null) {
+            throw new ResourceNotFoundException("Lot de documents non trouvé avec l'id " + batchId);
+        }
+        return batch;
+    }
+
+    private void evictFinishedBatches() {
+        long limit = System.currentTimeMillis() - FINISHED_RETENTION_MS;
+        batches.values().removeIf(batch -> batch.dateFin != null && batch.dateFin.getTime() < limit);
+    }
+
+    private record RenderedDocument(Long etudiantId, String fileName, byte[] content) {
+    }
+
+    private static class BatchProgress {
+        private final String id;
+        private final DocumentBatchRequestDTO request;
+        private final long total;
+        private final Date dateDebut = new Date();
+        private final AtomicReference<StatusBatch> status = new AtomicReference<>(StatusBatch.EN_ATTENTE);
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private volatile boolean cancelled;
+        private volatile Date dateFin;
+
+        private BatchProgress(String id, DocumentBatchRequestDTO request, long total) {
+            this.id = id;
+            this.request = request;
+            this.total = total;
+        }
+
+        private void finish(StatusBatch finalStatus) {
+            status.set(finalStatus);
+            dateFin = new Date();
+        }
+
+        private DocumentBatchStatusDTO toDTO() {
+            DocumentBatchStatusDTO dto = new DocumentBatchStatusDTO();
+            dto.setId(id);
+            dto.setTypeDocument(request.getTypeDocument());
+            dto.setFiliere(request.getFiliere());
+            dto.setNiveau(request.getNiveau());
+            dto.setAnneeUniversitaire(request.getAnneeUniversitaire());
+            dto.setStatus(status.get());
+            dto.setTotal(total);
+            dto.setCompleted(completed.get());
+            dto.setFailed(failed.get());
+            dto.setDateDebut(dateDebut);
+            dto.setDateFin(dateFin);
+            return dto;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.ensab.service.de.scolarite.service.impl;
 
+import com.ensab.service.de.scolarite.config.Bulkhead;
 import com.ensab.service.de.scolarite.entity.Etudiant;
 import com.ensab.service.de.scolarite.enums.TypeDocument;
 import com.ensab.service.de.scolarite.exception.DocumentGenerationException;
@@ -9,16 +10,28 @@ import com.ensab.service.de.scolarite.service.DocumentGenerationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.thymeleaf.context.Context;
 import org.thymeleaf.spring6.SpringTemplateEngine;
 import org.xhtmlrenderer.pdf.ITextRenderer;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.net.URL;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 
 
@@ -33,6 +46,10 @@ public class DocumentGenerationServiceImpl implements DocumentGenerationService
     @Autowired
     private SpringTemplateEngine templateEngine;
 
+    @Autowired
+    @Qualifier("renderBulkhead")
+    private Bulkhead renderBulkhead;
+
     @Override
     public CompletableFuture<byte[]> generateDocument(TypeDocument type, Long etudiantId) {
         return switch (type) {
@@ -75,6 +92,66 @@ public class DocumentGenerationServiceImpl implements DocumentGenerationService
         }
     }
 
+    @Override
+    public StreamingResponseBody streamDocument(TypeDocument type, Long etudiantId) {
+        // Load and template in the request thread so lookup errors still map to a proper status;
+        // only the PDF conversion runs while the response is being written.
+        // The rendering permit is taken here too, so a saturated bulkhead answers 503 before any byte is sent.
+        final Bulkhead.Permis permis = renderBulkhead.acquerir();
+        String htmlContent;
+        try {
+            htmlContent = renderHtml(type, etudiantId);
+        } catch (RuntimeException e) {
+            permis.liberer();
+            throw e;
+        }
+        // The body may never run: a task still queued when the async request times out or fails is cancelled,
+        // so the permit is also released when the async processing completes, whatever the outcome
+        final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            WebAsyncUtils.getAsyncManager(servletAttributes.getRequest()).registerCallableInterceptor(permis,
+                    new CallableProcessingInterceptor() {
+                        @Override
+                        public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+                            permis.liberer();
+                        }
+                    });
+        }
+        return outputStream -> {
+            try {
+                convertHtmlToPdf(htmlContent, outputStream);
+            } finally {
+                permis.liberer();
+            }
+        };
+    }
+
+    @Override
+    public void writeDocument(TypeDocument type, Long etudiantId, OutputStream outputStream) {
+        convertHtmlToPdf(renderHtml(type, etudiantId), outputStream);
+    }
+
+    @Override
+    public void writeDocument(TypeDocument type, Etudiant etudiant, OutputStream outputStream) {
+        convertHtmlToPdf(renderHtml(type, etudiant), outputStream);
+    }
+
+    private String renderHtml(TypeDocument type, Long etudiantId) {
+        Optional<Etudiant> etudiant = type == TypeDocument.RELEVE_NOTES
+                ? etudiantRepository.findByIdWithNotes(etudiantId)
+                : etudiantRepository.findById(etudiantId);
+        return renderHtml(type, etudiant
+                .orElseThrow(() -> new ResourceNotFoundException("Étudiant non trouvé avec l'id " + etudiantId)));
+    }
+
+    private String renderHtml(TypeDocument type, Etudiant etudiant) {
+        return switch (type) {
+            case ATTESTATION_SCOLARITE -> templateEngine.process("attestation", createContext(etudiant));
+            case RELEVE_NOTES -> templateEngine.process("releve_de_notes", createContext(etudiant));
+            default -> throw new DocumentGenerationException("Type de document non reconnu: " + type);
+        };
+    }
+
     private Context createContext(Etudiant etudiant) {
         Context context = new Context();
         context.setVariable("etudiant", etudiant);
@@ -83,7 +160,14 @@ public class DocumentGenerationServiceImpl implements DocumentGenerationService
     }
 
     private byte[] convertHtmlToPdf(String htmlContent) {
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        convertHtmlToPdf(htmlContent, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    // iText closes the stream it writes to; callers own it (servlet response, zip entry...)
+    private void convertHtmlToPdf(String htmlContent, OutputStream outputStream) {
+        try {
             ITextRenderer renderer = new ITextRenderer();
 
             URL resource = getClass().getClassLoader().getResource("static/");
@@ -91,8 +175,7 @@ public class DocumentGenerationServiceImpl implements DocumentGenerationService
             renderer.setDocumentFromString(htmlContent, baseUrl);
 
             renderer.layout();
-            renderer.createPDF(outputStream);
-            return outputStream.toByteArray();
+            renderer.createPDF(StreamUtils.nonClosing(outputStream));
         } catch (Exception e) {
             logger.error("Error converting HTML to PDF: {}", e.getMessage());
             throw new DocumentGenerationException("Erreur lors de la conversion HTML vers PDF", e);
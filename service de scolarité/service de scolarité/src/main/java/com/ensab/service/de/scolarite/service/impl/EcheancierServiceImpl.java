@@ -0,0 +1,238 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.dto.echeancier.EcheancierRequestDTO;
+import com.ensab.service.de.scolarite.dto.echeancier.EcheancierResponseDTO;
+import com.ensab.service.de.scolarite.dto.echeancier.GenerationEcheancierDTO;
+import com.ensab.service.de.scolarite.entity.Echeancier;
+import com.ensab.service.de.scolarite.enums.EntiteAudit;
+import com.ensab.service.de.scolarite.enums.StatusPaiement;
+import com.ensab.service.de.scolarite.exception.BadRequestException;
+import com.ensab.service.de.scolarite.exception.ResourceNotFoundException;
+import com.ensab.service.de.scolarite.mapper.EcheancierMapper;
+import com.ensab.service.de.scolarite.repository.EcheancierRepository;
+import com.ensab.service.de.scolarite.service.AnalyticsService;
+import com.ensab.service.de.scolarite.service.AuditService;
+import com.ensab.service.de.scolarite.service.EcheancierService;
+import com.ensab.service.de.scolarite.service.SoldeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Splits the montantTotal of an echeancier into nombreEcheances NON_PAYE paiements for every etudiant of the filiere
+ * with a CONFIRME inscription in the année. Rows are written with batched INSERT IGNORE, one transaction per chunk
+ * of etudiant ids. A rerun only bills the etudiants that have no installment of the echeancier yet, archived ones
+ * included (paiement_historique); the (echeancier, etudiant, numero) unique key only covers the live table.
+ * Once installments exist, the amounts and dates of the echeancier can no longer change. Every created installment
+ * gets its CREATION audit entry, like a paiement created one at a time.
+ */
+@Service
+public class EcheancierServiceImpl implements EcheancierService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EcheancierServiceImpl.class);
+
+    private static final String ETUDIANTS_CHUNK = """
+            SELECT DISTINCT e.id FROM etudiant e
+            JOIN inscription i ON i.etudiant_id = e.id
+            WHERE i.status = 'CONFIRME' AND i.annee_universitaire = :annee AND e.filiere = :filiere AND e.id > :apres
+            ORDER BY e.id LIMIT :taille
+            """;
+
+    private static final String INSERT_ECHEANCE = """
+            INSERT IGNORE INTO paiement (type_paiement, status, montant, date_creation, date_echeance,
+                                         etudiant_id, echeancier_id, numero_echeance)
+            VALUES (:typePaiement, 'NON_PAYE', :montant, :dateCreation, :dateEcheance,
+                    :etudiantId, :echeancierId, :numero)
+            """;
+
+    private static final String DEJA_FACTURES = """
+            SELECT DISTINCT etudiant_id FROM paiement_historique WHERE echeancier_id = :echeancierId AND etudiant_id IN (:ids)
+            """;
+
+    private static final String ECHEANCES_EXISTENT = """
+            SELECT EXISTS (SELECT 1 FROM paiement_historique WHERE echeancier_id = :echeancierId)
+            """;
+
+    // Batch counts cannot tell inserted from ignored rows (rewriteBatchedStatements reports SUCCESS_NO_INFO)
+    private static final String ECHEANCES_CHUNK = """
+            SELECT id, etudiant_id FROM paiement WHERE echeancier_id = :echeancierId AND etudiant_id IN (:ids)
+            """;
+
+    @Autowired
+    private EcheancierRepository echeancierRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SoldeService soldeService;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Value("${echeancier.chunk-size:500}")
+    private int chunkSize;
+
+    @Override
+    public EcheancierResponseDTO saveEcheancier(final EcheancierRequestDTO echeancierDTO) {
+        if (echeancierDTO.getFiliere() == null || echeancierDTO.getTypePaiement() == null
+                || echeancierDTO.getAnneeUniversitaire() == null || echeancierDTO.getDatePremiereEcheance() == null) {
+            throw new BadRequestException("La filière, le type de paiement, l'année universitaire et la date de première échéance sont obligatoires.");
+        }
+        if (echeancierDTO.getMontantTotal() == null || echeancierDTO.getMontantTotal().signum() <= 0) {
+            throw new BadRequestException("Le montant total doit être positif.");
+        }
+        if (echeancierDTO.getNombreEcheances() <= 0) {
+            throw new BadRequestException("Le nombre d'échéances doit être positif.");
+        }
+        if (echeancierDTO.getIntervalleMois() <= 0) {
+            echeancierDTO.setIntervalleMois(1);
+        }
+
+        final Echeancier echeancier = echeancierRepository.findByFiliereAndTypePaiementAndAnneeUniversitaire(
+                        echeancierDTO.getFiliere(), echeancierDTO.getTypePaiement(), echeancierDTO.getAnneeUniversitaire())
+                .orElseGet(Echeancier::new);
+        // A rerun would add the new installments on top of the old ones: the schedule is frozen once billed
+        if (echeancier.getId() != null && modifieEcheances(echeancier, echeancierDTO) && Boolean.TRUE.equals(
+                jdbcTemplate.queryForObject(ECHEANCES_EXISTENT, new MapSqlParameterSource("echeancierId", echeancier.getId()), Boolean.class))) {
+            throw new BadRequestException("Des échéances ont déjà été générées pour cet échéancier : le montant, "
+                    + "le nombre d'échéances et les dates ne peuvent plus être modifiés.");
+        }
+        EcheancierMapper.updateEntity(echeancier, echeancierDTO);
+
+        return EcheancierMapper.toDTO(echeancierRepository.save(echeancier));
+    }
+
+    @Override
+    public List<EcheancierResponseDTO> getAllEcheanciers() {
+        return echeancierRepository.findAll().stream()
+                .map(EcheancierMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public GenerationEcheancierDTO generer(final Long echeancierId) {
+        final Echeancier echeancier = echeancierRepository.findById(echeancierId)
+                .orElseThrow(() -> new ResourceNotFoundException("Échéancier non trouvé avec l'ID: " + echeancierId));
+        final long debut = System.nanoTime();
+
+        final BigDecimal[] montants = montants(echeancier.getMontantTotal(), echeancier.getNombreEcheances());
+        final Timestamp[] dates = datesEcheance(echeancier);
+        final Timestamp maintenant = new Timestamp(System.currentTimeMillis());
+
+        final MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("annee", echeancier.getAnneeUniversitaire())
+                .addValue("filiere", echeancier.getFiliere())
+                .addValue("taille", chunkSize)
+                .addValue("apres", 0L);
+
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long etudiants = 0;
+        long crees = 0;
+        while (true) {
+            final List<Long> cohorte = jdbcTemplate.queryForList(ETUDIANTS_CHUNK, params, Long.class);
+            if (cohorte.isEmpty()) {
+                break;
+            }
+            params.addValue("apres", cohorte.get(cohorte.size() - 1));
+            etudiants += cohorte.size();
+            final Set<Long> factures = new HashSet<>(jdbcTemplate.queryForList(DEJA_FACTURES, new MapSqlParameterSource()
+                    .addValue("echeancierId", echeancier.getId())
+                    .addValue("ids", cohorte), Long.class));
+            final List<Long> ids = cohorte.stream().filter(id -> !factures.contains(id)).toList();
+            if (ids.isEmpty()) {
+                continue;
+            }
+            final MapSqlParameterSource[] lignes = new MapSqlParameterSource[ids.size() * montants.length];
+            int i = 0;
+            for (Long etudiantId : ids) {
+                for (int k = 0; k < montants.length; k++) {
+                    lignes[i++] = new MapSqlParameterSource()
+                            .addValue("typePaiement", echeancier.getTypePaiement().name())
+                            .addValue("montant", montants[k])
+                            .addValue("dateCreation", maintenant)
+                            .addValue("dateEcheance", dates[k])
+                            .addValue("etudiantId", etudiantId)
+                            .addValue("echeancierId", echeancier.getId())
+                            .addValue("numero", k + 1);
+                }
+            }
+            final MapSqlParameterSource chunk = new MapSqlParameterSource()
+                    .addValue("echeancierId", echeancier.getId())
+                    .addValue("ids", ids);
+            crees += transactionTemplate.execute(status -> {
+                final Set<Long> avant = new HashSet<>(jdbcTemplate.query(ECHEANCES_CHUNK, chunk, (rs, rowNum) -> rs.getLong(1)));
+                jdbcTemplate.batchUpdate(INSERT_ECHEANCE, lignes);
+                // Balances are rebuilt from the rows, so ignored duplicates are not counted twice
+                soldeService.recalculerPourEtudiants(ids);
+                final long[] nouvelles = {0};
+                jdbcTemplate.query(ECHEANCES_CHUNK, chunk, rs -> {
+                    final long id = rs.getLong(1);
+                    if (!avant.contains(id)) {
+                        auditService.enregistrer(EntiteAudit.PAIEMENT, id, rs.getLong(2), "CREATION", null, StatusPaiement.NON_PAYE);
+                        nouvelles[0]++;
+                    }
+                });
+                return nouvelles[0];
+            });
+        }
+
+        if (crees > 0) {
+            analyticsService.refresh();
+        }
+
+        final GenerationEcheancierDTO report = new GenerationEcheancierDTO();
+        report.setEcheancierId(echeancier.getId());
+        report.setEtudiants(etudiants);
+        report.setPaiementsCrees(crees);
+        report.setDureeMs((System.nanoTime() - debut) / 1_000_000);
+        logger.info("Echeancier {} generated for {} etudiants in {} ms: {} paiements created.",
+                echeancier.getId(), etudiants, report.getDureeMs(), crees);
+        return report;
+    }
+
+    private static boolean modifieEcheances(final Echeancier echeancier, final EcheancierRequestDTO dto) {
+        return echeancier.getMontantTotal().compareTo(dto.getMontantTotal()) != 0
+                || echeancier.getNombreEcheances() != dto.getNombreEcheances()
+                || echeancier.getDatePremiereEcheance().getTime() != dto.getDatePremiereEcheance().getTime()
+                || echeancier.getIntervalleMois() != dto.getIntervalleMois();
+    }
+
+    // Equal installments rounded down to the centime, the remainder goes on the last one
+    private BigDecimal[] montants(final BigDecimal total, final int nombre) {
+        final BigDecimal[] montants = new BigDecimal[nombre];
+        final BigDecimal part = total.divide(BigDecimal.valueOf(nombre), 2, RoundingMode.DOWN);
+        Arrays.fill(montants, part);
+        montants[nombre - 1] = total.subtract(part.multiply(BigDecimal.valueOf(nombre - 1)));
+        return montants;
+    }
+
+    private Timestamp[] datesEcheance(final Echeancier echeancier) {
+        final Timestamp[] dates = new Timestamp[echeancier.getNombreEcheances()];
+        final Calendar calendar = Calendar.getInstance();
+        for (int k = 0; k < dates.length; k++) {
+            calendar.setTime(echeancier.getDatePremiereEcheance());
+            calendar.add(Calendar.MONTH, k * Math.max(1, echeancier.getIntervalleMois()));
+            dates[k] = new Timestamp(calendar.getTimeInMillis());
+        }
+        return dates;
+    }
+}
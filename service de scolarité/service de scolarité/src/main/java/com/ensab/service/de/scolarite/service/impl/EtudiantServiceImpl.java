@@ -9,7 +9,9 @@ import com.ensab.service.de.scolarite.exception.ResourceNotFoundException;
 import com.ensab.service.de.scolarite.mapper.EtudiantMapper;
 import com.ensab.service.de.scolarite.repository.EtudiantRepository;
 import com.ensab.service.de.scolarite.repository.UserRepository;
+import com.ensab.service.de.scolarite.service.AnalyticsService;
 import com.ensab.service.de.scolarite.service.EtudiantService;
+import com.ensab.service.de.scolarite.service.MoyenneService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,6 +35,12 @@ public class EtudiantServiceImpl implements EtudiantService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private MoyenneService moyenneService;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
     @Override
     public EtudiantResponseDTO createEtudiant(EtudiantRequestDTO etudiantDTO) {
         Etudiant etudiant = EtudiantMapper.toEntity(etudiantDTO);
@@ -76,6 +84,8 @@ public class EtudiantServiceImpl implements EtudiantService {
         etudiant.setNiveau(etudiantDTO.getNiveau());
         etudiant.setAnneeUniversitaire(etudiantDTO.getAnneeUniversitaire());
         Etudiant updatedEtudiant = etudiantRepository.save(etudiant);
+        moyenneService.invalidateClassements();
+        analyticsService.onEtudiantUpdated(updatedEtudiant);
         logger.info("Etudiant updated with ID: {}", id);
         return EtudiantMapper.toDTO(updatedEtudiant);
     }
@@ -86,6 +96,8 @@ public class EtudiantServiceImpl implements EtudiantService {
             throw new ResourceNotFoundException("Etudiant not found with ID: " + id);
         }
         etudiantRepository.deleteById(id);
+        moyenneService.invalidateClassements();
+        analyticsService.onEtudiantDeleted(id);
         logger.info("Etudiant deleted with ID: {}", id);
     }
 }
\ No newline at end of file
@@ -0,0 +1,290 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.dto.evenement.EvenementDTO;
+import com.ensab.service.de.scolarite.enums.StatusBatch;
+import com.ensab.service.de.scolarite.enums.TypeEvenement;
+import com.ensab.service.de.scolarite.mapper.EvenementMapper;
+import com.ensab.service.de.scolarite.repository.EvenementOutboxRepository;
+import com.ensab.service.de.scolarite.service.EvenementListener;
+import com.ensab.service.de.scolarite.service.EvenementService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Transactional outbox. Services write one row per domain event in their own transaction; after commit the relay
+ * is woken up (and also polls, for events committed by another instance or left over by a crash), leases a batch
+ * with SKIP LOCKED, hands it to every listener in one transaction per listener and marks it TERMINE.
+ * A failing batch is retried event by event; failed events are retried with exponential backoff, then left ECHOUE.
+ */
+@Service
+public class EvenementServiceImpl implements EvenementService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EvenementServiceImpl.class);
+
+    private static final String PUBLIER = """
+            INSERT INTO evenement_outbox (type, agregat_id, etudiant_id, status, tentatives, prochaine_tentative, date_creation)
+            SELECT :type, t.id, t.etudiant_id, 'EN_ATTENTE', 0, :maintenant, :maintenant
+            FROM %s t WHERE t.id IN (:ids)
+            """;
+
+    // EN_COURS rows whose lease expired belong to a relay that died mid-batch
+    private static final String RESERVER = """
+            SELECT id FROM evenement_outbox
+            WHERE status IN ('EN_ATTENTE', 'EN_COURS') AND prochaine_tentative <= :maintenant
+            ORDER BY id LIMIT :taille
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private static final String BAIL = """
+            UPDATE evenement_outbox SET status = 'EN_COURS', prochaine_tentative = :bail WHERE id IN (:ids)
+            """;
+
+    private static final String CHARGER = """
+            SELECT id, type, agregat_id, etudiant_id, tentatives, date_creation
+            FROM evenement_outbox WHERE id IN (:ids) ORDER BY id
+            """;
+
+    private static final String TERMINER = """
+            UPDATE evenement_outbox SET status = 'TERMINE', date_traitement = :maintenant, derniere_erreur = NULL
+            WHERE id IN (:ids)
+            """;
+
+    private static final String ECHEC = """
+            UPDATE evenement_outbox
+            SET status = CASE WHEN tentatives + 1 >= :max THEN 'ECHOUE' ELSE 'EN_ATTENTE' END,
+                tentatives = tentatives + 1,
+                prochaine_tentative = :prochaine,
+                derniere_erreur = :erreur
+            WHERE id = :id
+            """;
+
+    private static final String PURGER = """
+            DELETE FROM evenement_outbox WHERE status = 'TERMINE' AND date_traitement < :limite LIMIT :taille
+            """;
+
+    @Autowired
+    private EvenementOutboxRepository evenementOutboxRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private List<EvenementListener> listeners;
+
+    @Autowired
+    @Qualifier("evenementScheduler")
+    private ThreadPoolTaskScheduler evenementScheduler;
+
+    @Value("${evenement.batch-size:200}")
+    private int batchSize;
+
+    @Value("${evenement.poll-ms:2000}")
+    private long pollMs;
+
+    @Value("${evenement.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${evenement.max-tentatives:8}")
+    private int maxTentatives;
+
+    @Value("${evenement.backoff-ms:1000}")
+    private long backoffMs;
+
+    @Value("${evenement.retention-heures:72}")
+    private long retentionHeures;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // Coalesces the wake-ups of many commits into one pending relay run
+    private final AtomicBoolean reveilDemande = new AtomicBoolean();
+
+    private volatile long prochainePurge;
+
+    public EvenementServiceImpl(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void startRelay() {
+        evenementScheduler.scheduleWithFixedDelay(this::relayerSafely, Duration.ofMillis(pollMs));
+    }
+
+    @Override
+    public void publier(final TypeEvenement type, final Long agregatId) {
+        publier(type, List.of(agregatId));
+    }
+
+    @Override
+    public void publier(final TypeEvenement type, final Collection<Long> agregatIds) {
+        if (agregatIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(PUBLIER.formatted(type.getAgregat()), new MapSqlParameterSource()
+                .addValue("type", type.name())
+                .addValue("ids", agregatIds)
+                .addValue("maintenant", new Timestamp(System.currentTimeMillis())));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reveiller();
+                }
+            });
+        } else {
+            reveiller();
+        }
+    }
+
+    @Override
+    public Map<StatusBatch, Long> getStats() {
+        final Map<StatusBatch, Long> stats = new EnumMap<>(StatusBatch.class);
+        for (Object[] row : evenementOutboxRepository.countByStatus()) {
+            stats.put((StatusBatch) row[0], (Long) row[1]);
+        }
+        return stats;
+    }
+
+    @Override
+    public List<EvenementDTO> getEchecs(final int limit) {
+        return evenementOutboxRepository.findByStatusOrderByIdDesc(StatusBatch.ECHOUE, PageRequest.of(0, limit)).stream()
+                .map(EvenementMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    public int rejouerEchecs() {
+        final int rejoues = evenementOutboxRepository.rejouerEchecs(new Date());
+        logger.info("{} failed events queued again.", rejoues);
+        reveiller();
+        return rejoues;
+    }
+
+    private void reveiller() {
+        if (reveilDemande.compareAndSet(false, true)) {
+            evenementScheduler.execute(this::relayerSafely);
+        }
+    }
+
+    private void relayerSafely() {
+        reveilDemande.set(false);
+        try {
+            List<EvenementDTO> lot;
+            do {
+                lot = reserver();
+                if (!lot.isEmpty()) {
+                    dispatcher(lot);
+                }
+            } while (lot.size() == batchSize);
+            purger();
+        } catch (RuntimeException e) {
+            logger.error("Event relay failed.", e);
+        }
+    }
+
+    private List<EvenementDTO> reserver() {
+        return transactionTemplate.execute(status -> {
+            final long maintenant = System.currentTimeMillis();
+            final MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("maintenant", new Timestamp(maintenant))
+                    .addValue("taille", batchSize);
+            final List<Long> ids = jdbcTemplate.queryForList(RESERVER, params, Long.class);
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            params.addValue("ids", ids).addValue("bail", new Timestamp(maintenant + leaseSeconds * 1000));
+            jdbcTemplate.update(BAIL, params);
+            return jdbcTemplate.query(CHARGER, params, (rs, rowNum) -> {
+                final EvenementDTO evenement = new EvenementDTO();
+                evenement.setId(rs.getLong(1));
+                evenement.setType(TypeEvenement.valueOf(rs.getString(2)));
+                evenement.setAgregatId(rs.getLong(3));
+                evenement.setEtudiantId((Long) rs.getObject(4));
+                evenement.setStatus(StatusBatch.EN_COURS);
+                evenement.setTentatives(rs.getInt(5));
+                evenement.setDateCreation(rs.getTimestamp(6));
+                return evenement;
+            });
+        });
+    }
+
+    private void dispatcher(final List<EvenementDTO> lot) {
+        final Map<Long, String> echecs = new HashMap<>();
+        for (EvenementListener listener : listeners) {
+            final List<EvenementDTO> concernes = lot.stream().filter(evenement -> listener.supporte(evenement.getType())).toList();
+            if (concernes.isEmpty()) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> listener.traiter(concernes));
+            } catch (RuntimeException e) {
+                // Retry one by one so that a single bad event does not hold back the rest of the batch
+                for (EvenementDTO evenement : concernes) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> listener.traiter(List.of(evenement)));
+                    } catch (RuntimeException ex) {
+                        echecs.putIfAbsent(evenement.getId(), listener.getClass().getSimpleName() + ": " + ex.getMessage());
+                    }
+                }
+            }
+        }
+
+        final long maintenant = System.currentTimeMillis();
+        final List<Long> termines = lot.stream().map(EvenementDTO::getId).filter(id -> !echecs.containsKey(id)).toList();
+        if (!termines.isEmpty()) {
+            jdbcTemplate.update(TERMINER, new MapSqlParameterSource()
+                    .addValue("ids", termines)
+                    .addValue("maintenant", new Timestamp(maintenant)));
+        }
+        for (EvenementDTO evenement : lot) {
+            final String erreur = echecs.get(evenement.getId());
+            if (erreur == null) {
+                continue;
+            }
+            final long delai = backoffMs << Math.min(evenement.getTentatives(), 16);
+            jdbcTemplate.update(ECHEC, new MapSqlParameterSource()
+                    .addValue("id", evenement.getId())
+                    .addValue("max", maxTentatives)
+                    .addValue("prochaine", new Timestamp(maintenant + delai))
+                    .addValue("erreur", erreur.length() > 1000 ? erreur.substring(0, 1000) : erreur));
+            logger.warn("Event {} {} for {} failed (attempt {}): {}", evenement.getId(), evenement.getType(),
+                    evenement.getAgregatId(), evenement.getTentatives() + 1, erreur);
+        }
+    }
+
+    // Processed events are kept a while for diagnosis, then deleted in small chunks
+    private void purger() {
+        final long maintenant = System.currentTimeMillis();
+        if (maintenant < prochainePurge) {
+            return;
+        }
+        prochainePurge = maintenant + Duration.ofMinutes(10).toMillis();
+        final MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("limite", new Timestamp(maintenant - Duration.ofHours(retentionHeures).toMillis()))
+                .addValue("taille", 1000);
+        int supprimes;
+        do {
+            supprimes = jdbcTemplate.update(PURGER, params);
+        } while (supprimes == 1000);
+    }
+}
@@ -0,0 +1,162 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.entity.CleIdempotence;
+import com.ensab.service.de.scolarite.exception.BadRequestException;
+import com.ensab.service.de.scolarite.exception.EntityDuplicateException;
+import com.ensab.service.de.scolarite.repository.CleIdempotenceRepository;
+import com.ensab.service.de.scolarite.service.IdempotenceService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key support for write endpoints. The first request with a key runs, its response is stored
+ * (key table, plus an LRU of recent keys in front of it) and every retry with the same key gets that
+ * response back without running the write again.
+ */
+@Service
+public class IdempotenceServiceImpl implements IdempotenceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotenceServiceImpl.class);
+
+    public static final String HEADER_REPLAY = "Idempotent-Replayed";
+
+    @Autowired
+    private CleIdempotenceRepository cleIdempotenceRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${idempotence.ttl-hours:24}")
+    private long ttlHours;
+
+    // A key still pending after this long belongs to a request that died, it can be taken over
+    @Value("${idempotence.pending-timeout-seconds:60}")
+    private long pendingTimeoutSeconds;
+
+    private final Map<String, ReponseStockee> recentes;
+
+    public IdempotenceServiceImpl(@Value("${idempotence.cache-size:10000}") int cacheSize) {
+        this.recentes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ReponseStockee> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    @Override
+    public <T> ResponseEntity<T> executer(final String cle, final String portee, final Object requete,
+                                          final Class<T> type, final Supplier<ResponseEntity<T>> action) {
+        if (cle == null || cle.isBlank()) {
+            return action.get();
+        }
+        if (cle.length() > 100) {
+            throw new BadRequestException("La clé d'idempotence ne doit pas dépasser 100 caractères.");
+        }
+        final String empreinte = empreinte(requete);
+        final String cacheKey = portee + "|" + cle;
+
+        final ReponseStockee recente = recentes.get(cacheKey);
+        if (recente != null) {
+            return replay(recente, empreinte, type);
+        }
+
+        final Optional<CleIdempotence> existante = cleIdempotenceRepository.findByPorteeAndCle(portee, cle);
+        if (existante.isPresent()) {
+            final CleIdempotence stockee = existante.get();
+            if (stockee.getStatusHttp() != null) {
+                final ReponseStockee reponse = new ReponseStockee(stockee.getEmpreinte(), stockee.getStatusHttp(), stockee.getReponse());
+                recentes.put(cacheKey, reponse);
+                return replay(reponse, empreinte, type);
+            }
+            if (System.currentTimeMillis() - stockee.getDateCreation().getTime() < pendingTimeoutSeconds * 1000) {
+                throw new EntityDuplicateException("Une requête avec cette clé d'idempotence est en cours de traitement.");
+            }
+            cleIdempotenceRepository.delete(stockee);
+        }
+
+        // The unique (portee, cle) constraint decides between concurrent first requests
+        CleIdempotence enCours = new CleIdempotence();
+        enCours.setPortee(portee);
+        enCours.setCle(cle);
+        enCours.setEmpreinte(empreinte);
+        enCours.setDateCreation(new Date());
+        try {
+            enCours = cleIdempotenceRepository.saveAndFlush(enCours);
+        } catch (DataIntegrityViolationException e) {
+            throw new EntityDuplicateException("Une requête avec cette clé d'idempotence est en cours de traitement.");
+        }
+
+        final ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            // Failed writes are not recorded: the client may retry with the same key
+            cleIdempotenceRepository.delete(enCours);
+            throw e;
+        }
+
+        final ReponseStockee reponse = new ReponseStockee(empreinte, response.getStatusCode().value(), toJson(response.getBody()));
+        enCours.setStatusHttp(reponse.statusHttp());
+        enCours.setReponse(reponse.json());
+        cleIdempotenceRepository.save(enCours);
+        recentes.put(cacheKey, reponse);
+        return response;
+    }
+
+    @Override
+    public int purgerClesExpirees(final int taille) {
+        final Date limite = new Date(System.currentTimeMillis() - ttlHours * 60 * 60 * 1000);
+        final int deleted = cleIdempotenceRepository.deleteCreatedBefore(limite, taille);
+        if (deleted > 0) {
+            recentes.clear();
+            logger.info("{} idempotency keys older than {} removed.", deleted, limite);
+        }
+        return deleted;
+    }
+
+    private <T> ResponseEntity<T> replay(ReponseStockee reponse, String empreinte, Class<T> type) {
+        if (!reponse.empreinte().equals(empreinte)) {
+            throw new BadRequestException("Cette clé d'idempotence a déjà été utilisée pour une autre requête.");
+        }
+        try {
+            T body = reponse.json() == null ? null : objectMapper.readValue(reponse.json(), type);
+            return ResponseEntity.status(reponse.statusHttp()).header(HEADER_REPLAY, "true").body(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Réponse stockée illisible pour la clé d'idempotence.", e);
+        }
+    }
+
+    private String empreinte(Object requete) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(toJson(requete).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Impossible de sérialiser la requête.", e);
+        }
+    }
+
+    private record ReponseStockee(String empreinte, int statusHttp, String json) {
+    }
+}
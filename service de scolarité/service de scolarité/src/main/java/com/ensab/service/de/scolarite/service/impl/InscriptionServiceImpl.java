@@ -5,18 +5,24 @@ import com.ensab.service.de.scolarite.dto.inscription.InscriptionResponseDTO;
 import com.ensab.service.de.scolarite.entity.Admin;
 import com.ensab.service.de.scolarite.entity.Etudiant;
 import com.ensab.service.de.scolarite.entity.Inscription;
+import com.ensab.service.de.scolarite.enums.EntiteAudit;
 import com.ensab.service.de.scolarite.enums.StatusInscription;
+import com.ensab.service.de.scolarite.enums.TypeEvenement;
 import com.ensab.service.de.scolarite.exception.ResourceNotFoundException;
 import com.ensab.service.de.scolarite.mapper.InscriptionMapper;
 import com.ensab.service.de.scolarite.repository.AdminRepository;
 import com.ensab.service.de.scolarite.repository.EtudiantRepository;
 import com.ensab.service.de.scolarite.repository.InscriptionRepository;
+import com.ensab.service.de.scolarite.service.AuditService;
+import com.ensab.service.de.scolarite.service.EvenementService;
 import com.ensab.service.de.scolarite.service.InscriptionService;
+import com.ensab.service.de.scolarite.service.QuotaService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Date;
 import java.util.List;
@@ -36,7 +42,17 @@ public class InscriptionServiceImpl implements InscriptionService {
     @Autowired
     AdminRepository adminRepository;
 
+    @Autowired
+    EvenementService evenementService;
+
+    @Autowired
+    QuotaService quotaService;
+
+    @Autowired
+    AuditService auditService;
+
     @Override
+    @Transactional
     public InscriptionResponseDTO createInscription(final InscriptionRequestDTO inscriptionDTO) {
 
         // Changed: Find student by ID instead of email/codeApogee/cin
@@ -49,6 +65,7 @@ public class InscriptionServiceImpl implements InscriptionService {
         inscription.setEtudiant(etudiant);
 
         final Inscription savedInscription = inscriptionRepository.save(inscription);
+        evenementService.publier(TypeEvenement.INSCRIPTION_CREEE, savedInscription.getId());
         logger.info("Inscription created successfully with ID: {}", savedInscription.getId());
 
         return InscriptionMapper.toDTO(savedInscription);
@@ -70,35 +87,53 @@ public class InscriptionServiceImpl implements InscriptionService {
     }
 
     @Override
+    @Transactional
     public InscriptionResponseDTO confirmInscription(Long id) {
-        final Inscription inscription = inscriptionRepository.findById(id)
+        final Inscription inscription = inscriptionRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Inscription non trouvée avec l'ID: " + id));
 
+        // Already counted against the quota, confirming twice must not take a second place
+        if (inscription.getStatus() == StatusInscription.CONFIRME) {
+            return InscriptionMapper.toDTO(inscription);
+        }
+
         String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
         Admin admin = adminRepository.findByNomUtilisateur(currentUsername)
                 .orElseThrow(() -> new ResourceNotFoundException("Admin not found with username: " + currentUsername));
 
+        final StatusInscription ancienStatus = inscription.getStatus();
+        quotaService.reserve(inscription);
         inscription.setStatus(StatusInscription.CONFIRME);
         inscription.setDateConfirmation(new Date());
         inscription.setAdmin(admin);
         inscriptionRepository.save(inscription);
+        evenementService.publier(TypeEvenement.INSCRIPTION_CONFIRMEE, id);
+        auditService.enregistrer(EntiteAudit.INSCRIPTION, id, inscription.getEtudiant().getId(), "CONFIRMATION", ancienStatus, StatusInscription.CONFIRME);
         logger.info("Inscription with ID: {} updated to CONFIRME.", id);
 
         return InscriptionMapper.toDTO(inscription);
     }
 
     @Override
+    @Transactional
     public InscriptionResponseDTO cancelInscription(Long id) {
-        final Inscription inscription = inscriptionRepository.findById(id)
+        // Locked so that two concurrent cancels cannot both release the place
+        final Inscription inscription = inscriptionRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Inscription non trouvée avec l'ID: " + id));
 
         String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
         Admin admin = adminRepository.findByNomUtilisateur(currentUsername)
                 .orElseThrow(() -> new ResourceNotFoundException("Admin not found with username: " + currentUsername));
 
+        final StatusInscription ancienStatus = inscription.getStatus();
+        if (ancienStatus == StatusInscription.CONFIRME) {
+            quotaService.release(inscription);
+        }
         inscription.setStatus(StatusInscription.ANNULE);
         inscription.setAdmin(admin);
         inscriptionRepository.save(inscription);
+        evenementService.publier(TypeEvenement.INSCRIPTION_ANNULEE, id);
+        auditService.enregistrer(EntiteAudit.INSCRIPTION, id, inscription.getEtudiant().getId(), "ANNULATION", ancienStatus, StatusInscription.ANNULE);
         logger.info("Inscription with ID: {} updated to ANNULE.", id);
 
         return InscriptionMapper.toDTO(inscription);
@@ -0,0 +1,343 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.config.Noeud;
+import com.ensab.service.de.scolarite.dto.job.JobExecutionDTO;
+import com.ensab.service.de.scolarite.dto.job.JobStatutDTO;
+import com.ensab.service.de.scolarite.entity.JobExecution;
+import com.ensab.service.de.scolarite.entity.JobVerrou;
+import com.ensab.service.de.scolarite.enums.StatusBatch;
+import com.ensab.service.de.scolarite.exception.ResourceNotFoundException;
+import com.ensab.service.de.scolarite.mapper.JobMapper;
+import com.ensab.service.de.scolarite.repository.JobExecutionRepository;
+import com.ensab.service.de.scolarite.repository.JobVerrouRepository;
+import com.ensab.service.de.scolarite.service.JobPlanifie;
+import com.ensab.service.de.scolarite.service.JobService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the JobPlanifie beans on one node of the cluster at a time. Each job has a job_verrou row; a node runs a due
+ * job only after taking its lease with a conditional UPDATE, renews the lease after every step and while the run is
+ * in progress, and releases it at the end. When a node dies, its lease expires after jobs.lease-seconds and the next
+ * node to tick resumes the run from the last stored checkpoint.
+ * Lease times come from the database clock, so the nodes' clocks do not have to agree.
+ */
+@Service
+public class JobServiceImpl implements JobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobServiceImpl.class);
+
+    private static final int TAILLE_ERREUR = 1000;
+
+    private static final String INITIALISER = """
+            INSERT IGNORE INTO job_verrou (nom, prochaine_execution) VALUES (:nom, NOW(6))
+            """;
+
+    private static final String ACQUERIR = """
+            UPDATE job_verrou
+            SET proprietaire = :noeud, expiration = TIMESTAMPADD(SECOND, :bail, NOW(6)), heartbeat = NOW(6)
+            WHERE nom = :nom AND prochaine_execution <= NOW(6) AND (proprietaire IS NULL OR expiration < NOW(6))
+            """;
+
+    private static final String CHECKPOINT = "SELECT checkpoint FROM job_verrou WHERE nom = :nom";
+
+    // Runs left EN_COURS by a node whose lease expired
+    private static final String ABANDONNER = """
+            UPDATE job_execution SET status = 'ANNULE', fin = NOW(6), erreur = 'Bail expiré, reprise sur un autre nœud'
+            WHERE nom = :nom AND status = 'EN_COURS'
+            """;
+
+    private static final String SAUVEGARDER = """
+            UPDATE job_verrou
+            SET checkpoint = :checkpoint, expiration = TIMESTAMPADD(SECOND, :bail, NOW(6)), heartbeat = NOW(6)
+            WHERE nom = :nom AND proprietaire = :noeud
+            """;
+
+    private static final String RENOUVELER = """
+            UPDATE job_verrou SET expiration = TIMESTAMPADD(SECOND, :bail, NOW(6)), heartbeat = NOW(6)
+            WHERE nom IN (:noms) AND proprietaire = :noeud
+            """;
+
+    // The checkpoint is cleared on success and kept otherwise, so that the next run resumes from it
+    private static final String LIBERER = """
+            UPDATE job_verrou
+            SET proprietaire = NULL, expiration = NULL,
+                checkpoint = CASE WHEN :termine THEN NULL ELSE checkpoint END,
+                prochaine_execution = TIMESTAMPADD(SECOND, :delai, NOW(6))
+            WHERE nom = :nom AND proprietaire = :noeud
+            """;
+
+    private static final String DECLENCHER = "UPDATE job_verrou SET prochaine_execution = NOW(6) WHERE nom = :nom";
+
+    private static final String PURGER = "DELETE FROM job_execution WHERE debut < :limite LIMIT :taille";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobVerrouRepository jobVerrouRepository;
+
+    @Autowired
+    private JobExecutionRepository jobExecutionRepository;
+
+    @Autowired
+    @Qualifier("jobScheduler")
+    private ThreadPoolTaskScheduler jobScheduler;
+
+    @Autowired
+    @Qualifier("bailScheduler")
+    private ThreadPoolTaskScheduler bailScheduler;
+
+    @Value("${jobs.enabled:true}")
+    private boolean enabled;
+
+    @Value("${jobs.tick-ms:5000}")
+    private long tickMs;
+
+    @Value("${jobs.lease-seconds:30}")
+    private long bailSeconds;
+
+    @Value("${jobs.parallelism:2}")
+    private int parallelism;
+
+    @Value("${jobs.retry-seconds:300}")
+    private long retrySeconds;
+
+    @Value("${jobs.historique-jours:30}")
+    private long historiqueJours;
+
+    private final Map<String, JobPlanifie> jobs;
+
+    private final String noeud;
+
+    // Jobs this node is running; the tick does not try to take their lease again
+    private final Set<String> enCours = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean arret;
+    private long prochainePurge;
+
+    public JobServiceImpl(List<JobPlanifie> jobs, Noeud noeud) {
+        this.jobs = jobs.stream().collect(Collectors.toMap(JobPlanifie::getNom, Function.identity(),
+                (a, b) -> {
+                    throw new IllegalStateException("Two scheduled jobs named " + a.getNom());
+                }, LinkedHashMap::new));
+        this.noeud = noeud.getId();
+    }
+
+    @PostConstruct
+    void startJobs() {
+        if (!enabled) {
+            logger.info("Scheduled jobs disabled on node {}.", noeud);
+            return;
+        }
+        for (String nom : jobs.keySet()) {
+            jdbcTemplate.update(INITIALISER, new MapSqlParameterSource("nom", nom));
+        }
+        jobScheduler.scheduleWithFixedDelay(this::tickSafely, Duration.ofMillis(tickMs));
+        bailScheduler.scheduleWithFixedDelay(this::renouvelerSafely, Duration.ofSeconds(Math.max(1, bailSeconds / 3)));
+        logger.info("Scheduled jobs {} started on node {}.", jobs.keySet(), noeud);
+    }
+
+    // Running jobs stop after their current step and hand their lease over with the checkpoint
+    @PreDestroy
+    void stopJobs() {
+        arret = true;
+    }
+
+    @Override
+    public List<JobStatutDTO> getJobs() {
+        final Map<String, JobVerrou> verrous = jobVerrouRepository.findAllById(jobs.keySet()).stream()
+                .collect(Collectors.toMap(JobVerrou::getNom, Function.identity()));
+        final Map<String, Object[]> stats = jobExecutionRepository.statsParJob().stream()
+                .collect(Collectors.toMap(row -> (String) row[0], Function.identity()));
+
+        final List<JobStatutDTO> statuts = new ArrayList<>();
+        for (JobPlanifie job : jobs.values()) {
+            final JobStatutDTO statut = new JobStatutDTO();
+            statut.setNom(job.getNom());
+            statut.setIntervalleSecondes(job.getIntervalle().toSeconds());
+            final JobVerrou verrou = verrous.get(job.getNom());
+            if (verrou != null) {
+                statut.setProprietaire(verrou.getProprietaire());
+                statut.setExpiration(verrou.getExpiration());
+                statut.setProchaineExecution(verrou.getProchaineExecution());
+                statut.setCheckpoint(verrou.getCheckpoint());
+            }
+            final Object[] row = stats.get(job.getNom());
+            if (row != null) {
+                statut.setExecutions(((Number) row[1]).longValue());
+                statut.setEchecs(((Number) row[2]).longValue());
+                statut.setDureeMoyenneMs(row[3] == null ? null : Math.round(((Number) row[3]).doubleValue()));
+            }
+            jobExecutionRepository.findByNomOrderByIdDesc(job.getNom(), PageRequest.of(0, 1)).stream()
+                    .findFirst()
+                    .map(JobMapper::toDTO)
+                    .ifPresent(statut::setDerniereExecution);
+            statuts.add(statut);
+        }
+        return statuts;
+    }
+
+    @Override
+    public List<JobExecutionDTO> getHistorique(final String nom, final int limit) {
+        getJob(nom);
+        return jobExecutionRepository.findByNomOrderByIdDesc(nom, PageRequest.of(0, limit)).stream()
+                .map(JobMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void declencher(final String nom) {
+        getJob(nom);
+        jdbcTemplate.update(DECLENCHER, new MapSqlParameterSource("nom", nom));
+    }
+
+    private JobPlanifie getJob(final String nom) {
+        final JobPlanifie job = jobs.get(nom);
+        if (job == null) {
+            throw new ResourceNotFoundException("Job planifié non trouvé : " + nom);
+        }
+        return job;
+    }
+
+    private void tickSafely() {
+        try {
+            for (JobPlanifie job : jobs.values()) {
+                if (arret || enCours.size() >= parallelism) {
+                    break;
+                }
+                if (!enCours.contains(job.getNom()) && acquerir(job)) {
+                    enCours.add(job.getNom());
+                    jobScheduler.execute(() -> {
+                        try {
+                            executer(job);
+                        } finally {
+                            enCours.remove(job.getNom());
+                        }
+                    });
+                }
+            }
+            purger();
+        } catch (RuntimeException e) {
+            logger.error("Scheduled jobs tick failed.", e);
+        }
+    }
+
+    private boolean acquerir(final JobPlanifie job) {
+        return jdbcTemplate.update(ACQUERIR, new MapSqlParameterSource()
+                .addValue("noeud", noeud)
+                .addValue("bail", bailSeconds)
+                .addValue("nom", job.getNom())) == 1;
+    }
+
+    private void renouvelerSafely() {
+        try {
+            final Set<String> noms = Set.copyOf(enCours);
+            if (!noms.isEmpty()) {
+                jdbcTemplate.update(RENOUVELER, new MapSqlParameterSource()
+                        .addValue("bail", bailSeconds)
+                        .addValue("noms", noms)
+                        .addValue("noeud", noeud));
+            }
+        } catch (RuntimeException e) {
+            logger.error("Scheduled jobs lease renewal failed.", e);
+        }
+    }
+
+    // Steps until the job returns a null checkpoint; the checkpoint is stored after each one
+    private void executer(final JobPlanifie job) {
+        final String nom = job.getNom();
+        final MapSqlParameterSource params = new MapSqlParameterSource("nom", nom);
+        jdbcTemplate.update(ABANDONNER, params);
+        String checkpoint = jdbcTemplate.queryForObject(CHECKPOINT, params, String.class);
+
+        JobExecution execution = new JobExecution();
+        execution.setNom(nom);
+        execution.setNoeud(noeud);
+        execution.setDebut(new Date());
+        execution.setStatus(StatusBatch.EN_COURS);
+        execution.setReprise(checkpoint);
+        execution = jobExecutionRepository.save(execution);
+
+        final long debut = System.nanoTime();
+        try {
+            do {
+                if (arret) {
+                    liberer(nom, false, 0);
+                    terminer(execution, debut, StatusBatch.ANNULE, "Arrêt du nœud " + noeud);
+                    return;
+                }
+                final JobPlanifie.Etape etape = job.executer(checkpoint);
+                execution.setEtapes(execution.getEtapes() + 1);
+                execution.setElements(execution.getElements() + etape.elements());
+                checkpoint = etape.checkpoint();
+                if (jdbcTemplate.update(SAUVEGARDER, new MapSqlParameterSource()
+                        .addValue("checkpoint", checkpoint)
+                        .addValue("bail", bailSeconds)
+                        .addValue("nom", nom)
+                        .addValue("noeud", noeud)) == 0) {
+                    // Another node took the lease over: it resumes from the previous checkpoint
+                    logger.warn("Job {} lost its lease on node {} after {} steps.", nom, noeud, execution.getEtapes());
+                    terminer(execution, debut, StatusBatch.ANNULE, "Bail perdu");
+                    return;
+                }
+            } while (checkpoint != null);
+            liberer(nom, true, job.getIntervalle().toSeconds());
+            terminer(execution, debut, StatusBatch.TERMINE, null);
+            logger.info("Job {} done on node {}: {} elements in {} steps, {} ms.",
+                    nom, noeud, execution.getElements(), execution.getEtapes(), execution.getDureeMs());
+        } catch (RuntimeException e) {
+            logger.error("Job {} failed on node {} after {} steps.", nom, noeud, execution.getEtapes(), e);
+            liberer(nom, false, Math.min(retrySeconds, job.getIntervalle().toSeconds()));
+            terminer(execution, debut, StatusBatch.ECHOUE, String.valueOf(e.getMessage()));
+        }
+    }
+
+    private void liberer(final String nom, final boolean termine, final long delaiSeconds) {
+        jdbcTemplate.update(LIBERER, new MapSqlParameterSource()
+                .addValue("termine", termine)
+                .addValue("delai", delaiSeconds)
+                .addValue("nom", nom)
+                .addValue("noeud", noeud));
+    }
+
+    private void terminer(final JobExecution execution, final long debut, final StatusBatch status, final String erreur) {
+        execution.setFin(new Date());
+        execution.setDureeMs((System.nanoTime() - debut) / 1_000_000);
+        execution.setStatus(status);
+        execution.setErreur(erreur != null && erreur.length() > TAILLE_ERREUR ? erreur.substring(0, TAILLE_ERREUR) : erreur);
+        jobExecutionRepository.save(execution);
+    }
+
+    private void purger() {
+        final long maintenant = System.currentTimeMillis();
+        if (maintenant < prochainePurge) {
+            return;
+        }
+        prochainePurge = maintenant + Duration.ofHours(1).toMillis();
+        final MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("limite", new Timestamp(maintenant - Duration.ofDays(historiqueJours).toMillis()))
+                .addValue("taille", 1000);
+        int supprimes;
+        do {
+            supprimes = jdbcTemplate.update(PURGER, params);
+        } while (supprimes == 1000);
+    }
+}
@@ -0,0 +1,62 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.exception.ServiceUnavailableException;
+import com.ensab.service.de.scolarite.service.LectureService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Student read path: the request thread hands the read to a small fixed pool of readers and is released;
+ * the waiting request is only an async servlet context until the result is written by the MVC async dispatch.
+ * Waiting reads are then bounded by lecture.queue-capacity, not by Tomcat threads, and DB reads by lecture.readers.
+ * This is the MVC async path, not a reactive stack: JDBC still blocks the readers, so student reads top out at
+ * lecture.readers / read time, and no more sessions fit on a node than with blocking reads (LectureServiceLoadHarness).
+ * What it buys is isolation: a student read overload is refused with 503 instead of holding every Tomcat thread.
+ */
+@Service
+public class LectureServiceImpl implements LectureService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LectureServiceImpl.class);
+
+    @Autowired
+    @Qualifier("studentReadExecutor")
+    private ThreadPoolTaskExecutor studentReadExecutor;
+
+    @Value("${lecture.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong rejets = new AtomicLong();
+
+    public LectureServiceImpl(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Readers run outside the request's open session: one read-only transaction covers the lazy loads
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> lire(final Supplier<T> lecture) {
+        try {
+            return CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> lecture.get()), studentReadExecutor);
+        } catch (RejectedExecutionException e) {
+            long total = rejets.incrementAndGet();
+            if (total % 100 == 1) {
+                logger.warn("Student read queue full, {} reads rejected so far.", total);
+            }
+            throw new ServiceUnavailableException("Trop de requêtes en attente, veuillez réessayer.", retryAfterSeconds);
+        }
+    }
+}
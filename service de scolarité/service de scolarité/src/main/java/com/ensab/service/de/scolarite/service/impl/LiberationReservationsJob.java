@@ -0,0 +1,35 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.service.DemandeService;
+import com.ensab.service.de.scolarite.service.JobPlanifie;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Puts back in the queue the demandes whose admin reservation expired
+@Component
+public class LiberationReservationsJob implements JobPlanifie {
+
+    @Autowired
+    private DemandeService demandeService;
+
+    @Value("${jobs.liberation-reservations.intervalle-seconds:60}")
+    private long intervalleSeconds;
+
+    @Override
+    public String getNom() {
+        return "liberation-reservations";
+    }
+
+    @Override
+    public Duration getIntervalle() {
+        return Duration.ofSeconds(intervalleSeconds);
+    }
+
+    @Override
+    public Etape executer(final String checkpoint) {
+        return Etape.fin(demandeService.releaseExpiredDemandes());
+    }
+}
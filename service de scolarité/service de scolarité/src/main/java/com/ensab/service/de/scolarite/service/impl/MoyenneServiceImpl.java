@@ -0,0 +1,219 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.dto.moyenne.ClassementDTO;
+import com.ensab.service.de.scolarite.dto.moyenne.MoyenneEtudiantDTO;
+import com.ensab.service.de.scolarite.dto.moyenne.MoyenneModuleDTO;
+import com.ensab.service.de.scolarite.entity.Etudiant;
+import com.ensab.service.de.scolarite.entity.MoyenneModule;
+import com.ensab.service.de.scolarite.enums.CacheDistribue;
+import com.ensab.service.de.scolarite.exception.BadRequestException;
+import com.ensab.service.de.scolarite.exception.ResourceNotFoundException;
+import com.ensab.service.de.scolarite.mapper.EtudiantMapper;
+import com.ensab.service.de.scolarite.repository.EtudiantRepository;
+import com.ensab.service.de.scolarite.repository.MoyenneModuleRepository;
+import com.ensab.service.de.scolarite.service.CacheCoherenceService;
+import com.ensab.service.de.scolarite.service.MoyenneService;
+import com.ensab.service.de.scolarite.util.ClassementIndex;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class MoyenneServiceImpl implements MoyenneService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MoyenneServiceImpl.class);
+
+    @Autowired
+    private MoyenneModuleRepository moyenneModuleRepository;
+
+    @Autowired
+    private EtudiantRepository etudiantRepository;
+
+    @Autowired
+    private CacheCoherenceService cacheCoherenceService;
+
+    // One ranking per filiere/niveau/anneeUniversitaire, loaded on first read
+    private final Map<String, ClassementIndex> classements = new ConcurrentHashMap<>();
+
+    // Changes made on other nodes drop the cohort, which reloads on next read
+    @PostConstruct
+    void abonnerInvalidations() {
+        cacheCoherenceService.abonner(CacheDistribue.CLASSEMENT, cles -> {
+            if (cles == null) {
+                classements.clear();
+            } else {
+                classements.keySet().removeAll(cles);
+            }
+        });
+    }
+
+    @Override
+    public void onNoteAdded(final Etudiant etudiant, final String module, final Double valeur) {
+        if (valeur == null) {
+            return;
+        }
+        moyenneModuleRepository.addNote(etudiant.getId(), normalize(module), valeur);
+        refreshClassementAfterCommit(etudiant);
+        cacheCoherenceService.invalider(CacheDistribue.CLASSEMENT,
+                cohortKey(etudiant.getFiliere(), etudiant.getNiveau(), etudiant.getAnneeUniversitaire()));
+    }
+
+    // Must run after the note row itself has been removed or changed and flushed
+    @Override
+    public void onNoteRemoved(final Etudiant etudiant, final String module, final Double valeur) {
+        if (valeur == null) {
+            return;
+        }
+        moyenneModuleRepository.removeNote(etudiant.getId(), normalize(module), valeur);
+        moyenneModuleRepository.recomputeBounds(etudiant.getId(), normalize(module), valeur);
+        moyenneModuleRepository.deleteEmpty(etudiant.getId(), normalize(module));
+        refreshClassementAfterCommit(etudiant);
+        cacheCoherenceService.invalider(CacheDistribue.CLASSEMENT,
+                cohortKey(etudiant.getFiliere(), etudiant.getNiveau(), etudiant.getAnneeUniversitaire()));
+    }
+
+    @Override
+    public MoyenneEtudiantDTO getMoyenneByEtudiant(final Long etudiantId) {
+        final Etudiant etudiant = etudiantRepository.findById(etudiantId)
+                .orElseThrow(() -> new ResourceNotFoundException("Etudiant not found with ID: " + etudiantId));
+
+        final MoyenneEtudiantDTO dto = new MoyenneEtudiantDTO();
+        dto.setEtudiantId(etudiantId);
+        final List<MoyenneModuleDTO> modules = new ArrayList<>();
+        double somme = 0;
+        long nombre = 0;
+        for (MoyenneModule moyenneModule : moyenneModuleRepository.findByEtudiantIdOrderByModule(etudiantId)) {
+            modules.add(toModuleDTO(moyenneModule));
+            somme += moyenneModule.getSomme();
+            nombre += moyenneModule.getNombre();
+            dto.setMinimum(dto.getMinimum() == null ? moyenneModule.getMinimum()
+                    : Math.min(dto.getMinimum(), moyenneModule.getMinimum()));
+            dto.setMaximum(dto.getMaximum() == null ? moyenneModule.getMaximum()
+                    : Math.max(dto.getMaximum(), moyenneModule.getMaximum()));
+        }
+        dto.setModules(modules);
+        dto.setNombreNotes(nombre);
+        dto.setMoyenne(nombre > 0 ? somme / nombre : null);
+
+        if (etudiant.getAnneeUniversitaire() != null) {
+            ClassementIndex classement = getClassementIndex(
+                    etudiant.getFiliere(), etudiant.getNiveau(), etudiant.getAnneeUniversitaire());
+            dto.setRang(classement.rank(etudiantId));
+            dto.setEffectif(classement.size());
+        }
+        return dto;
+    }
+
+    @Override
+    public List<ClassementDTO> getClassement(final String filiere, final String niveau,
+                                             final String anneeUniversitaire, final int top) {
+        if (filiere == null || niveau == null || anneeUniversitaire == null) {
+            throw new BadRequestException("La filière, le niveau et l'année universitaire sont obligatoires.");
+        }
+        if (top <= 0) {
+            throw new BadRequestException("Le nombre d'étudiants demandé doit être positif.");
+        }
+        final List<ClassementIndex.Entry> entries = getClassementIndex(filiere, niveau, anneeUniversitaire).top(top);
+        final Map<Long, Etudiant> etudiants = etudiantRepository.findAllById(
+                        entries.stream().map(ClassementIndex.Entry::etudiantId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Etudiant::getId, Function.identity()));
+
+        return entries.stream()
+                .filter(entry -> etudiants.containsKey(entry.etudiantId()))
+                .map(entry -> {
+                    ClassementDTO dto = new ClassementDTO();
+                    dto.setRang(entry.rang());
+                    dto.setMoyenne(entry.moyenne());
+                    dto.setEtudiant(EtudiantMapper.toBasicDTO(etudiants.get(entry.etudiantId())));
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
+
+    // Called when an etudiant changes cohort or disappears; rankings reload lazily
+    @Override
+    public void invalidateClassements() {
+        classements.clear();
+        cacheCoherenceService.invalider(CacheDistribue.CLASSEMENT, (String) null);
+    }
+
+    @Override
+    @Transactional
+    public int rebuildMoyennes() {
+        moyenneModuleRepository.deleteAllInBulk();
+        int rows = moyenneModuleRepository.rebuildFromNotes();
+        classements.clear();
+        cacheCoherenceService.invalider(CacheDistribue.CLASSEMENT, (String) null);
+        logger.info("Moyennes rebuilt from notes: {} module aggregates.", rows);
+        return rows;
+    }
+
+    private ClassementIndex getClassementIndex(String filiere, String niveau, String anneeUniversitaire) {
+        return classements.computeIfAbsent(cohortKey(filiere, niveau, anneeUniversitaire), key -> {
+            ClassementIndex classement = new ClassementIndex();
+            for (Object[] row : moyenneModuleRepository.findMoyennesByCohort(filiere, niveau, anneeUniversitaire)) {
+                classement.update((Long) row[0], row[1] == null ? null : ((Number) row[1]).doubleValue());
+            }
+            logger.info("Classement loaded for {}: {} etudiants.", key, classement.size());
+            return classement;
+        });
+    }
+
+    private void refreshClassementAfterCommit(Etudiant etudiant) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refreshClassement(etudiant);
+                }
+            });
+        } else {
+            refreshClassement(etudiant);
+        }
+    }
+
+    // computeIfPresent waits for a concurrent initial load of the same cohort, and the moyenne is read after it:
+    // a load that read the aggregates before this commit is corrected here, so no update is lost.
+    // A cohort that is not loaded costs nothing; it reads the committed aggregates when it loads.
+    private void refreshClassement(Etudiant etudiant) {
+        String key = cohortKey(etudiant.getFiliere(), etudiant.getNiveau(), etudiant.getAnneeUniversitaire());
+        classements.computeIfPresent(key, (k, classement) -> {
+            Object[] totals = moyenneModuleRepository.sumByEtudiant(etudiant.getId()).get(0);
+            Double moyenne = totals[1] == null || ((Number) totals[1]).longValue() == 0 ? null
+                    : ((Number) totals[0]).doubleValue() / ((Number) totals[1]).longValue();
+            classement.update(etudiant.getId(), moyenne);
+            return classement;
+        });
+    }
+
+    private static MoyenneModuleDTO toModuleDTO(MoyenneModule moyenneModule) {
+        MoyenneModuleDTO dto = new MoyenneModuleDTO();
+        dto.setModule(moyenneModule.getModule());
+        dto.setNombreNotes(moyenneModule.getNombre());
+        dto.setMoyenne(moyenneModule.getNombre() > 0 ? moyenneModule.getSomme() / moyenneModule.getNombre() : null);
+        dto.setMinimum(moyenneModule.getMinimum());
+        dto.setMaximum(moyenneModule.getMaximum());
+        return dto;
+    }
+
+    private static String cohortKey(String filiere, String niveau, String anneeUniversitaire) {
+        return filiere + "|" + niveau + "|" + anneeUniversitaire;
+    }
+
+    private static String normalize(String module) {
+        return module == null ? "" : module;
+    }
+}
@@ -4,15 +4,19 @@ import com.ensab.service.de.scolarite.dto.note.NoteRequestDTO;
 import com.ensab.service.de.scolarite.dto.note.NoteResponseDTO;
 import com.ensab.service.de.scolarite.entity.Etudiant;
 import com.ensab.service.de.scolarite.entity.Note;
+import com.ensab.service.de.scolarite.enums.EntiteAudit;
 import com.ensab.service.de.scolarite.exception.ResourceNotFoundException;
 import com.ensab.service.de.scolarite.mapper.NoteMapper;
 import com.ensab.service.de.scolarite.repository.EtudiantRepository;
 import com.ensab.service.de.scolarite.repository.NoteRepository;
+import com.ensab.service.de.scolarite.service.AuditService;
+import com.ensab.service.de.scolarite.service.MoyenneService;
 import com.ensab.service.de.scolarite.service.NoteService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -28,12 +32,22 @@ public class NoteServiceImpl implements NoteService {
     @Autowired
     private EtudiantRepository etudiantRepository;
 
+    @Autowired
+    private MoyenneService moyenneService;
+
+    @Autowired
+    private AuditService auditService;
+
     @Override
+    @Transactional
     public NoteResponseDTO addNote(NoteRequestDTO noteDTO) {
         Etudiant etudiant = etudiantRepository.findById(noteDTO.getEtudiantId())
                 .orElseThrow(() -> new ResourceNotFoundException("Etudiant not found with ID: " + noteDTO.getEtudiantId()));
         Note note = NoteMapper.toEntity(noteDTO, etudiant);
         Note savedNote = noteRepository.save(note);
+        moyenneService.onNoteAdded(etudiant, savedNote.getModule(), savedNote.getValeur());
+        auditService.enregistrer(EntiteAudit.NOTE, savedNote.getId(), etudiant.getId(), "AJOUT",
+                null, savedNote.getModule() + " = " + savedNote.getValeur());
         logger.info("Note added for etudiant ID: {}", noteDTO.getEtudiantId());
         return NoteMapper.toDTO(savedNote);
     }
@@ -47,22 +61,33 @@ public class NoteServiceImpl implements NoteService {
     }
 
     @Override
+    @Transactional
     public NoteResponseDTO updateNote(Long id, NoteRequestDTO noteDTO) {
         Note note = noteRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Note not found with ID: " + id));
+        String previousModule = note.getModule();
+        Double previousValeur = note.getValeur();
         note.setModule(noteDTO.getModule());
         note.setValeur(noteDTO.getValeur());
-        Note updatedNote = noteRepository.save(note);
+        Note updatedNote = noteRepository.saveAndFlush(note);
+        moyenneService.onNoteRemoved(note.getEtudiant(), previousModule, previousValeur);
+        moyenneService.onNoteAdded(note.getEtudiant(), updatedNote.getModule(), updatedNote.getValeur());
+        auditService.enregistrer(EntiteAudit.NOTE, id, note.getEtudiant().getId(), "MODIFICATION",
+                previousModule + " = " + previousValeur, updatedNote.getModule() + " = " + updatedNote.getValeur());
         logger.info("Note updated with ID: {}", id);
         return NoteMapper.toDTO(updatedNote);
     }
 
     @Override
+    @Transactional
     public void deleteNote(Long id) {
-        if (!noteRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Note not found with ID: " + id);
-        }
-        noteRepository.deleteById(id);
+        Note note = noteRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Note not found with ID: " + id));
+        noteRepository.delete(note);
+        noteRepository.flush();
+        moyenneService.onNoteRemoved(note.getEtudiant(), note.getModule(), note.getValeur());
+        auditService.enregistrer(EntiteAudit.NOTE, id, note.getEtudiant().getId(), "SUPPRESSION",
+                note.getModule() + " = " + note.getValeur(), null);
         logger.info("Note deleted with ID: {}", id);
     }
 }
\ No newline at end of file
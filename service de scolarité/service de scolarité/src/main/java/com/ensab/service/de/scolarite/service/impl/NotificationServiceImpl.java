@@ -0,0 +1,396 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.dto.evenement.EvenementDTO;
+import com.ensab.service.de.scolarite.dto.notification.NotificationDTO;
+import com.ensab.service.de.scolarite.entity.Demande;
+import com.ensab.service.de.scolarite.entity.Notification;
+import com.ensab.service.de.scolarite.entity.Reclamation;
+import com.ensab.service.de.scolarite.enums.StatusBatch;
+import com.ensab.service.de.scolarite.enums.TypeEvenement;
+import com.ensab.service.de.scolarite.mapper.NotificationMapper;
+import com.ensab.service.de.scolarite.repository.DemandeRepository;
+import com.ensab.service.de.scolarite.repository.NotificationRepository;
+import com.ensab.service.de.scolarite.repository.ReclamationRepository;
+import com.ensab.service.de.scolarite.service.EvenementListener;
+import com.ensab.service.de.scolarite.service.NotificationService;
+import jakarta.annotation.PostConstruct;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Email notifications of workflow transitions. The outbox relay queues one row per event after the transition has
+ * committed, so the admin's approve/reject call never waits on mail. A single sender thread leases a batch, renders
+ * it from the Thymeleaf templates (parsed once and cached by the engine) and sends it over one SMTP connection,
+ * within a per-minute cap; failed messages are retried with exponential backoff, then left ECHOUE.
+ * The cap is counted by each node's sender: with N nodes up to N times notification.max-par-minute go out.
+ */
+@Service
+public class NotificationServiceImpl implements NotificationService, EvenementListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationServiceImpl.class);
+
+    private static final Set<TypeEvenement> TYPES = EnumSet.of(
+            TypeEvenement.DEMANDE_APPROUVEE, TypeEvenement.DEMANDE_REFUSEE, TypeEvenement.RECLAMATION_TRAITEE);
+
+    private static final String ENFILER = """
+            INSERT IGNORE INTO notification (evenement_id, type, agregat_id, etudiant_id, destinataire, status, tentatives,
+                                             prochaine_tentative, date_creation)
+            SELECT :evenementId, :type, :agregatId, e.id, e.email, 'EN_ATTENTE', 0, :maintenant, :maintenant
+            FROM etudiant e WHERE e.id = :etudiantId AND e.email IS NOT NULL
+            """;
+
+    // EN_COURS rows whose lease expired belong to a sender that died mid-batch
+    private static final String RESERVER = """
+            SELECT id FROM notification
+            WHERE status IN ('EN_ATTENTE', 'EN_COURS') AND prochaine_tentative <= :maintenant
+            ORDER BY id LIMIT :taille
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private static final String BAIL = """
+            UPDATE notification SET status = 'EN_COURS', prochaine_tentative = :bail WHERE id IN (:ids)
+            """;
+
+    private static final String TERMINER = """
+            UPDATE notification SET status = 'TERMINE', date_envoi = :maintenant, derniere_erreur = NULL
+            WHERE id IN (:ids)
+            """;
+
+    private static final String ECHEC = """
+            UPDATE notification
+            SET status = CASE WHEN tentatives + 1 >= :max THEN 'ECHOUE' ELSE 'EN_ATTENTE' END,
+                tentatives = tentatives + 1,
+                prochaine_tentative = :prochaine,
+                derniere_erreur = :erreur
+            WHERE id = :id
+            """;
+
+    private static final String PURGER = """
+            DELETE FROM notification WHERE status = 'TERMINE' AND date_envoi < :limite LIMIT :taille
+            """;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private DemandeRepository demandeRepository;
+
+    @Autowired
+    private ReclamationRepository reclamationRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SpringTemplateEngine templateEngine;
+
+    // Only configured when spring.mail.host is set; without it notifications stay queued
+    @Autowired(required = false)
+    private JavaMailSender mailSender;
+
+    @Autowired
+    @Qualifier("notificationScheduler")
+    private ThreadPoolTaskScheduler notificationScheduler;
+
+    @Value("${notification.expediteur:scolarite@ensab.ac.ma}")
+    private String expediteur;
+
+    @Value("${notification.batch-size:50}")
+    private int batchSize;
+
+    @Value("${notification.max-par-minute:300}")
+    private int maxParMinute;
+
+    @Value("${notification.poll-ms:5000}")
+    private long pollMs;
+
+    @Value("${notification.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${notification.max-tentatives:6}")
+    private int maxTentatives;
+
+    @Value("${notification.backoff-ms:30000}")
+    private long backoffMs;
+
+    @Value("${notification.retention-jours:30}")
+    private long retentionJours;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean reveilDemande = new AtomicBoolean();
+
+    // Per-minute send window of this node, only touched by the sender thread
+    private long debutFenetre;
+    private int envoyesFenetre;
+
+    private long prochainePurge;
+
+    public NotificationServiceImpl(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void startSender() {
+        if (mailSender == null) {
+            logger.warn("No mail sender configured (spring.mail.host); notifications are queued but not sent.");
+            return;
+        }
+        notificationScheduler.scheduleWithFixedDelay(this::envoyerSafely, Duration.ofMillis(pollMs));
+    }
+
+    @Override
+    public boolean supporte(final TypeEvenement type) {
+        return TYPES.contains(type);
+    }
+
+    // Runs in the relay's transaction: only queues, the sender is woken once it has committed
+    @Override
+    public void traiter(final List<EvenementDTO> evenements) {
+        final Timestamp maintenant = new Timestamp(System.currentTimeMillis());
+        final MapSqlParameterSource[] params = evenements.stream()
+                .filter(evenement -> evenement.getEtudiantId() != null)
+                .map(evenement -> new MapSqlParameterSource()
+                        .addValue("evenementId", evenement.getId())
+                        .addValue("type", evenement.getType().name())
+                        .addValue("agregatId", evenement.getAgregatId())
+                        .addValue("etudiantId", evenement.getEtudiantId())
+                        .addValue("maintenant", maintenant))
+                .toArray(MapSqlParameterSource[]::new);
+        if (params.length == 0) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(ENFILER, params);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reveiller();
+            }
+        });
+    }
+
+    @Override
+    public Map<StatusBatch, Long> getStats() {
+        final Map<StatusBatch, Long> stats = new EnumMap<>(StatusBatch.class);
+        for (Object[] row : notificationRepository.countByStatus()) {
+            stats.put((StatusBatch) row[0], (Long) row[1]);
+        }
+        return stats;
+    }
+
+    @Override
+    public List<NotificationDTO> getEchecs(final int limit) {
+        return notificationRepository.findByStatusOrderByIdDesc(StatusBatch.ECHOUE, PageRequest.of(0, limit)).stream()
+                .map(NotificationMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    public int rejouerEchecs() {
+        final int rejoues = notificationRepository.rejouerEchecs(new Date());
+        logger.info("{} failed notifications queued again.", rejoues);
+        reveiller();
+        return rejoues;
+    }
+
+    private void reveiller() {
+        if (mailSender != null && reveilDemande.compareAndSet(false, true)) {
+            notificationScheduler.execute(this::envoyerSafely);
+        }
+    }
+
+    private void envoyerSafely() {
+        reveilDemande.set(false);
+        try {
+            int taille;
+            List<Envoi> lot;
+            do {
+                taille = quotaRestant();
+                if (taille == 0) {
+                    // Cap reached: the next poll after the window resets picks up the rest
+                    break;
+                }
+                lot = reserver(taille);
+                if (!lot.isEmpty()) {
+                    envoyer(lot);
+                }
+            } while (lot.size() == taille);
+            purger();
+        } catch (RuntimeException e) {
+            logger.error("Notification sender failed.", e);
+        }
+    }
+
+    private int quotaRestant() {
+        final long maintenant = System.currentTimeMillis();
+        if (maintenant - debutFenetre >= Duration.ofMinutes(1).toMillis()) {
+            debutFenetre = maintenant;
+            envoyesFenetre = 0;
+        }
+        return Math.max(0, Math.min(batchSize, maxParMinute - envoyesFenetre));
+    }
+
+    // Leases and renders a batch in one transaction; messages that cannot be rendered are failed right away
+    private List<Envoi> reserver(final int taille) {
+        return transactionTemplate.execute(status -> {
+            final long maintenant = System.currentTimeMillis();
+            final MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("maintenant", new Timestamp(maintenant))
+                    .addValue("taille", taille);
+            final List<Long> ids = jdbcTemplate.queryForList(RESERVER, params, Long.class);
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            params.addValue("ids", ids).addValue("bail", new Timestamp(maintenant + leaseSeconds * 1000));
+            jdbcTemplate.update(BAIL, params);
+
+            final List<Notification> notifications = notificationRepository.findAllById(ids);
+            final Map<Long, Demande> demandes = demandeRepository.findAllById(agregats(notifications, "demande")).stream()
+                    .collect(Collectors.toMap(Demande::getId, Function.identity()));
+            final Map<Long, Reclamation> reclamations = reclamationRepository.findAllById(agregats(notifications, "reclamation")).stream()
+                    .collect(Collectors.toMap(Reclamation::getId, Function.identity()));
+
+            final List<Envoi> lot = new ArrayList<>(notifications.size());
+            for (Notification notification : notifications) {
+                try {
+                    lot.add(new Envoi(notification, rendre(notification, demandes, reclamations)));
+                } catch (MessagingException | RuntimeException e) {
+                    echec(notification, "Rendu: " + e.getMessage());
+                }
+            }
+            return lot;
+        });
+    }
+
+    private List<Long> agregats(final List<Notification> notifications, final String agregat) {
+        return notifications.stream()
+                .filter(notification -> notification.getType().getAgregat().equals(agregat))
+                .map(Notification::getAgregatId)
+                .toList();
+    }
+
+    private MimeMessage rendre(final Notification notification, final Map<Long, Demande> demandes,
+                               final Map<Long, Reclamation> reclamations) throws MessagingException {
+        final Context context = new Context(Locale.FRENCH);
+        final String template;
+        final String sujet;
+        switch (notification.getType()) {
+            case DEMANDE_APPROUVEE, DEMANDE_REFUSEE -> {
+                final Demande demande = Objects.requireNonNull(demandes.get(notification.getAgregatId()), "demande supprimée");
+                context.setVariable("etudiant", demande.getEtudiant());
+                context.setVariable("demande", demande);
+                final boolean approuvee = notification.getType() == TypeEvenement.DEMANDE_APPROUVEE;
+                template = approuvee ? "mail/demande_approuvee" : "mail/demande_refusee";
+                sujet = (approuvee ? "Demande approuvée : " : "Demande refusée : ") + demande.getTypeDocument();
+            }
+            case RECLAMATION_TRAITEE -> {
+                final Reclamation reclamation = Objects.requireNonNull(reclamations.get(notification.getAgregatId()), "réclamation supprimée");
+                context.setVariable("etudiant", reclamation.getEtudiant());
+                context.setVariable("reclamation", reclamation);
+                template = "mail/reclamation_traitee";
+                sujet = "Réclamation traitée : " + reclamation.getSujet();
+            }
+            default -> throw new IllegalStateException("Type non notifié: " + notification.getType());
+        }
+
+        final MimeMessage message = mailSender.createMimeMessage();
+        final MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setFrom(expediteur);
+        helper.setTo(notification.getDestinataire());
+        helper.setSubject(sujet);
+        helper.setText(templateEngine.process(template, context), true);
+        return message;
+    }
+
+    // JavaMailSenderImpl sends the whole array over a single connection and reports the messages it could not send
+    private void envoyer(final List<Envoi> lot) {
+        final Map<Object, Exception> echecs = new HashMap<>();
+        try {
+            mailSender.send(lot.stream().map(Envoi::mime).toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            echecs.putAll(e.getFailedMessages());
+            if (echecs.isEmpty()) {
+                lot.forEach(message -> echecs.put(message.mime(), e));
+            }
+        } catch (MailException e) {
+            lot.forEach(message -> echecs.put(message.mime(), e));
+        }
+        envoyesFenetre += lot.size();
+
+        final List<Long> envoyes = new ArrayList<>(lot.size());
+        for (Envoi message : lot) {
+            final Exception erreur = echecs.get(message.mime());
+            if (erreur == null) {
+                envoyes.add(message.notification().getId());
+            } else {
+                echec(message.notification(), erreur.getMessage());
+            }
+        }
+        if (!envoyes.isEmpty()) {
+            jdbcTemplate.update(TERMINER, new MapSqlParameterSource()
+                    .addValue("ids", envoyes)
+                    .addValue("maintenant", new Timestamp(System.currentTimeMillis())));
+        }
+        if (!echecs.isEmpty()) {
+            logger.warn("{} of {} notifications not sent.", echecs.size(), lot.size());
+        }
+    }
+
+    private void echec(final Notification notification, final String erreur) {
+        final String message = String.valueOf(erreur);
+        final long delai = backoffMs << Math.min(notification.getTentatives(), 16);
+        jdbcTemplate.update(ECHEC, new MapSqlParameterSource()
+                .addValue("id", notification.getId())
+                .addValue("max", maxTentatives)
+                .addValue("prochaine", new Timestamp(System.currentTimeMillis() + delai))
+                .addValue("erreur", message.length() > 1000 ? message.substring(0, 1000) : message));
+    }
+
+    // Sent notifications are kept as a record for a while, then deleted in small chunks
+    private void purger() {
+        final long maintenant = System.currentTimeMillis();
+        if (maintenant < prochainePurge) {
+            return;
+        }
+        prochainePurge = maintenant + Duration.ofMinutes(10).toMillis();
+        final MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("limite", new Timestamp(maintenant - Duration.ofDays(retentionJours).toMillis()))
+                .addValue("taille", 1000);
+        int supprimes;
+        do {
+            supprimes = jdbcTemplate.update(PURGER, params);
+        } while (supprimes == 1000);
+    }
+
+    private record Envoi(Notification notification, MimeMessage mime) {
+    }
+}
@@ -4,16 +4,22 @@ import com.ensab.service.de.scolarite.dto.paiement.PaiementRequestDTO;
 import com.ensab.service.de.scolarite.dto.paiement.PaiementResponseDTO;
 import com.ensab.service.de.scolarite.entity.Etudiant;
 import com.ensab.service.de.scolarite.entity.Paiement;
+import com.ensab.service.de.scolarite.enums.EntiteAudit;
 import com.ensab.service.de.scolarite.enums.StatusPaiement;
+import com.ensab.service.de.scolarite.enums.TypeEvenement;
 import com.ensab.service.de.scolarite.exception.ResourceNotFoundException;
 import com.ensab.service.de.scolarite.mapper.PaiementMapper;
 import com.ensab.service.de.scolarite.repository.EtudiantRepository;
 import com.ensab.service.de.scolarite.repository.PaiementRepository;
+import com.ensab.service.de.scolarite.service.AuditService;
+import com.ensab.service.de.scolarite.service.EvenementService;
 import com.ensab.service.de.scolarite.service.PaiementService;
+import com.ensab.service.de.scolarite.service.SoldeService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Date;
 import java.util.List;
@@ -30,7 +36,17 @@ public class PaiementServiceImpl implements PaiementService {
     @Autowired
     EtudiantRepository etudiantRepository;
 
+    @Autowired
+    EvenementService evenementService;
+
+    @Autowired
+    SoldeService soldeService;
+
+    @Autowired
+    AuditService auditService;
+
     @Override
+    @Transactional
     public PaiementResponseDTO createPaiement(final PaiementRequestDTO paiementDTO) {
 
         final Etudiant etudiant = etudiantRepository.findByEmailAndCodeApogeeAndCin(
@@ -48,6 +64,10 @@ public class PaiementServiceImpl implements PaiementService {
         paiement.setEtudiant(etudiant);
 
         final Paiement savedPaiement = paiementRepository.save(paiement);
+        soldeService.onPaiementCree(savedPaiement);
+        evenementService.publier(TypeEvenement.PAIEMENT_CREE, savedPaiement.getId());
+        auditService.enregistrer(EntiteAudit.PAIEMENT, savedPaiement.getId(), etudiant.getId(), "CREATION",
+                null, StatusPaiement.NON_PAYE);
         logger.info("Paiement created successfully with ID: {}", savedPaiement.getId());
 
         return PaiementMapper.toDTO(savedPaiement);
@@ -61,6 +81,16 @@ public class PaiementServiceImpl implements PaiementService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<PaiementResponseDTO> getAllPaiements(boolean archive) {
+        if (!archive) {
+            return getAllPaiements();
+        }
+        return paiementRepository.findAllWithArchive().stream()
+                .map(PaiementMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public PaiementResponseDTO getPaiementById(Long id) {
         final Paiement paiement = paiementRepository.findById(id)
@@ -69,30 +99,59 @@ public class PaiementServiceImpl implements PaiementService {
     }
 
     @Override
+    @Transactional
     public PaiementResponseDTO payPaiement(Long id) {
         final Paiement paiement = paiementRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Paiement non trouvé avec l'ID: " + id));
+        final StatusPaiement ancienStatus = paiement.getStatus();
 
-        paiement.setStatus(StatusPaiement.PAYE);
-        paiement.setDatePaiement(new Date());
-        paiementRepository.save(paiement);
+        // A retried pay, or one racing the webhook, finds the row already PAYE: no re-stamp, no second delta
+        if (paiementRepository.marquerPaye(id, new Date()) == 0) {
+            return PaiementMapper.toDTO(recharger(id));
+        }
+
+        final Paiement paye = recharger(id);
+        soldeService.onPaiementPaye(paye);
+        evenementService.publier(TypeEvenement.PAIEMENT_PAYE, id);
+        auditService.enregistrer(EntiteAudit.PAIEMENT, id, paye.getEtudiant().getId(), "PAIEMENT", ancienStatus, StatusPaiement.PAYE);
         logger.info("Paiement with ID: {} updated to PAYE.", id);
 
-        return PaiementMapper.toDTO(paiement);
+        return PaiementMapper.toDTO(paye);
     }
 
     @Override
+    @Transactional
     public PaiementResponseDTO cancelPaiement(Long id) {
-        final Paiement paiement = paiementRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Paiement non trouvé avec l'ID: " + id));
-
-        paiement.setStatus(StatusPaiement.NON_PAYE);
-        paiementRepository.save(paiement);
+        final StatusPaiement lu = paiementRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Paiement non trouvé avec l'ID: " + id))
+                .getStatus();
+
+        // Only the caller that moves the row out of PAYE takes the amount back off the solde
+        final boolean etaitPaye = paiementRepository.annulerPaye(id) == 1;
+        if (!etaitPaye && paiementRepository.annuler(id) == 0) {
+            // Already NON_PAYE: nothing changed, nothing to audit or publish
+            return PaiementMapper.toDTO(recharger(id));
+        }
+        // Paid between the read and the update: the row left PAYE, whatever was read
+        final StatusPaiement ancienStatus = etaitPaye ? StatusPaiement.PAYE : lu;
+        final Paiement paiement = recharger(id);
+        if (etaitPaye) {
+            soldeService.onPaiementAnnule(paiement);
+        }
+        evenementService.publier(TypeEvenement.PAIEMENT_ANNULE, id);
+        auditService.enregistrer(EntiteAudit.PAIEMENT, id, paiement.getEtudiant().getId(), "ANNULATION",
+                ancienStatus, StatusPaiement.NON_PAYE);
         logger.info("Paiement with ID: {} updated to NON_PAYE.", id);
 
         return PaiementMapper.toDTO(paiement);
     }
 
+    // The conditional updates clear the persistence context
+    private Paiement recharger(Long id) {
+        return paiementRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Paiement non trouvé avec l'ID: " + id));
+    }
+
     @Override
     public List<PaiementResponseDTO> getPaiementsByEtudiant(Long etudiantId) {
         List<Paiement> paiements = paiementRepository.findByEtudiantId(etudiantId);
@@ -100,4 +159,14 @@ public class PaiementServiceImpl implements PaiementService {
                 .map(PaiementMapper::toDTO)
                 .collect(Collectors.toList());
     }
+
+    @Override
+    public List<PaiementResponseDTO> getPaiementsByEtudiant(Long etudiantId, boolean archive) {
+        if (!archive) {
+            return getPaiementsByEtudiant(etudiantId);
+        }
+        return paiementRepository.findByEtudiantIdWithArchive(etudiantId).stream()
+                .map(PaiementMapper::toDTO)
+                .collect(Collectors.toList());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,259 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.dto.paiement.PaiementWebhookDTO;
+import com.ensab.service.de.scolarite.enums.EntiteAudit;
+import com.ensab.service.de.scolarite.enums.StatusPaiement;
+import com.ensab.service.de.scolarite.enums.TypeEvenement;
+import com.ensab.service.de.scolarite.exception.BadRequestException;
+import com.ensab.service.de.scolarite.exception.ServiceUnavailableException;
+import com.ensab.service.de.scolarite.service.AuditService;
+import com.ensab.service.de.scolarite.service.EvenementService;
+import com.ensab.service.de.scolarite.service.PaiementWebhookService;
+import com.ensab.service.de.scolarite.service.SoldeService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Callbacks of the payment provider. A callback is acknowledged only once it is stored in evenement_paiement:
+ * duplicates (the provider retries until it gets a 2xx) are dropped by the unique evenement_id, and a callback that
+ * could not be stored gets a non-2xx so that the provider sends it again. The stored callbacks are applied
+ * asynchronously, in batches leased with SKIP LOCKED so that several nodes can apply them side by side.
+ */
+@Service
+public class PaiementWebhookServiceImpl implements PaiementWebhookService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaiementWebhookServiceImpl.class);
+
+    private static final int MAX_EVENEMENT_ID = 100;
+    private static final int MAX_STATUT = 30;
+
+    private static final String INSERT_EVENEMENT = """
+            INSERT IGNORE INTO evenement_paiement (evenement_id, paiement_id, statut, montant, date_reception, en_attente)
+            VALUES (:evenementId, :paiementId, :statut, :montant, :dateReception, 1)
+            """;
+
+    private static final String A_APPLIQUER = """
+            SELECT id, paiement_id, statut, montant, date_reception FROM evenement_paiement
+            WHERE en_attente = 1
+            ORDER BY id
+            LIMIT :taille
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private static final String A_APPLIQUER_UN = """
+            SELECT id, paiement_id, statut, montant, date_reception FROM evenement_paiement
+            WHERE id = :id AND en_attente = 1
+            FOR UPDATE
+            """;
+
+    private static final String APPLIQUES = """
+            UPDATE evenement_paiement SET en_attente = 0 WHERE id IN (:ids)
+            """;
+
+    // Same amount only, and never re-stamps a paiement that is already PAYE
+    private static final String PAYER = """
+            UPDATE paiement SET status = 'PAYE', date_paiement = ?
+            WHERE id = ? AND status <> 'PAYE' AND montant = ?
+            """;
+
+    // Read before and after the update, under the row locks, to audit the paiements the batch actually moved to PAYE
+    private static final String STATUTS = """
+            SELECT id, status, etudiant_id FROM paiement WHERE id IN (:ids) ORDER BY id FOR UPDATE
+            """;
+
+    private record Statut(StatusPaiement status, Long etudiantId) {
+    }
+
+    private record Stocke(long id, Long paiementId, String statut, BigDecimal montant, Timestamp dateReception) {
+    }
+
+    @Autowired
+    private EvenementService evenementService;
+
+    @Autowired
+    private SoldeService soldeService;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("webhookScheduler")
+    private ThreadPoolTaskScheduler webhookScheduler;
+
+    @Value("${paiement.webhook.secret:}")
+    private String secret;
+
+    @Value("${paiement.webhook.batch-size:500}")
+    private int batchSize;
+
+    @Value("${paiement.webhook.flush-ms:200}")
+    private long flushMs;
+
+    @PostConstruct
+    void startFlusher() {
+        webhookScheduler.scheduleWithFixedDelay(this::flushSafely, Duration.ofMillis(flushMs));
+    }
+
+    @Override
+    public boolean recevoir(final String payload, final String signature) {
+        if (secret.isEmpty() || signature == null || !MessageDigest.isEqual(
+                signer(payload).getBytes(StandardCharsets.UTF_8), signature.toLowerCase().getBytes(StandardCharsets.UTF_8))) {
+            throw new BadRequestException("Signature du webhook invalide.");
+        }
+        final PaiementWebhookDTO evenement;
+        try {
+            evenement = objectMapper.readValue(payload, PaiementWebhookDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Corps du webhook invalide.");
+        }
+        if (evenement.getEvenementId() == null || evenement.getPaiementId() == null) {
+            throw new BadRequestException("evenementId et paiementId sont obligatoires.");
+        }
+        if (evenement.getEvenementId().length() > MAX_EVENEMENT_ID
+                || (evenement.getStatut() != null && evenement.getStatut().length() > MAX_STATUT)) {
+            throw new BadRequestException("evenementId ou statut trop long.");
+        }
+
+        // Stored (autocommit) before the 2xx: from then on the callback survives a crash of this node
+        try {
+            return namedParameterJdbcTemplate.update(INSERT_EVENEMENT, new MapSqlParameterSource()
+                    .addValue("evenementId", evenement.getEvenementId())
+                    .addValue("paiementId", evenement.getPaiementId())
+                    .addValue("statut", evenement.getStatut())
+                    .addValue("montant", evenement.getMontant())
+                    .addValue("dateReception", new Timestamp(System.currentTimeMillis()))) == 1;
+        } catch (DataAccessException e) {
+            logger.warn("Paiement webhook {} not stored, the provider will retry: {}", evenement.getEvenementId(), e.getMessage());
+            throw new ServiceUnavailableException("Webhook non enregistré, veuillez réessayer.", 5);
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            int appliques;
+            do {
+                appliques = flush();
+            } while (appliques == batchSize);
+        } catch (RuntimeException e) {
+            logger.error("Paiement webhook flush failed.", e);
+        }
+    }
+
+    // One batch in one transaction; when it fails, its callbacks are applied one by one so that a bad one
+    // only holds itself back (it stays pending and is retried on the next flush)
+    private int flush() {
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            return transactionTemplate.execute(status -> appliquer(lire(batchSize)));
+        } catch (RuntimeException e) {
+            logger.warn("Paiement webhook batch failed, applying its callbacks one by one: {}", e.getMessage());
+        }
+        final List<Stocke> lot = transactionTemplate.execute(status -> lire(batchSize));
+        for (Stocke stocke : lot) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    appliquer(namedParameterJdbcTemplate.query(A_APPLIQUER_UN,
+                            new MapSqlParameterSource("id", stocke.id()), (rs, rowNum) -> lire(rs)));
+                });
+            } catch (RuntimeException e) {
+                logger.error("Paiement webhook callback {} not applied, kept pending.", stocke.id(), e);
+            }
+        }
+        return 0;
+    }
+
+    private List<Stocke> lire(final int taille) {
+        return namedParameterJdbcTemplate.query(A_APPLIQUER, new MapSqlParameterSource("taille", taille),
+                (rs, rowNum) -> lire(rs));
+    }
+
+    private Stocke lire(final ResultSet rs) throws SQLException {
+        return new Stocke(rs.getLong(1), rs.getObject(2, Long.class), rs.getString(3), rs.getBigDecimal(4), rs.getTimestamp(5));
+    }
+
+    private int appliquer(final List<Stocke> lot) {
+        if (lot.isEmpty()) {
+            return 0;
+        }
+        final List<Object[]> paiements = lot.stream()
+                .filter(stocke -> "PAYE".equals(stocke.statut()))
+                .map(stocke -> new Object[]{stocke.dateReception(), stocke.paiementId(), stocke.montant()})
+                .toList();
+        if (!paiements.isEmpty()) {
+            final List<Long> ids = paiements.stream().map(row -> (Long) row[1]).distinct().toList();
+            final Map<Long, Statut> avant = statuts(ids);
+            jdbcTemplate.batchUpdate(PAYER, paiements);
+            statuts(ids).forEach((id, statut) -> {
+                final Statut ancien = avant.get(id);
+                if (statut.status() == StatusPaiement.PAYE && ancien.status() != StatusPaiement.PAYE) {
+                    auditService.enregistrer("webhook", EntiteAudit.PAIEMENT, id, statut.etudiantId(), "PAIEMENT",
+                            ancien.status(), StatusPaiement.PAYE);
+                }
+            });
+            soldeService.recalculerPourPaiements(ids);
+            evenementService.publier(TypeEvenement.PAIEMENT_PAYE, ids);
+        }
+        namedParameterJdbcTemplate.update(APPLIQUES, new MapSqlParameterSource("ids",
+                lot.stream().map(Stocke::id).toList()));
+        logger.info("Paiement webhook: {} callbacks applied, {} PAYE.", lot.size(), paiements.size());
+        return lot.size();
+    }
+
+    private Map<Long, Statut> statuts(final List<Long> ids) {
+        final Map<Long, Statut> statuts = new HashMap<>(ids.size() * 2);
+        namedParameterJdbcTemplate.query(STATUTS, new MapSqlParameterSource("ids", ids), rs -> {
+            final String status = rs.getString(2);
+            statuts.put(rs.getLong(1), new Statut(status == null ? null : StatusPaiement.valueOf(status),
+                    rs.getObject(3, Long.class)));
+        });
+        return statuts;
+    }
+
+    private String signer(String payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
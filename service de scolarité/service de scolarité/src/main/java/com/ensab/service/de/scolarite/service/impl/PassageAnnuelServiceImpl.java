@@ -0,0 +1,343 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.dto.passage.PassageAnnuelReportDTO;
+import com.ensab.service.de.scolarite.dto.passage.PassageAnnuelRequestDTO;
+import com.ensab.service.de.scolarite.dto.passage.PassageNiveauDTO;
+import com.ensab.service.de.scolarite.entity.PassageAnnuel;
+import com.ensab.service.de.scolarite.enums.EntiteAudit;
+import com.ensab.service.de.scolarite.enums.StatusBatch;
+import com.ensab.service.de.scolarite.enums.StatusInscription;
+import com.ensab.service.de.scolarite.exception.BadRequestException;
+import com.ensab.service.de.scolarite.mapper.PassageAnnuelMapper;
+import com.ensab.service.de.scolarite.repository.PassageAnnuelRepository;
+import com.ensab.service.de.scolarite.service.AnalyticsService;
+import com.ensab.service.de.scolarite.service.AuditService;
+import com.ensab.service.de.scolarite.service.MoyenneService;
+import com.ensab.service.de.scolarite.service.PassageAnnuelService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Annual rollover: every continuing etudiant of the source year gets a REINSC inscription for the target year
+ * and moves to it, promoted to the next niveau when the jury decision is VALIDE and kept on the same niveau otherwise.
+ * Validated etudiants of a last niveau are left in the source year.
+ * <p>
+ * Runs as set-based SQL over chunks of etudiant ids, one transaction per chunk, without loading any entity.
+ * The checkpoint is written in the same transaction, so a failed run resumes at the first unprocessed chunk.
+ * Each created inscription and each etudiant moved to the target year gets its audit entry, written after the chunk commits.
+ */
+@Service
+public class PassageAnnuelServiceImpl implements PassageAnnuelService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PassageAnnuelServiceImpl.class);
+
+    private static final String LOCK_CHUNK = """
+            SELECT e.id FROM etudiant e
+            WHERE e.annee_universitaire = :source AND e.id > :apres
+            ORDER BY e.id LIMIT :taille
+            FOR UPDATE
+            """;
+
+    private static final String INSERT_REINSCRIPTIONS = """
+            INSERT INTO inscription (type_inscription, status, annee_universitaire, date_creation, etudiant_id)
+            SELECT 'REINSC', 'ENREGISTRE', :cible, :date, e.id
+            FROM etudiant e
+            LEFT JOIN resultat_deliberation r ON r.etudiant_id = e.id AND r.annee_universitaire = :source
+            WHERE e.id BETWEEN :debut AND :fin AND e.annee_universitaire = :source AND e.niveau IN (:niveaux)
+              AND NOT (COALESCE(r.decision, '') = 'VALIDE' AND %1$s = '')
+              AND NOT EXISTS (SELECT 1 FROM inscription i WHERE i.etudiant_id = e.id
+                              AND i.annee_universitaire = :cible AND i.type_inscription = 'REINSC')
+            """;
+
+    private static final String PROMOUVOIR = """
+            UPDATE etudiant e
+            JOIN resultat_deliberation r ON r.etudiant_id = e.id AND r.annee_universitaire = :source
+            SET e.niveau = %1$s, e.annee_universitaire = :cible
+            WHERE e.id BETWEEN :debut AND :fin AND e.annee_universitaire = :source AND e.niveau IN (:niveaux)
+              AND r.decision = 'VALIDE' AND %1$s <> ''
+            """;
+
+    private static final String REDOUBLER = """
+            UPDATE etudiant e
+            LEFT JOIN resultat_deliberation r ON r.etudiant_id = e.id AND r.annee_universitaire = :source
+            SET e.annee_universitaire = :cible
+            WHERE e.id BETWEEN :debut AND :fin AND e.annee_universitaire = :source AND e.niveau IN (:niveaux)
+              AND COALESCE(r.decision, '') <> 'VALIDE'
+            """;
+
+    private static final String ETAT_CHUNK = """
+            SELECT e.id, e.niveau FROM etudiant e
+            WHERE e.id BETWEEN :debut AND :fin AND e.annee_universitaire = :source AND e.niveau IN (:niveaux)
+            """;
+
+    private static final String PASSES = """
+            SELECT e.id, e.niveau FROM etudiant e WHERE e.id IN (:ids) AND e.annee_universitaire = :cible
+            """;
+
+    private static final String REINSCRIPTIONS_CHUNK = """
+            SELECT i.id, i.etudiant_id FROM inscription i
+            WHERE i.etudiant_id BETWEEN :debut AND :fin AND i.annee_universitaire = :cible AND i.type_inscription = 'REINSC'
+            """;
+
+    private static final String UPDATE_CHECKPOINT = """
+            UPDATE passage_annuel
+            SET dernier_etudiant_id = :fin,
+                inscriptions_creees = inscriptions_creees + :inscriptions,
+                etudiants_promus = etudiants_promus + :promus,
+                etudiants_redoublants = etudiants_redoublants + :redoublants
+            WHERE id = :id
+            """;
+
+    private static final String RAPPORT = """
+            SELECT e.niveau, COUNT(*), SUM(COALESCE(r.decision, '') = 'VALIDE'),
+                   SUM(EXISTS (SELECT 1 FROM inscription i WHERE i.etudiant_id = e.id
+                               AND i.annee_universitaire = :cible AND i.type_inscription = 'REINSC'))
+            FROM etudiant e
+            LEFT JOIN resultat_deliberation r ON r.etudiant_id = e.id AND r.annee_universitaire = :source
+            WHERE e.annee_universitaire = :source
+            GROUP BY e.niveau
+            ORDER BY e.niveau
+            """;
+
+    @Autowired
+    private PassageAnnuelRepository passageAnnuelRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MoyenneService moyenneService;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Value("${passage.chunk-size:1000}")
+    private int chunkSize;
+
+    private final Set<String> enCours = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public PassageAnnuelReportDTO executer(final PassageAnnuelRequestDTO passageDTO) {
+        final String source = passageDTO.getAnneeSource();
+        final String cible = passageDTO.getAnneeCible();
+        if (source == null || cible == null || source.equals(cible)) {
+            throw new BadRequestException("Les années universitaires source et cible sont obligatoires et doivent être différentes.");
+        }
+        if (passageDTO.getPromotions() == null || passageDTO.getPromotions().isEmpty()) {
+            throw new BadRequestException("Au moins un niveau doit être indiqué dans les promotions.");
+        }
+        final Map<String, String> promotions = new TreeMap<>();
+        passageDTO.getPromotions().forEach((niveau, suivant) -> promotions.put(niveau, suivant == null ? "" : suivant.trim()));
+
+        final Optional<PassageAnnuel> existant = passageAnnuelRepository.findByAnneeSourceAndAnneeCible(source, cible);
+        existant.ifPresent(passage -> {
+            if (!passage.getPromotions().equals(serialize(promotions))) {
+                throw new BadRequestException("Un passage " + source + " -> " + cible
+                        + " existe déjà avec d'autres promotions.");
+            }
+        });
+
+        if (passageDTO.isDryRun()) {
+            final PassageAnnuelReportDTO report = existant.map(PassageAnnuelMapper::toDTO).orElseGet(PassageAnnuelReportDTO::new);
+            report.setAnneeSource(source);
+            report.setAnneeCible(cible);
+            report.setDryRun(true);
+            report.setNiveaux(rapport(source, cible, promotions));
+            return report;
+        }
+
+        if (existant.isPresent() && existant.get().getStatus() == StatusBatch.TERMINE) {
+            throw new BadRequestException("Le passage " + source + " -> " + cible + " a déjà été effectué.");
+        }
+        final String key = source + "|" + cible;
+        if (!enCours.add(key)) {
+            throw new BadRequestException("Le passage " + source + " -> " + cible + " est déjà en cours.");
+        }
+        try {
+            return run(existant.orElseGet(() -> {
+                PassageAnnuel passage = new PassageAnnuel();
+                passage.setAnneeSource(source);
+                passage.setAnneeCible(cible);
+                passage.setPromotions(serialize(promotions));
+                return passage;
+            }), promotions);
+        } finally {
+            enCours.remove(key);
+        }
+    }
+
+    @Override
+    public List<PassageAnnuelReportDTO> getAllPassages() {
+        return passageAnnuelRepository.findAllByOrderByDateDebutDesc().stream()
+                .map(PassageAnnuelMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    private PassageAnnuelReportDTO run(PassageAnnuel passage, final Map<String, String> promotions) {
+        final long debut = System.nanoTime();
+        if (passage.getId() != null) {
+            logger.info("Resuming passage {} -> {} after etudiant {}.",
+                    passage.getAnneeSource(), passage.getAnneeCible(), passage.getDernierEtudiantId());
+        }
+        passage.setStatus(StatusBatch.EN_COURS);
+        passage.setDateDebut(new Date());
+        passage.setDateFin(null);
+        passage = passageAnnuelRepository.save(passage);
+
+        final MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", passage.getId())
+                .addValue("source", passage.getAnneeSource())
+                .addValue("cible", passage.getAnneeCible())
+                .addValue("niveaux", promotions.keySet())
+                .addValue("date", new Timestamp(System.currentTimeMillis()))
+                .addValue("taille", chunkSize);
+        final String niveauSuivant = niveauSuivant(promotions, params);
+        final String insertReinscriptions = INSERT_REINSCRIPTIONS.formatted(niveauSuivant);
+        final String promouvoir = PROMOUVOIR.formatted(niveauSuivant);
+
+        // The entity mirrors each committed checkpoint, so saving it never overwrites the counters with stale values
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int chunks = 0;
+        try {
+            while (true) {
+                params.addValue("apres", passage.getDernierEtudiantId());
+                final Long fin = transactionTemplate.execute(status -> {
+                    List<Long> ids = jdbcTemplate.queryForList(LOCK_CHUNK, params, Long.class);
+                    if (ids.isEmpty()) {
+                        return null;
+                    }
+                    params.addValue("debut", ids.get(0)).addValue("fin", ids.get(ids.size() - 1));
+                    final Map<Long, String> niveaux = new HashMap<>();
+                    jdbcTemplate.query(ETAT_CHUNK, params, rs -> {
+                        niveaux.put(rs.getLong(1), rs.getString(2));
+                    });
+                    final Set<Long> reinscrits = new HashSet<>(
+                            jdbcTemplate.query(REINSCRIPTIONS_CHUNK, params, (rs, rowNum) -> rs.getLong(1)));
+                    // Inscriptions first: they are selected on the source year, which the updates below change
+                    params.addValue("inscriptions", jdbcTemplate.update(insertReinscriptions, params));
+                    params.addValue("promus", jdbcTemplate.update(promouvoir, params));
+                    params.addValue("redoublants", jdbcTemplate.update(REDOUBLER, params));
+                    jdbcTemplate.update(UPDATE_CHECKPOINT, params);
+                    auditer(params, niveaux, reinscrits);
+                    return ids.get(ids.size() - 1);
+                });
+                if (fin == null) {
+                    break;
+                }
+                passage.setDernierEtudiantId(fin);
+                passage.setInscriptionsCreees(passage.getInscriptionsCreees() + (Integer) params.getValue("inscriptions"));
+                passage.setEtudiantsPromus(passage.getEtudiantsPromus() + (Integer) params.getValue("promus"));
+                passage.setEtudiantsRedoublants(passage.getEtudiantsRedoublants() + (Integer) params.getValue("redoublants"));
+                chunks++;
+            }
+        } catch (RuntimeException e) {
+            passage.setStatus(StatusBatch.ECHOUE);
+            passage.setDateFin(new Date());
+            passageAnnuelRepository.save(passage);
+            logger.error("Passage {} -> {} failed after etudiant {}.",
+                    passage.getAnneeSource(), passage.getAnneeCible(), passage.getDernierEtudiantId(), e);
+            throw e;
+        }
+
+        passage.setStatus(StatusBatch.TERMINE);
+        passage.setDateFin(new Date());
+        passage = passageAnnuelRepository.save(passage);
+
+        // Both were built on the previous cohorts and the rows changed behind the persistence context
+        moyenneService.invalidateClassements();
+        analyticsService.refresh();
+
+        final PassageAnnuelReportDTO report = PassageAnnuelMapper.toDTO(passage);
+        report.setDureeMs((System.nanoTime() - debut) / 1_000_000);
+        logger.info("Passage {} -> {} done in {} chunks, {} ms: {} inscriptions, {} promus, {} redoublants.",
+                passage.getAnneeSource(), passage.getAnneeCible(), chunks, report.getDureeMs(),
+                passage.getInscriptionsCreees(), passage.getEtudiantsPromus(), passage.getEtudiantsRedoublants());
+        return report;
+    }
+
+    // The rows were changed in bulk: their audit entries come from the chunk's state before and after the updates
+    private void auditer(final MapSqlParameterSource params, final Map<Long, String> niveaux, final Set<Long> reinscrits) {
+        if ((Integer) params.getValue("inscriptions") > 0) {
+            jdbcTemplate.query(REINSCRIPTIONS_CHUNK, params, rs -> {
+                if (!reinscrits.contains(rs.getLong(1))) {
+                    auditService.enregistrer(EntiteAudit.INSCRIPTION, rs.getLong(1), rs.getLong(2), "CREATION",
+                            null, StatusInscription.ENREGISTRE);
+                }
+            });
+        }
+        if (niveaux.isEmpty()) {
+            return;
+        }
+        final String source = (String) params.getValue("source");
+        final String cible = (String) params.getValue("cible");
+        jdbcTemplate.query(PASSES, new MapSqlParameterSource("ids", niveaux.keySet()).addValue("cible", cible), rs -> {
+            final long id = rs.getLong(1);
+            final String ancien = niveaux.get(id);
+            final String nouveau = rs.getString(2);
+            auditService.enregistrer(EntiteAudit.ETUDIANT, id, id, Objects.equals(ancien, nouveau) ? "REDOUBLEMENT" : "PROMOTION",
+                    ancien + " " + source, nouveau + " " + cible);
+        });
+    }
+
+    private List<PassageNiveauDTO> rapport(final String source, final String cible, final Map<String, String> promotions) {
+        final MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("source", source)
+                .addValue("cible", cible);
+        return jdbcTemplate.query(RAPPORT, params, (rs, rowNum) -> {
+            final PassageNiveauDTO niveau = new PassageNiveauDTO();
+            niveau.setNiveau(rs.getString(1));
+            niveau.setEffectif(rs.getLong(2));
+            niveau.setDejaReinscrits(rs.getLong(4));
+            final String suivant = promotions.get(niveau.getNiveau());
+            if (suivant == null) {
+                // Niveau not listed: untouched by the passage
+                return niveau;
+            }
+            final long valides = rs.getLong(3);
+            niveau.setNiveauSuivant(suivant);
+            niveau.setRedoublants(niveau.getEffectif() - valides);
+            if (suivant.isEmpty()) {
+                niveau.setDiplomes(valides);
+            } else {
+                niveau.setPromus(valides);
+            }
+            return niveau;
+        });
+    }
+
+    // CASE e.niveau WHEN :niveau0 THEN :suivant0 ... END, with '' for a last niveau
+    private String niveauSuivant(final Map<String, String> promotions, final MapSqlParameterSource params) {
+        final StringBuilder sql = new StringBuilder("(CASE e.niveau");
+        int i = 0;
+        for (Map.Entry<String, String> promotion : promotions.entrySet()) {
+            sql.append(" WHEN :niveau").append(i).append(" THEN :suivant").append(i);
+            params.addValue("niveau" + i, promotion.getKey()).addValue("suivant" + i, promotion.getValue());
+            i++;
+        }
+        return sql.append(" END)").toString();
+    }
+
+    private String serialize(final Map<String, String> promotions) {
+        return promotions.entrySet().stream()
+                .map(promotion -> promotion.getKey() + "=" + promotion.getValue())
+                .collect(Collectors.joining("\n"));
+    }
+}
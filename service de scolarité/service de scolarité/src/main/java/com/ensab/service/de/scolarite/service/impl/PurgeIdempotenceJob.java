@@ -0,0 +1,40 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.service.IdempotenceService;
+import com.ensab.service.de.scolarite.service.JobPlanifie;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Deletes the expired idempotency keys, one chunk per step so that no delete holds locks for long
+@Component
+public class PurgeIdempotenceJob implements JobPlanifie {
+
+    @Autowired
+    private IdempotenceService idempotenceService;
+
+    @Value("${jobs.purge-idempotence.intervalle-minutes:60}")
+    private long intervalleMinutes;
+
+    @Value("${jobs.purge-idempotence.chunk-size:1000}")
+    private int chunkSize;
+
+    @Override
+    public String getNom() {
+        return "purge-idempotence";
+    }
+
+    @Override
+    public Duration getIntervalle() {
+        return Duration.ofMinutes(intervalleMinutes);
+    }
+
+    // Expired keys are always the oldest ones, so there is nothing to remember between chunks
+    @Override
+    public Etape executer(final String checkpoint) {
+        final int supprimees = idempotenceService.purgerClesExpirees(chunkSize);
+        return supprimees < chunkSize ? Etape.fin(supprimees) : new Etape("suite", supprimees);
+    }
+}
@@ -0,0 +1,267 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.dto.purge.PurgeRequestDTO;
+import com.ensab.service.de.scolarite.dto.purge.PurgeStatusDTO;
+import com.ensab.service.de.scolarite.enums.StatusBatch;
+import com.ensab.service.de.scolarite.exception.BadRequestException;
+import com.ensab.service.de.scolarite.exception.ResourceNotFoundException;
+import com.ensab.service.de.scolarite.exception.ServiceUnavailableException;
+import com.ensab.service.de.scolarite.repository.ArchiveSchema;
+import com.ensab.service.de.scolarite.service.AnalyticsService;
+import com.ensab.service.de.scolarite.service.MoyenneService;
+import com.ensab.service.de.scolarite.service.PurgeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Cohort purge: copies the rows of a cohort to archive_* tables and deletes them with set-based statements,
+ * children first, one short transaction per chunk of etudiants so the hot tables are never locked for long.
+ * A failed purge can simply be started again with the same filter, purged etudiants no longer match it.
+ */
+@Service
+public class PurgeServiceImpl implements PurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PurgeServiceImpl.class);
+
+    private static final long FINISHED_RETENTION_MS = 24 * 60 * 60 * 1000;
+
+    // Tables holding rows of an etudiant, in deletion order
+    private static final List<String> TABLES_ETUDIANT = List.of(
+            "note", "demande", "reclamation", "paiement", "inscription", "resultat_deliberation");
+
+    // Read models derived from the rows above, rebuilt rather than archived
+    private static final List<String> TABLES_DERIVEES = List.of("moyenne_module", "solde_etudiant");
+
+    // Etudiant extends Utilisateur (joined inheritance): both rows go, subclass first
+    private static final List<String> TABLES_UTILISATEUR = List.of("etudiant", "utilisateur");
+
+    private static final String SELECT_CHUNK = """
+            SELECT e.id FROM etudiant e
+            WHERE e.annee_universitaire = :annee
+              AND (:filiere IS NULL OR e.filiere = :filiere)
+              AND (:niveau IS NULL OR e.niveau = :niveau)
+              AND e.id > :apres
+            ORDER BY e.id LIMIT :taille
+            """;
+
+    private static final String COUNT_COHORT = """
+            SELECT COUNT(*) FROM etudiant e
+            WHERE e.annee_universitaire = :annee
+              AND (:filiere IS NULL OR e.filiere = :filiere)
+              AND (:niveau IS NULL OR e.niveau = :niveau)
+            """;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ArchiveSchema archiveSchema;
+
+    @Autowired
+    private MoyenneService moyenneService;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    @Qualifier("bulkExecutor")
+    private Executor bulkExecutor;
+
+    @Value("${purge.chunk-size:200}")
+    private int chunkSize;
+
+    // Pause between chunks, leaves room to the interactive traffic on the same tables
+    @Value("${purge.pause-ms:50}")
+    private long pauseMs;
+
+    private final Map<String, PurgeProgress> purges = new ConcurrentHashMap<>();
+
+    @Override
+    public PurgeStatusDTO startPurge(final PurgeRequestDTO purgeDTO) {
+        if (purgeDTO.getAnneeUniversitaire() == null || purgeDTO.getAnneeUniversitaire().isBlank()) {
+            throw new BadRequestException("L'année universitaire est obligatoire pour une purge.");
+        }
+        evictFinishedPurges();
+
+        final MapSqlParameterSource params = cohortParams(purgeDTO);
+        final Long total = jdbcTemplate.queryForObject(COUNT_COHORT, params, Long.class);
+        final PurgeProgress purge = new PurgeProgress(UUID.randomUUID().toString(), purgeDTO, total == null ? 0 : total);
+        purges.put(purge.id, purge);
+        try {
+            bulkExecutor.execute(() -> run(purge, params));
+        } catch (RejectedExecutionException e) {
+            purges.remove(purge.id);
+            throw new ServiceUnavailableException("Trop de traitements de masse en cours, réessayez plus tard.", 60);
+        }
+        logger.info("Purge {} registered for {} etudiants ({} {} {}, archive: {}).", purge.id, purge.total,
+                purgeDTO.getFiliere(), purgeDTO.getNiveau(), purgeDTO.getAnneeUniversitaire(), purgeDTO.isArchiver());
+        return purge.toDTO();
+    }
+
+    @Override
+    public PurgeStatusDTO getPurgeStatus(final String purgeId) {
+        final PurgeProgress purge = purges.get(purgeId);
+        if (purge == null) {
+            throw new ResourceNotFoundException("Purge non trouvée avec l'id " + purgeId);
+        }
+        return purge.toDTO();
+    }
+
+    @Override
+    public List<PurgeStatusDTO> getAllPurges() {
+        evictFinishedPurges();
+        return purges.values().stream()
+                .sorted(Comparator.comparing((PurgeProgress purge) -> purge.dateDebut).reversed())
+                .map(PurgeProgress::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    private void run(final PurgeProgress purge, final MapSqlParameterSource params) {
+        purge.status.set(StatusBatch.EN_COURS);
+        try {
+            final Map<String, String> archives = purge.request.isArchiver() ? prepareArchives() : Map.of();
+            final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            long apres = 0;
+            while (true) {
+                params.addValue("apres", apres).addValue("taille", chunkSize);
+                final List<Long> ids = transactionTemplate.execute(status -> purgeChunk(purge, params, archives));
+                if (ids == null || ids.isEmpty()) {
+                    break;
+                }
+                apres = ids.get(ids.size() - 1);
+                purge.traites.addAndGet(ids.size());
+                if (pauseMs > 0) {
+                    Thread.sleep(pauseMs);
+                }
+            }
+            purge.finish(StatusBatch.TERMINE);
+            logger.info("Purge {} done: {} etudiants, {}.", purge.id, purge.traites.get(), purge.lignes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            purge.fail(e);
+        } catch (RuntimeException e) {
+            logger.error("Purge {} failed after {} etudiants.", purge.id, purge.traites.get(), e);
+            purge.fail(e);
+        } finally {
+            moyenneService.invalidateClassements();
+            analyticsService.refresh();
+        }
+    }
+
+    private List<Long> purgeChunk(PurgeProgress purge, MapSqlParameterSource params, Map<String, String> archives) {
+        final List<Long> ids = jdbcTemplate.queryForList(SELECT_CHUNK, params, Long.class);
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        final MapSqlParameterSource idsParams = new MapSqlParameterSource("ids", ids);
+        for (String table : TABLES_ETUDIANT) {
+            purgeTable(purge, table, "etudiant_id", idsParams, archives);
+        }
+        for (String table : TABLES_DERIVEES) {
+            purgeTable(purge, table, "etudiant_id", idsParams, Map.of());
+        }
+        for (String table : TABLES_UTILISATEUR) {
+            purgeTable(purge, table, "id", idsParams, archives);
+        }
+        return ids;
+    }
+
+    private void purgeTable(PurgeProgress purge, String table, String column,
+                            MapSqlParameterSource idsParams, Map<String, String> archives) {
+        final String columns = archives.get(table);
+        if (columns != null) {
+            jdbcTemplate.update("INSERT INTO archive_" + table + " (" + columns + ") SELECT " + columns
+                    + " FROM " + table + " WHERE " + column + " IN (:ids)", idsParams);
+        }
+        final int deleted = jdbcTemplate.update("DELETE FROM " + table + " WHERE " + column + " IN (:ids)", idsParams);
+        purge.lignes.computeIfAbsent(table, key -> new AtomicLong()).addAndGet(deleted);
+    }
+
+    private Map<String, String> prepareArchives() {
+        final Map<String, String> archives = new HashMap<>();
+        for (String table : TABLES_ETUDIANT) {
+            archives.put(table, archiveSchema.prepare(table));
+        }
+        for (String table : TABLES_UTILISATEUR) {
+            archives.put(table, archiveSchema.prepare(table));
+        }
+        return archives;
+    }
+
+    private MapSqlParameterSource cohortParams(PurgeRequestDTO purgeDTO) {
+        return new MapSqlParameterSource()
+                .addValue("annee", purgeDTO.getAnneeUniversitaire())
+                .addValue("filiere", purgeDTO.getFiliere())
+                .addValue("niveau", purgeDTO.getNiveau());
+    }
+
+    private void evictFinishedPurges() {
+        long limit = System.currentTimeMillis() - FINISHED_RETENTION_MS;
+        purges.values().removeIf(purge -> purge.dateFin != null && purge.dateFin.getTime() < limit);
+    }
+
+    private static class PurgeProgress {
+        private final String id;
+        private final PurgeRequestDTO request;
+        private final long total;
+        private final Date dateDebut = new Date();
+        private final AtomicReference<StatusBatch> status = new AtomicReference<>(StatusBatch.EN_ATTENTE);
+        private final AtomicLong traites = new AtomicLong();
+        private final Map<String, AtomicLong> lignes = new ConcurrentHashMap<>();
+        private volatile String erreur;
+        private volatile Date dateFin;
+
+        private PurgeProgress(String id, PurgeRequestDTO request, long total) {
+            this.id = id;
+            this.request = request;
+            this.total = total;
+        }
+
+        private void finish(StatusBatch finalStatus) {
+            status.set(finalStatus);
+            dateFin = new Date();
+        }
+
+        private void fail(Exception e) {
+            erreur = e.getMessage();
+            finish(StatusBatch.ECHOUE);
+        }
+
+        private PurgeStatusDTO toDTO() {
+            PurgeStatusDTO dto = new PurgeStatusDTO();
+            dto.setId(id);
+            dto.setFiliere(request.getFiliere());
+            dto.setNiveau(request.getNiveau());
+            dto.setAnneeUniversitaire(request.getAnneeUniversitaire());
+            dto.setArchiver(request.isArchiver());
+            dto.setStatus(status.get());
+            dto.setTotal(total);
+            dto.setTraites(traites.get());
+            dto.setLignes(lignes.entrySet().stream()
+                    .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().get(), (a, b) -> a, TreeMap::new)));
+            dto.setErreur(erreur);
+            dto.setDateDebut(dateDebut);
+            dto.setDateFin(dateFin);
+            return dto;
+        }
+    }
+}
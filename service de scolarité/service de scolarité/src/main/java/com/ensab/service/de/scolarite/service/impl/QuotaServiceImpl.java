@@ -0,0 +1,203 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.dto.quota.QuotaRequestDTO;
+import com.ensab.service.de.scolarite.dto.quota.QuotaResponseDTO;
+import com.ensab.service.de.scolarite.entity.Inscription;
+import com.ensab.service.de.scolarite.entity.QuotaInscription;
+import com.ensab.service.de.scolarite.enums.CacheDistribue;
+import com.ensab.service.de.scolarite.enums.TypeInscription;
+import com.ensab.service.de.scolarite.exception.BadRequestException;
+import com.ensab.service.de.scolarite.exception.QuotaExceededException;
+import com.ensab.service.de.scolarite.mapper.QuotaMapper;
+import com.ensab.service.de.scolarite.repository.InscriptionRepository;
+import com.ensab.service.de.scolarite.repository.QuotaInscriptionRepository;
+import com.ensab.service.de.scolarite.service.CacheCoherenceService;
+import com.ensab.service.de.scolarite.service.QuotaService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+@Service
+public class QuotaServiceImpl implements QuotaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuotaServiceImpl.class);
+
+    @Autowired
+    QuotaInscriptionRepository quotaInscriptionRepository;
+
+    @Autowired
+    InscriptionRepository inscriptionRepository;
+
+    @Autowired
+    CacheCoherenceService cacheCoherenceService;
+
+    @Value("${quota.cache-ttl-seconds:5}")
+    private long cacheTtlSeconds;
+
+    // In-memory mirror of the buckets, one counter per key so confirmations on different buckets never contend.
+    // It only rejects early; the conditional update in the database is what prevents oversubscription.
+    private final Map<String, Compteur> compteurs = new ConcurrentHashMap<>();
+
+    // Confirmations and capacity changes on other nodes drop the counter, which reloads from the database
+    @PostConstruct
+    void abonnerInvalidations() {
+        cacheCoherenceService.abonner(CacheDistribue.QUOTA, cles -> {
+            if (cles == null) {
+                compteurs.clear();
+            } else {
+                compteurs.keySet().removeAll(cles);
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public void reserve(final Inscription inscription) {
+        final String filiere = inscription.getEtudiant().getFiliere();
+        final TypeInscription type = inscription.getTypeInscription();
+        final String annee = inscription.getAnneeUniversitaire();
+        if (filiere == null || type == null || annee == null) {
+            return;
+        }
+        inscription.setFiliereQuota(filiere);
+
+        final Compteur compteur = getCompteur(filiere, type, annee);
+        if (compteur.illimite) {
+            return;
+        }
+        if (compteur.confirmes.get() >= compteur.capacite) {
+            throw new QuotaExceededException(describe(filiere, type, annee, compteur.capacite));
+        }
+
+        if (quotaInscriptionRepository.reserve(filiere, type, annee) == 0) {
+            compteur.confirmes.set(compteur.capacite);
+            throw new QuotaExceededException(describe(filiere, type, annee, compteur.capacite));
+        }
+        afterCommit(() -> compteur.confirmes.incrementAndGet());
+        cacheCoherenceService.invalider(CacheDistribue.QUOTA, key(filiere, type, annee));
+        logger.info("Quota reserved for {}.", key(filiere, type, annee));
+    }
+
+    @Override
+    @Transactional
+    public void release(final Inscription inscription) {
+        // Confirmed before the bucket was stored on the inscription: the current filiere is all there is
+        final String filiere = inscription.getFiliereQuota() != null
+                ? inscription.getFiliereQuota() : inscription.getEtudiant().getFiliere();
+        final TypeInscription type = inscription.getTypeInscription();
+        final String annee = inscription.getAnneeUniversitaire();
+        if (filiere == null || type == null || annee == null) {
+            return;
+        }
+
+        if (quotaInscriptionRepository.release(filiere, type, annee) > 0) {
+            cacheCoherenceService.invalider(CacheDistribue.QUOTA, key(filiere, type, annee));
+            final Compteur compteur = compteurs.get(key(filiere, type, annee));
+            if (compteur != null && !compteur.illimite) {
+                afterCommit(() -> compteur.confirmes.updateAndGet(v -> Math.max(0, v - 1)));
+            }
+            logger.info("Quota released for {}.", key(filiere, type, annee));
+        }
+    }
+
+    @Override
+    @Transactional
+    public QuotaResponseDTO saveQuota(final QuotaRequestDTO quotaDTO) {
+        if (quotaDTO.getFiliere() == null || quotaDTO.getTypeInscription() == null
+                || quotaDTO.getAnneeUniversitaire() == null) {
+            throw new BadRequestException("La filière, le type d'inscription et l'année universitaire sont obligatoires.");
+        }
+        if (quotaDTO.getCapacite() < 0) {
+            throw new BadRequestException("La capacité doit être positive.");
+        }
+
+        final QuotaInscription quota = quotaInscriptionRepository.findByFiliereAndTypeInscriptionAndAnneeUniversitaire(
+                        quotaDTO.getFiliere(), quotaDTO.getTypeInscription(), quotaDTO.getAnneeUniversitaire())
+                .orElseGet(() -> {
+                    // Counted once when the bucket is created, from then on it is maintained by reserve/release
+                    final QuotaInscription nouveau = new QuotaInscription();
+                    nouveau.setFiliere(quotaDTO.getFiliere());
+                    nouveau.setTypeInscription(quotaDTO.getTypeInscription());
+                    nouveau.setAnneeUniversitaire(quotaDTO.getAnneeUniversitaire());
+                    nouveau.setConfirmes((int) inscriptionRepository.countConfirmedInBucket(
+                            quotaDTO.getFiliere(), quotaDTO.getTypeInscription(), quotaDTO.getAnneeUniversitaire()));
+                    return nouveau;
+                });
+        quota.setCapacite(quotaDTO.getCapacite());
+
+        final QuotaInscription savedQuota = quotaInscriptionRepository.save(quota);
+        final String key = key(savedQuota.getFiliere(), savedQuota.getTypeInscription(), savedQuota.getAnneeUniversitaire());
+        afterCommit(() -> compteurs.remove(key));
+        cacheCoherenceService.invalider(CacheDistribue.QUOTA, key);
+        logger.info("Quota for {} set to {} (confirmes: {}).", key, savedQuota.getCapacite(), savedQuota.getConfirmes());
+
+        return QuotaMapper.toDTO(savedQuota);
+    }
+
+    @Override
+    public List<QuotaResponseDTO> getAllQuotas() {
+        return quotaInscriptionRepository.findAll().stream()
+                .map(QuotaMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    // Entries expire so that capacity changes and confirmations made by other instances are picked up
+    private Compteur getCompteur(final String filiere, final TypeInscription type, final String annee) {
+        final long now = System.currentTimeMillis();
+        return compteurs.compute(key(filiere, type, annee), (key, compteur) -> {
+            if (compteur != null && now - compteur.chargeLe < cacheTtlSeconds * 1000) {
+                return compteur;
+            }
+            return quotaInscriptionRepository.findByFiliereAndTypeInscriptionAndAnneeUniversitaire(filiere, type, annee)
+                    .map(quota -> new Compteur(false, quota.getCapacite(), quota.getConfirmes(), now))
+                    .orElseGet(() -> new Compteur(true, 0, 0, now));
+        });
+    }
+
+    private void afterCommit(final Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private String describe(final String filiere, final TypeInscription type, final String annee, final int capacite) {
+        return "capacité de " + capacite + " inscriptions confirmées atteinte pour " + filiere + " / " + type + " / " + annee;
+    }
+
+    private String key(final String filiere, final TypeInscription type, final String annee) {
+        return filiere + "|" + type + "|" + annee;
+    }
+
+    private static final class Compteur {
+        private final boolean illimite;
+        private final int capacite;
+        private final AtomicInteger confirmes;
+        private final long chargeLe;
+
+        private Compteur(final boolean illimite, final int capacite, final int confirmes, final long chargeLe) {
+            this.illimite = illimite;
+            this.capacite = capacite;
+            this.confirmes = new AtomicInteger(confirmes);
+            this.chargeLe = chargeLe;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.dto.rapport.RapportPaiementDTO;
+import com.ensab.service.de.scolarite.dto.rapport.RapportPaiementLigneDTO;
+import com.ensab.service.de.scolarite.enums.PeriodeRapport;
+import com.ensab.service.de.scolarite.enums.StatusPaiement;
+import com.ensab.service.de.scolarite.enums.TypePaiement;
+import com.ensab.service.de.scolarite.exception.BadRequestException;
+import com.ensab.service.de.scolarite.service.RapportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Financial reports over paiement_historique (live and archived years). Aggregates are computed by MySQL;
+ * the CSV export streams the line items row by row, so memory stays constant whatever the range.
+ */
+@Service
+public class RapportServiceImpl implements RapportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RapportServiceImpl.class);
+
+    // LEFT JOIN in both queries: archived paiements of purged etudiants still belong to the accounts, and the JSON
+    // totals must match the CSV ones (those paiements are grouped under a null filiere)
+    private static final String AGREGAT = """
+            SELECT %s AS periode, p.type_paiement, p.status, e.filiere, COUNT(*), COALESCE(SUM(p.montant), 0)
+            FROM paiement_historique p
+            LEFT JOIN etudiant e ON e.id = p.etudiant_id
+            WHERE p.date_creation >= ? AND p.date_creation < ?
+            GROUP BY periode, p.type_paiement, p.status, e.filiere
+            ORDER BY periode, p.type_paiement, p.status, e.filiere
+            """;
+
+    private static final String LIGNES = """
+            SELECT p.id, p.date_creation, p.date_paiement, p.type_paiement, p.status, p.montant,
+                   e.code_apogee, e.nom, e.prenom, e.filiere, e.niveau
+            FROM paiement_historique p
+            LEFT JOIN etudiant e ON e.id = p.etudiant_id
+            WHERE p.date_creation >= ? AND p.date_creation < ?
+            ORDER BY p.date_creation, p.id
+            """;
+
+    private static final String CSV_HEADER =
+            "id;date_creation;date_paiement;type_paiement;status;montant;code_apogee;nom;prenom;filiere;niveau";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    @Autowired
+    public RapportServiceImpl(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // MySQL Connector/J streams the result set row by row instead of buffering it
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    @Override
+    public RapportPaiementDTO getRapportPaiements(final LocalDate debut, final LocalDate fin, final PeriodeRapport periode) {
+        checkRange(debut, fin);
+        final long start = System.nanoTime();
+        final PeriodeRapport granularite = periode == null ? PeriodeRapport.MOIS : periode;
+
+        final RapportPaiementDTO rapport = new RapportPaiementDTO();
+        rapport.setDebut(debut);
+        rapport.setFin(fin);
+        rapport.setPeriode(granularite);
+        final Map<String, BigDecimal> parStatus = new TreeMap<>();
+        final long[] nombreTotal = {0};
+        final BigDecimal[] montantTotal = {BigDecimal.ZERO};
+
+        // Totals accumulated while mapping the grouped rows, no second query
+        final List<RapportPaiementLigneDTO> lignes = jdbcTemplate.query(AGREGAT.formatted(periodeExpression(granularite)),
+                (rs, rowNum) -> {
+                    RapportPaiementLigneDTO ligne = new RapportPaiementLigneDTO();
+                    ligne.setPeriode(rs.getString(1));
+                    ligne.setTypePaiement(rs.getString(2) == null ? null : TypePaiement.valueOf(rs.getString(2)));
+                    ligne.setStatus(rs.getString(3) == null ? null : StatusPaiement.valueOf(rs.getString(3)));
+                    ligne.setFiliere(rs.getString(4));
+                    ligne.setNombre(rs.getLong(5));
+                    ligne.setMontant(rs.getBigDecimal(6));
+                    nombreTotal[0] += ligne.getNombre();
+                    montantTotal[0] = montantTotal[0].add(ligne.getMontant());
+                    parStatus.merge(String.valueOf(ligne.getStatus()), ligne.getMontant(), BigDecimal::add);
+                    return ligne;
+                },
+                Date.valueOf(debut), Date.valueOf(fin.plusDays(1)));
+
+        rapport.setLignes(lignes);
+        rapport.setNombreTotal(nombreTotal[0]);
+        rapport.setMontantTotal(montantTotal[0]);
+        rapport.setMontantParStatus(parStatus);
+        logger.info("Paiement report {} -> {} by {}: {} groups, {} paiements in {} ms.",
+                debut, fin, granularite, lignes.size(), nombreTotal[0], (System.nanoTime() - start) / 1_000_000);
+        return rapport;
+    }
+
+    @Override
+    public void writePaiementsCsv(final LocalDate debut, final LocalDate fin, final OutputStream outputStream) {
+        checkRange(debut, fin);
+        final long start = System.nanoTime();
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024);
+        final CsvTotals totals = new CsvTotals();
+        final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        try {
+            // BOM so that Excel opens the file as UTF-8
+            writer.write('\uFEFF');
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+            streamingJdbcTemplate.query(LIGNES, rs -> {
+                try {
+                    writeLigne(writer, rs, dateFormat, totals);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, Date.valueOf(debut), Date.valueOf(fin.plusDays(1)));
+
+            writer.write('\n');
+            writer.write("TOTAL;" + totals.nombre + ";" + totals.montant.toPlainString() + '\n');
+            for (Map.Entry<String, BigDecimal> status : totals.parStatus.entrySet()) {
+                writer.write("TOTAL " + status.getKey() + ";;" + status.getValue().toPlainString() + '\n');
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        logger.info("Paiement CSV {} -> {}: {} lines streamed in {} ms.",
+                debut, fin, totals.nombre, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void writeLigne(Writer writer, ResultSet rs, SimpleDateFormat dateFormat, CsvTotals totals)
+            throws SQLException, IOException {
+        final BigDecimal montant = rs.getBigDecimal(6);
+        final String status = rs.getString(5);
+        writer.write(String.valueOf(rs.getLong(1)));
+        writer.write(';');
+        writer.write(formatDate(dateFormat, rs.getTimestamp(2)));
+        writer.write(';');
+        writer.write(formatDate(dateFormat, rs.getTimestamp(3)));
+        writer.write(';');
+        writer.write(csv(rs.getString(4)));
+        writer.write(';');
+        writer.write(csv(status));
+        writer.write(';');
+        writer.write(montant == null ? "" : montant.toPlainString());
+        writer.write(';');
+        writer.write(csv(rs.getString(7)));
+        writer.write(';');
+        writer.write(csv(rs.getString(8)));
+        writer.write(';');
+        writer.write(csv(rs.getString(9)));
+        writer.write(';');
+        writer.write(csv(rs.getString(10)));
+        writer.write(';');
+        writer.write(csv(rs.getString(11)));
+        writer.write('\n');
+
+        totals.nombre++;
+        if (montant != null) {
+            totals.montant = totals.montant.add(montant);
+            totals.parStatus.merge(String.valueOf(status), montant, BigDecimal::add);
+        }
+    }
+
+    private String formatDate(SimpleDateFormat dateFormat, Timestamp timestamp) {
+        return timestamp == null ? "" : dateFormat.format(timestamp);
+    }
+
+    private String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(';') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+
+    private String periodeExpression(PeriodeRapport periode) {
+        return switch (periode) {
+            case JOUR -> "DATE_FORMAT(p.date_creation, '%Y-%m-%d')";
+            case SEMAINE -> "DATE_FORMAT(p.date_creation, '%x-S%v')";
+            case MOIS -> "DATE_FORMAT(p.date_creation, '%Y-%m')";
+            case TRIMESTRE -> "CONCAT(YEAR(p.date_creation), '-T', QUARTER(p.date_creation))";
+            case ANNEE -> "CAST(YEAR(p.date_creation) AS CHAR)";
+        };
+    }
+
+    private void checkRange(LocalDate debut, LocalDate fin) {
+        if (debut == null || fin == null || fin.isBefore(debut)) {
+            throw new BadRequestException("La période du rapport est invalide.");
+        }
+    }
+
+    private static class CsvTotals {
+        private long nombre;
+        private BigDecimal montant = BigDecimal.ZERO;
+        private final Map<String, BigDecimal> parStatus = new TreeMap<>();
+    }
+}
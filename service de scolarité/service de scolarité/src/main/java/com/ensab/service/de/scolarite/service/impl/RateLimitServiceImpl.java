@@ -0,0 +1,143 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.config.RateLimitRules;
+import com.ensab.service.de.scolarite.dto.ratelimit.RateLimitConsumerDTO;
+import com.ensab.service.de.scolarite.dto.ratelimit.RateLimitStatusDTO;
+import com.ensab.service.de.scolarite.service.RateLimitService;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Sliding-window rate limiter keyed by principal and rule. Each key keeps the counts of the current and previous
+ * fixed windows; the estimate weights the previous one by the part of it still inside the sliding window.
+ * Counting is a CAS on one packed long (window index, count), so the hot path takes no lock; idle keys are swept
+ * by a scheduled task, off the request threads.
+ */
+@Service
+public class RateLimitServiceImpl implements RateLimitService {
+
+    @Autowired
+    private RateLimitRules rateLimitRules;
+
+    @Autowired
+    @Qualifier("rateLimitScheduler")
+    private ThreadPoolTaskScheduler rateLimitScheduler;
+
+    @Value("${rate-limit.sweep-seconds:60}")
+    private long sweepSeconds;
+
+    private final ConcurrentHashMap<String, Compteur> compteurs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void demarrerSweep() {
+        rateLimitScheduler.scheduleWithFixedDelay(this::sweep, Duration.ofSeconds(sweepSeconds));
+    }
+
+    @Override
+    public RateLimitStatusDTO consommer(final String principal, final String methode, final String chemin) {
+        final RateLimitRules.Regle regle = rateLimitRules.trouver(methode, chemin);
+        if (regle == null) {
+            return null;
+        }
+        final long maintenant = System.currentTimeMillis();
+        final Compteur compteur = compteurs.computeIfAbsent(principal + " " + regle.id(), cle -> new Compteur(principal, regle));
+        final long duree = regle.fenetre().toMillis();
+        final long fenetre = maintenant / duree;
+        // Counted before the check, so rejected requests keep a spamming client over the limit
+        final long courant = compteur.incrementer(fenetre);
+        final long estimation = compteur.estimer(courant, fenetre, maintenant);
+
+        final RateLimitStatusDTO status = new RateLimitStatusDTO();
+        status.setLimite(regle.limite());
+        status.setRestant((int) Math.max(0, regle.limite() - estimation));
+        status.setReset((duree - maintenant % duree + 999) / 1000);
+        status.setAutorise(estimation <= regle.limite());
+        if (!status.isAutorise()) {
+            compteur.rejets.increment();
+        }
+        return status;
+    }
+
+    @Override
+    public List<RateLimitConsumerDTO> getTopConsumers(final int limit) {
+        final long maintenant = System.currentTimeMillis();
+        return compteurs.values().stream()
+                .map(compteur -> compteur.toDTO(maintenant))
+                .filter(dto -> dto.getRequetes() > 0 || dto.getRejets() > 0)
+                .sorted(Comparator.comparingLong(RateLimitConsumerDTO::getRequetes)
+                        .thenComparingLong(RateLimitConsumerDTO::getRejets).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    // A key with no request in its current and previous windows weighs nothing in any estimate
+    private void sweep() {
+        final long maintenant = System.currentTimeMillis();
+        compteurs.values().removeIf(compteur -> compteur.inactif(maintenant));
+    }
+
+    private static final class Compteur {
+        private static final long MASK = 0xFFFFFFFFL;
+
+        private final String principal;
+        private final RateLimitRules.Regle regle;
+        // Slot (window & 1) holds (window << 32 | count) for that window
+        private final AtomicLongArray slots = new AtomicLongArray(2);
+        private final LongAdder rejets = new LongAdder();
+
+        Compteur(String principal, RateLimitRules.Regle regle) {
+            this.principal = principal;
+            this.regle = regle;
+        }
+
+        long incrementer(long fenetre) {
+            final int slot = (int) (fenetre & 1);
+            while (true) {
+                final long valeur = slots.get(slot);
+                final long suivante = (valeur >>> 32) == (fenetre & MASK) ? valeur + 1 : ((fenetre & MASK) << 32) | 1;
+                if (slots.compareAndSet(slot, valeur, suivante)) {
+                    return suivante & MASK;
+                }
+            }
+        }
+
+        long count(long fenetre) {
+            final long valeur = slots.get((int) (fenetre & 1));
+            return (valeur >>> 32) == (fenetre & MASK) ? valeur & MASK : 0;
+        }
+
+        long estimer(long courant, long fenetre, long maintenant) {
+            final long duree = regle.fenetre().toMillis();
+            final double restantPrecedente = 1.0 - (double) (maintenant % duree) / duree;
+            return courant + (long) Math.floor(count(fenetre - 1) * restantPrecedente);
+        }
+
+        boolean inactif(long maintenant) {
+            final long fenetre = maintenant / regle.fenetre().toMillis();
+            return count(fenetre) == 0 && count(fenetre - 1) == 0;
+        }
+
+        RateLimitConsumerDTO toDTO(long maintenant) {
+            final long fenetre = maintenant / regle.fenetre().toMillis();
+            final RateLimitConsumerDTO dto = new RateLimitConsumerDTO();
+            dto.setPrincipal(principal);
+            dto.setRegle(regle.id());
+            dto.setLimite(regle.limite());
+            dto.setRequetes(estimer(count(fenetre), fenetre, maintenant));
+            dto.setRejets(rejets.sum());
+            return dto;
+        }
+    }
+}
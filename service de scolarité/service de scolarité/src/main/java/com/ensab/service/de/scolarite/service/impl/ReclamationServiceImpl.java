@@ -4,16 +4,21 @@ import com.ensab.service.de.scolarite.dto.reclamation.ReclamationRequestDTO;
 import com.ensab.service.de.scolarite.dto.reclamation.ReclamationResponseDTO;
 import com.ensab.service.de.scolarite.entity.Etudiant;
 import com.ensab.service.de.scolarite.entity.Reclamation;
+import com.ensab.service.de.scolarite.enums.EntiteAudit;
 import com.ensab.service.de.scolarite.enums.StatusReclamation;
+import com.ensab.service.de.scolarite.enums.TypeEvenement;
 import com.ensab.service.de.scolarite.exception.ResourceNotFoundException;
 import com.ensab.service.de.scolarite.mapper.ReclamationMapper;
 import com.ensab.service.de.scolarite.repository.EtudiantRepository;
 import com.ensab.service.de.scolarite.repository.ReclamationRepository;
+import com.ensab.service.de.scolarite.service.AuditService;
+import com.ensab.service.de.scolarite.service.EvenementService;
 import com.ensab.service.de.scolarite.service.ReclamationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Date;
 import java.util.List;
@@ -30,7 +35,14 @@ public class ReclamationServiceImpl implements ReclamationService {
     @Autowired
     private EtudiantRepository etudiantRepository;
 
+    @Autowired
+    private EvenementService evenementService;
+
+    @Autowired
+    private AuditService auditService;
+
     @Override
+    @Transactional
     public ReclamationResponseDTO createReclamation(final ReclamationRequestDTO reclamationDTO) {
 
         // Recherche de l'étudiant
@@ -51,6 +63,7 @@ public class ReclamationServiceImpl implements ReclamationService {
         reclamation.setEtudiant(etudiant);
 
         final Reclamation savedReclamation = reclamationRepository.save(reclamation);
+        evenementService.publier(TypeEvenement.RECLAMATION_CREEE, savedReclamation.getId());
         logger.info("Reclamation created successfully with ID: {}", savedReclamation.getId());
 
         return ReclamationMapper.toDTO(savedReclamation);
@@ -65,6 +78,17 @@ public class ReclamationServiceImpl implements ReclamationService {
     }
 
     @Override
+    public List<ReclamationResponseDTO> getAllReclamations(boolean archive) {
+        if (!archive) {
+            return getAllReclamations();
+        }
+        return reclamationRepository.findAllWithArchive().stream()
+                .map(ReclamationMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
     public ReclamationResponseDTO treatReclamation(final Long id, final ReclamationRequestDTO reclamationDTO) {
 
         // Recherche de la réclamation
@@ -75,8 +99,11 @@ public class ReclamationServiceImpl implements ReclamationService {
         reclamation.setReponse(reclamationDTO.getReponse());
         reclamation.setDateTraitement(new Date());
 
+        final StatusReclamation ancienStatus = reclamation.getStatus();
         reclamation.setStatus(StatusReclamation.TRAITEE);
         reclamationRepository.save(reclamation);
+        evenementService.publier(TypeEvenement.RECLAMATION_TRAITEE, id);
+        auditService.enregistrer(EntiteAudit.RECLAMATION, id, reclamation.getEtudiant().getId(), "TRAITEMENT", ancienStatus, StatusReclamation.TRAITEE);
 
         logger.info("Reclamation with ID: {} processed successfully.", id);
 
@@ -98,4 +125,14 @@ public class ReclamationServiceImpl implements ReclamationService {
                 .map(ReclamationMapper::toDTO)
                 .collect(Collectors.toList());
     }
+
+    @Override
+    public List<ReclamationResponseDTO> getReclamationsByEtudiant(Long etudiantId, boolean archive) {
+        if (!archive) {
+            return getReclamationsByEtudiant(etudiantId);
+        }
+        return reclamationRepository.findByEtudiantIdWithArchive(etudiantId).stream()
+                .map(ReclamationMapper::toDTO)
+                .collect(Collectors.toList());
+    }
 }
\ No newline at end of file
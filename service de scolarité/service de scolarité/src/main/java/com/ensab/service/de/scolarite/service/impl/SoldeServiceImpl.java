@@ -0,0 +1,238 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.dto.solde.SoldeEtudiantDTO;
+import com.ensab.service.de.scolarite.dto.solde.SoldeVerificationDTO;
+import com.ensab.service.de.scolarite.dto.solde.TrancheRetardDTO;
+import com.ensab.service.de.scolarite.entity.Etudiant;
+import com.ensab.service.de.scolarite.entity.Paiement;
+import com.ensab.service.de.scolarite.exception.ResourceNotFoundException;
+import com.ensab.service.de.scolarite.mapper.EtudiantMapper;
+import com.ensab.service.de.scolarite.mapper.SoldeMapper;
+import com.ensab.service.de.scolarite.repository.EtudiantRepository;
+import com.ensab.service.de.scolarite.repository.SoldeEtudiantRepository;
+import com.ensab.service.de.scolarite.service.SoldeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Per-etudiant balance read model. Paiement writes apply their delta in the same transaction;
+ * the oldest unpaid due date (dateEcheance, else dateCreation) is re-read for the single etudiant.
+ * Totals include archived paiements, so the rebuild reads paiement_historique.
+ */
+@Service
+public class SoldeServiceImpl implements SoldeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SoldeServiceImpl.class);
+
+    private static final String PAIEMENT_CREE = """
+            INSERT INTO solde_etudiant (etudiant_id, total_du, total_paye, nombre_impayes, date_impaye_ancienne)
+            VALUES (:etudiantId, :montant, 0, 1, :dateDue)
+            ON DUPLICATE KEY UPDATE
+                total_du = total_du + VALUES(total_du),
+                nombre_impayes = nombre_impayes + 1,
+                date_impaye_ancienne = LEAST(COALESCE(date_impaye_ancienne, VALUES(date_impaye_ancienne)),
+                                             VALUES(date_impaye_ancienne))
+            """;
+
+    private static final String PAIEMENT_PAYE_OU_ANNULE = """
+            UPDATE solde_etudiant s
+            SET s.total_paye = s.total_paye + :delta,
+                s.nombre_impayes = s.nombre_impayes + :impayes,
+                s.date_impaye_ancienne = (SELECT MIN(COALESCE(p.date_echeance, p.date_creation)) FROM paiement p
+                                          WHERE p.etudiant_id = :etudiantId AND p.status <> 'PAYE')
+            WHERE s.etudiant_id = :etudiantId
+            """;
+
+    private static final String AGREGAT = """
+            SELECT p.etudiant_id,
+                   COALESCE(SUM(p.montant), 0) AS total_du,
+                   COALESCE(SUM(CASE WHEN p.status = 'PAYE' THEN p.montant END), 0) AS total_paye,
+                   SUM(p.status <> 'PAYE') AS nombre_impayes,
+                   MIN(CASE WHEN p.status <> 'PAYE' THEN COALESCE(p.date_echeance, p.date_creation) END) AS date_impaye_ancienne
+            FROM paiement_historique p
+            JOIN etudiant e ON e.id = p.etudiant_id
+            %s
+            GROUP BY p.etudiant_id
+            """;
+
+    private static final String RECALCULER = """
+            INSERT INTO solde_etudiant (etudiant_id, total_du, total_paye, nombre_impayes, date_impaye_ancienne)
+            SELECT a.etudiant_id, a.total_du, a.total_paye, a.nombre_impayes, a.date_impaye_ancienne
+            FROM (%s) a
+            ON DUPLICATE KEY UPDATE
+                total_du = a.total_du,
+                total_paye = a.total_paye,
+                nombre_impayes = a.nombre_impayes,
+                date_impaye_ancienne = a.date_impaye_ancienne
+            """;
+
+    private static final String SUPPRIMER_ORPHELINS = """
+            DELETE FROM solde_etudiant
+            WHERE NOT EXISTS (SELECT 1 FROM paiement_historique p WHERE p.etudiant_id = solde_etudiant.etudiant_id)
+            """;
+
+    private static final String INCOHERENCES = """
+            SELECT a.etudiant_id FROM (%s) a
+            LEFT JOIN solde_etudiant s ON s.etudiant_id = a.etudiant_id
+            WHERE s.id IS NULL
+               OR s.total_du <> a.total_du
+               OR s.total_paye <> a.total_paye
+               OR s.nombre_impayes <> a.nombre_impayes
+               OR NOT (s.date_impaye_ancienne <=> a.date_impaye_ancienne)
+            UNION ALL
+            SELECT s.etudiant_id FROM solde_etudiant s
+            WHERE NOT EXISTS (SELECT 1 FROM paiement_historique p WHERE p.etudiant_id = s.etudiant_id)
+            """;
+
+    private static final int EXEMPLES = 100;
+
+    @Autowired
+    private SoldeEtudiantRepository soldeEtudiantRepository;
+
+    @Autowired
+    private EtudiantRepository etudiantRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void onPaiementCree(final Paiement paiement) {
+        jdbcTemplate.update(PAIEMENT_CREE, new MapSqlParameterSource()
+                .addValue("etudiantId", paiement.getEtudiant().getId())
+                .addValue("montant", montant(paiement))
+                .addValue("dateDue", new Timestamp(dateDue(paiement).getTime())));
+    }
+
+    // The paiement row must already be flushed with its new status
+    @Override
+    @Transactional
+    public void onPaiementPaye(final Paiement paiement) {
+        applyTransition(paiement, montant(paiement), -1);
+    }
+
+    @Override
+    @Transactional
+    public void onPaiementAnnule(final Paiement paiement) {
+        applyTransition(paiement, montant(paiement).negate(), 1);
+    }
+
+    @Override
+    @Transactional
+    public void recalculerPourPaiements(final Collection<Long> paiementIds) {
+        if (paiementIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(RECALCULER.formatted(AGREGAT.formatted(
+                        "WHERE p.etudiant_id IN (SELECT pi.etudiant_id FROM paiement pi WHERE pi.id IN (:ids))")),
+                new MapSqlParameterSource("ids", paiementIds));
+    }
+
+    @Override
+    @Transactional
+    public void recalculerPourEtudiants(final Collection<Long> etudiantIds) {
+        if (etudiantIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(RECALCULER.formatted(AGREGAT.formatted("WHERE p.etudiant_id IN (:ids)")),
+                new MapSqlParameterSource("ids", etudiantIds));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SoldeEtudiantDTO getSoldeByEtudiant(final Long etudiantId) {
+        return soldeEtudiantRepository.findByEtudiantId(etudiantId)
+                .map(SoldeMapper::toDTO)
+                .orElseGet(() -> {
+                    final Etudiant etudiant = etudiantRepository.findById(etudiantId)
+                            .orElseThrow(() -> new ResourceNotFoundException("Étudiant non trouvé avec l'ID: " + etudiantId));
+                    final SoldeEtudiantDTO dto = new SoldeEtudiantDTO();
+                    dto.setEtudiant(EtudiantMapper.toBasicDTO(etudiant));
+                    dto.setTotalDu(BigDecimal.ZERO);
+                    dto.setTotalPaye(BigDecimal.ZERO);
+                    dto.setResteAPayer(BigDecimal.ZERO);
+                    return dto;
+                });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SoldeEtudiantDTO> getRetards(final int jours, final int limit) {
+        return soldeEtudiantRepository.findImpayesBefore(joursAvant(jours), PageRequest.of(0, limit)).stream()
+                .map(SoldeMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<TrancheRetardDTO> getTranchesRetard() {
+        final Map<String, TrancheRetardDTO> tranches = new LinkedHashMap<>();
+        for (String tranche : List.of("0-30", "30-60", "60-90", "90+")) {
+            TrancheRetardDTO dto = new TrancheRetardDTO();
+            dto.setTranche(tranche);
+            dto.setMontantDu(BigDecimal.ZERO);
+            tranches.put(tranche, dto);
+        }
+        for (Object[] row : soldeEtudiantRepository.countByTrancheRetard(new Date(), joursAvant(30), joursAvant(60), joursAvant(90))) {
+            TrancheRetardDTO dto = tranches.get((String) row[0]);
+            dto.setNombreEtudiants(((Number) row[1]).longValue());
+            dto.setMontantDu(row[2] == null ? BigDecimal.ZERO : new BigDecimal(row[2].toString()));
+        }
+        return new ArrayList<>(tranches.values());
+    }
+
+    @Override
+    @Transactional
+    public SoldeVerificationDTO verifier(final boolean reconstruire) {
+        final List<Long> incoherents = jdbcTemplate.queryForList(
+                INCOHERENCES.formatted(AGREGAT.formatted("")), new MapSqlParameterSource(), Long.class);
+        final SoldeVerificationDTO verification = new SoldeVerificationDTO();
+        verification.setIncoherences(incoherents.size());
+        verification.setExemples(incoherents.subList(0, Math.min(EXEMPLES, incoherents.size())));
+        if (!incoherents.isEmpty()) {
+            logger.warn("{} soldes inconsistent with their paiements, e.g. etudiants {}.",
+                    incoherents.size(), verification.getExemples());
+        }
+
+        if (reconstruire) {
+            int upserted = jdbcTemplate.update(RECALCULER.formatted(AGREGAT.formatted("")), new MapSqlParameterSource());
+            int deleted = jdbcTemplate.update(SUPPRIMER_ORPHELINS, new MapSqlParameterSource());
+            verification.setReconstruit(true);
+            logger.info("Soldes rebuilt: {} rows upserted, {} orphans removed.", upserted, deleted);
+        }
+        return verification;
+    }
+
+    private void applyTransition(Paiement paiement, BigDecimal delta, int impayes) {
+        final int updated = jdbcTemplate.update(PAIEMENT_PAYE_OU_ANNULE, new MapSqlParameterSource()
+                .addValue("etudiantId", paiement.getEtudiant().getId())
+                .addValue("delta", delta)
+                .addValue("impayes", impayes));
+        if (updated == 0) {
+            // No balance yet (paiements created before the read model): build it from the paiements
+            recalculerPourPaiements(List.of(paiement.getId()));
+        }
+    }
+
+    private Date dateDue(Paiement paiement) {
+        return paiement.getDateEcheance() != null ? paiement.getDateEcheance() : paiement.getDateCreation();
+    }
+
+    private BigDecimal montant(Paiement paiement) {
+        return paiement.getMontant() == null ? BigDecimal.ZERO : paiement.getMontant();
+    }
+
+    private Date joursAvant(int jours) {
+        return new Date(System.currentTimeMillis() - jours * 24L * 60 * 60 * 1000);
+    }
+}
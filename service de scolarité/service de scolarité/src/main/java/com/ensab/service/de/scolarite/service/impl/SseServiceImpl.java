@@ -0,0 +1,346 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.dto.evenement.EvenementDTO;
+import com.ensab.service.de.scolarite.dto.evenement.EvenementEtudiantDTO;
+import com.ensab.service.de.scolarite.enums.TypeEvenement;
+import com.ensab.service.de.scolarite.mapper.EvenementMapper;
+import com.ensab.service.de.scolarite.repository.EvenementOutboxRepository;
+import com.ensab.service.de.scolarite.service.SseService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes committed status changes to the connected students. Connections are async servlet requests parked in a
+ * registry keyed by student, so an idle connection costs a socket and an emitter, not a thread. Every node polls the
+ * committed outbox rows above its high-water mark, as the cache coherence does, so a student gets the events whichever
+ * node the connection landed on; events carry the outbox id as SSE id.
+ * Outbox ids are allocated at insert, not at commit, so a smaller id can show up after a larger one: an id skipped
+ * below the mark is re-read until it shows up or its transaction can no longer be open, each connexion remembers the
+ * ids it recently sent instead of a maximum, and a client reconnecting with Last-Event-ID is replayed from
+ * sse.rattrapage-marge ids before it. Delivery is therefore at least once; a repeated event has the same id.
+ * The poller only queues events; sends run on the SSE sender pool, one drain per connexion at a time, and a client
+ * whose queue overflows is disconnected (it reconnects and catches up from the outbox).
+ */
+@Service
+public class SseServiceImpl implements SseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SseServiceImpl.class);
+
+    private static final int MAX_TROUS = 10_000;
+
+    private static final String HAUTEUR = "SELECT COALESCE(MAX(id), 0) FROM evenement_outbox";
+
+    private static final String NOUVEAUX = """
+            SELECT id, type, agregat_id, etudiant_id, date_creation FROM evenement_outbox
+            WHERE id > :hauteur ORDER BY id LIMIT :taille
+            """;
+
+    private static final String TROUS = """
+            SELECT id, type, agregat_id, etudiant_id, date_creation FROM evenement_outbox WHERE id IN (:ids)
+            """;
+
+    private final Map<Long, List<Connexion>> connexions = new ConcurrentHashMap<>();
+
+    @Autowired
+    private EvenementOutboxRepository evenementOutboxRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    @Qualifier("sseScheduler")
+    private ThreadPoolTaskScheduler sseScheduler;
+
+    @Autowired
+    @Qualifier("sseExecutor")
+    private ThreadPoolTaskExecutor sseExecutor;
+
+    @Value("${sse.timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    @Value("${sse.heartbeat-seconds:25}")
+    private long heartbeatSeconds;
+
+    @Value("${sse.retry-ms:5000}")
+    private long retryMs;
+
+    @Value("${sse.max-connexions-par-etudiant:3}")
+    private int maxConnexionsParEtudiant;
+
+    @Value("${sse.max-rattrapage:500}")
+    private int maxRattrapage;
+
+    @Value("${sse.rattrapage-marge:1000}")
+    private long rattrapageMarge;
+
+    @Value("${sse.file-max:1000}")
+    private int fileMax;
+
+    @Value("${sse.poll-ms:500}")
+    private long pollMs;
+
+    @Value("${sse.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${sse.trou-timeout-seconds:60}")
+    private long trouTimeoutSeconds;
+
+    // Poller state, only touched by the SSE scheduler thread
+    private long hauteur;
+    private final Map<Long, Long> trous = new HashMap<>();
+
+    // Connections start with their own catch-up, so nothing older than the current mark needs to be pushed
+    @PostConstruct
+    void demarrer() {
+        hauteur = jdbcTemplate.queryForObject(HAUTEUR, new MapSqlParameterSource(), Long.class);
+        sseScheduler.scheduleWithFixedDelay(this::heartbeat, Duration.ofSeconds(heartbeatSeconds));
+        sseScheduler.scheduleWithFixedDelay(this::pollSafely, Duration.ofMillis(pollMs));
+    }
+
+    @Override
+    public SseEmitter connecter(final Long etudiantId, final Long lastEventId) {
+        final Connexion connexion = new Connexion(etudiantId, new SseEmitter(Duration.ofMinutes(timeoutMinutes).toMillis()));
+        connexion.emitter.onCompletion(() -> retirer(connexion));
+        connexion.emitter.onTimeout(() -> retirer(connexion));
+        connexion.emitter.onError(erreur -> retirer(connexion));
+        connexion.mettreEnFile(SseEmitter.event().reconnectTime(retryMs).comment("connecte"));
+        if (lastEventId != null) {
+            // Live pushes are held back until the catch-up is queued, so that the client gets the ids in order
+            connexion.differes = new ArrayList<>();
+        }
+
+        // Registered before the catch-up read so that nothing committed in between is lost
+        final List<Connexion> ouvertes = connexions.compute(etudiantId, (id, liste) -> {
+            final List<Connexion> resultat = liste == null ? new CopyOnWriteArrayList<>() : liste;
+            resultat.add(connexion);
+            return resultat;
+        });
+        // Oldest connections first: a reloaded tab should not keep its previous stream open
+        for (final Connexion ancienne : ouvertes) {
+            if (ouvertes.size() <= maxConnexionsParEtudiant) {
+                break;
+            }
+            if (ouvertes.remove(ancienne)) {
+                ancienne.fermer();
+            }
+        }
+
+        if (lastEventId != null) {
+            final List<EvenementEtudiantDTO> rattrapage = evenementOutboxRepository
+                    .findByEtudiantIdAndIdGreaterThanOrderById(etudiantId, lastEventId - rattrapageMarge, PageRequest.of(0, maxRattrapage))
+                    .stream()
+                    .map(evenement -> EvenementMapper.toEtudiantDTO(EvenementMapper.toDTO(evenement)))
+                    .collect(Collectors.toList());
+            synchronized (connexion) {
+                rattrapage.forEach(connexion::pousser);
+                final List<EvenementEtudiantDTO> differes = connexion.differes;
+                connexion.differes = null;
+                differes.forEach(connexion::pousser);
+            }
+        }
+        return connexion.emitter;
+    }
+
+    private void pollSafely() {
+        try {
+            List<EvenementDTO> lot;
+            do {
+                lot = poll();
+            } while (lot.size() == batchSize);
+        } catch (RuntimeException e) {
+            logger.error("SSE outbox poll failed.", e);
+        }
+    }
+
+    // Same high-water mark and gap tracking as CacheCoherenceServiceImpl
+    private List<EvenementDTO> poll() {
+        final List<EvenementDTO> lus = new ArrayList<>(jdbcTemplate.query(NOUVEAUX, new MapSqlParameterSource()
+                .addValue("hauteur", hauteur)
+                .addValue("taille", batchSize), (rs, rowNum) -> lire(rs)));
+        final long maintenant = System.currentTimeMillis();
+        final int nouveaux = lus.size();
+        if (!trous.isEmpty()) {
+            lus.addAll(jdbcTemplate.query(TROUS, new MapSqlParameterSource("ids", trous.keySet()), (rs, rowNum) -> lire(rs)));
+            trous.values().removeIf(expiration -> expiration < maintenant);
+        }
+        for (int i = 0; i < nouveaux; i++) {
+            final long id = lus.get(i).getId();
+            if (id > hauteur + 1 && trous.size() < MAX_TROUS) {
+                for (long trou = hauteur + 1; trou < id && trous.size() < MAX_TROUS; trou++) {
+                    trous.put(trou, maintenant + trouTimeoutSeconds * 1000);
+                }
+            }
+            hauteur = id;
+        }
+        lus.subList(nouveaux, lus.size()).forEach(evenement -> trous.remove(evenement.getId()));
+        distribuer(lus);
+        return lus.subList(0, nouveaux);
+    }
+
+    private EvenementDTO lire(final ResultSet rs) throws SQLException {
+        final EvenementDTO evenement = new EvenementDTO();
+        evenement.setId(rs.getLong(1));
+        evenement.setType(TypeEvenement.valueOf(rs.getString(2)));
+        evenement.setAgregatId(rs.getObject(3, Long.class));
+        evenement.setEtudiantId(rs.getObject(4, Long.class));
+        evenement.setDateCreation(rs.getTimestamp(5));
+        return evenement;
+    }
+
+    // Only queues: a student without open connection on this node costs a map lookup
+    private void distribuer(final List<EvenementDTO> evenements) {
+        final Map<Long, List<EvenementDTO>> parEtudiant = evenements.stream()
+                .filter(evenement -> evenement.getEtudiantId() != null && connexions.containsKey(evenement.getEtudiantId()))
+                .collect(Collectors.groupingBy(EvenementDTO::getEtudiantId));
+        parEtudiant.forEach((etudiantId, aPousser) -> {
+            for (final Connexion connexion : connexions.getOrDefault(etudiantId, List.of())) {
+                synchronized (connexion) {
+                    aPousser.forEach(evenement -> {
+                        if (connexion.differes != null) {
+                            connexion.differes.add(EvenementMapper.toEtudiantDTO(evenement));
+                        } else {
+                            connexion.pousser(EvenementMapper.toEtudiantDTO(evenement));
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    // Keeps proxies and load balancers from closing idle connections, and detects the clients that went away
+    private void heartbeat() {
+        int ouvertes = 0;
+        for (final List<Connexion> liste : connexions.values()) {
+            for (final Connexion connexion : liste) {
+                connexion.mettreEnFile(SseEmitter.event().comment("ping"));
+                ouvertes++;
+            }
+        }
+        logger.debug("SSE: {} open connections for {} students.", ouvertes, connexions.size());
+    }
+
+    private void retirer(final Connexion connexion) {
+        connexions.computeIfPresent(connexion.etudiantId, (id, liste) -> {
+            liste.remove(connexion);
+            return liste.isEmpty() ? null : liste;
+        });
+    }
+
+    private final class Connexion {
+        private final Long etudiantId;
+        private final SseEmitter emitter;
+
+        // Ids recently sent on this connexion, oldest first: replays and redeliveries of the outbox may repeat one
+        private final Set<Long> envoyes = new LinkedHashSet<>();
+
+        // Events waiting for the sender pool; the drain is scheduled at most once at a time
+        private final Deque<SseEmitter.SseEventBuilder> file = new ArrayDeque<>();
+        private boolean planifie;
+        private boolean fermee;
+
+        // Live events received during the catch-up read, null otherwise
+        private List<EvenementEtudiantDTO> differes;
+
+        private Connexion(final Long etudiantId, final SseEmitter emitter) {
+            this.etudiantId = etudiantId;
+            this.emitter = emitter;
+        }
+
+        private synchronized void pousser(final EvenementEtudiantDTO evenement) {
+            if (!envoyes.add(evenement.getId())) {
+                return;
+            }
+            if (envoyes.size() > maxRattrapage) {
+                final Iterator<Long> plusAncien = envoyes.iterator();
+                plusAncien.next();
+                plusAncien.remove();
+            }
+            mettreEnFile(SseEmitter.event()
+                    .id(String.valueOf(evenement.getId()))
+                    .name(evenement.getType().name())
+                    .data(evenement, MediaType.APPLICATION_JSON));
+        }
+
+        private synchronized void mettreEnFile(final SseEmitter.SseEventBuilder evenement) {
+            if (fermee) {
+                return;
+            }
+            if (file.size() >= fileMax) {
+                logger.warn("SSE: client of etudiant {} does not read its stream, disconnecting it.", etudiantId);
+                fermer();
+                return;
+            }
+            file.addLast(evenement);
+            planifier();
+        }
+
+        // Completion runs on the sender pool too: completing here could wait behind a send in progress
+        private synchronized void fermer() {
+            fermee = true;
+            file.clear();
+            planifier();
+        }
+
+        private void planifier() {
+            if (!planifie) {
+                planifie = true;
+                sseExecutor.execute(this::vider);
+            }
+        }
+
+        private void vider() {
+            while (true) {
+                final SseEmitter.SseEventBuilder evenement;
+                final boolean terminer;
+                synchronized (this) {
+                    evenement = file.pollFirst();
+                    if (evenement == null) {
+                        planifie = false;
+                    }
+                    terminer = evenement == null && fermee;
+                }
+                if (evenement == null) {
+                    if (terminer) {
+                        retirer(this);
+                        emitter.complete();
+                    }
+                    return;
+                }
+                try {
+                    emitter.send(evenement);
+                } catch (IOException | IllegalStateException e) {
+                    // Client gone or emitter already completed
+                    synchronized (this) {
+                        fermee = true;
+                        file.clear();
+                        planifie = false;
+                    }
+                    retirer(this);
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.service.JobPlanifie;
+import com.ensab.service.de.scolarite.service.SoldeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Compares the soldes with their paiements and logs the drift; rebuilding stays a manual admin action
+@Component
+public class VerificationSoldesJob implements JobPlanifie {
+
+    @Autowired
+    private SoldeService soldeService;
+
+    @Value("${jobs.verification-soldes.intervalle-heures:24}")
+    private long intervalleHeures;
+
+    @Override
+    public String getNom() {
+        return "verification-soldes";
+    }
+
+    @Override
+    public Duration getIntervalle() {
+        return Duration.ofHours(intervalleHeures);
+    }
+
+    @Override
+    public Etape executer(final String checkpoint) {
+        return Etape.fin(soldeService.verifier(false).getIncoherences());
+    }
+}
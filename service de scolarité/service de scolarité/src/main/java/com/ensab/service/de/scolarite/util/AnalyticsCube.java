@@ -0,0 +1,259 @@
+package com.ensab.service.de.scolarite.util;
+
+import com.ensab.service.de.scolarite.enums.DimensionAnalytique;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+// Column store of workflow facts: one dictionary-encoded int[] per dimension plus the montant and etudiant
+// columns. Writers upsert single rows under the write lock; queries scan row ranges in parallel under the read lock.
+public class AnalyticsCube {
+
+    public static final int MAX_GROUP_BY = 4;
+
+    private static final DimensionAnalytique[] DIMENSIONS = DimensionAnalytique.values();
+    private static final int SCAN_CHUNK = 1 << 16;
+    private static final int CODE_BITS = 16;
+
+    public record Group(String[] valeurs, long nombre, double montant) {
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Map<String, Integer>> codes = new ArrayList<>();
+    private final List<List<String>> valeurs = new ArrayList<>();
+    private final Map<Long, Integer> rowByFact = new HashMap<>();
+
+    private int[][] columns = new int[DIMENSIONS.length][1024];
+    private double[] montants = new double[1024];
+    private long[] etudiants = new long[1024];
+    private boolean[] actives = new boolean[1024];
+    private int size;
+    private boolean loaded;
+
+    public AnalyticsCube() {
+        for (int d = 0; d < DIMENSIONS.length; d++) {
+            codes.add(new HashMap<>());
+            valeurs.add(new ArrayList<>());
+        }
+    }
+
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Clears and reloads under the write lock. Meant for a fresh cube that nobody queries yet: the owner loads it
+    // on the side and swaps it in, so that queries and upserts never wait for a reload
+    public void rebuild(Consumer<AnalyticsCube> loader) {
+        lock.writeLock().lock();
+        try {
+            clear();
+            loaded = true;
+            loader.accept(this);
+        } catch (RuntimeException e) {
+            clear();
+            loaded = false;
+            throw e;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // values are indexed by DimensionAnalytique ordinal; FAIT + id identify the row. Ignored until loaded.
+    public void upsert(long id, long etudiantId, String[] values, double montant) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            int fait = encode(DimensionAnalytique.FAIT.ordinal(), values[DimensionAnalytique.FAIT.ordinal()]);
+            Integer row = rowByFact.get(factKey(fait, id));
+            if (row == null) {
+                ensureCapacity(size + 1);
+                row = size++;
+                rowByFact.put(factKey(fait, id), row);
+            }
+            for (int d = 0; d < DIMENSIONS.length; d++) {
+                columns[d][row] = encode(d, values[d]);
+            }
+            montants[row] = montant;
+            etudiants[row] = etudiantId;
+            actives[row] = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Rewrites the etudiant dimensions of all its rows (filiere, niveau... changed); null values drop the rows
+    public void updateEtudiant(long etudiantId, String filiere, String niveau, String anneeUniversitaire) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            int filiereCode = encode(DimensionAnalytique.FILIERE.ordinal(), filiere);
+            int niveauCode = encode(DimensionAnalytique.NIVEAU.ordinal(), niveau);
+            int anneeCode = encode(DimensionAnalytique.ANNEE_UNIVERSITAIRE.ordinal(), anneeUniversitaire);
+            for (int row = 0; row < size; row++) {
+                if (etudiants[row] == etudiantId) {
+                    columns[DimensionAnalytique.FILIERE.ordinal()][row] = filiereCode;
+                    columns[DimensionAnalytique.NIVEAU.ordinal()][row] = niveauCode;
+                    columns[DimensionAnalytique.ANNEE_UNIVERSITAIRE.ordinal()][row] = anneeCode;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeEtudiant(long etudiantId) {
+        lock.writeLock().lock();
+        try {
+            for (int row = 0; row < size; row++) {
+                if (etudiants[row] == etudiantId) {
+                    actives[row] = false;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Group> query(List<DimensionAnalytique> groupBy, Map<DimensionAnalytique, ? extends Collection<String>> filtres) {
+        if (groupBy.size() > MAX_GROUP_BY) {
+            throw new IllegalArgumentException("At most " + MAX_GROUP_BY + " group-by dimensions");
+        }
+        lock.readLock().lock();
+        try {
+            final int[] groupColumns = groupBy.stream().mapToInt(Enum::ordinal).toArray();
+            final int[] filterColumns = new int[filtres.size()];
+            final boolean[][] allowed = new boolean[filtres.size()][];
+            int f = 0;
+            for (Map.Entry<DimensionAnalytique, ? extends Collection<String>> filtre : filtres.entrySet()) {
+                int d = filtre.getKey().ordinal();
+                filterColumns[f] = d;
+                allowed[f] = new boolean[valeurs.get(d).size()];
+                for (String value : filtre.getValue()) {
+                    Integer code = codes.get(d).get(value);
+                    if (code != null) {
+                        allowed[f][code] = true;
+                    }
+                }
+                f++;
+            }
+
+            final int chunks = (size + SCAN_CHUNK - 1) / SCAN_CHUNK;
+            Map<Long, double[]> totals = IntStream.range(0, chunks).parallel()
+                    .mapToObj(chunk -> scan(chunk * SCAN_CHUNK, Math.min(size, (chunk + 1) * SCAN_CHUNK),
+                            groupColumns, filterColumns, allowed))
+                    .reduce(AnalyticsCube::merge)
+                    .orElseGet(HashMap::new);
+
+            List<Group> groups = new ArrayList<>(totals.size());
+            for (Map.Entry<Long, double[]> total : totals.entrySet()) {
+                String[] groupValues = new String[groupColumns.length];
+                long key = total.getKey();
+                for (int g = groupColumns.length - 1; g >= 0; g--) {
+                    groupValues[g] = valeurs.get(groupColumns[g]).get((int) (key & ((1 << CODE_BITS) - 1)));
+                    key >>>= CODE_BITS;
+                }
+                groups.add(new Group(groupValues, (long) total.getValue()[0], total.getValue()[1]));
+            }
+            return groups;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, double[]> scan(int from, int to, int[] groupColumns, int[] filterColumns, boolean[][] allowed) {
+        Map<Long, double[]> totals = new HashMap<>();
+        rows:
+        for (int row = from; row < to; row++) {
+            if (!actives[row]) {
+                continue;
+            }
+            for (int f = 0; f < filterColumns.length; f++) {
+                int code = columns[filterColumns[f]][row];
+                if (code >= allowed[f].length || !allowed[f][code]) {
+                    continue rows;
+                }
+            }
+            long key = 0;
+            for (int groupColumn : groupColumns) {
+                key = (key << CODE_BITS) | columns[groupColumn][row];
+            }
+            double[] total = totals.computeIfAbsent(key, k -> new double[2]);
+            total[0]++;
+            total[1] += montants[row];
+        }
+        return totals;
+    }
+
+    private static Map<Long, double[]> merge(Map<Long, double[]> left, Map<Long, double[]> right) {
+        Map<Long, double[]> target = left.size() >= right.size() ? left : right;
+        Map<Long, double[]> source = target == left ? right : left;
+        source.forEach((key, total) -> target.merge(key, total, (a, b) -> {
+            a[0] += b[0];
+            a[1] += b[1];
+            return a;
+        }));
+        return target;
+    }
+
+    private int encode(int dimension, String value) {
+        String normalized = value == null ? "-" : value;
+        Integer code = codes.get(dimension).get(normalized);
+        if (code == null) {
+            code = valeurs.get(dimension).size();
+            if (code >= 1 << CODE_BITS) {
+                throw new IllegalStateException("Too many distinct values for " + DIMENSIONS[dimension]);
+            }
+            codes.get(dimension).put(normalized, code);
+            valeurs.get(dimension).add(normalized);
+        }
+        return code;
+    }
+
+    private static long factKey(int fait, long id) {
+        return ((long) fait << 48) | id;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= montants.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, montants.length * 2);
+        for (int d = 0; d < columns.length; d++) {
+            columns[d] = Arrays.copyOf(columns[d], newCapacity);
+        }
+        montants = Arrays.copyOf(montants, newCapacity);
+        etudiants = Arrays.copyOf(etudiants, newCapacity);
+        actives = Arrays.copyOf(actives, newCapacity);
+    }
+
+    private void clear() {
+        codes.forEach(Map::clear);
+        valeurs.forEach(List::clear);
+        rowByFact.clear();
+        columns = new int[DIMENSIONS.length][1024];
+        montants = new double[1024];
+        etudiants = new long[1024];
+        actives = new boolean[1024];
+        size = 0;
+    }
+}
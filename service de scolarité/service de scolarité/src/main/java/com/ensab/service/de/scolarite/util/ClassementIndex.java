@@ -0,0 +1,86 @@
+package com.ensab.service.de.scolarite.util;
+
+import java.util.*;
+
+// Order-statistic index over moyennes (0-20, to the hundredth): a Fenwick tree of bucket counts
+// answers "rank of X" in O(log B), and the sorted non-empty buckets give the top N in O(log B + N).
+// Equal moyennes share a rank (1, 2, 2, 4...).
+public class ClassementIndex {
+
+    private static final int SCALE = 100;
+    private static final int BUCKETS = 20 * SCALE + 1;
+
+    private final int[] tree = new int[BUCKETS + 1];
+    private final Map<Long, Integer> bucketByEtudiant = new HashMap<>();
+    private final TreeMap<Integer, Set<Long>> etudiantsByBucket = new TreeMap<>();
+
+    public record Entry(Long etudiantId, double moyenne, int rang) {
+    }
+
+    // A null moyenne removes the etudiant from the ranking
+    public synchronized void update(Long etudiantId, Double moyenne) {
+        Integer previous = bucketByEtudiant.remove(etudiantId);
+        if (previous != null) {
+            add(previous, -1);
+            Set<Long> bucket = etudiantsByBucket.get(previous);
+            bucket.remove(etudiantId);
+            if (bucket.isEmpty()) {
+                etudiantsByBucket.remove(previous);
+            }
+        }
+        if (moyenne != null) {
+            int bucket = toBucket(moyenne);
+            bucketByEtudiant.put(etudiantId, bucket);
+            add(bucket, 1);
+            etudiantsByBucket.computeIfAbsent(bucket, b -> new HashSet<>()).add(etudiantId);
+        }
+    }
+
+    public synchronized Integer rank(Long etudiantId) {
+        Integer bucket = bucketByEtudiant.get(etudiantId);
+        return bucket == null ? null : 1 + bucketByEtudiant.size() - prefix(bucket);
+    }
+
+    public synchronized int size() {
+        return bucketByEtudiant.size();
+    }
+
+    public synchronized List<Entry> top(int n) {
+        List<Entry> result = new ArrayList<>(Math.min(n, bucketByEtudiant.size()));
+        int ahead = 0;
+        for (Map.Entry<Integer, Set<Long>> bucket : etudiantsByBucket.descendingMap().entrySet()) {
+            if (result.size() >= n) {
+                break;
+            }
+            double moyenne = (double) bucket.getKey() / SCALE;
+            for (Long etudiantId : bucket.getValue()) {
+                if (result.size() >= n) {
+                    break;
+                }
+                result.add(new Entry(etudiantId, moyenne, ahead + 1));
+            }
+            ahead += bucket.getValue().size();
+        }
+        return result;
+    }
+
+    private static int toBucket(double moyenne) {
+        long bucket = Math.round(moyenne * SCALE);
+        return (int) Math.max(0, Math.min(BUCKETS - 1, bucket));
+    }
+
+    private void add(int bucket, int delta) {
+        for (int i = bucket + 1; i <= BUCKETS; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    // Number of etudiants whose bucket is <= the given one
+    private int prefix(int bucket) {
+        int count = 0;
+        for (int i = bucket + 1; i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+}
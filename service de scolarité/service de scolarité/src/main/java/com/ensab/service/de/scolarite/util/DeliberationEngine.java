@@ -0,0 +1,122 @@
+package com.ensab.service.de.scolarite.util;
+
+import com.ensab.service.de.scolarite.enums.DecisionJury;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Dense etudiant x module matrix of note sums and counts, laid out row by row in primitive arrays,
+// with the jury rules applied in parallel over etudiant ranges.
+public class DeliberationEngine {
+
+    private static final int SEQUENTIAL_THRESHOLD = 256;
+    private static final DecisionJury[] DECISIONS = DecisionJury.values();
+
+    public record Regles(float seuilValidation, float seuilEliminatoire, float seuilRattrapage) {
+    }
+
+    private final int etudiants;
+    private final int modules;
+    private final float[] sommes;
+    private final short[] nombres;
+
+    private final float[] moyennes;
+    private final short[] modulesValides;
+    private final byte[] decisions;
+
+    public DeliberationEngine(int etudiants, int modules) {
+        this.etudiants = etudiants;
+        this.modules = modules;
+        this.sommes = new float[etudiants * modules];
+        this.nombres = new short[etudiants * modules];
+        this.moyennes = new float[etudiants];
+        this.modulesValides = new short[etudiants];
+        this.decisions = new byte[etudiants];
+    }
+
+    // Several notes for the same module (e.g. controle + examen) are averaged
+    public void addNote(int etudiant, int module, float valeur) {
+        int cell = etudiant * modules + module;
+        sommes[cell] += valeur;
+        nombres[cell]++;
+    }
+
+    public void deliberer(Regles regles, ForkJoinPool pool) {
+        pool.invoke(new DeliberationTask(regles, 0, etudiants));
+    }
+
+    public int getEtudiants() {
+        return etudiants;
+    }
+
+    public float getMoyenne(int etudiant) {
+        return moyennes[etudiant];
+    }
+
+    public int getModulesValides(int etudiant) {
+        return modulesValides[etudiant];
+    }
+
+    public int getModulesNonValides(int etudiant) {
+        return modules - modulesValides[etudiant];
+    }
+
+    public DecisionJury getDecision(int etudiant) {
+        return DECISIONS[decisions[etudiant]];
+    }
+
+    // A module without any note counts as 0: the etudiant was absent
+    private void deliberer(Regles regles, int from, int to) {
+        for (int etudiant = from; etudiant < to; etudiant++) {
+            int row = etudiant * modules;
+            float total = 0;
+            int valides = 0;
+            boolean eliminatoire = false;
+            for (int module = 0; module < modules; module++) {
+                short nombre = nombres[row + module];
+                float note = nombre == 0 ? 0f : sommes[row + module] / nombre;
+                total += note;
+                if (note >= regles.seuilValidation()) {
+                    valides++;
+                }
+                if (note < regles.seuilEliminatoire()) {
+                    eliminatoire = true;
+                }
+            }
+            float moyenne = modules == 0 ? 0f : total / modules;
+            DecisionJury decision;
+            if ((modules > 0 && valides == modules) || (moyenne >= regles.seuilValidation() && !eliminatoire)) {
+                decision = DecisionJury.VALIDE; // directly or by compensation
+            } else if (moyenne >= regles.seuilRattrapage()) {
+                decision = DecisionJury.RATTRAPAGE;
+            } else {
+                decision = DecisionJury.AJOURNE;
+            }
+            moyennes[etudiant] = moyenne;
+            modulesValides[etudiant] = (short) valides;
+            decisions[etudiant] = (byte) decision.ordinal();
+        }
+    }
+
+    private class DeliberationTask extends RecursiveAction {
+        private final Regles regles;
+        private final int from;
+        private final int to;
+
+        private DeliberationTask(Regles regles, int from, int to) {
+            this.regles = regles;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                deliberer(regles, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new DeliberationTask(regles, from, middle), new DeliberationTask(regles, middle, to));
+        }
+    }
+}
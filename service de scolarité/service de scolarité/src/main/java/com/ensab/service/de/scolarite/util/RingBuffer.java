@@ -0,0 +1,78 @@
+package com.ensab.service.de.scolarite.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free ring buffer, many producers and a single consumer. Producers claim a slot with one CAS on the
+ * write sequence; when the buffer is full they park until the consumer has freed slots, so nothing is ever dropped.
+ */
+public class RingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int capacite;
+    private final int mask;
+    // Next slot to claim, shared by the producers
+    private final AtomicLong ecriture = new AtomicLong();
+    // Next slot to read, only written by the consumer
+    private volatile long lecture;
+    private final LongAdder attentes = new LongAdder();
+
+    public RingBuffer(int capacite) {
+        int taille = Integer.highestOneBit(Math.max(2, capacite - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(taille);
+        this.capacite = taille;
+        this.mask = taille - 1;
+    }
+
+    // surPlein is run each time the producer finds the buffer full, typically to wake the consumer up
+    public void publier(T element, Runnable surPlein) {
+        long sequence;
+        while (true) {
+            sequence = ecriture.get();
+            if (sequence - lecture >= capacite) {
+                attentes.increment();
+                surPlein.run();
+                LockSupport.parkNanos(50_000);
+            } else if (ecriture.compareAndSet(sequence, sequence + 1)) {
+                break;
+            }
+        }
+        // A claimed slot is free: the consumer cleared it before moving lecture past it
+        slots.lazySet((int) (sequence & mask), element);
+    }
+
+    // Consumer side: hands over up to max elements in publication order, stops at the first slot not yet written
+    public int drainer(Consumer<T> cible, int max) {
+        long position = lecture;
+        int lus = 0;
+        while (lus < max) {
+            int index = (int) (position & mask);
+            T element = slots.get(index);
+            if (element == null) {
+                break;
+            }
+            slots.lazySet(index, null);
+            cible.accept(element);
+            position++;
+            lus++;
+        }
+        lecture = position;
+        return lus;
+    }
+
+    public int getTaille() {
+        return (int) Math.max(0, ecriture.get() - lecture);
+    }
+
+    public int getCapacite() {
+        return capacite;
+    }
+
+    public long getAttentes() {
+        return attentes.sum();
+    }
+}
@@ -0,0 +1,126 @@
+package com.ensab.service.de.scolarite.config;
+
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test of the request execution modes: a fixed number of clients in flight, each request holding a pooled
+ * connection for a simulated JDBC call and then blocking without one (the CompletableFuture.get of getDemandePdf),
+ * run on a platform pool sized like Tomcat's and on one virtual thread per request. Prints throughput and p50/p99.
+ * The virtual mode needs a Java 21+ runtime; with -Dsynchronise=true the blocking happens inside a synchronized
+ * block, which pins the carrier threads the way a synchronized JDBC driver or renderer would.
+ * Run with:
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *     "-Dexec.args=-cp %classpath com.ensab.service.de.scolarite.config.ExecutionModeLoadHarness"
+ */
+public class ExecutionModeLoadHarness {
+
+    private static final int CLIENTS = Integer.getInteger("clients", 1000);
+    private static final int TOMCAT_THREADS = Integer.getInteger("tomcat-threads", 200);
+    private static final int CONNEXIONS = Integer.getInteger("connexions", 40);
+    private static final long JDBC_MS = Long.getLong("jdbc-ms", 5);
+    private static final long ATTENTE_MS = Long.getLong("attente-ms", 45);
+    private static final long WARMUP_S = Long.getLong("warmup-s", 3);
+    private static final long MESURE_S = Long.getLong("mesure-s", 10);
+    private static final boolean SYNCHRONISE = Boolean.getBoolean("synchronise");
+
+    private final Semaphore connexions = new Semaphore(CONNEXIONS);
+    private final ConcurrentLinkedQueue<Long> latences = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger enVol = new AtomicInteger();
+
+    private volatile long debutMesure;
+    private volatile long finMesure;
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.printf("%d clients, %d Tomcat threads, %d connections, %d ms JDBC + %d ms wait, synchronized: %s%n",
+                CLIENTS, TOMCAT_THREADS, CONNEXIONS, JDBC_MS, ATTENTE_MS, SYNCHRONISE);
+
+        final ExecutorService plateforme = Executors.newFixedThreadPool(TOMCAT_THREADS);
+        new ExecutionModeLoadHarness().executer("platform", plateforme);
+        plateforme.shutdown();
+
+        final Executor virtuel;
+        try {
+            virtuel = new VirtualThreadTaskExecutor("virtuel-");
+        } catch (UnsupportedOperationException e) {
+            System.out.printf("virtual: not available on Java %d%n", Runtime.version().feature());
+            return;
+        }
+        new ExecutionModeLoadHarness().executer("virtual", virtuel);
+    }
+
+    private void executer(final String mode, final Executor executor) throws InterruptedException {
+        debutMesure = System.nanoTime() + TimeUnit.SECONDS.toNanos(WARMUP_S);
+        finMesure = debutMesure + TimeUnit.SECONDS.toNanos(MESURE_S);
+        final CountDownLatch termine = new CountDownLatch(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            soumettre(executor, termine);
+        }
+        termine.await();
+
+        final List<Long> triees = new ArrayList<>(latences);
+        Collections.sort(triees);
+        System.out.printf("%s: %.0f req/s, p50 %.1f ms, p99 %.1f ms%n", mode,
+                triees.size() / (double) MESURE_S, percentile(triees, 0.50), percentile(triees, 0.99));
+    }
+
+    // Closed loop: each client sends its next request as soon as the previous one is answered
+    private void soumettre(final Executor executor, final CountDownLatch termine) {
+        final long debut = System.nanoTime();
+        if (debut >= finMesure) {
+            termine.countDown();
+            return;
+        }
+        executor.execute(() -> {
+            requete();
+            final long fin = System.nanoTime();
+            if (debut >= debutMesure && fin < finMesure) {
+                latences.add(fin - debut);
+            }
+            soumettre(executor, termine);
+        });
+    }
+
+    private void requete() {
+        connexions.acquireUninterruptibly();
+        try {
+            bloquer(JDBC_MS);
+        } finally {
+            connexions.release();
+        }
+        bloquer(ATTENTE_MS);
+    }
+
+    private void bloquer(final long ms) {
+        try {
+            if (SYNCHRONISE) {
+                final Object moniteur = new Object();
+                synchronized (moniteur) {
+                    Thread.sleep(ms);
+                }
+            } else {
+                Thread.sleep(ms);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static double percentile(final List<Long> triees, final double rang) {
+        if (triees.isEmpty()) {
+            return 0;
+        }
+        return triees.get((int) Math.min(triees.size() - 1, Math.ceil(rang * triees.size()) - 1)) / 1_000_000.0;
+    }
+}
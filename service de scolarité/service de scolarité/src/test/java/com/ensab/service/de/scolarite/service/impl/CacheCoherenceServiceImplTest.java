@@ -0,0 +1,133 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.config.Noeud;
+import com.ensab.service.de.scolarite.enums.CacheDistribue;
+import com.ensab.service.de.scolarite.service.CacheCoherenceService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two nodes sharing one database: a change published on one node must be evicted on the other within a poll
+ * interval, and never on the node that made it.
+ */
+class CacheCoherenceServiceImplTest {
+
+    private static final String URL = "jdbc:h2:mem:coherence;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private static final long POLL_MS = 200;
+
+    // A change committed just after a poll started is read by the next one
+    private static final long DELAI_MAX_MS = 2 * POLL_MS;
+
+    // Stands for a null key in the queues, which do not accept nulls
+    private static final Set<String> TOUT = Set.of("*");
+
+    private final ApplicationContextRunner noeudA = noeud("noeud-a");
+
+    private final ApplicationContextRunner noeudB = noeud("noeud-b");
+
+    @BeforeAll
+    static void creerSchema() {
+        new JdbcTemplate(new DriverManagerDataSource(URL)).execute("""
+                CREATE TABLE IF NOT EXISTS invalidation_cache (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    cache VARCHAR(20),
+                    cle VARCHAR(255),
+                    noeud VARCHAR(40),
+                    date_creation TIMESTAMP
+                )
+                """);
+    }
+
+    @BeforeEach
+    void viderJournal() {
+        new JdbcTemplate(new DriverManagerDataSource(URL)).update("DELETE FROM invalidation_cache");
+    }
+
+    @Test
+    void changementEvinceSurLAutreNoeud() {
+        noeudA.run(a -> noeudB.run(b -> {
+            final BlockingQueue<Set<String>> evictionsA = abonner(a.getBean(CacheCoherenceService.class), CacheDistribue.CLASSEMENT);
+            final BlockingQueue<Set<String>> evictionsB = abonner(b.getBean(CacheCoherenceService.class), CacheDistribue.CLASSEMENT);
+
+            a.getBean(CacheCoherenceService.class).invalider(CacheDistribue.CLASSEMENT, "GI:3");
+
+            assertThat(evictionsB.poll(DELAI_MAX_MS, TimeUnit.MILLISECONDS)).containsExactly("GI:3");
+            assertThat(evictionsA.poll(DELAI_MAX_MS, TimeUnit.MILLISECONDS)).isNull();
+        }));
+    }
+
+    @Test
+    void cleNulleEvinceToutLeCache() {
+        noeudA.run(a -> noeudB.run(b -> {
+            final BlockingQueue<Set<String>> evictionsA = abonner(a.getBean(CacheCoherenceService.class), CacheDistribue.ANALYTICS);
+            final BlockingQueue<Set<String>> quotasA = abonner(a.getBean(CacheCoherenceService.class), CacheDistribue.QUOTA);
+
+            b.getBean(CacheCoherenceService.class).invalider(CacheDistribue.ANALYTICS, (String) null);
+
+            assertThat(evictionsA.poll(DELAI_MAX_MS, TimeUnit.MILLISECONDS)).isSameAs(TOUT);
+            assertThat(quotasA.poll(DELAI_MAX_MS, TimeUnit.MILLISECONDS)).isNull();
+        }));
+    }
+
+    private static BlockingQueue<Set<String>> abonner(final CacheCoherenceService service, final CacheDistribue cache) {
+        final BlockingQueue<Set<String>> evictions = new ArrayBlockingQueue<>(16);
+        service.abonner(cache, cles -> evictions.add(cles == null ? TOUT : cles));
+        return evictions;
+    }
+
+    private static ApplicationContextRunner noeud(final String id) {
+        return new ApplicationContextRunner()
+                .withUserConfiguration(Coherence.class)
+                .withPropertyValues("noeud.id=" + id, "cache.poll-ms=" + POLL_MS);
+    }
+
+    // The beans the coherence service needs, each context with its own pool and poller
+    @Configuration
+    @Import({Noeud.class, CacheCoherenceServiceImpl.class})
+    static class Coherence {
+
+        @Bean
+        DataSource dataSource() {
+            return new DriverManagerDataSource(URL);
+        }
+
+        @Bean
+        NamedParameterJdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new NamedParameterJdbcTemplate(dataSource);
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(DataSource dataSource) {
+            return new DataSourceTransactionManager(dataSource);
+        }
+
+        @Bean(name = "cacheScheduler")
+        ThreadPoolTaskScheduler cacheScheduler() {
+            ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+            scheduler.setPoolSize(1);
+            scheduler.setThreadNamePrefix("cache-");
+            scheduler.initialize();
+            return scheduler;
+        }
+    }
+}
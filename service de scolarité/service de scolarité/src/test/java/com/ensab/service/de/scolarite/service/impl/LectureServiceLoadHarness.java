@@ -0,0 +1,183 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.exception.ServiceUnavailableException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test of the student read path: S sessions each send a read, wait for the answer, think, and read again.
+ * A read holds a pooled connection for a simulated JDBC call. It runs on a Tomcat-sized request pool, once read by the
+ * request thread itself (blocking MVC) and once handed to LectureServiceImpl (lecture.readers, lecture.queue-capacity).
+ * A probe of other requests (admin writes) shares the request pool, to show what the student load leaves to them.
+ * Prints, per mode: student reads/s, p50/p99, reads refused with 503, and the probe's p99.
+ * Run with:
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *     "-Dexec.args=-cp %classpath -Dsessions=5000 com.ensab.service.de.scolarite.service.impl.LectureServiceLoadHarness"
+ */
+public class LectureServiceLoadHarness {
+
+    private static final int SESSIONS = Integer.getInteger("sessions", 2000);
+    private static final long REFLEXION_MS = Long.getLong("reflexion-ms", 1000);
+    private static final long JDBC_MS = Long.getLong("jdbc-ms", 5);
+    private static final int TOMCAT_THREADS = Integer.getInteger("tomcat-threads", 200);
+    private static final int CONNEXIONS = Integer.getInteger("connexions", 40);
+    private static final int LECTEURS = Integer.getInteger("lecture.readers", 8);
+    private static final int FILE_LECTURE = Integer.getInteger("lecture.queue-capacity", 2000);
+    private static final long SONDE_MS = Long.getLong("sonde-ms", 20);
+    private static final long WARMUP_S = Long.getLong("warmup-s", 5);
+    private static final long MESURE_S = Long.getLong("mesure-s", 15);
+
+    private final boolean asynchrone;
+    private final ThreadPoolExecutor tomcat = new ThreadPoolExecutor(TOMCAT_THREADS, TOMCAT_THREADS,
+            0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    private final ScheduledExecutorService horloge = Executors.newScheduledThreadPool(2);
+    private final Semaphore connexions = new Semaphore(CONNEXIONS);
+    private final ConcurrentLinkedQueue<Long> latences = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Long> latencesSonde = new ConcurrentLinkedQueue<>();
+    private final AtomicLong refus = new AtomicLong();
+    private final ThreadPoolTaskExecutor lecteurs = new ThreadPoolTaskExecutor();
+    private final LectureServiceImpl lectureService;
+
+    private volatile long debutMesure;
+    private volatile long finMesure;
+
+    private LectureServiceLoadHarness(final boolean asynchrone) {
+        this.asynchrone = asynchrone;
+        // Same shape as ExecutorConfig.studentReadExecutor
+        lecteurs.setCorePoolSize(LECTEURS);
+        lecteurs.setMaxPoolSize(LECTEURS);
+        lecteurs.setQueueCapacity(FILE_LECTURE);
+        lecteurs.setThreadNamePrefix("student-read-");
+        lecteurs.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        lecteurs.initialize();
+        lectureService = new LectureServiceImpl(new SansTransaction());
+        ReflectionTestUtils.setField(lectureService, "studentReadExecutor", lecteurs);
+        ReflectionTestUtils.setField(lectureService, "retryAfterSeconds", 1L);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.printf("%d sessions, %d ms think time, %d ms JDBC, %d Tomcat threads, %d connections, %d readers + %d queued%n",
+                SESSIONS, REFLEXION_MS, JDBC_MS, TOMCAT_THREADS, CONNEXIONS, LECTEURS, FILE_LECTURE);
+        new LectureServiceLoadHarness(false).executer("blocking MVC");
+        new LectureServiceLoadHarness(true).executer("LectureService");
+    }
+
+    private void executer(final String mode) throws InterruptedException {
+        debutMesure = System.nanoTime() + TimeUnit.SECONDS.toNanos(WARMUP_S);
+        finMesure = debutMesure + TimeUnit.SECONDS.toNanos(MESURE_S);
+        final CountDownLatch termine = new CountDownLatch(SESSIONS);
+        // Sessions start spread over one think time, not all at once
+        for (int i = 0; i < SESSIONS; i++) {
+            horloge.schedule(() -> lire(termine), ThreadLocalRandom.current().nextLong(REFLEXION_MS + 1), TimeUnit.MILLISECONDS);
+        }
+        horloge.scheduleAtFixedRate(this::sonder, 0, SONDE_MS, TimeUnit.MILLISECONDS);
+        termine.await();
+        horloge.shutdownNow();
+        tomcat.shutdown();
+        lecteurs.shutdown();
+
+        final List<Long> triees = trier(latences);
+        final List<Long> sonde = trier(latencesSonde);
+        System.out.printf("%s: %.0f reads/s, p50 %.1f ms, p99 %.1f ms, %d refused (503); other requests p99 %.1f ms%n",
+                mode, triees.size() / (double) MESURE_S, percentile(triees, 0.50), percentile(triees, 0.99),
+                refus.get(), percentile(sonde, 0.99));
+    }
+
+    private void lire(final CountDownLatch termine) {
+        final long debut = System.nanoTime();
+        if (debut >= finMesure) {
+            termine.countDown();
+            return;
+        }
+        tomcat.execute(() -> {
+            if (!asynchrone) {
+                requete();
+                repondu(debut, termine);
+                return;
+            }
+            try {
+                // The request thread is released here; the answer is written when the future completes
+                lectureService.lire(() -> {
+                    requete();
+                    return Boolean.TRUE;
+                }).whenComplete((resultat, erreur) -> repondu(debut, termine));
+            } catch (ServiceUnavailableException e) {
+                refus.incrementAndGet();
+                horloge.schedule(() -> lire(termine), REFLEXION_MS, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    private void repondu(final long debut, final CountDownLatch termine) {
+        final long fin = System.nanoTime();
+        if (debut >= debutMesure && fin < finMesure) {
+            latences.add(fin - debut);
+        }
+        horloge.schedule(() -> lire(termine), REFLEXION_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // Another request on the same Tomcat pool: its latency is mostly the wait for a free request thread
+    private void sonder() {
+        final long debut = System.nanoTime();
+        tomcat.execute(() -> {
+            final long fin = System.nanoTime();
+            if (debut >= debutMesure && fin < finMesure) {
+                latencesSonde.add(fin - debut);
+            }
+        });
+    }
+
+    private void requete() {
+        connexions.acquireUninterruptibly();
+        try {
+            Thread.sleep(JDBC_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            connexions.release();
+        }
+    }
+
+    private static List<Long> trier(final ConcurrentLinkedQueue<Long> valeurs) {
+        final List<Long> triees = new ArrayList<>(valeurs);
+        Collections.sort(triees);
+        return triees;
+    }
+
+    private static double percentile(final List<Long> triees, final double rang) {
+        if (triees.isEmpty()) {
+            return 0;
+        }
+        return triees.get((int) Math.min(triees.size() - 1, Math.ceil(rang * triees.size()) - 1)) / 1_000_000.0;
+    }
+
+    // The simulated read has no database: the read-only transaction around it is a no-op
+    private static class SansTransaction extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.ensab.service.de.scolarite.service.impl;
+
+import com.ensab.service.de.scolarite.dto.evenement.EvenementDTO;
+import com.ensab.service.de.scolarite.entity.Demande;
+import com.ensab.service.de.scolarite.entity.Etudiant;
+import com.ensab.service.de.scolarite.entity.Notification;
+import com.ensab.service.de.scolarite.enums.StatusBatch;
+import com.ensab.service.de.scolarite.enums.StatusDemande;
+import com.ensab.service.de.scolarite.enums.TypeDocument;
+import com.ensab.service.de.scolarite.enums.TypeEvenement;
+import com.ensab.service.de.scolarite.repository.DemandeRepository;
+import com.ensab.service.de.scolarite.repository.EtudiantRepository;
+import com.ensab.service.de.scolarite.repository.NotificationRepository;
+import com.ensab.service.de.scolarite.service.EvenementListener;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.mail.MailSenderAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A queued notification goes out through a real SMTP session, against the in-process GreenMail server,
+ * and its row ends TERMINE.
+ */
+class NotificationServiceImplTest {
+
+    private static final long DELAI_MAX_MS = 5000;
+
+    @RegisterExtension
+    static final GreenMailExtension SMTP = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final ApplicationContextRunner contexte = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+                    TransactionAutoConfiguration.class, JdbcTemplateAutoConfiguration.class,
+                    ThymeleafAutoConfiguration.class, MailSenderAutoConfiguration.class))
+            .withUserConfiguration(Notifications.class)
+            .withPropertyValues(
+                    "spring.datasource.url=jdbc:h2:mem:notification;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                    "spring.jpa.hibernate.ddl-auto=create-drop",
+                    "spring.mail.host=localhost",
+                    "spring.mail.port=" + ServerSetupTest.SMTP.getPort(),
+                    "notification.expediteur=scolarite@ensab.ac.ma",
+                    "notification.poll-ms=200");
+
+    @Test
+    void demandeApprouveeEnvoyeeParSmtp() {
+        contexte.run(context -> {
+            final Etudiant etudiant = new Etudiant();
+            etudiant.setNom("Alaoui");
+            etudiant.setPrenom("Salma");
+            etudiant.setEmail("salma.alaoui@ensab.ac.ma");
+            final Demande demande = new Demande();
+            demande.setEtudiant(context.getBean(EtudiantRepository.class).save(etudiant));
+            demande.setTypeDocument(TypeDocument.ATTESTATION_SCOLARITE);
+            demande.setStatus(StatusDemande.APPROVEE);
+            demande.setDateCreation(new Date());
+            final Long demandeId = context.getBean(DemandeRepository.class).save(demande).getId();
+
+            final EvenementDTO evenement = new EvenementDTO();
+            evenement.setId(1L);
+            evenement.setType(TypeEvenement.DEMANDE_APPROUVEE);
+            evenement.setAgregatId(demandeId);
+            evenement.setEtudiantId(etudiant.getId());
+            context.getBean(TransactionTemplate.class).executeWithoutResult(status ->
+                    context.getBean(EvenementListener.class).traiter(List.of(evenement)));
+
+            assertThat(SMTP.waitForIncomingEmail(DELAI_MAX_MS, 1)).isTrue();
+            final MimeMessage recu = SMTP.getReceivedMessages()[0];
+            assertThat(recu.getSubject()).isEqualTo("Demande approuvée : ATTESTATION_SCOLARITE");
+            assertThat(recu.getAllRecipients()[0].toString()).isEqualTo("salma.alaoui@ensab.ac.ma");
+            assertThat((String) recu.getContent()).contains("Salma Alaoui");
+
+            // The row is marked after the SMTP session closes
+            final NotificationRepository notifications = context.getBean(NotificationRepository.class);
+            final long limite = System.currentTimeMillis() + DELAI_MAX_MS;
+            StatusBatch status;
+            do {
+                Thread.sleep(50);
+                status = notifications.findAll().stream().map(Notification::getStatus).findFirst().orElse(null);
+            } while (status != StatusBatch.TERMINE && System.currentTimeMillis() < limite);
+            assertThat(status).isEqualTo(StatusBatch.TERMINE);
+        });
+    }
+
+    // The JPA slice the sender reads from, and its own scheduler
+    @Configuration
+    @EntityScan(basePackageClasses = Notification.class)
+    @EnableJpaRepositories(basePackageClasses = NotificationRepository.class)
+    @Import(NotificationServiceImpl.class)
+    static class Notifications {
+
+        @Bean(name = "notificationScheduler")
+        ThreadPoolTaskScheduler notificationScheduler() {
+            ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+            scheduler.setPoolSize(1);
+            scheduler.setThreadNamePrefix("notification-");
+            scheduler.initialize();
+            return scheduler;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.ensab.service.de.scolarite.util;
+
+import com.ensab.service.de.scolarite.entity.Etudiant;
+import com.ensab.service.de.scolarite.entity.Note;
+import com.ensab.service.de.scolarite.enums.DecisionJury;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deliberation of a synthetic cohort: the engine (matrix already filled, and filled from the projection rows)
+ * against the per-etudiant path over Note entities grouped by etudiant and module.
+ * Run with (exec:exec, not exec:java, so that the forked JVM gets the test classpath):
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *     "-Dexec.args=-cp %classpath com.ensab.service.de.scolarite.util.DeliberationEngineBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeliberationEngineBenchmark {
+
+    private static final DeliberationEngine.Regles REGLES = new DeliberationEngine.Regles(12, 7, 8);
+
+    @Param({"5000"})
+    private int etudiants;
+
+    @Param({"12"})
+    private int modules;
+
+    // Controle + examen
+    @Param({"2"})
+    private int notesParModule;
+
+    // Same shape as NoteRepository.findValeursByCohort: etudiant id, module, valeur
+    private List<Object[]> valeurs;
+    private List<Note> notes;
+    private DeliberationEngine rempli;
+
+    @Setup
+    public void preparer() {
+        final Random random = new Random(42);
+        valeurs = new ArrayList<>();
+        notes = new ArrayList<>();
+        for (long id = 1; id <= etudiants; id++) {
+            final Etudiant etudiant = new Etudiant();
+            etudiant.setId(id);
+            for (int module = 0; module < modules; module++) {
+                for (int i = 0; i < notesParModule; i++) {
+                    final double valeur = Math.round(random.nextGaussian() * 3.5 + 11.5) % 21;
+                    final Note note = new Note();
+                    note.setEtudiant(etudiant);
+                    note.setModule("M" + module);
+                    note.setValeur(Math.max(0, valeur));
+                    notes.add(note);
+                    valeurs.add(new Object[]{id, note.getModule(), note.getValeur()});
+                }
+            }
+        }
+        rempli = remplir();
+
+        // Both paths must reach the same decisions, otherwise the comparison is meaningless
+        rempli.deliberer(REGLES, ForkJoinPool.commonPool());
+        final Map<Long, DecisionJury> parEtudiant = parEtudiant();
+        for (int etudiant = 0; etudiant < etudiants; etudiant++) {
+            if (rempli.getDecision(etudiant) != parEtudiant.get(etudiant + 1L)) {
+                throw new IllegalStateException("Decisions differ for etudiant " + (etudiant + 1));
+            }
+        }
+    }
+
+    @Benchmark
+    public DeliberationEngine moteur() {
+        rempli.deliberer(REGLES, ForkJoinPool.commonPool());
+        return rempli;
+    }
+
+    @Benchmark
+    public DeliberationEngine moteurAvecChargement() {
+        final DeliberationEngine engine = remplir();
+        engine.deliberer(REGLES, ForkJoinPool.commonPool());
+        return engine;
+    }
+
+    @Benchmark
+    public void parEtudiant(final Blackhole blackhole) {
+        blackhole.consume(parEtudiant());
+    }
+
+    // The indexing done by DeliberationServiceImpl before the compute
+    private DeliberationEngine remplir() {
+        final Map<Long, Integer> etudiantIndex = new HashMap<>(etudiants * 2);
+        for (int i = 0; i < etudiants; i++) {
+            etudiantIndex.put(i + 1L, i);
+        }
+        final Map<String, Integer> moduleIndex = new LinkedHashMap<>();
+        for (Object[] row : valeurs) {
+            moduleIndex.putIfAbsent((String) row[1], moduleIndex.size());
+        }
+        final DeliberationEngine engine = new DeliberationEngine(etudiants, moduleIndex.size());
+        for (Object[] row : valeurs) {
+            engine.addNote(etudiantIndex.get((Long) row[0]), moduleIndex.get((String) row[1]), ((Number) row[2]).floatValue());
+        }
+        return engine;
+    }
+
+    // One etudiant at a time: its notes grouped by module, averaged, then the jury rules
+    private Map<Long, DecisionJury> parEtudiant() {
+        final Map<Long, List<Note>> notesParEtudiant = new HashMap<>();
+        final Set<String> tousModules = new HashSet<>();
+        for (Note note : notes) {
+            notesParEtudiant.computeIfAbsent(note.getEtudiant().getId(), id -> new ArrayList<>()).add(note);
+            tousModules.add(note.getModule());
+        }
+        final Map<Long, DecisionJury> decisions = new HashMap<>();
+        notesParEtudiant.forEach((etudiantId, notesEtudiant) -> {
+            final Map<String, List<Double>> parModule = new HashMap<>();
+            for (Note note : notesEtudiant) {
+                parModule.computeIfAbsent(note.getModule(), m -> new ArrayList<>()).add(note.getValeur());
+            }
+            float total = 0;
+            int valides = 0;
+            boolean eliminatoire = false;
+            for (String module : tousModules) {
+                final List<Double> valeursModule = parModule.getOrDefault(module, List.of());
+                float somme = 0;
+                for (Double valeur : valeursModule) {
+                    somme += valeur.floatValue();
+                }
+                final float note = valeursModule.isEmpty() ? 0f : somme / valeursModule.size();
+                total += note;
+                if (note >= REGLES.seuilValidation()) {
+                    valides++;
+                }
+                if (note < REGLES.seuilEliminatoire()) {
+                    eliminatoire = true;
+                }
+            }
+            final float moyenne = tousModules.isEmpty() ? 0f : total / tousModules.size();
+            if (valides == tousModules.size() || (moyenne >= REGLES.seuilValidation() && !eliminatoire)) {
+                decisions.put(etudiantId, DecisionJury.VALIDE);
+            } else if (moyenne >= REGLES.seuilRattrapage()) {
+                decisions.put(etudiantId, DecisionJury.RATTRAPAGE);
+            } else {
+                decisions.put(etudiantId, DecisionJury.AJOURNE);
+            }
+        });
+        return decisions;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DeliberationEngineBenchmark.class.getSimpleName()).build()).run();
+    }
+}